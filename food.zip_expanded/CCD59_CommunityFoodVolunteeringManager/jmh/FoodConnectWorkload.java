@@ -0,0 +1,186 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Class FoodConnectWorkload
+ *
+ * The default-package side of the JMH benchmarks (see foodconnect.jmh.Workload): loads files
+ * SyntheticDataGenerator wrote with its default seed, draws a fixed set of volunteer and
+ * organization pairs from them, and runs each measured operation on one pair or on the files.
+ * System.out is silenced for the whole trial, since DataManager and the organizations print
+ * on every line and every signup.
+ */
+public class FoodConnectWorkload implements foodconnect.jmh.Workload {
+
+    private static final int PAIRS = 1 << 12; // small enough to stay in cache, large enough to defeat branch prediction
+
+    private final PrintStream console = System.out;
+    private File dir, orgsFile, volunteersFile;
+    private boolean generated;
+    private ArrayList<CommunityFoodOrg> orgs;
+    private MatchKernel kernel;
+    private int[] matched, masks;
+    private final MatchKernel.Query scanQuery = new MatchKernel.Query();
+
+    private final Location[] from = new Location[PAIRS], to = new Location[PAIRS];
+    private final double[] reach = new double[PAIRS];
+    private final TimeFrame[] volunteerTimes = new TimeFrame[PAIRS], orgTimes = new TimeFrame[PAIRS];
+    private final Volunteer[] pairVolunteers = new Volunteer[PAIRS];
+    private final CommunityFoodOrg[] pairOrgs = new CommunityFoodOrg[PAIRS];
+    private final int[] pairOrgIndices = new int[PAIRS];
+    private final MatchKernel.Query[] pairQueries = new MatchKernel.Query[PAIRS];
+
+    private ArrayList<Volunteer> signupVolunteers;
+    private VolunteeringManager manager;
+
+    @Override
+    public void setUp(int rows, int signups) throws IOException {
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) { }
+        }));
+        String reuse = System.getProperty("foodconnect.bench.dir");
+        if (reuse != null) {
+            dir = new File(reuse);
+        } else {
+            dir = File.createTempFile("foodconnect-jmh", "");
+            if (!dir.delete() || !dir.mkdir()) throw new IOException("Cannot create " + dir);
+        }
+        orgsFile = new File(dir, "community_food_organizations_" + rows + ".txt");
+        volunteersFile = new File(dir, "volunteers_" + rows + ".txt");
+        if (!orgsFile.isFile() || !volunteersFile.isFile()) {
+            if (reuse != null) throw new IOException("No files for " + rows + " rows in " + dir);
+            SyntheticDataGenerator.writeOrgs(orgsFile, rows, SyntheticDataGenerator.DEFAULT_SEED);
+            SyntheticDataGenerator.writeVolunteers(volunteersFile, rows, SyntheticDataGenerator.DEFAULT_SEED);
+            generated = true;
+        }
+
+        orgs = DataManager.readCommunityFoodOrgs(orgsFile.getPath());
+        ArrayList<Volunteer> volunteers = DataManager.readVolunteers(volunteersFile.getPath());
+        kernel = new MatchKernel(orgs);
+        matched = new int[orgs.size()];
+        masks = new int[orgs.size()];
+        Random random = new Random(SyntheticDataGenerator.DEFAULT_SEED);
+        for (int i = 0; i < PAIRS; i++) {
+            Volunteer volunteer = volunteers.get(random.nextInt(volunteers.size()));
+            pairOrgIndices[i] = random.nextInt(orgs.size());
+            CommunityFoodOrg org = orgs.get(pairOrgIndices[i]);
+            pairQueries[i] = new MatchKernel.Query(volunteer);
+            from[i] = volunteer.getLocation();
+            reach[i] = volunteer.getDistanceAvailable();
+            to[i] = org.getLocation();
+            volunteerTimes[i] = volunteer.getTimeAvailable();
+            TimeFrame open = org.getOpenHoursForDay(volunteer.getDayAvailable());
+            orgTimes[i] = open != null ? open : new TimeFrame(9, 17);
+            pairVolunteers[i] = volunteer;
+            pairOrgs[i] = org;
+        }
+        // exactly signups volunteers, so the per-signup score holds for small files too
+        signupVolunteers = new ArrayList<>(signups);
+        for (int i = 0; i < signups; i++) {
+            Volunteer volunteer = volunteers.get(i % volunteers.size());
+            if (i >= volunteers.size()) {
+                volunteer = new Volunteer(volunteer.getId() + "-" + i / volunteers.size(), volunteer.getFullName(),
+                        volunteer.getAge(), volunteer.getLocation(), volunteer.getDayAvailable(),
+                        volunteer.getTimeAvailable(), volunteer.getDistanceAvailable(), volunteer.needsTransportation(),
+                        volunteer.getDonation());
+            }
+            signupVolunteers.add(volunteer);
+        }
+    }
+
+    @Override
+    public void tearDown() {
+        EventLog.flush();
+        System.setOut(console);
+        if (generated) {
+            orgsFile.delete();
+            volunteersFile.delete();
+            dir.delete();
+        }
+    }
+
+    @Override
+    public int pairs() {
+        return PAIRS;
+    }
+
+    @Override
+    public double distance(int pair) {
+        return from[pair].distance(to[pair]);
+    }
+
+    @Override
+    public boolean withinMiles(int pair) {
+        return from[pair].withinMiles(to[pair], reach[pair]);
+    }
+
+    @Override
+    public boolean timeFrameMatch(int pair) {
+        return volunteerTimes[pair].timeFrameMatch(orgTimes[pair]);
+    }
+
+    @Override
+    public boolean orgMatch(int pair) {
+        return pairVolunteers[pair].orgMatch(pairOrgs[pair]);
+    }
+
+    @Override
+    public boolean matchKernelMatches(int pair) {
+        return kernel.matches(pairQueries[pair], pairOrgIndices[pair]);
+    }
+
+    @Override
+    public int orgMatchScan(int pair) {
+        Volunteer volunteer = pairVolunteers[pair];
+        int matches = 0;
+        for (CommunityFoodOrg org : orgs) {
+            if (volunteer.orgMatch(org)) matches++;
+        }
+        return matches;
+    }
+
+    @Override
+    public int matchKernelScan(int pair) {
+        return kernel.matchAll(scanQuery.set(pairVolunteers[pair]), matched);
+    }
+
+    @Override
+    public int mismatchMaskScan(int pair) {
+        return pairVolunteers[pair].mismatchMasks(orgs, masks);
+    }
+
+    @Override
+    public int matchKernelMismatchMaskScan(int pair) {
+        return kernel.mismatchMasks(scanQuery.set(pairVolunteers[pair]), masks);
+    }
+
+    @Override
+    public int readCommunityFoodOrgs() throws IOException {
+        return DataManager.readCommunityFoodOrgs(orgsFile.getPath()).size();
+    }
+
+    @Override
+    public int readVolunteers() throws IOException {
+        return DataManager.readVolunteers(volunteersFile.getPath()).size();
+    }
+
+    @Override
+    public void resetSignups() throws IOException {
+        for (Volunteer volunteer : signupVolunteers) volunteer.cancelSignup();
+        manager = new VolunteeringManager(DataManager.readCommunityFoodOrgs(orgsFile.getPath()), signupVolunteers);
+    }
+
+    @Override
+    public int signUpAll() {
+        int placed = 0;
+        for (Volunteer volunteer : signupVolunteers) {
+            if (manager.signUpVolunteerToPriorityOrg(volunteer)) placed++;
+        }
+        return placed;
+    }
+}
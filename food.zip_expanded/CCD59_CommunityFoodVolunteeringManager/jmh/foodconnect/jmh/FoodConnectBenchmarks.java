@@ -0,0 +1,168 @@
+package foodconnect.jmh;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Class FoodConnectBenchmarks
+ *
+ * JMH benchmarks of the matching and loading paths:
+ * - Location.distance and Location.withinMiles
+ * - TimeFrame.timeFrameMatch
+ * - Volunteer.orgMatch, and MatchKernel on the same pairs and on whole-list scans
+ * - Volunteer.mismatchMasks and MatchKernel.mismatchMasks over the whole list
+ * - DataManager.readCommunityFoodOrgs and DataManager.readVolunteers
+ * - VolunteeringManager.signUpVolunteerToPriorityOrg
+ *
+ * Input files come from SyntheticDataGenerator with its default seed, so runs on different
+ * machines or commits measure the same work; rows picks the file size (1k, 100k or 10M rows,
+ * as SyntheticDataGenerator writes by default). Set foodconnect.bench.dir to a directory of
+ * files SyntheticDataGenerator wrote to reuse them instead of generating them in every fork.
+ * Every benchmark returns its result, so JMH consumes it and the JIT cannot drop the work.
+ *
+ * Build and run: mvn -B -Pjmh package, then java -jar target/benchmarks.jar [-p rows=1000,100000]
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FoodConnectBenchmarks {
+
+    static final int SIGNUPS = 10_000; // volunteers signed up per signUpToPriorityOrg invocation
+
+    /**
+     * Class Data
+     * The loaded files and pairs, shared by every thread of a trial.
+     */
+    @State(Scope.Benchmark)
+    public static class Data {
+        @Param({"100000"})
+        public int rows;
+
+        Workload workload;
+        int mask;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            workload = (Workload) Class.forName("FoodConnectWorkload").getDeclaredConstructor().newInstance();
+            workload.setUp(rows, SIGNUPS);
+            mask = workload.pairs() - 1;
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            workload.tearDown();
+        }
+    }
+
+    /**
+     * Class Cursor
+     * The next pair, per thread: consecutive calls walk the pairs, so branches cannot be learned.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int pair;
+
+        int next(Data data) {
+            return pair++ & data.mask;
+        }
+    }
+
+    /**
+     * Class Signups
+     * A fresh manager before every signUpToPriorityOrg invocation (each one takes milliseconds,
+     * so per-invocation setup does not distort the timing).
+     */
+    @State(Scope.Benchmark)
+    public static class Signups {
+        @Setup(Level.Invocation)
+        public void reset(Data data) throws IOException {
+            data.workload.resetSignups();
+        }
+    }
+
+    @Benchmark
+    public double locationDistance(Data data, Cursor cursor) {
+        return data.workload.distance(cursor.next(data));
+    }
+
+    @Benchmark
+    public boolean locationWithinMiles(Data data, Cursor cursor) {
+        return data.workload.withinMiles(cursor.next(data));
+    }
+
+    @Benchmark
+    public boolean timeFrameMatch(Data data, Cursor cursor) {
+        return data.workload.timeFrameMatch(cursor.next(data));
+    }
+
+    @Benchmark
+    public boolean volunteerOrgMatch(Data data, Cursor cursor) {
+        return data.workload.orgMatch(cursor.next(data));
+    }
+
+    @Benchmark
+    public boolean matchKernelMatches(Data data, Cursor cursor) {
+        return data.workload.matchKernelMatches(cursor.next(data));
+    }
+
+    // One volunteer against every organization, as a scan without an index would do
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int volunteerOrgMatchScan(Data data, Cursor cursor) {
+        return data.workload.orgMatchScan(cursor.next(data));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int matchKernelScan(Data data, Cursor cursor) {
+        return data.workload.matchKernelScan(cursor.next(data));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int volunteerMismatchMasks(Data data, Cursor cursor) {
+        return data.workload.mismatchMaskScan(cursor.next(data));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int matchKernelMismatchMasks(Data data, Cursor cursor) {
+        return data.workload.matchKernelMismatchMaskScan(cursor.next(data));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int readCommunityFoodOrgs(Data data) throws IOException {
+        return data.workload.readCommunityFoodOrgs();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int readVolunteers(Data data) throws IOException {
+        return data.workload.readVolunteers();
+    }
+
+    // Reported per signup
+    @Benchmark
+    @OperationsPerInvocation(SIGNUPS)
+    public int signUpToPriorityOrg(Data data, Signups signups) {
+        return data.workload.signUpAll();
+    }
+}
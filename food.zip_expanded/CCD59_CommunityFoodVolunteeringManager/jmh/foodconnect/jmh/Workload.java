@@ -0,0 +1,61 @@
+package foodconnect.jmh;
+
+import java.io.IOException;
+
+/**
+ * Interface Workload
+ *
+ * The operations FoodConnectBenchmarks measures. JMH only accepts benchmarks in a named package
+ * and the application classes live in the default package, which a named package cannot refer
+ * to, so the default-package FoodConnectWorkload implements this interface and the benchmarks
+ * load it by name. Each benchmark sees a single implementation, so the JIT inlines the call.
+ *
+ * Pair operations take an index below pairs(): a fixed, seeded set of volunteer and
+ * organization pairs drawn from the loaded files.
+ */
+public interface Workload {
+
+    /**
+     * Method setUp
+     * @param rows the number of organization and volunteer rows to generate (or reuse) and load
+     * @param signups the number of volunteers signUpAll places per call
+     */
+    void setUp(int rows, int signups) throws IOException;
+
+    void tearDown();
+
+    // Number of pairs, a power of two
+    int pairs();
+
+    double distance(int pair);
+
+    boolean withinMiles(int pair);
+
+    boolean timeFrameMatch(int pair);
+
+    boolean orgMatch(int pair);
+
+    boolean matchKernelMatches(int pair);
+
+    // Matches of the pair's volunteer against every organization, by Volunteer.orgMatch
+    int orgMatchScan(int pair);
+
+    // The same scan with MatchKernel.matchAll
+    int matchKernelScan(int pair);
+
+    // Mismatch masks of the pair's volunteer against every organization, by Volunteer.mismatchMasks
+    int mismatchMaskScan(int pair);
+
+    // The same masks with MatchKernel.mismatchMasks
+    int matchKernelMismatchMaskScan(int pair);
+
+    int readCommunityFoodOrgs() throws IOException;
+
+    int readVolunteers() throws IOException;
+
+    // Freshly loaded organizations and no signups, so every signUpAll does the same work
+    void resetSignups() throws IOException;
+
+    // Signs the first signups volunteers up by VolunteeringManager.signUpVolunteerToPriorityOrg
+    int signUpAll();
+}
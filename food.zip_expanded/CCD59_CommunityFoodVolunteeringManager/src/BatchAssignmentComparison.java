@@ -0,0 +1,109 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Class BatchAssignmentComparison
+ *
+ * Runs the greedy one-at-a-time signup loop and the batch assignment on identical generated
+ * data and reports the time taken and how much of the available capacity each one filled.
+ *
+ * Usage: java BatchAssignmentComparison [volunteers] [orgs] [seed]
+ */
+public class BatchAssignmentComparison {
+
+    public static void main(String[] args) {
+        int volunteerCount = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int orgCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_500;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 2024;
+
+        VolunteeringManager greedy = generate(volunteerCount, orgCount, seed);
+        VolunteeringManager batch = generate(volunteerCount, orgCount, seed);
+        double spotsAvailable = totalSpots(greedy), poundsAvailable = totalPounds(greedy);
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) { }
+        }));
+        long start = System.nanoTime();
+        int greedyPlaced = 0;
+        for (Volunteer volunteer : greedy.getVolunteers()) {
+            if (greedy.signUpVolunteerToPriorityOrg(volunteer) && volunteer.getOrgVolunteering() != null) greedyPlaced++;
+        }
+        long greedyNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int batchPlaced = batch.assignVolunteersInBatch();
+        long batchNanos = System.nanoTime() - start;
+        EventLog.flush();
+        System.setOut(console);
+
+        System.out.printf("%,d volunteers, %,d organizations, %.0f pantry spots, %.0f lbs needed%n",
+                volunteerCount, orgCount, spotsAvailable, poundsAvailable);
+        System.out.printf("Greedy: placed %,d in %d ms, pantry fill %.1f%%, food bank fill %.1f%%%n",
+                greedyPlaced, greedyNanos / 1_000_000,
+                100 * (1 - totalSpots(greedy) / spotsAvailable), 100 * (1 - totalPounds(greedy) / poundsAvailable));
+        System.out.printf("Batch:  placed %,d in %d ms, pantry fill %.1f%%, food bank fill %.1f%%%n",
+                batchPlaced, batchNanos / 1_000_000,
+                100 * (1 - totalSpots(batch) / spotsAvailable), 100 * (1 - totalPounds(batch) / poundsAvailable));
+    }
+
+    // Pantry spots still open across every pantry and day
+    private static double totalSpots(VolunteeringManager manager) {
+        double total = 0;
+        for (CommunityFoodOrg org : manager.getOrgs()) {
+            if (!(org instanceof FoodPantry)) continue;
+            for (int day = 0; day < 7; day++) {
+                if (org.getDailyOpenHours()[day] != null) total += org.dailyVolunteerSpotsLeft(day);
+            }
+        }
+        return total;
+    }
+
+    // Pounds still needed across every food bank and open day
+    private static double totalPounds(VolunteeringManager manager) {
+        double total = 0;
+        for (CommunityFoodOrg org : manager.getOrgs()) {
+            if (!(org instanceof FoodBank)) continue;
+            for (int day = 0; day < 7; day++) {
+                if (org.getDailyOpenHours()[day] != null) total += ((FoodBank) org).getDailyDonationsNeeded(day);
+            }
+        }
+        return total;
+    }
+
+    // Organizations and volunteers scattered over western Pennsylvania
+    private static VolunteeringManager generate(int volunteerCount, int orgCount, long seed) {
+        Random random = new Random(seed);
+        ArrayList<CommunityFoodOrg> orgs = new ArrayList<>();
+        for (int i = 0; i < orgCount; i++) {
+            Location loc = new Location(39.8 + random.nextDouble() * 1.2, -80.6 + random.nextDouble() * 1.6, "", "Pittsburgh", "PA", "");
+            TimeFrame[] hours = new TimeFrame[7];
+            for (int day = 0; day < 7; day++) {
+                if (random.nextInt(3) != 0) hours[day] = new TimeFrame(8 + random.nextInt(3), 16 + random.nextInt(4));
+            }
+            if (random.nextInt(4) == 0) {
+                orgs.add(new FoodBank(String.valueOf(i), "Bank " + i, loc, hours, 100 + random.nextInt(400), new double[7]));
+            } else {
+                int[] needed = new int[7];
+                for (int day = 0; day < 7; day++) {
+                    if (hours[day] != null) needed[day] = 1 + random.nextInt(6);
+                }
+                orgs.add(new FoodPantry(String.valueOf(i), "Pantry " + i, loc, hours, needed, new int[7], random.nextBoolean()));
+            }
+        }
+
+        ArrayList<Volunteer> volunteers = new ArrayList<>();
+        for (int i = 0; i < volunteerCount; i++) {
+            Location loc = new Location(39.8 + random.nextDouble() * 1.2, -80.6 + random.nextDouble() * 1.6, "", "Pittsburgh", "PA", "");
+            int startHour = 9 + random.nextInt(5);
+            double donation = random.nextInt(5) == 0 ? 5 + random.nextInt(60) : 0;
+            volunteers.add(new Volunteer(String.valueOf(i), "Volunteer " + i, 30, loc, WeeklySchedule.dayName(random.nextInt(7)),
+                    new TimeFrame(startHour, startHour + 1 + random.nextInt(3)), 2 + random.nextInt(7),
+                    random.nextInt(5) == 0, donation));
+        }
+        return new VolunteeringManager(orgs, volunteers);
+    }
+}
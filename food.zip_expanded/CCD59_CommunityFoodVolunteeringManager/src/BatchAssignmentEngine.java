@@ -0,0 +1,312 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Class BatchAssignmentEngine
+ *
+ * Places a whole batch of volunteers at once instead of one by one, so the outcome no longer
+ * depends on the order of the input list.
+ *
+ * - Edge scoring: for every pending volunteer the organizations within reach are fetched from
+ *   the spatial index and checked with the MatchKernel (same result as orgMatch). Volunteers are scored in parallel across cores;
+ *   each volunteer is only ever touched by one thread.
+ * - Food pantries: volunteers and (pantry, day) slots form a bipartite graph whose slot
+ *   capacities are the spots left that day. A maximum flow (Dinic) places as many volunteers as
+ *   the capacities allow. Candidate edges are ordered by remaining need so that, among maximum
+ *   placements, augmenting paths favour the pantries that need help most.
+ * - Food banks: every donor needs room for the whole donation, which makes the pounds side a
+ *   bin-packing problem rather than a flow. Donors with the fewest feasible banks are placed
+ *   first (largest donation first among equals), each into the feasible bank with the most
+ *   pounds still needed.
+ *
+ * The computed placements are then applied through Volunteer.signUp. Placements are planned on
+ * each volunteer's dayAvailable; additional availability windows are not considered here.
+ */
+public class BatchAssignmentEngine {
+    private final List<CommunityFoodOrg> orgs;
+    private final OrgSpatialIndex orgIndex;
+    private final MatchKernel matchKernel;
+
+    /**
+     * Constructor BatchAssignmentEngine
+     * @param orgs the organizations volunteers can be placed at
+     * @param orgIndex a spatial index built over the same list of organizations
+     * @param matchKernel a match kernel built over the same list of organizations
+     */
+    public BatchAssignmentEngine(List<CommunityFoodOrg> orgs, OrgSpatialIndex orgIndex, MatchKernel matchKernel) {
+        this.orgs = orgs;
+        this.orgIndex = orgIndex;
+        this.matchKernel = matchKernel;
+    }
+
+    /**
+     * Method assign
+     * @param volunteers the volunteers to place; volunteers already signed up somewhere are left alone
+     * @return the number of volunteers that were signed up by this call
+     */
+    public int assign(List<Volunteer> volunteers) {
+        ArrayList<Volunteer> pending = new ArrayList<>();
+        for (Volunteer volunteer : volunteers) {
+            if (volunteer.getOrgVolunteering() == null && volunteer.getLocation() != null
+                    && WeeklySchedule.dayIndex(volunteer.getDayAvailable()) != -1) {
+                pending.add(volunteer);
+            }
+        }
+
+        int[][] candidates = scoreCandidates(pending);
+        CommunityFoodOrg[] chosen = new CommunityFoodOrg[pending.size()];
+        assignPantryVolunteers(pending, candidates, chosen);
+        assignFoodBankDonors(pending, candidates, chosen);
+
+        int placed = 0;
+        for (int i = 0; i < chosen.length; i++) {
+            if (chosen[i] != null) {
+                Volunteer volunteer = pending.get(i);
+                volunteer.signUp(chosen[i], volunteer.getDayAvailable()); // the day the placement was planned for
+                if (volunteer.getOrgVolunteering() == chosen[i]) placed++;
+            }
+        }
+        return placed;
+    }
+
+    // For each volunteer, the indices of matching organizations with remaining need, highest need first
+    private int[][] scoreCandidates(List<Volunteer> pending) {
+        int[][] candidates = new int[pending.size()][];
+        IntStream.range(0, pending.size()).parallel().forEach(i -> {
+            Volunteer volunteer = pending.get(i);
+            int[] nearby = orgIndex.queryIndices(volunteer.getLocation(), volunteer.getDistanceAvailable());
+            // capacity is planned on dayAvailable, so additional windows are left to one-by-one signup
+            MatchKernel.Query query = new MatchKernel.Query(volunteer).primaryWindowOnly();
+            int[] matches = new int[nearby.length];
+            double[] need = new double[nearby.length];
+            int count = 0;
+            for (int orgIdx : nearby) {
+                CommunityFoodOrg org = orgs.get(orgIdx);
+                if (!matchKernel.matches(query, orgIdx)) continue;
+                double priority = remainingNeed(org, volunteer.getDayAvailable());
+                if (priority <= 0) continue;
+                // insertion keeps higher need first and list order among equal need
+                int pos = count++;
+                while (pos > 0 && need[pos - 1] < priority) {
+                    matches[pos] = matches[pos - 1];
+                    need[pos] = need[pos - 1];
+                    pos--;
+                }
+                matches[pos] = orgIdx;
+                need[pos] = priority;
+            }
+            FoodConnectMetrics.recordMatches(query);
+            candidates[i] = Arrays.copyOf(matches, count);
+        });
+        return candidates;
+    }
+
+    // Maximum flow from volunteers to (pantry, day) slots
+    private void assignPantryVolunteers(List<Volunteer> pending, int[][] candidates, CommunityFoodOrg[] chosen) {
+        HashMap<Integer, Integer> slotNodes = new HashMap<>();
+        ArrayList<Integer> slotKeys = new ArrayList<>();
+        ArrayList<Integer> volunteerIndices = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            if (pending.get(i).getDonation() != 0 || candidates[i].length == 0) continue;
+            volunteerIndices.add(i);
+            int day = WeeklySchedule.dayIndex(pending.get(i).getDayAvailable());
+            for (int orgIdx : candidates[i]) {
+                int key = orgIdx * 7 + day;
+                if (!slotNodes.containsKey(key)) {
+                    slotNodes.put(key, slotKeys.size());
+                    slotKeys.add(key);
+                }
+            }
+        }
+        if (volunteerIndices.isEmpty()) return;
+
+        int volunteerCount = volunteerIndices.size();
+        int source = 0, sink = 1, firstVolunteer = 2, firstSlot = 2 + volunteerCount;
+        FlowNetwork network = new FlowNetwork(firstSlot + slotKeys.size());
+        int[] assignmentEdge = new int[volunteerCount];
+        for (int v = 0; v < volunteerCount; v++) {
+            int i = volunteerIndices.get(v);
+            network.addEdge(source, firstVolunteer + v, 1);
+            int day = WeeklySchedule.dayIndex(pending.get(i).getDayAvailable());
+            // edges are tried most recent first, so add them lowest need first
+            assignmentEdge[v] = network.edgeCount();
+            for (int c = candidates[i].length - 1; c >= 0; c--) {
+                network.addEdge(firstVolunteer + v, firstSlot + slotNodes.get(candidates[i][c] * 7 + day), 1);
+            }
+        }
+        for (int s = 0; s < slotKeys.size(); s++) {
+            int key = slotKeys.get(s);
+            int spotsLeft = orgs.get(key / 7).dailyVolunteerSpotsLeft(key % 7);
+            network.addEdge(firstSlot + s, sink, Math.max(0, spotsLeft));
+        }
+
+        network.maxFlow(source, sink);
+
+        for (int v = 0; v < volunteerCount; v++) {
+            int i = volunteerIndices.get(v);
+            int last = candidates[i].length - 1;
+            for (int c = 0; c <= last; c++) {
+                if (network.flow(assignmentEdge[v] + 2 * (last - c)) > 0) {
+                    chosen[i] = orgs.get(candidates[i][c]);
+                    break;
+                }
+            }
+        }
+    }
+
+    // Most-constrained-first placement of donations into (bank, day) pound capacities
+    private void assignFoodBankDonors(List<Volunteer> pending, int[][] candidates, CommunityFoodOrg[] chosen) {
+        ArrayList<Integer> donors = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            if (pending.get(i).getDonation() > 0 && candidates[i].length > 0) donors.add(i);
+        }
+        donors.sort((a, b) -> {
+            int byChoices = Integer.compare(candidates[a].length, candidates[b].length);
+            if (byChoices != 0) return byChoices;
+            return Double.compare(pending.get(b).getDonation(), pending.get(a).getDonation());
+        });
+
+        HashMap<Integer, Double> poundsLeft = new HashMap<>();
+        for (int i : donors) {
+            Volunteer donor = pending.get(i);
+            int day = WeeklySchedule.dayIndex(donor.getDayAvailable());
+            int bestKey = -1;
+            double bestRoom = -1;
+            for (int orgIdx : candidates[i]) {
+                int key = orgIdx * 7 + day;
+                Double room = poundsLeft.get(key);
+                if (room == null) {
+                    room = remainingNeed(orgs.get(orgIdx), donor.getDayAvailable());
+                    poundsLeft.put(key, room);
+                }
+                if (donor.getDonation() <= room && room > bestRoom) {
+                    bestKey = key;
+                    bestRoom = room;
+                }
+            }
+            if (bestKey != -1) {
+                poundsLeft.put(bestKey, bestRoom - donor.getDonation());
+                chosen[i] = orgs.get(bestKey / 7);
+            }
+        }
+    }
+
+    // Remaining need used as priority: pounds for a FoodBank, open spots for a FoodPantry
+    private static double remainingNeed(CommunityFoodOrg org, String dayName) {
+        if (org instanceof FoodBank) {
+            return ((FoodBank) org).getDailyDonationsNeeded(dayName);
+        }
+        return org.dailyVolunteerSpotsLeft(dayName);
+    }
+
+    /**
+     * Class FlowNetwork
+     * Adjacency-array flow network with Dinic's maximum flow. Edges are stored in pairs
+     * (forward at an even index, residual at the following odd index).
+     */
+    private static class FlowNetwork {
+        private final int[] head, level, nextEdgeToTry;
+        private int[] to = new int[16], next = new int[16], capacity = new int[16], originalCapacity = new int[16];
+        private int edges = 0;
+
+        FlowNetwork(int nodes) {
+            head = new int[nodes];
+            level = new int[nodes];
+            nextEdgeToTry = new int[nodes];
+            Arrays.fill(head, -1);
+        }
+
+        int edgeCount() {
+            return edges;
+        }
+
+        void addEdge(int from, int dest, int cap) {
+            if (edges + 2 > to.length) {
+                int size = to.length * 2;
+                to = Arrays.copyOf(to, size);
+                next = Arrays.copyOf(next, size);
+                capacity = Arrays.copyOf(capacity, size);
+                originalCapacity = Arrays.copyOf(originalCapacity, size);
+            }
+            link(from, dest, cap);
+            link(dest, from, 0);
+        }
+
+        private void link(int from, int dest, int cap) {
+            to[edges] = dest;
+            capacity[edges] = cap;
+            originalCapacity[edges] = cap;
+            next[edges] = head[from];
+            head[from] = edges++;
+        }
+
+        int flow(int edge) {
+            return originalCapacity[edge] - capacity[edge];
+        }
+
+        long maxFlow(int source, int sink) {
+            long total = 0;
+            while (buildLevels(source, sink)) {
+                System.arraycopy(head, 0, nextEdgeToTry, 0, head.length);
+                int[] pathEdges = new int[level.length];
+                int pushed;
+                while ((pushed = augment(source, sink, pathEdges)) > 0) {
+                    total += pushed;
+                }
+            }
+            return total;
+        }
+
+        private boolean buildLevels(int source, int sink) {
+            Arrays.fill(level, -1);
+            int[] queue = new int[level.length];
+            int first = 0, last = 0;
+            queue[last++] = source;
+            level[source] = 0;
+            while (first < last) {
+                int node = queue[first++];
+                for (int e = head[node]; e != -1; e = next[e]) {
+                    if (capacity[e] > 0 && level[to[e]] == -1) {
+                        level[to[e]] = level[node] + 1;
+                        queue[last++] = to[e];
+                    }
+                }
+            }
+            return level[sink] != -1;
+        }
+
+        // Find and saturate one shortest augmenting path without recursion
+        private int augment(int source, int sink, int[] pathEdges) {
+            int depth = 0;
+            int node = source;
+            while (true) {
+                if (node == sink) {
+                    int bottleneck = Integer.MAX_VALUE;
+                    for (int d = 0; d < depth; d++) bottleneck = Math.min(bottleneck, capacity[pathEdges[d]]);
+                    for (int d = 0; d < depth; d++) {
+                        capacity[pathEdges[d]] -= bottleneck;
+                        capacity[pathEdges[d] ^ 1] += bottleneck;
+                    }
+                    return bottleneck;
+                }
+                int e = nextEdgeToTry[node];
+                while (e != -1 && (capacity[e] <= 0 || level[to[e]] != level[node] + 1)) {
+                    e = next[e];
+                }
+                nextEdgeToTry[node] = e;
+                if (e != -1) {
+                    pathEdges[depth++] = e;
+                    node = to[e];
+                } else {
+                    if (node == source) return 0;
+                    level[node] = -1; // dead end, prune it from this phase
+                    node = to[pathEdges[--depth] ^ 1];
+                    nextEdgeToTry[node] = next[nextEdgeToTry[node]];
+                }
+            }
+        }
+    }
+}
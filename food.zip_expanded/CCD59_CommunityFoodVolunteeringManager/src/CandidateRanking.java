@@ -0,0 +1,402 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class CandidateRanking
+ *
+ * Ranked matching organizations for a set of pending volunteers, kept current as capacity
+ * changes instead of being ranked again from scratch.
+ *
+ * - Tracking a volunteer matches it once (spatial index and MatchKernel) and keeps its matches
+ *   sorted by remaining need, highest first and list order among equal need, the order of
+ *   VolunteeringManager.findCandidates.
+ * - Every tracked match is indexed by (organization, day), the day the volunteer's signup there
+ *   would be for.
+ * - A CapacityListener on every organization only marks that (organization, day) dirty; a key
+ *   already dirty is not queued again, so a burst of signups at one pantry costs one update.
+ * - flush() (on demand, or every few milliseconds once start() is called) reads each dirty key's
+ *   need once and moves that one organization within the rankings that hold it, found by binary
+ *   search on its previous need. Organizations whose open hours changed are matched again against
+ *   every tracked volunteer instead, as matching itself may have changed.
+ * - Listeners hear once per flush about each volunteer whose ranking changed.
+ *
+ * Rankings reflect the capacity as of the last flush. Volunteers with additional availability
+ * windows are indexed under every day of their windows, since the day they would sign up for can
+ * move between them.
+ */
+public class CandidateRanking implements CapacityListener, AutoCloseable {
+
+    /**
+     * Interface Listener
+     * Told after a flush that a tracked volunteer's ranking changed.
+     */
+    public interface Listener {
+        void rankingChanged(Volunteer volunteer);
+    }
+
+    private final List<CommunityFoodOrg> orgs;
+    private final OrgSpatialIndex orgIndex;
+    private final MatchKernel matchKernel;
+    private final IdentityHashMap<CommunityFoodOrg, Integer> positions = new IdentityHashMap<>();
+
+    // Flushed state, guarded by this
+    private final double[] flushedNeed;  // [org * 7 + day] need as of the last flush
+    private final int[] flushedHours;    // per org, getHoursVersion as of the last flush
+    private final ArrayList<ArrayList<Ranking>> byOrgDay; // [org * 7 + day] rankings holding that match
+    private final IdentityHashMap<Volunteer, Ranking> tracked = new IdentityHashMap<>();
+
+    // Dirty keys, written by any thread without a lock
+    private final AtomicIntegerArray dirty;
+    private final ConcurrentLinkedQueue<Integer> dirtyKeys = new ConcurrentLinkedQueue<>();
+
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final LongAdder events = new LongAdder();
+    private long flushes, flushedKeys, moves, rematches;
+    private ScheduledExecutorService flusher;
+
+    // One volunteer's matches, sorted by need descending then position ascending
+    private static final class Ranking {
+        final Volunteer volunteer;
+        final int dayIndex;          // dayAvailable, the day of every match unless multiWindow
+        final boolean multiWindow;
+        int size;
+        int[] org = new int[8];
+        double[] need = new double[8];
+        int[] day = new int[8];      // day of each match (only differs from dayIndex if multiWindow)
+
+        Ranking(Volunteer volunteer, int dayIndex) {
+            this.volunteer = volunteer;
+            this.dayIndex = dayIndex;
+            this.multiWindow = volunteer.hasAdditionalAvailability();
+        }
+    }
+
+    /**
+     * Constructor CandidateRanking
+     * @param orgs the organizations to rank; positions in this list are the ones orgIndex and matchKernel use
+     * @param orgIndex a spatial index over the same organizations
+     * @param matchKernel a match kernel over the same organizations
+     */
+    public CandidateRanking(List<CommunityFoodOrg> orgs, OrgSpatialIndex orgIndex, MatchKernel matchKernel) {
+        this.orgs = orgs;
+        this.orgIndex = orgIndex;
+        this.matchKernel = matchKernel;
+        int n = orgs.size();
+        flushedNeed = new double[n * 7];
+        flushedHours = new int[n];
+        byOrgDay = new ArrayList<>(n * 7);
+        dirty = new AtomicIntegerArray(n * 7);
+        for (int i = 0; i < n * 7; i++) byOrgDay.add(null);
+        for (int i = 0; i < n; i++) {
+            CommunityFoodOrg org = orgs.get(i);
+            positions.put(org, i);
+            org.addCapacityListener(this); // before reading, so no change falls in between
+            flushedHours[i] = org.getHoursVersion();
+            for (int day = 0; day < 7; day++) flushedNeed[i * 7 + day] = need(org, day);
+        }
+    }
+
+    // CapacityListener: only marks the key dirty
+
+    @Override
+    public void capacityChanged(CommunityFoodOrg org, int dayIndex) {
+        Integer position = positions.get(org);
+        if (position == null) return;
+        events.increment();
+        for (int day = 0; day < 7; day++) {
+            if (dayIndex != -1 && day != dayIndex) continue;
+            int key = position * 7 + day;
+            if (dirty.compareAndSet(key, 0, 1)) dirtyKeys.add(key);
+        }
+    }
+
+    /**
+     * Method track
+     * @param volunteer a volunteer to keep a ranking for (tracking again re-matches them)
+     */
+    public synchronized void track(Volunteer volunteer) {
+        untrack(volunteer);
+        int dayIndex = WeeklySchedule.dayIndex(volunteer.getDayAvailable());
+        Ranking ranking = new Ranking(volunteer, dayIndex);
+        int[] candidates = orgIndex.queryIndices(volunteer.getLocation(), volunteer.getDistanceAvailable());
+        MatchKernel.Query query = new MatchKernel.Query(volunteer);
+        int matched = matchKernel.filter(query, candidates, candidates.length, candidates);
+        FoodConnectMetrics.recordMatches(query);
+        for (int i = 0; i < matched; i++) insert(ranking, candidates[i]);
+        tracked.put(volunteer, ranking);
+    }
+
+    public synchronized void trackAll(List<Volunteer> volunteers) {
+        for (Volunteer volunteer : volunteers) track(volunteer);
+    }
+
+    public synchronized void untrack(Volunteer volunteer) {
+        Ranking ranking = tracked.remove(volunteer);
+        if (ranking == null) return;
+        for (int i = 0; i < ranking.size; i++) unindex(ranking, ranking.org[i]);
+    }
+
+    public synchronized boolean isTracked(Volunteer volunteer) {
+        return tracked.containsKey(volunteer);
+    }
+
+    /**
+     * Method getRanking
+     * @param volunteer a tracked volunteer
+     * @param limit the most organizations to return
+     * @param includeFull true to also list matches that no longer need help that day
+     * @return the volunteer's matches, highest remaining need first, as of the last flush; empty if not tracked
+     */
+    public synchronized List<CommunityFoodOrg> getRanking(Volunteer volunteer, int limit, boolean includeFull) {
+        Ranking ranking = tracked.get(volunteer);
+        List<CommunityFoodOrg> ranked = new ArrayList<>();
+        if (ranking == null) return ranked;
+        for (int i = 0; i < ranking.size && ranked.size() < limit; i++) {
+            if (!includeFull && !(ranking.need[i] > 0)) break; // needs are sorted, so the rest are full too
+            ranked.add(orgs.get(ranking.org[i]));
+        }
+        return ranked;
+    }
+
+    /**
+     * Method flush
+     * @return the number of volunteers whose ranking changed
+     *
+     * Applies every capacity change since the last flush, each (organization, day) once however
+     * many times it changed, then tells the listeners.
+     */
+    public int flush() {
+        LinkedHashSet<Volunteer> changed = new LinkedHashSet<>();
+        synchronized (this) {
+            Integer key;
+            boolean any = false;
+            while ((key = dirtyKeys.poll()) != null) {
+                // a change after this point queues the key again; a key a rematch already cleared is stale
+                if (dirty.getAndSet(key, 0) == 0) continue;
+                any = true;
+                flushedKeys++;
+                int position = key / 7, day = key % 7;
+                CommunityFoodOrg org = orgs.get(position);
+                if (org.getHoursVersion() != flushedHours[position]) {
+                    rematch(position, changed);
+                    continue;
+                }
+                double need = need(org, day);
+                double previous = flushedNeed[key];
+                flushedNeed[key] = need;
+                ArrayList<Ranking> holders = byOrgDay.get(key);
+                if (holders == null) continue;
+                for (Ranking ranking : holders) {
+                    if (ranking.multiWindow) {
+                        if (refresh(ranking, position)) changed.add(ranking.volunteer);
+                    } else if (Double.compare(need, previous) != 0) {
+                        move(ranking, position, previous, need);
+                        changed.add(ranking.volunteer);
+                    }
+                }
+            }
+            if (any) flushes++;
+        }
+        for (Volunteer volunteer : changed) {
+            for (Listener listener : listeners) listener.rankingChanged(volunteer);
+        }
+        return changed.size();
+    }
+
+    /**
+     * Method start
+     * @param periodMillis how long changes are collected before a flush; every change in that
+     *        window is applied by the same flush
+     */
+    public synchronized void start(long periodMillis) {
+        if (flusher != null) return;
+        flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "candidate-ranking-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(() -> {
+            if (!dirtyKeys.isEmpty()) flush();
+        }, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Stops the background flush and stops listening to the organizations
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (flusher != null) flusher.shutdownNow();
+            flusher = null;
+        }
+        for (CommunityFoodOrg org : orgs) org.removeCapacityListener(this);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    // Statistics: capacity events received, flushes that had work, (organization, day) keys
+    // applied, single-organization moves within rankings, and organizations matched again
+    public long getEventCount() { return events.sum(); }
+    public synchronized long getFlushCount() { return flushes; }
+    public synchronized long getFlushedKeyCount() { return flushedKeys; }
+    public synchronized long getMoveCount() { return moves; }
+    public synchronized long getRematchCount() { return rematches; }
+    public synchronized int getTrackedCount() { return tracked.size(); }
+
+    // Open hours changed: match the organization against every tracked volunteer again
+    private void rematch(int position, LinkedHashSet<Volunteer> changed) {
+        rematches++;
+        CommunityFoodOrg org = orgs.get(position);
+        flushedHours[position] = org.getHoursVersion();
+        for (int day = 0; day < 7; day++) {
+            int key = position * 7 + day;
+            // later keys of this organization in the queue are covered by this rematch: clearing the
+            // flag (before reading the need, so a change after it queues the key again) makes flush
+            // skip them when they come up, where removing them would scan the queue
+            dirty.set(key, 0);
+            flushedNeed[key] = need(org, day);
+        }
+        MatchKernel.Query query = new MatchKernel.Query();
+        for (Ranking ranking : tracked.values()) {
+            boolean had = remove(ranking, position);
+            if (had) unindex(ranking, position);
+            query.set(ranking.volunteer);
+            boolean matches = matchKernel.matches(query, position);
+            FoodConnectMetrics.recordMatches(query);
+            if (matches) insert(ranking, position);
+            if (had || matches) changed.add(ranking.volunteer);
+        }
+    }
+
+    // Add a match at its place in the ranking and index it
+    private void insert(Ranking ranking, int position) {
+        CommunityFoodOrg org = orgs.get(position);
+        int day = ranking.multiWindow ? ranking.volunteer.matchingDayIndex(org) : ranking.dayIndex;
+        // single-window rankings use the flushed need, so a later flush finds them by it
+        double need = ranking.multiWindow ? need(org, day) : flushedNeed[position * 7 + day];
+        place(ranking, position, need, day);
+        if (ranking.multiWindow) {
+            for (int d = 0; d < 7; d++) {
+                if (ranking.volunteer.getAdditionalAvailability().count(d) > 0 || d == ranking.dayIndex) index(ranking, position * 7 + d);
+            }
+        } else {
+            index(ranking, position * 7 + day);
+        }
+    }
+
+    private void unindex(Ranking ranking, int position) {
+        for (int day = 0; day < 7; day++) {
+            ArrayList<Ranking> holders = byOrgDay.get(position * 7 + day);
+            if (holders != null) holders.remove(ranking);
+        }
+    }
+
+    private void index(Ranking ranking, int key) {
+        ArrayList<Ranking> holders = byOrgDay.get(key);
+        if (holders == null) byOrgDay.set(key, holders = new ArrayList<>(2));
+        if (!holders.contains(ranking)) holders.add(ranking);
+    }
+
+    // Move a single-window match whose need changed from previous to need
+    private void move(Ranking ranking, int position, double previous, double need) {
+        int from = search(ranking, previous, position);
+        if (from < 0) return;
+        delete(ranking, from);
+        place(ranking, position, need, ranking.dayIndex);
+        moves++;
+    }
+
+    // Recompute a multi-window match's day and need; true if it changed
+    private boolean refresh(Ranking ranking, int position) {
+        int from = find(ranking, position);
+        if (from < 0) return false;
+        CommunityFoodOrg org = orgs.get(position);
+        int day = ranking.volunteer.matchingDayIndex(org);
+        double need = need(org, day);
+        if (day == ranking.day[from] && Double.compare(need, ranking.need[from]) == 0) return false;
+        delete(ranking, from);
+        place(ranking, position, need, day);
+        moves++;
+        return true;
+    }
+
+    private boolean remove(Ranking ranking, int position) {
+        int from = find(ranking, position);
+        if (from < 0) return false;
+        delete(ranking, from);
+        return true;
+    }
+
+    private static int find(Ranking ranking, int position) {
+        for (int i = 0; i < ranking.size; i++) {
+            if (ranking.org[i] == position) return i;
+        }
+        return -1;
+    }
+
+    // Slot holding (need, position), or -(insertion point) - 1
+    private static int search(Ranking ranking, double need, int position) {
+        int lo = 0, hi = ranking.size - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int order = compare(ranking.need[mid], ranking.org[mid], need, position);
+            if (order < 0) lo = mid + 1;
+            else if (order > 0) hi = mid - 1;
+            else return mid;
+        }
+        return -(lo + 1);
+    }
+
+    // Ranking order: higher need first, then lower position
+    private static int compare(double needA, int positionA, double needB, int positionB) {
+        int order = Double.compare(needB, needA);
+        return order != 0 ? order : Integer.compare(positionA, positionB);
+    }
+
+    private static void place(Ranking ranking, int position, double need, int day) {
+        if (ranking.size == ranking.org.length) {
+            int capacity = ranking.size * 2;
+            ranking.org = Arrays.copyOf(ranking.org, capacity);
+            ranking.need = Arrays.copyOf(ranking.need, capacity);
+            ranking.day = Arrays.copyOf(ranking.day, capacity);
+        }
+        int at = -search(ranking, need, position) - 1;
+        int tail = ranking.size - at;
+        System.arraycopy(ranking.org, at, ranking.org, at + 1, tail);
+        System.arraycopy(ranking.need, at, ranking.need, at + 1, tail);
+        System.arraycopy(ranking.day, at, ranking.day, at + 1, tail);
+        ranking.org[at] = position;
+        ranking.need[at] = need;
+        ranking.day[at] = day;
+        ranking.size++;
+    }
+
+    private static void delete(Ranking ranking, int slot) {
+        int tail = ranking.size - slot - 1;
+        System.arraycopy(ranking.org, slot + 1, ranking.org, slot, tail);
+        System.arraycopy(ranking.need, slot + 1, ranking.need, slot, tail);
+        System.arraycopy(ranking.day, slot + 1, ranking.day, slot, tail);
+        ranking.size--;
+    }
+
+    // Remaining need as VolunteeringManager.findCandidates reads it (0 for an unknown day)
+    private static double need(CommunityFoodOrg org, int dayIndex) {
+        if (dayIndex < 0) return 0;
+        return org instanceof FoodBank ? ((FoodBank) org).getDailyDonationsNeeded(dayIndex)
+                                       : org.dailyVolunteerSpotsLeft(dayIndex);
+    }
+}
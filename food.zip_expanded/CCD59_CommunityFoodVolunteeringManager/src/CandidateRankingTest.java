@@ -0,0 +1,158 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class CandidateRankingTest
+ *
+ * Tracks the rankings of half the generated volunteers with a CandidateRanking while the other
+ * half sign up and cancel from several threads and some organizations change their open hours.
+ * After a flush, every tracked ranking must equal VolunteeringManager.findCandidates for that
+ * volunteer, including volunteers with additional availability windows. Then times rounds of
+ * signups followed by a flush against ranking every tracked volunteer again from scratch, and
+ * reports how many capacity events each flush coalesced.
+ *
+ * Usage: java CandidateRankingTest [volunteers] [threads]
+ */
+public class CandidateRankingTest {
+
+    private static final int LIMIT = 25;
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        File dir = File.createTempFile("candidate-ranking", "");
+        if (!dir.delete() || !dir.mkdir()) throw new IOException("Cannot create " + dir);
+        File orgsFile = new File(dir, "orgs.txt"), volunteersFile = new File(dir, "volunteers.txt");
+        SyntheticDataGenerator.writeOrgs(orgsFile, Math.max(100, rows / 10), 5);
+        SyntheticDataGenerator.writeVolunteers(volunteersFile, rows, 5);
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) { }
+        }));
+        boolean pass = true;
+        try {
+            VolunteeringManager manager = new VolunteeringManager(orgsFile.getPath(), volunteersFile.getPath());
+            List<Volunteer> volunteers = manager.getVolunteers();
+            List<CommunityFoodOrg> orgs = manager.getOrgs();
+            ArrayList<Volunteer> pending = new ArrayList<>(), active = new ArrayList<>();
+            Random random = new Random(5);
+            for (int i = 0; i < volunteers.size(); i++) {
+                Volunteer volunteer = volunteers.get(i);
+                if (i % 2 == 1) {
+                    active.add(volunteer);
+                    continue;
+                }
+                if (i % 20 == 0) {
+                    volunteer.addAvailability(WeeklySchedule.dayName(random.nextInt(7)), volunteer.getTimeAvailable());
+                }
+                pending.add(volunteer);
+            }
+
+            CandidateRanking ranking = manager.createCandidateRanking();
+            long start = System.nanoTime();
+            ranking.trackAll(pending);
+            long trackNanos = System.nanoTime() - start;
+
+            // Churn: signups and cancellations from several threads, hours changes from another
+            ArrayList<Thread> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int first = t;
+                Thread worker = new Thread(() -> {
+                    Random churn = new Random(first);
+                    for (int i = first; i < active.size(); i += threads) {
+                        Volunteer volunteer = active.get(i);
+                        manager.signUpVolunteerToPriorityOrg(volunteer);
+                        if (churn.nextInt(3) == 0) manager.cancelSignup(volunteer);
+                        if (i % 500 == first) ranking.flush(); // flushes racing with the churn
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            Thread hours = new Thread(() -> {
+                Random changes = new Random(9);
+                for (int i = 0; i < 50; i++) {
+                    CommunityFoodOrg org = orgs.get(changes.nextInt(orgs.size()));
+                    String day = WeeklySchedule.dayName(changes.nextInt(7));
+                    if (i % 2 == 0) {
+                        org.setDailyOpenHours(new TimeFrame(6 + changes.nextInt(4), 0, 14 + changes.nextInt(8), 0), day);
+                    } else {
+                        org.addShift(new TimeFrame(17, 0, 21, 0), day);
+                    }
+                }
+            });
+            hours.start();
+            for (Thread worker : workers) worker.join();
+            hours.join();
+            ranking.flush();
+
+            int checked = 0, mismatches = 0;
+            for (Volunteer volunteer : pending) {
+                List<CommunityFoodOrg> expected = manager.findCandidates(volunteer, LIMIT);
+                List<CommunityFoodOrg> actual = ranking.getRanking(volunteer, LIMIT, false);
+                checked++;
+                if (!expected.equals(actual)) {
+                    if (mismatches++ < 5) {
+                        console.printf("  mismatch for %s: expected %s, got %s%n", volunteer.getId(), names(expected), names(actual));
+                    }
+                }
+            }
+            console.printf("%,d tracked rankings (%,d with additional windows) after churn: %s%n",
+                    checked, pending.size() / 10, mismatches == 0 ? "ok" : mismatches + " mismatches");
+            pass &= mismatches == 0;
+            console.printf("%,d capacity events, %,d flushes, %,d (organization, day) keys applied, %,d moves, %,d re-matched organizations%n",
+                    ranking.getEventCount(), ranking.getFlushCount(), ranking.getFlushedKeyCount(),
+                    ranking.getMoveCount(), ranking.getRematchCount());
+
+            // Rounds of signups, each followed by one flush versus a full re-rank
+            int rounds = 20, perRound = Math.max(1, active.size() / rounds);
+            long flushNanos = 0, rerankNanos = 0;
+            long eventsBefore = ranking.getEventCount(), keysBefore = ranking.getFlushedKeyCount();
+            for (int round = 0; round < rounds; round++) {
+                for (int i = round * perRound; i < (round + 1) * perRound && i < active.size(); i++) {
+                    Volunteer volunteer = active.get(i);
+                    if (volunteer.getOrgVolunteering() != null) manager.cancelSignup(volunteer);
+                    else manager.signUpVolunteerToPriorityOrg(volunteer);
+                }
+                start = System.nanoTime();
+                ranking.flush();
+                flushNanos += System.nanoTime() - start;
+                start = System.nanoTime();
+                for (Volunteer volunteer : pending) manager.findCandidates(volunteer, LIMIT);
+                rerankNanos += System.nanoTime() - start;
+            }
+            for (Volunteer volunteer : pending) {
+                if (!manager.findCandidates(volunteer, LIMIT).equals(ranking.getRanking(volunteer, LIMIT, false))) mismatches++;
+            }
+            pass &= mismatches == 0;
+            console.printf("initial tracking %d ms; per round: flush %.2f ms vs re-ranking %,d volunteers %.2f ms (%.0fx)%n",
+                    trackNanos / 1_000_000, flushNanos / 1e6 / rounds, pending.size(), rerankNanos / 1e6 / rounds,
+                    (double) rerankNanos / Math.max(1, flushNanos));
+            console.printf("%,d events coalesced into %,d keys over the rounds: %s%n",
+                    ranking.getEventCount() - eventsBefore, ranking.getFlushedKeyCount() - keysBefore,
+                    mismatches == 0 ? "ok" : mismatches + " mismatches");
+            ranking.close();
+        } finally {
+            EventLog.flush();
+            System.setOut(console);
+            for (File file : dir.listFiles()) file.delete();
+            dir.delete();
+        }
+        console.println(pass ? "PASS" : "FAIL");
+        if (!pass) System.exit(1);
+    }
+
+    private static List<String> names(List<CommunityFoodOrg> orgs) {
+        List<String> names = new ArrayList<>();
+        for (CommunityFoodOrg org : orgs) names.add(org.getName());
+        return names;
+    }
+}
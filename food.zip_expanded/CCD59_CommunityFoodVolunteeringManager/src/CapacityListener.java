@@ -0,0 +1,15 @@
+/**
+ * Interface CapacityListener
+ *
+ * Notified after a CommunityFoodOrg changes something that affects how much help it still
+ * needs on a day: a signup or cancellation, a new requirement, or new open hours.
+ */
+public interface CapacityListener {
+
+    /**
+     * Method capacityChanged
+     * @param org the organization that changed
+     * @param dayIndex the day that changed (0 = Monday ... 6 = Sunday), or -1 if every day may have changed
+     */
+    void capacityChanged(CommunityFoodOrg org, int dayIndex);
+}
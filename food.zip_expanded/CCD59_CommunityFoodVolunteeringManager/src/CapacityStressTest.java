@@ -0,0 +1,196 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Class CapacityStressTest
+ *
+ * Hammers a handful of food pantries and food banks with concurrent signups and cancellations
+ * from many threads, while a watcher thread keeps sampling the counters. Checks that:
+ * - no pantry ever has more signups than volunteers needed, or fewer than zero;
+ * - no food bank ever needs less than zero or more than its max capacity;
+ * - at the end, every pantry's signups equal the volunteers actually assigned to it, and every
+ *   food bank's remaining need equals max capacity minus the donations actually assigned;
+ * - the VolunteeringManager priority queues hold every organization's final remaining need.
+ *
+ * Usage: java CapacityStressTest [threads] [operations per thread]
+ */
+public class CapacityStressTest {
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        int operationsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 500_000;
+
+        ArrayList<CommunityFoodOrg> orgs = new ArrayList<>();
+        TimeFrame[] hours = new TimeFrame[7];
+        for (int day = 0; day < 7; day++) hours[day] = new TimeFrame(8, 20);
+        for (int i = 0; i < 4; i++) {
+            orgs.add(new FoodPantry("p" + i, "Pantry " + i, new Location(40.44, -79.99, "", "", "", ""), hours,
+                    new int[]{3, 5, 8, 13, 21, 34, 55}, new int[7], true));
+            orgs.add(new FoodBank("b" + i, "Bank " + i, new Location(40.44, -79.99, "", "", "", ""), hours, 250, new double[7]));
+        }
+        VolunteeringManager manager = new VolunteeringManager(orgs, new ArrayList<>());
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) { }
+        }));
+
+        AtomicLong signups = new AtomicLong(), cancellations = new AtomicLong(), rejections = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ArrayList<String> violations = new ArrayList<>();
+        Thread watcher = new Thread(() -> {
+            while (running.get()) {
+                String violation = checkBounds(orgs);
+                if (violation != null) {
+                    synchronized (violations) { violations.add(violation); }
+                }
+            }
+        });
+        watcher.start();
+
+        ArrayList<ArrayList<Volunteer>> pools = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ArrayList<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            ArrayList<Volunteer> pool = new ArrayList<>();
+            Random people = new Random(t);
+            for (int v = 0; v < 64; v++) {
+                double donation = v % 2 == 0 ? 0 : 0.125 * (1 + people.nextInt(200));
+                pool.add(new Volunteer(t + "-" + v, "Volunteer " + v, 30, new Location(40.44, -79.99, "", "", "", ""),
+                        WeeklySchedule.dayName(people.nextInt(7)), new TimeFrame(9, 17), 5, false, donation));
+            }
+            pools.add(pool);
+            final int seed = t;
+            Thread worker = new Thread(() -> {
+                Random random = new Random(seed * 31L + 7);
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int op = 0; op < operationsPerThread; op++) {
+                    Volunteer volunteer = pool.get(random.nextInt(pool.size()));
+                    if (volunteer.getOrgVolunteering() != null) {
+                        volunteer.cancelSignup();
+                        cancellations.incrementAndGet();
+                    } else {
+                        CommunityFoodOrg org = orgs.get(random.nextInt(orgs.size()));
+                        volunteer.signUp(org);
+                        if (volunteer.getOrgVolunteering() != null) {
+                            signups.incrementAndGet();
+                        } else {
+                            rejections.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) worker.join();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        running.set(false);
+        watcher.join();
+        EventLog.flush();
+        System.setOut(console);
+
+        String violation = checkBounds(orgs);
+        if (violation != null) violations.add(violation);
+        violations.addAll(checkAssignments(orgs, pools));
+        violations.addAll(checkPriorityQueues(manager, orgs));
+
+        long operations = (long) threads * operationsPerThread;
+        System.out.printf("%d threads, %,d operations in %d ms (%,.0f ops/s)%n", threads, operations,
+                elapsedNanos / 1_000_000, operations / (elapsedNanos / 1e9));
+        System.out.printf("signups %,d, cancellations %,d, rejected (full) %,d%n",
+                signups.get(), cancellations.get(), rejections.get());
+        if (violations.isEmpty()) {
+            System.out.println("PASS: no overbooking, counters match assignments");
+        } else {
+            System.out.println("FAIL: " + violations.size() + " violations");
+            for (int i = 0; i < Math.min(10, violations.size()); i++) {
+                System.out.println("  " + violations.get(i));
+            }
+        }
+    }
+
+    // Bounds that must hold at every instant
+    private static String checkBounds(ArrayList<CommunityFoodOrg> orgs) {
+        for (CommunityFoodOrg org : orgs) {
+            for (int day = 0; day < 7; day++) {
+                if (org instanceof FoodPantry) {
+                    int spotsLeft = org.dailyVolunteerSpotsLeft(day);
+                    int needed = org.getDailyVolunteersNeeded()[day];
+                    if (spotsLeft < 0 || spotsLeft > needed) {
+                        return org.getName() + " " + WeeklySchedule.dayName(day) + ": " + spotsLeft + " spots left of " + needed;
+                    }
+                } else {
+                    FoodBank bank = (FoodBank) org;
+                    double needed = bank.getDailyDonationsNeeded(day);
+                    if (needed < 0 || needed > bank.getMaxCapacity()) {
+                        return org.getName() + " " + WeeklySchedule.dayName(day) + ": " + needed + " lbs needed";
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    // Counters must agree with what the volunteers think they are signed up for
+    private static ArrayList<String> checkAssignments(ArrayList<CommunityFoodOrg> orgs, ArrayList<ArrayList<Volunteer>> pools) {
+        ArrayList<String> violations = new ArrayList<>();
+        for (CommunityFoodOrg org : orgs) {
+            for (int day = 0; day < 7; day++) {
+                int assigned = 0;
+                double donated = 0;
+                for (ArrayList<Volunteer> pool : pools) {
+                    for (Volunteer volunteer : pool) {
+                        if (volunteer.getOrgVolunteering() == org && volunteer.getDayAvailable().equals(WeeklySchedule.dayName(day))) {
+                            assigned++;
+                            donated += volunteer.getDonation();
+                        }
+                    }
+                }
+                if (org instanceof FoodPantry) {
+                    int signedUp = org.getDailyVolunteerSignups()[day];
+                    if (signedUp != assigned) {
+                        violations.add(org.getName() + " " + WeeklySchedule.dayName(day) + ": counter " + signedUp + ", assigned " + assigned);
+                    }
+                } else {
+                    FoodBank bank = (FoodBank) org;
+                    double expected = bank.getMaxCapacity() - donated;
+                    if (Math.abs(bank.getDailyDonationsNeeded(day) - expected) > 1e-6) {
+                        violations.add(org.getName() + " " + WeeklySchedule.dayName(day) + ": needs " + bank.getDailyDonationsNeeded(day)
+                                + " lbs, expected " + expected);
+                    }
+                }
+            }
+        }
+        return violations;
+    }
+
+    // Every organization's key in the manager's priority queues must equal its remaining need
+    private static ArrayList<String> checkPriorityQueues(VolunteeringManager manager, ArrayList<CommunityFoodOrg> orgs) {
+        ArrayList<String> violations = new ArrayList<>();
+        for (CommunityFoodOrg org : orgs) {
+            for (int day = 0; day < 7; day++) {
+                double actual = org instanceof FoodBank
+                        ? ((FoodBank) org).getDailyDonationsNeeded(day) : org.dailyVolunteerSpotsLeft(day);
+                double queued = manager.getQueuedNeed(org, day);
+                if (queued != actual) {
+                    violations.add(org.getName() + " " + WeeklySchedule.dayName(day) + ": queued need " + queued + ", actual " + actual);
+                }
+            }
+        }
+        return violations;
+    }
+}
@@ -1,15 +1,21 @@
+import java.util.concurrent.CopyOnWriteArrayList;
+
 /**
  * Class CommunityFoodOrg
  * @author : Chukwudalu Dumebi-Kachikwu
  * @created 10/17/2024
  */
 public class CommunityFoodOrg {
-    private String id, name;
-    private Location location;
-    private TimeFrame[] dailyOpenHours; // Array for daily open hours
+    private String id;
+    private volatile String name; // name and location only change through a reload of the organizations file
+    private volatile Location location;
+    private TimeFrame[] dailyOpenHours; // Array for daily open hours (the span of the day's shifts)
+    private volatile WeeklySchedule shifts; // every shift, only while some day has more than one
+    private volatile int hoursVersion; // bumped whenever open hours, shifts or transportation change
     private int[] dailyVolunteersNeeded; // Array for daily volunteers needed
     private int[] dailyVolunteerSignups; // Array for daily volunteer signups
-    private boolean offersTransportation;
+    private volatile boolean offersTransportation;
+    private final CopyOnWriteArrayList<CapacityListener> capacityListeners = new CopyOnWriteArrayList<>();
 
     /**
      * Constructor CommunityFoodOrg
@@ -80,7 +86,14 @@ public class CommunityFoodOrg {
     public void setDailyOpenHours(TimeFrame time, String dayName) {
         int dayIndex = getDayIndex(dayName);
         if (dayIndex != -1) {
+            WeeklySchedule schedule = shifts;
+            if (schedule != null) {
+                schedule.setDay(dayIndex, time);
+                if (!schedule.hasSplitDays()) shifts = null;
+            }
             dailyOpenHours[dayIndex] = time;
+            hoursVersion++;
+            fireCapacityChanged(dayIndex);
         } else {
             System.out.println("Invalid day name.");
         }
@@ -102,11 +115,91 @@ public class CommunityFoodOrg {
     public void setDailyOpenHours(TimeFrame[] times) {
         if (times != null && times.length == 7) {
             this.dailyOpenHours = times;
+            this.shifts = null;
+            hoursVersion++;
+            fireCapacityChanged(-1);
         } else {
             System.out.println("Invalid array input. Must contain 7 TimeFrame objects.");
         }
     }
 
+    /**
+     * Method addShift
+     * @param time a TimeFrame for another shift on that day
+     * @param dayName a String representing the day of the shift
+     *
+     * The first shift of a day becomes its open hours as with setDailyOpenHours. Further shifts
+     * make it a split-shift day: the open hours become the span from the earliest start to the
+     * latest end, and volunteers must fit inside one of the shifts (see shiftsContain).
+     */
+    public synchronized void addShift(TimeFrame time, String dayName) {
+        int dayIndex = getDayIndex(dayName);
+        if (dayIndex == -1 || time == null) {
+            System.out.println("Invalid day name.");
+            return;
+        }
+        if (dailyOpenHours[dayIndex] == null && shifts == null) {
+            dailyOpenHours[dayIndex] = time;
+        } else {
+            WeeklySchedule schedule = shifts != null ? shifts : WeeklySchedule.of(dailyOpenHours);
+            schedule.add(dayIndex, time);
+            dailyOpenHours[dayIndex] = schedule.span(dayIndex);
+            shifts = schedule;
+        }
+        hoursVersion++;
+        fireCapacityChanged(dayIndex);
+    }
+
+    /**
+     * Method setShifts
+     * @param schedule every shift of the week; replaces the open hours of every day
+     */
+    public synchronized void setShifts(WeeklySchedule schedule) {
+        for (int day = 0; day < 7; day++) dailyOpenHours[day] = schedule.span(day);
+        shifts = schedule.hasSplitDays() ? schedule : null;
+        hoursVersion++;
+        fireCapacityChanged(-1);
+    }
+
+    /**
+     * Method getShifts
+     * @return every shift of the week; a new single-shift schedule built from the open hours when
+     *         no day has split shifts, so changes to it only take effect through setShifts
+     */
+    public WeeklySchedule getShifts() {
+        WeeklySchedule schedule = shifts;
+        return schedule != null ? schedule : WeeklySchedule.of(dailyOpenHours);
+    }
+
+    // Split-shift schedule, or null while every day has at most one shift
+    public WeeklySchedule getSplitShifts() {
+        return shifts;
+    }
+
+    public boolean hasSplitShifts() {
+        return shifts != null;
+    }
+
+    // Changes whenever the open hours, shifts or transportation change (not on signups), so caches of matches can tell the two apart
+    public int getHoursVersion() {
+        return hoursVersion;
+    }
+
+    /**
+     * Method shiftsContain
+     * @param dayIndex the day (0 = Monday, -1 for an unknown day)
+     * @param window the volunteer's time
+     * @return true if one of the day's shifts fully contains the window: window.timeFrameMatch of
+     *         the open hours for a single shift, an interval-tree lookup for split shifts
+     */
+    public boolean shiftsContain(int dayIndex, TimeFrame window) {
+        if (dayIndex < 0) return false;
+        WeeklySchedule schedule = shifts;
+        if (schedule != null) return schedule.containsWindow(dayIndex, window);
+        TimeFrame open = dailyOpenHours[dayIndex];
+        return open != null && window.timeFrameMatch(open);
+    }
+
     /**
      * Method setDailyVolunteersNeeded
      * @param volunteers an integer representing the number of volunteers needed for the specified day 
@@ -226,8 +319,7 @@ public class CommunityFoodOrg {
      */
 
     public boolean signUpVolunteer(Volunteer volunteer, String dayName) {
-        System.out.println("Checking the necessary information for signing up " +
-                volunteer.getFullName() + " for helping " + this.name + " on " + dayName);
+        EventLog.log(EventLog.Event.SIGNUP_CHECK, volunteer.getFullName(), this.name, dayName);
         return true; // Always return true
     }
 
@@ -236,7 +328,7 @@ public class CommunityFoodOrg {
      * @param dayName a String representing the day for which a volunteer's signup is to be canceled 
      */
     public void cancelVolunteerSignup(String dayName) {
-        System.out.println("Canceling volunteer signup for " + this.name + " on " + dayName);
+        EventLog.log(EventLog.Event.SIGNUP_CANCELED, this.name, dayName);
     }
 
 
@@ -261,6 +353,61 @@ public class CommunityFoodOrg {
         return 0;
     }
 
+    /**
+     * Method dailyVolunteerSpotsLeft
+     * @param dayIndex the day (0 = Monday ... 6 = Sunday)
+     * @return the number of volunteer spots still available for that day (0 for an invalid index)
+     */
+    public int dailyVolunteerSpotsLeft(int dayIndex) {
+        if (dayIndex >= 0 && dayIndex < 7) {
+            return dailyVolunteersNeeded[dayIndex] - dailyVolunteerSignups[dayIndex];
+        }
+        return 0;
+    }
+
+    /**
+     * Method addCapacityListener
+     * @param listener a CapacityListener to notify whenever the remaining need or the open hours
+     *        of this organization change
+     */
+    public void addCapacityListener(CapacityListener listener) {
+        capacityListeners.add(listener);
+    }
+
+    /**
+     * Method removeCapacityListener
+     * @param listener a CapacityListener previously added with addCapacityListener
+     */
+    public void removeCapacityListener(CapacityListener listener) {
+        capacityListeners.remove(listener);
+    }
+
+    /**
+     * Method setOffersTransportation
+     * @param offersTransportation whether the organization now offers transportation
+     *
+     * Listeners are notified for every day, as transportation decides matches like open hours do.
+     */
+    public synchronized void setOffersTransportation(boolean offersTransportation) {
+        if (this.offersTransportation == offersTransportation) return;
+        this.offersTransportation = offersTransportation;
+        hoursVersion++;
+        fireCapacityChanged(-1);
+    }
+
+    // Rename or move the organization (OrgFileWatcher); indexes built on the name or location must be rebuilt
+    synchronized void setDetails(String name, Location location) {
+        this.name = name;
+        this.location = location;
+    }
+
+    // Notify listeners that the given day (or every day for -1) changed
+    protected void fireCapacityChanged(int dayIndex) {
+        for (CapacityListener listener : capacityListeners) {
+            listener.capacityChanged(this, dayIndex);
+        }
+    }
+
     // Get day index from day name
     public int getDayIndex(String dayName) {
         switch (dayName.toLowerCase()) {
@@ -282,4 +429,5 @@ public class CommunityFoodOrg {
     public Location getLocation() { return location; }
     public boolean isOffersTransportation() { return offersTransportation; }
     public String getName() { return name; }
+    public String getId() { return id; }
 }
@@ -1,5 +1,8 @@
 import java.awt.event.*;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 import javax.swing.*;
 /**
  * Class CommunityFoodOrgVolunteeringGUI
@@ -8,8 +11,22 @@ import javax.swing.*;
  */
 public class CommunityFoodOrgVolunteeringGUI {
 
+    private static final String ORGS_FILE = "src/data/community_food_organizations.txt";
+
     public ArrayList<Volunteer> volunteersList = new ArrayList<>();
-    public ArrayList<CommunityFoodOrg> organizationsList = DataManager.readCommunityFoodOrgs("src/data/community_food_organizations.txt");
+    public ArrayList<CommunityFoodOrg> organizationsList = SnapshotStore.load("src/data/community_food_organizations.snapshot",
+            ORGS_FILE, null).getOrgs();
+    public OrgSpatialIndex organizationsIndex = new OrgSpatialIndex(organizationsList);
+    public MatchKernel organizationsKernel = new MatchKernel(organizationsList);
+    public CandidateRanking organizationsRanking = new CandidateRanking(organizationsList, organizationsIndex, organizationsKernel);
+    public OrgRegistry organizationsRegistry = new OrgRegistry(organizationsList);
+    private OrgFileWatcher organizationsWatcher; // null if the file cannot be watched
+
+    private static final int MAX_LISTED_ORGS = 100; // highest-need matches shown in the list
+    private static final long RANKING_FLUSH_MILLIS = 200; // capacity changes are applied to the list this often
+    private SwingWorker<List<CommunityFoodOrg>, Void> matchingWorker;
+    private int matchingGeneration; // bumped for every new request; only touched on the event thread
+    private Volunteer trackedVolunteer; // tracked by organizationsRanking for the list; only touched on the event thread
 
     public JFrame frmMainWindow;
     public JTextField txtFullName, txtAge, txtStartTime, txtEndTime, txtDistance;
@@ -19,6 +36,7 @@ public class CommunityFoodOrgVolunteeringGUI {
     public JButton btnAddVolunteer, btnSignUp;
     public JList<String> orgList;
     public DefaultListModel<String> orgListModel;
+    private int[] listedOrgs = new int[0]; // registry position of the organization on each row of orgListModel
     public Volunteer currentVolunteer;
     /**
      * Constructor for CommunityFoodOrgVolunteeringGUI.
@@ -151,8 +169,48 @@ public class CommunityFoodOrgVolunteeringGUI {
         btnAddVolunteer.addActionListener(e -> handleAddVolunteer());
         btnSignUp.addActionListener(e -> handleVolunteerSignup());
 
+        // Keep the shown ranking current as signups change the organizations' remaining need
+        organizationsRanking.addListener(volunteer -> SwingUtilities.invokeLater(() -> refreshRanking(volunteer)));
+        organizationsRanking.start(RANKING_FLUSH_MILLIS);
+
+        // Pick up edits to the organizations file without restarting (and without losing signups)
+        try {
+            organizationsWatcher = new OrgFileWatcher(ORGS_FILE, organizationsList);
+            organizationsWatcher.addListener(changes -> SwingUtilities.invokeLater(() -> applyOrgChanges(changes)));
+            organizationsWatcher.start();
+        } catch (IOException ex) {
+            System.err.println("Not watching " + ORGS_FILE + ": " + ex.getMessage());
+        }
+
         frmMainWindow.setVisible(true);
     }
+    /**
+     * Applies a reload of the organizations file, on the event thread.
+     * Changed hours, capacity and needs were already applied in place, and the ranking follows
+     * them like any capacity change. When organizations were added, removed, renamed or moved,
+     * volunteers of removed organizations are released, the index, kernel, ranking and registry
+     * are rebuilt over the new list, and the current volunteer is matched again.
+     *
+     * @param changes what the reload changed
+     */
+    private void applyOrgChanges(OrgFileWatcher.Changes changes) {
+        if (!changes.isStructural()) return;
+        for (Volunteer volunteer : volunteersList) {
+            CommunityFoodOrg org = volunteer.getOrgVolunteering();
+            if (org != null && changes.getRemoved().contains(org)) volunteer.cancelSignup();
+        }
+        organizationsRanking.close();
+        organizationsKernel.close();
+        organizationsRegistry.close();
+        organizationsList = new ArrayList<>(changes.getOrgs());
+        organizationsIndex = new OrgSpatialIndex(organizationsList);
+        organizationsKernel = new MatchKernel(organizationsList);
+        organizationsRanking = new CandidateRanking(organizationsList, organizationsIndex, organizationsKernel);
+        organizationsRegistry = new OrgRegistry(organizationsList);
+        organizationsRanking.addListener(volunteer -> SwingUtilities.invokeLater(() -> refreshRanking(volunteer)));
+        organizationsRanking.start(RANKING_FLUSH_MILLIS);
+        if (currentVolunteer != null) updateMatchingOrganizations();
+    }
     /**
      * Handles the addition of a new volunteer based on the input provided in the GUI.
      * Validates the input, creates a new Volunteer object, and adds it to the volunteer list.
@@ -187,72 +245,102 @@ public class CommunityFoodOrgVolunteeringGUI {
     }
     /**
      * Updates the list of community food organizations that match the current volunteer's preferences.
-     * Filters the organizations based on the volunteer's criteria and sorts them for display.
-     * Clears the existing organization list in the GUI and repopulates it with the matching results.
+     * Matching runs on a SwingWorker so the window stays responsive; a newer request cancels the
+     * one in progress, and only the latest request's result is shown. The volunteer is tracked by
+     * organizationsRanking from then on, so later capacity changes re-rank the list through
+     * refreshRanking instead of matching again; the volunteer tracked before is untracked here,
+     * whether or not the request that tracked them ever ran.
      */
     private void updateMatchingOrganizations() {
-        orgListModel.clear();
-        ArrayList<CommunityFoodOrg> matchingOrgs = new ArrayList<>();
+        if (matchingWorker != null) {
+            matchingWorker.cancel(true);
+        }
+        final int generation = ++matchingGeneration;
+        final Volunteer volunteer = currentVolunteer;
+        final CandidateRanking ranking = organizationsRanking; // replaced when the organizations are reloaded
+        if (trackedVolunteer != null) ranking.untrack(trackedVolunteer); // no longer shown
+        trackedVolunteer = volunteer;
+        showRanking(new ArrayList<>());
+
+        matchingWorker = new SwingWorker<List<CommunityFoodOrg>, Void>() {
+            @Override
+            protected List<CommunityFoodOrg> doInBackground() {
+                ranking.flush();
+                synchronized (ranking) { // so a cancelled request cannot track after the next one untracked
+                    if (isCancelled()) return null;
+                    ranking.track(volunteer);
+                }
+                return ranking.getRanking(volunteer, MAX_LISTED_ORGS, true);
+            }
 
-        for (CommunityFoodOrg org : organizationsList) {
-            if (currentVolunteer.orgMatch(org)) {
-                matchingOrgs.add(org);
+            @Override
+            protected void done() {
+                if (isCancelled() || generation != matchingGeneration) return; // a newer request owns the list
+                try {
+                    List<CommunityFoodOrg> ranked = get();
+                    if (ranked == null) return;
+                    showRanking(ranked);
+                } catch (InterruptedException | ExecutionException ex) {
+                    JOptionPane.showMessageDialog(null, "Could not match organizations: " + ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
             }
-        }
-        selectionSortOrganizations(matchingOrgs);
-        for (CommunityFoodOrg org : matchingOrgs) {
-            orgListModel.addElement(org.getName());
+        };
+        matchingWorker.execute();
+    }
+
+    /**
+     * Shows the volunteer's updated ranking, if they are still the current volunteer.
+     * Called on the event thread after organizationsRanking applied capacity changes; the
+     * selected organization stays selected.
+     *
+     * @param volunteer the volunteer whose ranking changed
+     */
+    private void refreshRanking(Volunteer volunteer) {
+        if (volunteer != currentVolunteer) return;
+        int selected = orgList.getSelectedIndex();
+        int selectedOrg = selected >= 0 && selected < listedOrgs.length ? listedOrgs[selected] : -1;
+        showRanking(organizationsRanking.getRanking(volunteer, MAX_LISTED_ORGS, true));
+        for (int row = 0; row < listedOrgs.length; row++) {
+            if (listedOrgs[row] == selectedOrg) orgList.setSelectedIndex(row);
         }
     }
 
     /**
-     * Sorts a list of community food organizations in descending order based on relevance 
-     * to the current volunteer's availability and requirements.
-     * For FoodBank organizations, the sorting is based on the daily donations needed.
-     * For FoodPantry organizations, the sorting is based on the daily volunteer spots left.
+     * Shows a ranking in the list: organization names, highest need first. The registry positions
+     * of the listed organizations are kept alongside, since names are not unique.
      *
-     * @param orgs the list of community food organizations to be sorted
+     * @param ranked the ranked organizations
      */
-    private void selectionSortOrganizations(ArrayList<CommunityFoodOrg> orgs) {
-        for (int i = 0; i < orgs.size() - 1; i++) {
-            int maxIndex = i;
-            for (int j = i + 1; j < orgs.size(); j++) {
-                if (orgs.get(j) instanceof FoodBank) {
-                    if (((FoodBank) orgs.get(j)).getDailyDonationsNeeded(currentVolunteer.getDayAvailable()) >
-                        ((FoodBank) orgs.get(maxIndex)).getDailyDonationsNeeded(currentVolunteer.getDayAvailable())) {
-                        maxIndex = j;
-                    }
-                } else if (orgs.get(j) instanceof FoodPantry) {
-                    if (((FoodPantry) orgs.get(j)).dailyVolunteerSpotsLeft(currentVolunteer.getDayAvailable()) >
-                        ((FoodPantry) orgs.get(maxIndex)).dailyVolunteerSpotsLeft(currentVolunteer.getDayAvailable())) {
-                        maxIndex = j;
-                    }
-                }
-            }
-            CommunityFoodOrg temp = orgs.get(maxIndex);
-            orgs.set(maxIndex, orgs.get(i));
-            orgs.set(i, temp);
+    private void showRanking(List<CommunityFoodOrg> ranked) {
+        DefaultListModel<String> model = new DefaultListModel<>();
+        int[] positions = new int[ranked.size()];
+        model.ensureCapacity(ranked.size());
+        for (int row = 0; row < positions.length; row++) {
+            model.addElement(ranked.get(row).getName()); // no listeners yet, so this fires nothing
+            positions[row] = organizationsRegistry.indexOf(ranked.get(row));
         }
+        orgListModel = model;
+        listedOrgs = positions;
+        orgList.setModel(orgListModel);
     }
     /**
      * Handles the volunteer signup process.
      * Checks if a volunteer and a selected organization are available, then registers the volunteer
      * with the selected organization. Displays a success message upon successful signup.
+     * The selected row is resolved through the registry by the organization's position, so
+     * organizations that share a name are told apart.
      */
     private void handleVolunteerSignup() {
-        String selectedOrgName = orgList.getSelectedValue();
-        if (selectedOrgName != null && currentVolunteer != null) {
-            for (CommunityFoodOrg org : organizationsList) {
-                if (org.getName().equals(selectedOrgName)) {
-                    currentVolunteer.signUp(org);
-                    JOptionPane.showMessageDialog(null, "Volunteer signed up successfully for " + org.getName(), "Success", JOptionPane.INFORMATION_MESSAGE);
-                    return;
-                }
-            }
+        int selected = orgList.getSelectedIndex();
+        if (selected >= 0 && selected < listedOrgs.length && listedOrgs[selected] >= 0 && currentVolunteer != null) {
+            CommunityFoodOrg org = organizationsRegistry.get(listedOrgs[selected]);
+            currentVolunteer.signUp(org);
+            JOptionPane.showMessageDialog(null, "Volunteer signed up successfully for " + org.getName(), "Success", JOptionPane.INFORMATION_MESSAGE);
         }
     }
 
     public static void main(String[] args) {
+        FoodConnectMetrics.registerMBean();
         new CommunityFoodOrgVolunteeringGUI();
     }
 }
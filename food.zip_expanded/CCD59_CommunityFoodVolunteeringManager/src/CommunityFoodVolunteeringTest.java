@@ -35,12 +35,14 @@ public class CommunityFoodVolunteeringTest {
         for (Volunteer volunteer : volunteers) {
             volManager.signUpVolunteerToPriorityOrg(volunteer);
         }
+        EventLog.flush();
 
         // Cancel the sign-up for the first volunteer
         if (!volunteers.isEmpty() && volunteers.get(0).getOrgVolunteering() != null) {
         	System.out.println("BOB");
             System.out.println("\nCanceling sign-up for the first volunteer...");
             volunteers.get(0).cancelSignup();
+            EventLog.flush();
             System.out.println(volunteers.get(0).getFullName() + " has canceled their sign-up.");
         }
 
@@ -0,0 +1,384 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+/**
+ * Class CompatibilityMatrix
+ *
+ * Which (volunteer, organization) pairs match, for every volunteer and organization at once,
+ * with the same answer as Volunteer.orgMatch. Rows are computed in parallel with fork/join:
+ * each task takes a range of volunteers, asks the spatial index for the organizations within
+ * reach and filters them through the MatchKernel.
+ *
+ * Each volunteer's row is a compressed bitset over organization positions, in whichever of two
+ * forms is smaller:
+ * - a list: the number of matches, then the gaps between matching positions, as varints
+ *   (a few bytes per match, which is what almost every volunteer needs)
+ * - a bitmap of one bit per organization, for volunteers who match a large share of them
+ * A volunteer with no matches has no row at all. Rows are built under a memory budget: each row
+ * is counted against it as soon as it is compressed, and once the budget is exceeded every task
+ * stops and the build fails with an IllegalStateException.
+ *
+ * The match count per volunteer and the number of volunteers reaching each organization are
+ * kept alongside, so "volunteers with no feasible organization" and "organizations reachable by
+ * fewer than n volunteers" are answered without decoding any row.
+ */
+public class CompatibilityMatrix {
+    private static final byte LIST = 0, BITMAP = 1;
+    private static final int VOLUNTEERS_PER_TASK = 512;
+
+    private final List<Volunteer> volunteers;
+    private final List<CommunityFoodOrg> orgs;
+    private final byte[][] rows;       // [volunteer] compressed matches, null when there are none
+    private final int[] matchCounts;   // [volunteer] number of matching organizations
+    private final int[] reach;         // [org] number of volunteers matching it
+    private final long rowBytes;
+
+    /**
+     * Constructor CompatibilityMatrix
+     * @param volunteers the matrix rows
+     * @param orgs the matrix columns (positions in this list are the organization indices)
+     * @param memoryBudgetBytes the most bytes the compressed rows may take
+     * @throws IllegalStateException if the rows do not fit in memoryBudgetBytes
+     */
+    public CompatibilityMatrix(List<Volunteer> volunteers, List<CommunityFoodOrg> orgs, long memoryBudgetBytes) {
+        this(volunteers, orgs, new OrgSpatialIndex(orgs), new MatchKernel(orgs), memoryBudgetBytes, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor CompatibilityMatrix
+     * @param volunteers the matrix rows
+     * @param orgs the matrix columns
+     * @param orgIndex a spatial index over orgs
+     * @param matchKernel a match kernel over orgs
+     * @param memoryBudgetBytes the most bytes the compressed rows may take
+     * @param pool the fork/join pool to compute rows in
+     * @throws IllegalStateException if the rows do not fit in memoryBudgetBytes
+     */
+    public CompatibilityMatrix(List<Volunteer> volunteers, List<CommunityFoodOrg> orgs, OrgSpatialIndex orgIndex,
+                               MatchKernel matchKernel, long memoryBudgetBytes, ForkJoinPool pool) {
+        this.volunteers = volunteers;
+        this.orgs = orgs;
+        this.rows = new byte[volunteers.size()][];
+        this.matchCounts = new int[volunteers.size()];
+        AtomicIntegerArray sharedReach = new AtomicIntegerArray(orgs.size());
+        AtomicLong bytes = new AtomicLong();
+        pool.invoke(new RowTask(0, volunteers.size(), orgIndex, matchKernel, sharedReach, bytes, memoryBudgetBytes));
+
+        this.reach = new int[orgs.size()];
+        for (int i = 0; i < reach.length; i++) reach[i] = sharedReach.get(i);
+        this.rowBytes = bytes.get();
+    }
+
+    // Computes and compresses the rows of a range of volunteers, splitting large ranges in two
+    private final class RowTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from, to;
+        private final OrgSpatialIndex orgIndex;
+        private final MatchKernel matchKernel;
+        private final AtomicIntegerArray sharedReach;
+        private final AtomicLong bytes;
+        private final long budget;
+
+        RowTask(int from, int to, OrgSpatialIndex orgIndex, MatchKernel matchKernel,
+                AtomicIntegerArray sharedReach, AtomicLong bytes, long budget) {
+            this.from = from;
+            this.to = to;
+            this.orgIndex = orgIndex;
+            this.matchKernel = matchKernel;
+            this.sharedReach = sharedReach;
+            this.bytes = bytes;
+            this.budget = budget;
+        }
+
+        @Override
+        protected void compute() {
+            if (bytes.get() > budget) throw overBudget(); // another task already ran out
+            if (to - from > VOLUNTEERS_PER_TASK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RowTask(from, mid, orgIndex, matchKernel, sharedReach, bytes, budget),
+                          new RowTask(mid, to, orgIndex, matchKernel, sharedReach, bytes, budget));
+                return;
+            }
+            MatchKernel.Query query = new MatchKernel.Query();
+            int[] all = null;
+            int[] localReach = new int[orgs.size()];
+            for (int v = from; v < to; v++) {
+                if (bytes.get() > budget) throw overBudget();
+                Volunteer volunteer = volunteers.get(v);
+                query.set(volunteer);
+                int[] matches;
+                int count;
+                if (Double.isNaN(volunteer.getDistanceAvailable())) {
+                    // orgMatch never rejects on distance here: every organization, without the index
+                    if (all == null) all = new int[orgs.size()];
+                    matches = all;
+                    count = matchKernel.matchAll(query, matches);
+                } else {
+                    matches = orgIndex.queryIndices(volunteer.getLocation(), volunteer.getDistanceAvailable());
+                    count = matchKernel.filter(query, matches, matches.length, matches);
+                }
+                matchCounts[v] = count;
+                if (count == 0) continue;
+                for (int i = 0; i < count; i++) localReach[matches[i]]++;
+                byte[] row = compress(matches, count, orgs.size());
+                // counted with its array header before it is kept, so at most one row per worker is past the budget
+                if (bytes.addAndGet(row.length + 16) > budget) throw overBudget();
+                rows[v] = row;
+            }
+            FoodConnectMetrics.recordMatches(query);
+            for (int o = 0; o < localReach.length; o++) {
+                if (localReach[o] != 0) sharedReach.addAndGet(o, localReach[o]);
+            }
+        }
+
+        private IllegalStateException overBudget() {
+            return new IllegalStateException("Compatibility rows need more than the memory budget of " + budget + " bytes");
+        }
+    }
+
+    // Queries
+
+    public int getVolunteerCount() {
+        return rows.length;
+    }
+
+    public int getOrgCount() {
+        return reach.length;
+    }
+
+    // Bytes taken by the compressed rows (the per-volunteer and per-org counts add 4 bytes each)
+    public long getRowBytes() {
+        return rowBytes;
+    }
+
+    public int getMatchCount(int volunteerIndex) {
+        return matchCounts[volunteerIndex];
+    }
+
+    public int getReach(int orgIndex) {
+        return reach[orgIndex];
+    }
+
+    /**
+     * Method isCompatible
+     * @param volunteerIndex a volunteer's position
+     * @param orgIndex an organization's position
+     * @return true exactly when volunteer.orgMatch(org) was true when the matrix was built
+     */
+    public boolean isCompatible(int volunteerIndex, int orgIndex) {
+        byte[] row = rows[volunteerIndex];
+        if (row == null) return false;
+        if (row[0] == BITMAP) return (row[1 + (orgIndex >>> 3)] & (1 << (orgIndex & 7))) != 0;
+        int[] position = {1};
+        int count = readVarint(row, position);
+        int org = -1;
+        for (int i = 0; i < count && org < orgIndex; i++) {
+            org += readVarint(row, position);
+        }
+        return org == orgIndex;
+    }
+
+    /**
+     * Method forEachMatch
+     * @param volunteerIndex a volunteer's position
+     * @param action called with the position of every matching organization, in ascending order
+     */
+    public void forEachMatch(int volunteerIndex, IntConsumer action) {
+        byte[] row = rows[volunteerIndex];
+        if (row == null) return;
+        if (row[0] == BITMAP) {
+            for (int o = 0; o < reach.length; o++) {
+                if ((row[1 + (o >>> 3)] & (1 << (o & 7))) != 0) action.accept(o);
+            }
+            return;
+        }
+        int[] position = {1};
+        int count = readVarint(row, position);
+        int org = -1;
+        for (int i = 0; i < count; i++) {
+            org += readVarint(row, position);
+            action.accept(org);
+        }
+    }
+
+    public int[] getMatches(int volunteerIndex) {
+        int[] matches = new int[matchCounts[volunteerIndex]];
+        int[] next = {0};
+        forEachMatch(volunteerIndex, o -> matches[next[0]++] = o);
+        return matches;
+    }
+
+    // Positions of the volunteers no organization matches
+    public int[] volunteersWithoutMatches() {
+        int count = 0;
+        for (int matches : matchCounts) if (matches == 0) count++;
+        int[] result = new int[count];
+        for (int v = 0, next = 0; v < matchCounts.length; v++) {
+            if (matchCounts[v] == 0) result[next++] = v;
+        }
+        return result;
+    }
+
+    /**
+     * Method orgsReachableByFewerThan
+     * @param volunteerCount the threshold
+     * @return positions of the organizations fewer than volunteerCount volunteers match
+     */
+    public int[] orgsReachableByFewerThan(int volunteerCount) {
+        int count = 0;
+        for (int r : reach) if (r < volunteerCount) count++;
+        int[] result = new int[count];
+        for (int o = 0, next = 0; o < reach.length; o++) {
+            if (reach[o] < volunteerCount) result[next++] = o;
+        }
+        return result;
+    }
+
+    /**
+     * Method writeSummary
+     * @param out where the report is written, a line at a time
+     * @param minReach organizations matched by fewer volunteers than this are listed as under-reached
+     * @param listLimit the most volunteers and organizations to list by name in each section
+     */
+    public void writeSummary(PrintStream out, int minReach, int listLimit) {
+        long pairs = 0;
+        int[] buckets = new int[5]; // 0, 1, 2-5, 6-20, more
+        for (int matches : matchCounts) {
+            pairs += matches;
+            buckets[matches == 0 ? 0 : matches == 1 ? 1 : matches <= 5 ? 2 : matches <= 20 ? 3 : 4]++;
+        }
+        out.printf("Compatibility matrix: %,d volunteers x %,d organizations, %,d compatible pairs (%.4f%%)%n",
+                rows.length, reach.length, pairs, rows.length == 0 || reach.length == 0 ? 0.0 : 100.0 * pairs / rows.length / reach.length);
+        out.printf("Compressed rows: %,d bytes (%.1f bytes per volunteer)%n", rowBytes, rows.length == 0 ? 0.0 : (double) rowBytes / rows.length);
+        out.printf("Feasible organizations per volunteer: none %,d | 1 %,d | 2-5 %,d | 6-20 %,d | more %,d%n",
+                buckets[0], buckets[1], buckets[2], buckets[3], buckets[4]);
+
+        int[] stranded = volunteersWithoutMatches();
+        out.printf("Volunteers with no feasible organization: %,d%n", stranded.length);
+        for (int i = 0; i < Math.min(listLimit, stranded.length); i++) {
+            Volunteer volunteer = volunteers.get(stranded[i]);
+            out.println("  " + volunteer.getId() + " " + volunteer.getFullName() + " (" + volunteer.getDayAvailable() + ")");
+        }
+        if (stranded.length > listLimit) out.printf("  ... and %,d more%n", stranded.length - listLimit);
+
+        int[] underReached = orgsReachableByFewerThan(minReach);
+        Integer[] byReach = new Integer[underReached.length];
+        for (int i = 0; i < byReach.length; i++) byReach[i] = underReached[i];
+        Arrays.sort(byReach, (a, b) -> reach[a] != reach[b] ? Integer.compare(reach[a], reach[b]) : Integer.compare(a, b));
+        out.printf("Organizations reachable by fewer than %,d volunteers: %,d%n", minReach, underReached.length);
+        for (int i = 0; i < Math.min(listLimit, byReach.length); i++) {
+            CommunityFoodOrg org = orgs.get(byReach[i]);
+            out.printf("  %s %s: %,d volunteers%n", org.getId(), org.getName(), reach[byReach[i]]);
+        }
+        if (byReach.length > listLimit) out.printf("  ... and %,d more%n", byReach.length - listLimit);
+    }
+
+    // Row encoding
+
+    private static byte[] compress(int[] sorted, int count, int orgCount) {
+        int listBytes = 1 + varintSize(count);
+        for (int i = 0, previous = -1; i < count; i++) {
+            listBytes += varintSize(sorted[i] - previous);
+            previous = sorted[i];
+        }
+        int bitmapBytes = 1 + ((orgCount + 7) >>> 3);
+        if (bitmapBytes < listBytes) {
+            byte[] row = new byte[bitmapBytes];
+            row[0] = BITMAP;
+            for (int i = 0; i < count; i++) row[1 + (sorted[i] >>> 3)] |= (byte) (1 << (sorted[i] & 7));
+            return row;
+        }
+        byte[] row = new byte[listBytes];
+        row[0] = LIST;
+        int position = writeVarint(row, 1, count);
+        for (int i = 0, previous = -1; i < count; i++) {
+            position = writeVarint(row, position, sorted[i] - previous);
+            previous = sorted[i];
+        }
+        return row;
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) size++;
+        return size;
+    }
+
+    private static int writeVarint(byte[] out, int position, int value) {
+        while ((value & ~0x7f) != 0) {
+            out[position++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out[position++] = (byte) value;
+        return position;
+    }
+
+    private static int readVarint(byte[] in, int[] position) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in[position[0]++];
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    /**
+     * Method main
+     * @param args orgsFile volunteersFile [minReach] [memoryBudgetMB], or [orgRows] [volunteerRows]
+     *        [minReach] [memoryBudgetMB] to report on seeded generated data (default 10,000 x 100,000)
+     */
+    public static void main(String[] args) throws IOException {
+        boolean generated = args.length < 2 || !new File(args[0]).isFile();
+        int minReach = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        long budget = (args.length > 3 ? Long.parseLong(args[3]) : 512) << 20;
+
+        File orgsFile, volunteersFile;
+        if (generated) {
+            int orgRows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+            int volunteerRows = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+            orgsFile = File.createTempFile("compatibility-orgs", ".txt");
+            volunteersFile = File.createTempFile("compatibility-volunteers", ".txt");
+            orgsFile.deleteOnExit();
+            volunteersFile.deleteOnExit();
+            SyntheticDataGenerator.writeOrgs(orgsFile, orgRows, SyntheticDataGenerator.DEFAULT_SEED);
+            SyntheticDataGenerator.writeVolunteers(volunteersFile, volunteerRows, SyntheticDataGenerator.DEFAULT_SEED);
+        } else {
+            orgsFile = new File(args[0]);
+            volunteersFile = new File(args[1]);
+        }
+
+        PrintStream console = System.out;
+        ArrayList<CommunityFoodOrg> orgs;
+        ArrayList<Volunteer> volunteers;
+        System.setOut(new PrintStream(new OutputStream() { // DataManager prints setter validation messages
+            @Override
+            public void write(int b) { }
+        }));
+        try {
+            orgs = DataManager.readCommunityFoodOrgs(orgsFile.getPath());
+            volunteers = DataManager.readVolunteers(volunteersFile.getPath());
+        } finally {
+            System.setOut(console);
+        }
+
+        long start = System.nanoTime();
+        CompatibilityMatrix matrix = new CompatibilityMatrix(volunteers, orgs, budget);
+        long elapsed = System.nanoTime() - start;
+        console.printf("Built in %d ms on %d threads%n", elapsed / 1_000_000, ForkJoinPool.getCommonPoolParallelism());
+        matrix.writeSummary(console, minReach, 10);
+        if (generated) {
+            orgsFile.delete();
+            volunteersFile.delete();
+        }
+    }
+}
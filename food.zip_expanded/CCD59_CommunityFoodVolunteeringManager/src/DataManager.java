@@ -10,87 +10,126 @@ public class DataManager {
 
     // Static method to read community food organizations from a file
     public static ArrayList<CommunityFoodOrg> readCommunityFoodOrgs(String filename) {
+        long start = System.nanoTime();
+        StringPool pool = StringPool.shared(); // cities, states and ZIP codes repeat across records
         ArrayList<CommunityFoodOrg> organizations = new ArrayList<>();
         try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
             String line;
             while ((line = br.readLine()) != null) {
-                String[] parts = line.split(";");
-                if (parts.length < 9) continue; // Skip invalid lines
-          //code to check to see if Datamanager is correctly parsing the file
-                /*  for (int i = 0; i < parts.length; i++) {
-                System.out.println("Index " + i + ": " + parts[i]);
-            } */
-                String type = parts[0];
-                String id = parts[1];
-                String name = parts[2];
-                double latitude = Double.parseDouble(parts[3].trim());
-                double longitude = Double.parseDouble(parts[4].trim());
-                String address = parts[5];
-                String city = parts[6];
-                String state = parts[7];
-                String zip = parts[8];
-                boolean offersTransportation = parts[9].equalsIgnoreCase("yes");
-                Location location = new Location(latitude, longitude, address, city, state, zip);
+                CommunityFoodOrg org = parseCommunityFoodOrg(line, pool);
+                if (org != null) organizations.add(org);
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading community food organizations: " + e.getMessage());
+        }
+        FoodConnectMetrics.recordParse(filename, organizations.size(), System.nanoTime() - start);
+        return organizations;
+    }
 
-                if (type.equalsIgnoreCase("Food Bank")) {
-                    double maxCapacity = Double.parseDouble(parts[10]);
-                    TimeFrame[] dailyOpenHours = new TimeFrame[7];
-                    double[] dailyDonationsNeeded = new double[7];
-
-                    for (int i = 11; i < parts.length; i++) {
-                        String[] dayInfo = parts[i].split("@");
-                        if (dayInfo.length == 3) {
-                            int dayIndex = getDayIndex(dayInfo[0]);
-                            if (dayIndex != -1) {
-                                String[] startTimeParts = dayInfo[1].split(":");
-                                String[] endTimeParts = dayInfo[2].split(":");
-
-                                int startHour = Integer.parseInt(startTimeParts[0]);
-                                int startMinute = Integer.parseInt(startTimeParts[1]);
-                                int endHour = Integer.parseInt(endTimeParts[0]);
-                                int endMinute = Integer.parseInt(endTimeParts[1]);
-
-                                dailyOpenHours[dayIndex] = new TimeFrame(startHour, startMinute, endHour, endMinute);
-                                dailyDonationsNeeded[dayIndex] = maxCapacity;
-                            }
-                        }
+    /**
+     * Method parseCommunityFoodOrg
+     * @param line one line of a community food organizations file
+     * @param pool the pool city, state and ZIP code are shared through
+     * @return the organization on the line, or null for a short line or an unknown organization type
+     */
+    static CommunityFoodOrg parseCommunityFoodOrg(String line, StringPool pool) {
+        String[] parts = line.split(";");
+        if (parts.length < 9) return null; // Skip invalid lines
+        //code to check to see if Datamanager is correctly parsing the file
+        /*  for (int i = 0; i < parts.length; i++) {
+            System.out.println("Index " + i + ": " + parts[i]);
+        } */
+        String type = parts[0];
+        String id = parts[1];
+        String name = parts[2];
+        double latitude = Double.parseDouble(parts[3].trim());
+        double longitude = Double.parseDouble(parts[4].trim());
+        String address = parts[5];
+        String city = pool.intern(parts[6]);
+        String state = pool.intern(parts[7]);
+        String zip = pool.intern(parts[8]);
+        boolean offersTransportation = parts[9].equalsIgnoreCase("yes");
+        Location location = new Location(latitude, longitude, address, city, state, zip);
+
+        if (type.equalsIgnoreCase("Food Bank")) {
+            double maxCapacity = Double.parseDouble(parts[10]);
+            TimeFrame[] dailyOpenHours = new TimeFrame[7];
+            WeeklySchedule shifts = null;
+            double[] dailyDonationsNeeded = new double[7];
+
+            for (int i = 11; i < parts.length; i++) {
+                String[] dayInfo = parts[i].split("@");
+                if (dayInfo.length == 3) {
+                    int dayIndex = getDayIndex(dayInfo[0]);
+                    if (dayIndex != -1) {
+                        String[] startTimeParts = dayInfo[1].split(":");
+                        String[] endTimeParts = dayInfo[2].split(":");
+
+                        int startHour = Integer.parseInt(startTimeParts[0]);
+                        int startMinute = Integer.parseInt(startTimeParts[1]);
+                        int endHour = Integer.parseInt(endTimeParts[0]);
+                        int endMinute = Integer.parseInt(endTimeParts[1]);
+
+                        shifts = addHours(dailyOpenHours, shifts, dayIndex, TimeFrame.of(startHour, startMinute, endHour, endMinute));
+                        dailyDonationsNeeded[dayIndex] = maxCapacity;
                     }
-                    organizations.add(new FoodBank(id, name, location, dailyOpenHours, maxCapacity, dailyDonationsNeeded));
-
-                } else if (type.equalsIgnoreCase("Food Pantry")) {
-                    TimeFrame[] dailyOpenHours = new TimeFrame[7];
-                    int[] dailyVolunteersNeeded = new int[7];
-                    int[] dailyVolunteerSignups = new int[7];
-
-                    for (int i = 10; i < parts.length; i++) {
-                        String[] dayInfo = parts[i].split("@");
-                        if (dayInfo.length == 4) {
-                            int dayIndex = getDayIndex(dayInfo[0]);
-                            if (dayIndex != -1) {
-                                String[] startTimeParts = dayInfo[1].split(":");
-                                String[] endTimeParts = dayInfo[2].split(":");
-
-                                int startHour = Integer.parseInt(startTimeParts[0]);
-                                int startMinute = Integer.parseInt(startTimeParts[1]);
-                                int endHour = Integer.parseInt(endTimeParts[0]);
-                                int endMinute = Integer.parseInt(endTimeParts[1]);
-
-                                dailyOpenHours[dayIndex] = new TimeFrame(startHour, startMinute, endHour, endMinute);
-                                dailyVolunteersNeeded[dayIndex] = Integer.parseInt(dayInfo[3]);
-                            }
-                        }
+                }
+            }
+            FoodBank bank = new FoodBank(id, name, location, dailyOpenHours, maxCapacity, dailyDonationsNeeded);
+            if (shifts != null) bank.setShifts(shifts);
+            return bank;
+
+        } else if (type.equalsIgnoreCase("Food Pantry")) {
+            TimeFrame[] dailyOpenHours = new TimeFrame[7];
+            WeeklySchedule shifts = null;
+            int[] dailyVolunteersNeeded = new int[7];
+            int[] dailyVolunteerSignups = new int[7];
+
+            for (int i = 10; i < parts.length; i++) {
+                String[] dayInfo = parts[i].split("@");
+                if (dayInfo.length == 4) {
+                    int dayIndex = getDayIndex(dayInfo[0]);
+                    if (dayIndex != -1) {
+                        String[] startTimeParts = dayInfo[1].split(":");
+                        String[] endTimeParts = dayInfo[2].split(":");
+
+                        int startHour = Integer.parseInt(startTimeParts[0]);
+                        int startMinute = Integer.parseInt(startTimeParts[1]);
+                        int endHour = Integer.parseInt(endTimeParts[0]);
+                        int endMinute = Integer.parseInt(endTimeParts[1]);
+
+                        shifts = addHours(dailyOpenHours, shifts, dayIndex, TimeFrame.of(startHour, startMinute, endHour, endMinute));
+                        dailyVolunteersNeeded[dayIndex] += Integer.parseInt(dayInfo[3]); // summed over a day's shifts
                     }
-                    organizations.add(new FoodPantry(id, name, location, dailyOpenHours, dailyVolunteersNeeded, dailyVolunteerSignups, offersTransportation));
                 }
             }
-        } catch (IOException e) {
-            System.err.println("Error reading community food organizations: " + e.getMessage());
+            FoodPantry pantry = new FoodPantry(id, name, location, dailyOpenHours, dailyVolunteersNeeded, dailyVolunteerSignups, offersTransportation);
+            if (shifts != null) pantry.setShifts(shifts);
+            return pantry;
         }
-        return organizations;
+        return null; // unknown organization type
+    }
+
+    /**
+     * Method readOrgRegistry
+     * @param filename the community food organizations data file
+     * @return the file's organizations, in file order, indexed by id, name, type and open day
+     *
+     * Organizations whose id repeats an earlier line are kept (the first one keeps the id) and
+     * reported, since signups and the HTTP API find organizations by id.
+     */
+    public static OrgRegistry readOrgRegistry(String filename) {
+        OrgRegistry registry = new OrgRegistry(readCommunityFoodOrgs(filename));
+        for (String id : registry.getDuplicateIds()) {
+            System.err.println("Duplicate organization id " + id + " in " + filename + "; lookups by id find the first one");
+        }
+        return registry;
     }
 
     // Static method to read volunteers from a file
     public static ArrayList<Volunteer> readVolunteers(String filename) {
+        long start = System.nanoTime();
+        StringPool pool = StringPool.shared(); // states, ZIP codes and day names repeat across records
         ArrayList<Volunteer> volunteers = new ArrayList<>();
         try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
             String line;
@@ -108,10 +147,10 @@ public class DataManager {
                 double latitude = Double.parseDouble(parts[4].trim());
                 double longitude = Double.parseDouble(parts[5].trim());
                 String address = parts[6];
-                String city = parts[7];
-                String state = parts[7];
-                String zip = parts[8];
-                String dayAvailable = parts[9];
+                String city = ""; // the file has no city column; parts[7] is the state
+                String state = pool.intern(parts[7]);
+                String zip = pool.intern(parts[8]);
+                String dayAvailable = pool.intern(parts[9]);
 
                 String[] startTimeParts = parts[10].split(":");
                 String[] endTimeParts = parts[11].split(":");
@@ -125,16 +164,51 @@ public class DataManager {
                 boolean needsTransportation = parts[13].trim().equalsIgnoreCase("yes");
 
                 Location location = new Location(latitude, longitude, address, city, state, zip);
-                TimeFrame timeAvailable = new TimeFrame(startHour, startMinute, endHour, endMinute);
-                volunteers.add(new Volunteer(id, firstName + " " + lastName, age, location, dayAvailable, timeAvailable, distanceAvailable, needsTransportation, donation));
+                TimeFrame timeAvailable = TimeFrame.of(startHour, startMinute, endHour, endMinute);
+                Volunteer volunteer = new Volunteer(id, firstName + " " + lastName, age, location, dayAvailable, timeAvailable, distanceAvailable, needsTransportation, donation);
+
+                // Optional additional windows after the donation, as Day@HH:MM@HH:MM
+                for (int i = 15; i < parts.length; i++) {
+                    String[] window = parts[i].split("@");
+                    if (window.length == 3) volunteer.addAvailability(window[0], parseTimeFrame(window[1], window[2]));
+                }
+                volunteers.add(volunteer);
             }
         } catch (IOException e) {
             System.err.println("Error reading volunteers: " + e.getMessage());
         }
+        FoodConnectMetrics.recordParse(filename, volunteers.size(), System.nanoTime() - start);
         return volunteers;
     }
 
 
+    /**
+     * Method addHours
+     * @param dailyOpenHours the open hours parsed so far
+     * @param shifts every shift parsed so far, or null while no day was listed twice
+     * @param dayIndex the day of the entry just parsed
+     * @param hours its hours
+     * @return the shifts to pass to the next call: still null until a day is listed a second
+     *         time, which makes it a split-shift day (see CommunityFoodOrg.setShifts)
+     */
+    static WeeklySchedule addHours(TimeFrame[] dailyOpenHours, WeeklySchedule shifts, int dayIndex, TimeFrame hours) {
+        if (shifts == null && dailyOpenHours[dayIndex] == null) {
+            dailyOpenHours[dayIndex] = hours;
+            return null;
+        }
+        if (shifts == null) shifts = WeeklySchedule.of(dailyOpenHours);
+        shifts.add(dayIndex, hours);
+        return shifts;
+    }
+
+    // "HH:MM" start and end into a TimeFrame
+    private static TimeFrame parseTimeFrame(String start, String end) {
+        String[] startTimeParts = start.split(":");
+        String[] endTimeParts = end.split(":");
+        return TimeFrame.of(Integer.parseInt(startTimeParts[0]), Integer.parseInt(startTimeParts[1]),
+                Integer.parseInt(endTimeParts[0]), Integer.parseInt(endTimeParts[1]));
+    }
+
     // Map day names to indices
     private static int getDayIndex(String dayName) {
         switch (dayName.toLowerCase()) {
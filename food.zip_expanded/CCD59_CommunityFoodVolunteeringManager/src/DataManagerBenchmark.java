@@ -0,0 +1,70 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Class DataManagerBenchmark
+ *
+ * Compares the throughput of DataManager (line split + String parsing) with StreamingDataReader
+ * (memory-mapped, in-place tokenizing) on a generated volunteers file and organizations file.
+ *
+ * Usage: java DataManagerBenchmark [volunteerRows] [orgRows] [iterations]
+ */
+public class DataManagerBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int volunteerRows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int orgRows = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        File volunteersFile = File.createTempFile("volunteers", ".txt");
+        File orgsFile = File.createTempFile("community_food_organizations", ".txt");
+        volunteersFile.deleteOnExit();
+        orgsFile.deleteOnExit();
+        SyntheticDataGenerator.writeVolunteers(volunteersFile, volunteerRows, SyntheticDataGenerator.DEFAULT_SEED);
+        SyntheticDataGenerator.writeOrgs(orgsFile, orgRows, SyntheticDataGenerator.DEFAULT_SEED);
+
+        System.out.println("Volunteers: " + volunteerRows + " rows, " + volunteersFile.length() / (1 << 20) + " MB");
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            ArrayList<Volunteer> volunteers = DataManager.readVolunteers(volunteersFile.getPath());
+            long dataManagerNanos = System.nanoTime() - start;
+
+            final long[] streamed = new long[1];
+            start = System.nanoTime();
+            StreamingDataReader.streamVolunteers(volunteersFile.getPath(), v -> streamed[0]++);
+            long streamingNanos = System.nanoTime() - start;
+
+            report(i, volunteers.size(), dataManagerNanos, streamed[0], streamingNanos, volunteersFile.length());
+        }
+
+        System.out.println("Organizations: " + orgRows + " rows, " + orgsFile.length() / (1 << 20) + " MB");
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            ArrayList<CommunityFoodOrg> orgs = DataManager.readCommunityFoodOrgs(orgsFile.getPath());
+            long dataManagerNanos = System.nanoTime() - start;
+
+            final long[] streamed = new long[1];
+            start = System.nanoTime();
+            StreamingDataReader.streamCommunityFoodOrgs(orgsFile.getPath(), o -> streamed[0]++);
+            long streamingNanos = System.nanoTime() - start;
+
+            report(i, orgs.size(), dataManagerNanos, streamed[0], streamingNanos, orgsFile.length());
+        }
+    }
+
+    private static void report(int iteration, long dataManagerRows, long dataManagerNanos,
+                               long streamingRows, long streamingNanos, long bytes) {
+        System.out.printf("  #%d DataManager: %,d rows in %d ms (%.1f MB/s) | Streaming: %,d rows in %d ms (%.1f MB/s) | speedup %.2fx%n",
+                iteration, dataManagerRows, dataManagerNanos / 1_000_000, mbPerSecond(bytes, dataManagerNanos),
+                streamingRows, streamingNanos / 1_000_000, mbPerSecond(bytes, streamingNanos),
+                (double) dataManagerNanos / streamingNanos);
+        if (dataManagerRows != streamingRows) {
+            System.out.println("  WARNING: readers disagree on the number of rows");
+        }
+    }
+
+    private static double mbPerSecond(long bytes, long nanos) {
+        return bytes / (1024.0 * 1024.0) / (nanos / 1e9);
+    }
+}
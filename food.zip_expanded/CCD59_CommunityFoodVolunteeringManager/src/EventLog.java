@@ -0,0 +1,293 @@
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Class EventLog
+ *
+ * Structured event log that keeps console and file I/O off the signup path. Callers publish
+ * an Event with its arguments into a bounded ring buffer of preallocated slots (claiming a slot
+ * is one compare-and-set, no lock, no allocation, no string building); a background thread
+ * formats and writes them. When the buffer is full, events are dropped and counted rather
+ * than blocking a signup, and the count is written once the buffer drains.
+ *
+ * - Levels: events below the current level cost one volatile read. Level.OFF is the no-op mode.
+ * - Output: the console (System.out at the time of writing) as plain message text, which reads
+ *   exactly like the old println output, or a file as one key=value line per event.
+ * - Configuration: the foodconnect.log.level (DEBUG, INFO, WARN, ERROR, OFF; default INFO),
+ *   foodconnect.log.file (default console) and foodconnect.log.capacity (default 8192) system
+ *   properties, or setLevel / setOutput at runtime.
+ *
+ * The background thread flushes once when the buffer runs dry and then parks until the next
+ * event; a producer only unparks it when it has marked itself idle.
+ *
+ * flush() waits until everything published so far is written; a shutdown hook does the same.
+ */
+public final class EventLog {
+
+    public enum Level { DEBUG, INFO, WARN, ERROR, OFF }
+
+    /**
+     * Enum Event
+     * Every kind of event, with its level, its message ({0}, {1}... are the arguments) and the
+     * names its arguments get in key=value output.
+     */
+    public enum Event {
+        SIGNUP_CHECK(Level.INFO, "signup.check",
+                "Checking the necessary information for signing up {0} for helping {1} on {2}", "volunteer", "org", "day"),
+        DONATION_REJECTED(Level.INFO, "signup.rejected", "Not enough space for donations on {1}", "org", "day"),
+        SIGNUP_CANCELED(Level.INFO, "signup.canceled", "Canceling volunteer signup for {0} on {1}", "org", "day"),
+        ORGS_RELOADED(Level.INFO, "orgs.reloaded", "Reloaded {0}: {1}", "file", "changes");
+
+        private final Level level;
+        private final String name;
+        private final String message;
+        private final String[] keys;
+
+        Event(Level level, String name, String message, String... keys) {
+            this.level = level;
+            this.name = name;
+            this.message = message;
+            this.keys = keys;
+        }
+
+        public Level getLevel() { return level; }
+    }
+
+    public enum Format { TEXT, KEY_VALUE }
+
+    private static final int CAPACITY = Integer.highestOneBit(Math.max(2, Integer.getInteger("foodconnect.log.capacity", 8192)));
+    private static final int MASK = CAPACITY - 1;
+
+    // One slot of the ring; sequence is published last, so a reader that sees it sees the fields
+    private static final class Slot {
+        volatile long sequence = -1;
+        long timeMillis;
+        Event event;
+        Object first, second, third;
+    }
+
+    private static final Slot[] ring = new Slot[CAPACITY];
+    private static final AtomicLong claimed = new AtomicLong(); // next sequence to hand out
+    private static volatile long drained = 0;                   // next sequence the drainer will read
+    private static final AtomicLong dropped = new AtomicLong();
+
+    private static volatile Level level = parseLevel(System.getProperty("foodconnect.log.level", "INFO"));
+    private static volatile Writer fileOutput;
+    private static volatile Format format = Format.TEXT;
+    private static volatile Thread drainer;
+    private static volatile boolean idle; // the drainer is parked, or about to park, on an empty ring
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) ring[i] = new Slot();
+        String file = System.getProperty("foodconnect.log.file");
+        if (file != null) {
+            try {
+                setOutput(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)),
+                        Format.KEY_VALUE);
+            } catch (IOException e) {
+                System.err.println("Cannot open event log " + file + ", logging to the console: " + e.getMessage());
+            }
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(EventLog::flush, "event-log-shutdown"));
+    }
+
+    private EventLog() { }
+
+    // Is an event of this level written at the current level?
+    public static boolean isEnabled(Level eventLevel) {
+        return eventLevel.compareTo(level) >= 0 && level != Level.OFF;
+    }
+
+    /**
+     * Method log
+     * @param event the kind of event
+     * @param first, second, third the event's arguments (unused ones may be null); they are
+     *        formatted on the drainer thread, so pass values that are not changed afterwards
+     */
+    public static void log(Event event, Object first, Object second, Object third) {
+        if (!isEnabled(event.level)) return;
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - drained >= CAPACITY) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        Slot slot = ring[(int) sequence & MASK];
+        slot.timeMillis = System.currentTimeMillis();
+        slot.event = event;
+        slot.first = first;
+        slot.second = second;
+        slot.third = third;
+        slot.sequence = sequence;
+        // after publishing: a drainer that set idle before this either sees the slot or gets unparked
+        if (idle) LockSupport.unpark(drainer);
+        else startDrainer();
+    }
+
+    public static void log(Event event, Object first, Object second) {
+        log(event, first, second, null);
+    }
+
+    /**
+     * Method flush
+     * Blocks until every event published before the call has been written out.
+     */
+    public static void flush() {
+        long target = claimed.get();
+        while (drained < target) {
+            Thread thread = drainer;
+            if (thread != null) LockSupport.unpark(thread);
+            LockSupport.parkNanos(100_000);
+        }
+        synchronized (EventLog.class) {
+            flushOutput();
+        }
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Method setOutput
+     * @param output where events are written from now on, or null for the console
+     * @param newFormat TEXT for message lines, KEY_VALUE for one key=value line per event
+     */
+    public static void setOutput(Writer output, Format newFormat) {
+        flush();
+        synchronized (EventLog.class) {
+            fileOutput = output;
+            format = newFormat;
+        }
+    }
+
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private static void startDrainer() {
+        Thread thread = drainer;
+        if (thread == null) {
+            synchronized (EventLog.class) {
+                if (drainer == null) {
+                    drainer = new Thread(EventLog::drainLoop, "event-log-drainer");
+                    drainer.setDaemon(true);
+                    drainer.start();
+                }
+            }
+        }
+    }
+
+    // Background thread: write published events in order, flushing once whenever the ring runs dry
+    private static void drainLoop() {
+        StringBuilder line = new StringBuilder(256);
+        long reportedDrops = 0;
+        boolean unflushed = false;
+        while (true) {
+            long next = drained;
+            Slot slot = ring[(int) next & MASK];
+            if (slot.sequence != next) {
+                // nothing published yet (or a producer is still filling the slot, and will unpark us)
+                if (unflushed) {
+                    synchronized (EventLog.class) {
+                        flushOutput();
+                    }
+                    unflushed = false;
+                }
+                idle = true;
+                if (slot.sequence != next) LockSupport.park();
+                idle = false;
+                continue;
+            }
+
+            line.setLength(0);
+            format(line, slot);
+            slot.event = null;
+            slot.first = slot.second = slot.third = null;
+
+            long drops = dropped.get();
+            if (drops != reportedDrops && claimed.get() == next + 1) {
+                line.append(System.lineSeparator()).append("(event log dropped ").append(drops - reportedDrops)
+                    .append(" events while its buffer was full)");
+                reportedDrops = drops;
+            }
+            synchronized (EventLog.class) {
+                write(line);
+            }
+            unflushed = true;
+            // advanced only once written, so flush() returns after the line is out
+            drained = next + 1;
+        }
+    }
+
+    private static void format(StringBuilder line, Slot slot) {
+        Event event = slot.event;
+        Object[] arguments = {slot.first, slot.second, slot.third};
+        if (format == Format.KEY_VALUE) {
+            line.append("ts=").append(slot.timeMillis).append(" level=").append(event.level)
+                .append(" event=").append(event.name);
+            for (int i = 0; i < event.keys.length; i++) {
+                line.append(' ').append(event.keys[i]).append("=\"").append(arguments[i]).append('"');
+            }
+            return;
+        }
+        String message = event.message;
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c == '{' && i + 2 < message.length() && message.charAt(i + 2) == '}') {
+                line.append(arguments[message.charAt(i + 1) - '0']);
+                i += 2;
+            } else {
+                line.append(c);
+            }
+        }
+    }
+
+    // Callers hold the EventLog class lock
+    private static void write(CharSequence line) {
+        Writer output = fileOutput;
+        try {
+            if (output != null) {
+                output.append(line).append(System.lineSeparator());
+            } else {
+                PrintStream console = System.out;
+                console.println(line);
+            }
+        } catch (IOException e) {
+            System.err.println("Event log write failed, logging to the console: " + e.getMessage());
+            fileOutput = null;
+        }
+    }
+
+    private static void flushOutput() {
+        Writer output = fileOutput;
+        try {
+            if (output != null) output.flush();
+            else System.out.flush();
+        } catch (IOException e) {
+            System.err.println("Event log flush failed: " + e.getMessage());
+        }
+    }
+
+    private static Level parseLevel(String name) {
+        try {
+            return Level.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+}
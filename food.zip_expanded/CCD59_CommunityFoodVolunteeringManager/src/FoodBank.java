@@ -1,12 +1,22 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
 public class FoodBank extends CommunityFoodOrg {
 	/**
 	 * Class FoodBank
 	 * @author : Chukwudalu Dumebi-Kachikwu
 	 * @created 12/10/2024
+	 *
+	 * Donations still needed per day are kept as whole milli-pounds in an AtomicLongArray.
+	 * Fixed-point amounts make reserving and returning a donation an exact compare-and-set
+	 * on one long, so concurrent signups can never take more than what is still needed.
+	 * Every day, open or closed, needs the capacity less the donations still pledged for it, so
+	 * closing a day and opening it again leaves its pledges counted.
 	 */
 
-    private double maxCapacity = 500;
-    private double[] dailyDonationsNeeded;
+    private static final double MILLIPOUNDS_PER_POUND = 1000;
+
+    private volatile double maxCapacity = 500;
+    private final AtomicLongArray dailyDonationsNeeded = new AtomicLongArray(7); // in milli-pounds
 
     /**
      * Constructor for FoodBank
@@ -15,13 +25,13 @@ public class FoodBank extends CommunityFoodOrg {
      * @param loc a Location object representing the geographic location of the food bank
      * @param dailyHours a TimeFrame array representing the daily open hours
      * @param maxCapacity the maximum capacity of the food bank in pounds
+     * @param dailyDN kept for the file format; with nothing pledged yet, every day needs the full capacity
      */
     public FoodBank(String id, String name, Location loc, TimeFrame[] dailyHours, double maxCapacity, double [] dailyDN) {
         super(id, name, loc, dailyHours, null, null, false);
         this.maxCapacity = maxCapacity;
-        this.dailyDonationsNeeded = dailyDN;
         for (int i = 0; i < 7; i++) {
-            this.dailyDonationsNeeded[i] = maxCapacity;
+            this.dailyDonationsNeeded.set(i, toMillipounds(maxCapacity));
         }
     }
 
@@ -35,21 +45,30 @@ public class FoodBank extends CommunityFoodOrg {
         this.maxCapacity = maxCapacity;
     }
 
-    // Getter for dailyDonationsNeeded
+    // Getter for dailyDonationsNeeded (a snapshot of the current amounts)
     public double[] getDailyDonationsNeeded() {
-        return dailyDonationsNeeded;
+        double[] needed = new double[7];
+        for (int i = 0; i < 7; i++) {
+            needed[i] = toPounds(dailyDonationsNeeded.get(i));
+        }
+        return needed;
     }
 
     // Method to get the donations needed for a specific day
     public double getDailyDonationsNeeded(String dayName) {
         int dayIndex = getDayIndex(dayName);
         if (dayIndex != -1) {
-            return dailyDonationsNeeded[dayIndex];
+            return getDailyDonationsNeeded(dayIndex);
         } else {
             throw new IllegalArgumentException("Invalid day name: " + dayName);
         }
     }
 
+    // Method to get the donations needed for a day index (0 = Monday ... 6 = Sunday)
+    public double getDailyDonationsNeeded(int dayIndex) {
+        return toPounds(dailyDonationsNeeded.get(dayIndex));
+    }
+
     // Method to set the donations needed for a specific day
     public void setDailyDonationsNeeded(double donations, String dayName) {
         int dayIndex = getDayIndex(dayName);
@@ -57,7 +76,8 @@ public class FoodBank extends CommunityFoodOrg {
             if (donations < 0 || donations > maxCapacity) {
                 throw new IllegalArgumentException("Donations must be between 0 and maxCapacity.");
             }
-            dailyDonationsNeeded[dayIndex] = donations;
+            dailyDonationsNeeded.set(dayIndex, toMillipounds(donations));
+            fireCapacityChanged(dayIndex);
         } else {
             throw new IllegalArgumentException("Invalid day name: " + dayName);
         }
@@ -66,17 +86,14 @@ public class FoodBank extends CommunityFoodOrg {
     // Override signUpVolunteer method
     @Override
     public boolean signUpVolunteer(Volunteer volunteer, String dayName) {
-        System.out.println("Checking the necessary information for signing up " + volunteer.getFullName()
-                + " for helping " + getName() + " on " + dayName);
+        EventLog.log(EventLog.Event.SIGNUP_CHECK, volunteer.getFullName(), getName(), dayName);
 
         int dayIndex = getDayIndex(dayName);
         if (dayIndex != -1) {
-            double donation = volunteer.getDonation();
-            if (donation <= dailyDonationsNeeded[dayIndex]) {
-                dailyDonationsNeeded[dayIndex] -= donation;
+            if (reserveDonation(dayIndex, volunteer.getDonation())) {
                 return true;
             } else {
-                System.out.println("Not enough space for donations on " + dayName);
+                EventLog.log(EventLog.Event.DONATION_REJECTED, getName(), dayName);
                 return false;
             }
         } else {
@@ -84,18 +101,78 @@ public class FoodBank extends CommunityFoodOrg {
         }
     }
 
+    /**
+     * Method reserveDonation
+     * @param dayIndex the day (0 = Monday ... 6 = Sunday)
+     * @param pounds the donation to take out of what is still needed
+     * @return true if the whole donation fit, false if not enough is still needed that day
+     */
+    public boolean reserveDonation(int dayIndex, double pounds) {
+        long amount = toMillipounds(pounds);
+        while (true) {
+            long needed = dailyDonationsNeeded.get(dayIndex);
+            if (amount > needed) return false;
+            if (dailyDonationsNeeded.compareAndSet(dayIndex, needed, needed - amount)) {
+                fireCapacityChanged(dayIndex);
+                return true;
+            }
+        }
+    }
+
     // Overloaded cancelVolunteerSignup method
     public void cancelVolunteerSignup(String dayName, double donation) {
         int dayIndex = getDayIndex(dayName);
         if (dayIndex != -1) {
-            dailyDonationsNeeded[dayIndex] += donation;
-            if (dailyDonationsNeeded[dayIndex] > maxCapacity) {
-                dailyDonationsNeeded[dayIndex] = maxCapacity;
-            }
+            releaseDonation(dayIndex, donation);
         } else {
             throw new IllegalArgumentException("Invalid day name: " + dayName);
         }
     }
 
- 
+    /**
+     * Method releaseDonation
+     * @param dayIndex the day (0 = Monday ... 6 = Sunday)
+     * @param pounds a previously reserved donation to add back to what is needed (capped at maxCapacity)
+     */
+    public void releaseDonation(int dayIndex, double pounds) {
+        long amount = toMillipounds(pounds);
+        long cap = toMillipounds(maxCapacity);
+        long needed, updated;
+        do {
+            needed = dailyDonationsNeeded.get(dayIndex);
+            updated = Math.min(needed + amount, cap);
+        } while (!dailyDonationsNeeded.compareAndSet(dayIndex, needed, updated));
+        fireCapacityChanged(dayIndex);
+    }
+
+    /**
+     * Method resizeCapacity
+     * @param maxCapacity the new maximum capacity in pounds
+     *
+     * Donations already reserved stay reserved: every day's need, closed days included, moves by
+     * the change in capacity (never below 0 or above the new capacity), each with a
+     * compare-and-set so concurrent signups are not lost.
+     */
+    public synchronized void resizeCapacity(double maxCapacity) {
+        long change = toMillipounds(maxCapacity) - toMillipounds(this.maxCapacity);
+        long cap = toMillipounds(maxCapacity);
+        this.maxCapacity = maxCapacity;
+        if (change == 0) return;
+        for (int day = 0; day < 7; day++) {
+            long needed, updated;
+            do {
+                needed = dailyDonationsNeeded.get(day);
+                updated = Math.max(0, Math.min(needed + change, cap));
+            } while (!dailyDonationsNeeded.compareAndSet(day, needed, updated));
+        }
+        fireCapacityChanged(-1);
+    }
+
+    private static long toMillipounds(double pounds) {
+        return Math.round(pounds * MILLIPOUNDS_PER_POUND);
+    }
+
+    private static double toPounds(long millipounds) {
+        return millipounds / MILLIPOUNDS_PER_POUND;
+    }
 }
@@ -0,0 +1,205 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Class FoodConnectLoadTest
+ *
+ * Local load test for FoodConnectServer. Starts the server on a free port over seeded generated
+ * data, then sends a mix of requests (50% match, 25% signup, 15% cancel, 10% capacity) from a
+ * number of client threads, and reports requests per second and p50/p99 latency per endpoint.
+ * Finally registers a volunteer through POST /volunteers and fails unless the manager's own
+ * volunteer list has them (and a second registration of the same id is refused).
+ *
+ * Usage: java FoodConnectLoadTest [orgs] [volunteers] [requests] [clients]
+ */
+public class FoodConnectLoadTest {
+
+    private static final String[] ENDPOINTS = {"match", "signup", "cancel", "capacity"};
+
+    public static void main(String[] args) throws Exception {
+        int orgCount = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int volunteerCount = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+        int clients = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+
+        File dir = File.createTempFile("foodconnect-load", "");
+        dir.delete();
+        dir.mkdirs();
+        File orgsFile = new File(dir, "orgs.txt"), volunteersFile = new File(dir, "volunteers.txt");
+        SyntheticDataGenerator.writeOrgs(orgsFile, orgCount, SyntheticDataGenerator.DEFAULT_SEED);
+        SyntheticDataGenerator.writeVolunteers(volunteersFile, volunteerCount, SyntheticDataGenerator.DEFAULT_SEED);
+
+        EventLog.setLevel(EventLog.Level.OFF); // one console line per signup would measure the terminal
+        PrintStream console = System.out;
+        VolunteeringManager manager;
+        try {
+            System.setOut(new PrintStream(new OutputStream() {
+                @Override
+                public void write(int b) { }
+            }));
+            manager = new VolunteeringManager(orgsFile.getPath(), volunteersFile.getPath());
+        } finally {
+            System.setOut(console);
+        }
+        List<String> volunteerIds = new ArrayList<>();
+        for (Volunteer volunteer : manager.getVolunteers()) volunteerIds.add(volunteer.getId());
+        List<String> orgIds = new ArrayList<>();
+        for (CommunityFoodOrg org : manager.getOrgs()) orgIds.add(org.getId());
+
+        try (FoodConnectServer server = new FoodConnectServer(manager, 0)) {
+            server.start();
+            String base = "http://localhost:" + server.getPort() + "/";
+            console.printf("FoodConnectLoadTest: %,d orgs, %,d volunteers, %,d requests from %d clients (%s)%n",
+                    orgIds.size(), volunteerIds.size(), requests, clients,
+                    server.usesVirtualThreads() ? "virtual threads" : "thread pool");
+
+            // warm up the server and the JIT before measuring
+            runClients(base, volunteerIds, orgIds, Math.min(requests, 2000), clients, 1);
+            int[] failures = new int[1];
+            long start = System.nanoTime();
+            List<long[]> latencies = runClients(base, volunteerIds, orgIds, requests, clients, 2, failures);
+            long elapsed = System.nanoTime() - start;
+
+            console.printf("%,d requests in %d ms: %,.0f requests/s, %d failed%n",
+                    requests, elapsed / 1_000_000, requests / (elapsed / 1e9), failures[0]);
+            long[] all = new long[0];
+            for (int i = 0; i < ENDPOINTS.length; i++) {
+                report(console, ENDPOINTS[i], latencies.get(i));
+                all = concat(all, latencies.get(i));
+            }
+            Arrays.sort(all);
+            report(console, "all", all);
+
+            String id = "registered-" + volunteerIds.size();
+            String registration = base + "volunteers?id=" + encode(id) + "&name=New+Volunteer&age=30&latitude=40.5"
+                    + "&longitude=-78&day=Monday&start=09:00&end=12:00&distance=20&transport=no";
+            int created = send("POST", registration), repeated = send("POST", registration);
+            boolean managed = false;
+            synchronized (manager.getVolunteers()) {
+                for (Volunteer volunteer : manager.getVolunteers()) managed |= volunteer.getId().equals(id);
+            }
+            boolean registered = created == 200 && repeated == 409 && managed;
+            console.printf("POST /volunteers: %s%n", registered ? "registered volunteer joined the manager"
+                    : "status " + created + ", repeat " + repeated + ", in manager " + managed);
+            if (!registered) System.exit(1);
+        } finally {
+            orgsFile.delete();
+            volunteersFile.delete();
+            dir.delete();
+        }
+    }
+
+    private static List<long[]> runClients(String base, List<String> volunteerIds, List<String> orgIds,
+                                           int requests, int clients, long seed) throws Exception {
+        return runClients(base, volunteerIds, orgIds, requests, clients, seed, new int[1]);
+    }
+
+    // Sends the requests from the given number of threads; returns the sorted latencies (ns) per endpoint
+    private static List<long[]> runClients(String base, List<String> volunteerIds, List<String> orgIds,
+                                           int requests, int clients, long seed, int[] failures) throws Exception {
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        List<Future<long[][]>> results = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            Random random = new Random(seed * 1000 + c);
+            results.add(pool.submit(() -> {
+                long[][] samples = new long[ENDPOINTS.length][16];
+                int[] counts = new int[ENDPOINTS.length];
+                while (next.getAndIncrement() < requests) {
+                    int pick = random.nextInt(100);
+                    int endpoint = pick < 50 ? 0 : pick < 75 ? 1 : pick < 90 ? 2 : 3;
+                    String volunteer = volunteerIds.get(random.nextInt(volunteerIds.size()));
+                    String org = orgIds.get(random.nextInt(orgIds.size()));
+                    long begin = System.nanoTime();
+                    int status;
+                    switch (endpoint) {
+                        case 0: status = send("GET", base + "match?volunteer=" + encode(volunteer)); break;
+                        case 1: status = send("POST", base + "signup?volunteer=" + encode(volunteer)); break;
+                        case 2: status = send("POST", base + "cancel?volunteer=" + encode(volunteer)); break;
+                        default: status = send("GET", base + "capacity?org=" + encode(org)); break;
+                    }
+                    long nanos = System.nanoTime() - begin;
+                    if (status != 200 && status != 409) failed.incrementAndGet(); // 409: already signed up
+                    if (counts[endpoint] == samples[endpoint].length) {
+                        samples[endpoint] = Arrays.copyOf(samples[endpoint], counts[endpoint] * 2);
+                    }
+                    samples[endpoint][counts[endpoint]++] = nanos;
+                }
+                for (int i = 0; i < ENDPOINTS.length; i++) samples[i] = Arrays.copyOf(samples[i], counts[i]);
+                return samples;
+            }));
+        }
+
+        List<long[]> perEndpoint = new ArrayList<>();
+        for (int i = 0; i < ENDPOINTS.length; i++) perEndpoint.add(new long[0]);
+        for (Future<long[][]> result : results) {
+            long[][] samples = result.get();
+            for (int i = 0; i < ENDPOINTS.length; i++) perEndpoint.set(i, concat(perEndpoint.get(i), samples[i]));
+        }
+        pool.shutdown();
+        failures[0] += failed.get();
+        for (long[] latencies : perEndpoint) Arrays.sort(latencies);
+        return perEndpoint;
+    }
+
+    private static long[] concat(long[] first, long[] second) {
+        long[] joined = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, joined, first.length, second.length);
+        return joined;
+    }
+
+    private static int send(String method, String url) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod(method);
+        if (method.equals("POST")) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.flush();
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream body = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        if (body != null) {
+            try (InputStream in = body) {
+                byte[] buffer = new byte[4096];
+                while (in.read(buffer) > 0) { } // drain so the connection is reused
+            }
+        }
+        return status;
+    }
+
+    private static String encode(String value) throws IOException {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8.name());
+    }
+
+    private static void report(PrintStream out, String name, long[] sorted) {
+        if (sorted.length == 0) {
+            out.printf("  %-9s no requests%n", name);
+            return;
+        }
+        out.printf("  %-9s %,7d requests  p50 %8.3f ms  p99 %8.3f ms  max %8.3f ms%n", name, sorted.length,
+                percentile(sorted, 0.50) / 1e6, percentile(sorted, 0.99) / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+
+    // Nearest-rank percentile of sorted values
+    private static long percentile(long[] sorted, double fraction) {
+        int rank = (int) Math.ceil(sorted.length * fraction);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
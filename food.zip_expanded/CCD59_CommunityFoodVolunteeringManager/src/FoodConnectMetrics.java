@@ -0,0 +1,350 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Class FoodConnectMetrics
+ *
+ * Process-wide metrics for matching and signup:
+ * - orgMatch evaluations and rejections by reason, from Volunteer.orgMatch and (through
+ *   recordMatches) the MatchKernel checks that stand in for it
+ * - signup and cancel latency of VolunteeringManager.signUpVolunteerToPriorityOrg and cancelSignup
+ * - parse time of every file DataManager and StreamingDataReader read
+ * - fill ratio of each organization the latest VolunteeringManager manages, computed on demand
+ *   from dailyVolunteerSpotsLeft / getDailyDonationsNeeded
+ *
+ * Counters are LongAdders, so threads recording at the same time do not contend on one cache
+ * line. The same figures are available over JMX (registerMBean, or -Dfoodconnect.metrics.jmx=true)
+ * and as a text snapshot, printed periodically with startPeriodicDump or every
+ * foodconnect.metrics.dumpSeconds seconds to standard error.
+ */
+public final class FoodConnectMetrics implements FoodConnectMetricsMXBean {
+
+    /**
+     * Enum Rejection
+     * Why a volunteer and an organization do not match, in the order orgMatch checks them.
+     */
+    public enum Rejection {
+        TYPE_MISMATCH("type mismatch"), CLOSED("closed"), TRANSPORT("transport"), TIME("time"), DISTANCE("distance");
+
+        private final String label;
+
+        Rejection(String label) { this.label = label; }
+
+        public String getLabel() { return label; }
+    }
+
+    public static final String OBJECT_NAME = "FoodConnect:type=Metrics";
+
+    private static final FoodConnectMetrics INSTANCE = new FoodConnectMetrics();
+    private static final Rejection[] REJECTIONS = Rejection.values();
+
+    private static final LongAdder orgMatchEvaluations = new LongAdder();
+    private static final LongAdder[] rejections = new LongAdder[REJECTIONS.length];
+    private static final LatencyHistogram signupLatency = new LatencyHistogram();
+    private static final LatencyHistogram cancelLatency = new LatencyHistogram();
+    private static final Map<String, ParseStats> parseStats = new ConcurrentHashMap<>();
+    private static volatile List<? extends CommunityFoodOrg> trackedOrgs = Collections.emptyList();
+
+    private static volatile RateSample resetSample = RateSample.now();
+    private final AtomicReference<RateSample> jmxRateWindow = new AtomicReference<>(new RateSample(0, System.nanoTime()));
+    private static ScheduledExecutorService dumper;
+    private static ScheduledFuture<?> dumpTask;
+    private static boolean registered;
+
+    // Evaluation count at a point in time; each reader of a rate keeps its own previous sample
+    private static final class RateSample {
+        final long evaluations;
+        final long nanos;
+
+        RateSample(long evaluations, long nanos) {
+            this.evaluations = evaluations;
+            this.nanos = nanos;
+        }
+
+        static RateSample now() {
+            return new RateSample(orgMatchEvaluations.sum(), System.nanoTime());
+        }
+
+        // Evaluations per second from an earlier sample to this one
+        double rateSince(RateSample earlier) {
+            double seconds = (nanos - earlier.nanos) / 1e9;
+            return seconds > 0 ? (evaluations - earlier.evaluations) / seconds : 0;
+        }
+    }
+
+    // Per-file parse figures
+    private static final class ParseStats {
+        final LatencyHistogram time = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+    }
+
+    static {
+        for (int i = 0; i < rejections.length; i++) rejections[i] = new LongAdder();
+        if (Boolean.getBoolean("foodconnect.metrics.jmx")) registerMBean();
+        long dumpSeconds = Long.getLong("foodconnect.metrics.dumpSeconds", 0);
+        if (dumpSeconds > 0) startPeriodicDump(dumpSeconds * 1000, System.err);
+    }
+
+    private FoodConnectMetrics() { }
+
+    public static FoodConnectMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    // Recording
+
+    public static void countOrgMatch() {
+        orgMatchEvaluations.increment();
+    }
+
+    public static void countRejection(Rejection reason) {
+        rejections[reason.ordinal()].increment();
+    }
+
+    /**
+     * Method recordMatches
+     * @param query a MatchKernel query whose checks since the last call are added to the totals
+     *
+     * MatchKernel counts into the query itself (plain fields of an object one thread uses), so
+     * the kernel's inner loop pays no shared-counter cost; callers hand the counts over once
+     * per volunteer.
+     */
+    public static void recordMatches(MatchKernel.Query query) {
+        if (query.evaluations == 0) return;
+        orgMatchEvaluations.add(query.evaluations);
+        query.evaluations = 0;
+        for (int i = 0; i < REJECTIONS.length; i++) {
+            if (query.rejections[i] != 0) {
+                rejections[i].add(query.rejections[i]);
+                query.rejections[i] = 0;
+            }
+        }
+    }
+
+    public static void recordSignup(long nanos) {
+        signupLatency.record(nanos);
+    }
+
+    public static void recordCancel(long nanos) {
+        cancelLatency.record(nanos);
+    }
+
+    /**
+     * Method recordParse
+     * @param file the file that was read
+     * @param rows how many records it produced
+     * @param nanos how long reading it took
+     */
+    public static void recordParse(String file, long rows, long nanos) {
+        ParseStats stats = parseStats.computeIfAbsent(file, f -> new ParseStats());
+        stats.time.record(nanos);
+        stats.rows.add(rows);
+    }
+
+    /**
+     * Method trackOrgs
+     * @param orgs the organizations whose fill ratios are reported from now on
+     */
+    public static void trackOrgs(List<? extends CommunityFoodOrg> orgs) {
+        trackedOrgs = orgs;
+    }
+
+    /**
+     * Method fillRatio
+     * @param org a food pantry or food bank
+     * @return the share of its capacity over its open days that is taken: volunteer spots signed up
+     *         for a pantry, pounds pledged for a bank; 0 when it has no capacity
+     */
+    public static double fillRatio(CommunityFoodOrg org) {
+        TimeFrame[] hours = org.getDailyOpenHours();
+        double capacity = 0, filled = 0;
+        for (int day = 0; day < 7; day++) {
+            if (hours[day] == null) continue;
+            if (org instanceof FoodBank) {
+                FoodBank bank = (FoodBank) org;
+                capacity += bank.getMaxCapacity();
+                filled += bank.getMaxCapacity() - bank.getDailyDonationsNeeded(day);
+            } else {
+                int needed = org.getDailyVolunteersNeeded()[day];
+                capacity += needed;
+                filled += needed - org.dailyVolunteerSpotsLeft(day);
+            }
+        }
+        return capacity > 0 ? filled / capacity : 0;
+    }
+
+    // JMX
+
+    /**
+     * Method registerMBean
+     * Registers the metrics with the platform MBean server as FoodConnect:type=Metrics (once).
+     */
+    public static synchronized void registerMBean() {
+        if (registered) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+            registered = true;
+        } catch (JMException e) {
+            System.err.println("Could not register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public long getOrgMatchEvaluations() {
+        return orgMatchEvaluations.sum();
+    }
+
+    @Override
+    public double getOrgMatchEvaluationsPerSecond() {
+        return evaluationRate(jmxRateWindow);
+    }
+
+    @Override
+    public Map<String, Long> getRejectionCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Rejection reason : REJECTIONS) counts.put(reason.getLabel(), rejections[reason.ordinal()].sum());
+        return counts;
+    }
+
+    @Override
+    public LatencyHistogram.Summary getSignupLatency() {
+        return signupLatency.summary();
+    }
+
+    @Override
+    public LatencyHistogram.Summary getCancelLatency() {
+        return cancelLatency.summary();
+    }
+
+    @Override
+    public Map<String, LatencyHistogram.Summary> getParseTimes() {
+        Map<String, LatencyHistogram.Summary> times = new TreeMap<>();
+        for (Map.Entry<String, ParseStats> entry : parseStats.entrySet()) {
+            times.put(entry.getKey(), entry.getValue().time.summary());
+        }
+        return times;
+    }
+
+    @Override
+    public Map<String, Double> getFillRatios() {
+        Map<String, Double> ratios = new LinkedHashMap<>();
+        for (CommunityFoodOrg org : trackedOrgs) ratios.put(org.getId(), fillRatio(org));
+        return ratios;
+    }
+
+    @Override
+    public String dumpSnapshot() {
+        return snapshot();
+    }
+
+    @Override
+    public void reset() {
+        resetAll();
+    }
+
+    // Snapshots
+
+    /**
+     * Method snapshot
+     * @return every metric as readable text, one line per figure, with the evaluation rate
+     *         averaged since the last reset
+     */
+    public static String snapshot() {
+        return snapshot(RateSample.now().rateSince(resetSample));
+    }
+
+    private static String snapshot(double evaluationsPerSecond) {
+        StringBuilder text = new StringBuilder();
+        String nl = System.lineSeparator();
+        text.append("FoodConnect metrics at ").append(new java.util.Date()).append(nl);
+        text.append(String.format("  orgMatch evaluations: %,d (%,.0f/s)", orgMatchEvaluations.sum(), evaluationsPerSecond)).append(nl);
+        text.append("  rejections:");
+        for (Rejection reason : REJECTIONS) {
+            text.append(String.format(" %s=%,d", reason.getLabel(), rejections[reason.ordinal()].sum()));
+        }
+        text.append(nl);
+        text.append("  signup latency: ").append(signupLatency.summary()).append(nl);
+        text.append("  cancel latency: ").append(cancelLatency.summary()).append(nl);
+        for (Map.Entry<String, ParseStats> entry : new TreeMap<>(parseStats).entrySet()) {
+            ParseStats stats = entry.getValue();
+            LatencyHistogram.Summary time = stats.time.summary();
+            long rows = stats.rows.sum();
+            text.append(String.format("  parse %s: %d reads, %,d rows, mean %.1f ms, %,.0f ns/row",
+                    entry.getKey(), time.getCount(), rows, time.getMeanMicros() / 1000,
+                    rows > 0 ? time.getMeanMicros() * 1000 * time.getCount() / rows : 0.0)).append(nl);
+        }
+
+        List<? extends CommunityFoodOrg> orgs = trackedOrgs;
+        int full = 0, empty = 0;
+        double sum = 0;
+        for (CommunityFoodOrg org : orgs) {
+            double ratio = fillRatio(org);
+            sum += ratio;
+            if (ratio >= 1) full++;
+            else if (ratio <= 0) empty++;
+        }
+        text.append(String.format("  fill: %,d organizations, mean %.1f%%, %,d full, %,d empty",
+                orgs.size(), orgs.isEmpty() ? 0.0 : 100 * sum / orgs.size(), full, empty)).append(nl);
+        return text.toString();
+    }
+
+    /**
+     * Method startPeriodicDump
+     * @param periodMillis time between snapshots
+     * @param out where snapshots are printed; replaces any dump already running
+     */
+    public static synchronized void startPeriodicDump(long periodMillis, PrintStream out) {
+        stopPeriodicDump();
+        if (dumper == null) {
+            dumper = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        AtomicReference<RateSample> window = new AtomicReference<>(RateSample.now());
+        dumpTask = dumper.scheduleAtFixedRate(() -> out.print(snapshot(evaluationRate(window))),
+                periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static synchronized void stopPeriodicDump() {
+        if (dumpTask != null) {
+            dumpTask.cancel(false);
+            dumpTask = null;
+        }
+    }
+
+    // Counters are cleared one at a time, so a concurrent reading can mix old and new figures
+    public static synchronized void resetAll() {
+        orgMatchEvaluations.reset();
+        for (LongAdder counter : rejections) counter.reset();
+        signupLatency.reset();
+        cancelLatency.reset();
+        parseStats.clear();
+        resetSample = RateSample.now();
+    }
+
+    // Evaluations per second since this window's previous reading (or the last reset, if later)
+    private static double evaluationRate(AtomicReference<RateSample> window) {
+        RateSample now = RateSample.now();
+        RateSample previous = window.getAndSet(now);
+        RateSample reset = resetSample;
+        return now.rateSince(previous.nanos - reset.nanos < 0 ? reset : previous);
+    }
+}
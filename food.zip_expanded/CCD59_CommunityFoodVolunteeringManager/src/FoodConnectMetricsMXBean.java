@@ -0,0 +1,31 @@
+import java.util.Map;
+
+/**
+ * Interface FoodConnectMetricsMXBean
+ *
+ * Management interface of FoodConnectMetrics, registered as FoodConnect:type=Metrics.
+ */
+public interface FoodConnectMetricsMXBean {
+
+    long getOrgMatchEvaluations();
+
+    // Evaluations per second since the previous reading of this attribute (the periodic dump keeps its own interval)
+    double getOrgMatchEvaluationsPerSecond();
+
+    // Rejections by reason: type mismatch, closed, transport, time, distance
+    Map<String, Long> getRejectionCounts();
+
+    LatencyHistogram.Summary getSignupLatency();
+
+    LatencyHistogram.Summary getCancelLatency();
+
+    // Parse time of each file read, keyed by file name
+    Map<String, LatencyHistogram.Summary> getParseTimes();
+
+    // Filled share of capacity over open days, keyed by organization id
+    Map<String, Double> getFillRatios();
+
+    String dumpSnapshot();
+
+    void reset();
+}
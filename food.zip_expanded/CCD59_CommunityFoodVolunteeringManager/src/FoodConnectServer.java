@@ -0,0 +1,334 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class FoodConnectServer
+ *
+ * Embedded HTTP API around a VolunteeringManager, on the JDK's com.sun.net.httpserver.
+ * Parameters come from the query string or a form-encoded body; responses are JSON.
+ *
+ *   POST /volunteers  id, name, age, latitude, longitude, day, start (HH:MM), end (HH:MM),
+ *                     distance, transport (yes/no), donation: registers a volunteer
+ *   GET  /match       volunteer [, limit]: matching organizations, highest remaining need first
+ *   POST /signup      volunteer [, org]: signs up with org, or with the priority organization
+ *   POST /cancel      volunteer: cancels the volunteer's signup
+ *   GET  /capacity    org: spots left (pantry) or pounds needed (bank) for each day
+ *
+ * Each request runs on its own virtual thread when the JVM has them (Java 21 and later, looked up
+ * at runtime because the code is built for Java 8); otherwise on a cached pool of daemon threads.
+ * Handlers only call VolunteeringManager methods that are safe to use concurrently.
+ */
+public class FoodConnectServer implements Closeable {
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_MATCH_LIMIT = 10;
+
+    private final VolunteeringManager manager;
+    private final Map<String, Volunteer> volunteersById = new ConcurrentHashMap<>(); // index over manager.getVolunteers()
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+
+    static {
+        // Headers and body go out as separate writes; without TCP_NODELAY each small response waits
+        // out the client's delayed ACK (about 40 ms). Read once, when the JDK server first starts.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    // Thrown by handlers for a request the client got wrong
+    private static final class RequestException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private interface Endpoint {
+        String handle(Map<String, String> params);
+    }
+
+    /**
+     * Constructor FoodConnectServer
+     * @param manager the organizations and volunteers to serve
+     * @param port the port to listen on (0 picks a free one)
+     * @throws IOException if the port cannot be bound
+     */
+    public FoodConnectServer(VolunteeringManager manager, int port) throws IOException {
+        this.manager = manager;
+        synchronized (manager.getVolunteers()) {
+            for (Volunteer volunteer : manager.getVolunteers()) volunteersById.put(volunteer.getId(), volunteer);
+        }
+
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.executor = virtual != null ? virtual : Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task, "foodconnect-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(executor);
+        route("/volunteers", "POST", this::registerVolunteer);
+        route("/match", "GET", this::match);
+        route("/signup", "POST", this::signUp);
+        route("/cancel", "POST", this::cancel);
+        route("/capacity", "GET", this::capacity);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    // Stops accepting requests, waits up to a second for those in progress, then stops the threads
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Endpoints
+
+    private String registerVolunteer(Map<String, String> params) {
+        String id = required(params, "id");
+        String[] start = required(params, "start").split(":");
+        String[] end = required(params, "end").split(":");
+        if (start.length != 2 || end.length != 2) throw new RequestException(400, "start and end must be HH:MM");
+        String day = required(params, "day");
+        if (WeeklySchedule.dayIndex(day) < 0) throw new RequestException(400, "Invalid day: " + day);
+
+        Location location = new Location(number(params, "latitude"), number(params, "longitude"), "", "", "", "");
+        Volunteer volunteer = new Volunteer(id, required(params, "name"), (int) number(params, "age"), location, day,
+                new TimeFrame(integer(start[0], "start"), integer(start[1], "start"), integer(end[0], "end"), integer(end[1], "end")),
+                number(params, "distance"), "yes".equalsIgnoreCase(params.get("transport")),
+                params.containsKey("donation") ? number(params, "donation") : 0);
+        if (volunteersById.putIfAbsent(id, volunteer) != null) {
+            throw new RequestException(409, "Volunteer " + id + " already exists");
+        }
+        manager.addVolunteer(volunteer);
+        return "{\"id\":" + json(id) + "}";
+    }
+
+    private String match(Map<String, String> params) {
+        Volunteer volunteer = volunteer(params);
+        int limit = params.containsKey("limit") ? integer(params.get("limit"), "limit") : DEFAULT_MATCH_LIMIT;
+        if (limit < 0) throw new RequestException(400, "limit must not be negative");
+        List<CommunityFoodOrg> candidates = manager.findCandidates(volunteer, limit);
+        int dayIndex = WeeklySchedule.dayIndex(volunteer.getDayAvailable());
+
+        StringBuilder body = new StringBuilder("{\"volunteer\":").append(json(volunteer.getId())).append(",\"organizations\":[");
+        for (int i = 0; i < candidates.size(); i++) {
+            CommunityFoodOrg org = candidates.get(i);
+            if (i > 0) body.append(',');
+            body.append("{\"id\":").append(json(org.getId()))
+                .append(",\"name\":").append(json(org.getName()))
+                .append(",\"need\":").append(need(org, dayIndex)).append('}');
+        }
+        return body.append("]}").toString();
+    }
+
+    private String signUp(Map<String, String> params) {
+        Volunteer volunteer = volunteer(params);
+        CommunityFoodOrg requested = params.containsKey("org") ? org(params) : null;
+        boolean signedUp;
+        CommunityFoodOrg org;
+        synchronized (volunteer) { // a second signup would book a second spot, so check and sign up together
+            if (volunteer.getOrgVolunteering() != null) {
+                throw new RequestException(409, "Volunteer " + volunteer.getId() + " is already signed up");
+            }
+            if (requested != null) {
+                signedUp = volunteer.mismatchMask(requested) == 0 && manager.signUp(volunteer, requested);
+            } else {
+                signedUp = manager.signUpVolunteerToPriorityOrg(volunteer);
+            }
+            org = volunteer.getOrgVolunteering();
+        }
+        return "{\"volunteer\":" + json(volunteer.getId()) + ",\"signedUp\":" + signedUp
+                + ",\"org\":" + (org != null ? json(org.getId()) : "null") + "}";
+    }
+
+    private String cancel(Map<String, String> params) {
+        Volunteer volunteer = volunteer(params);
+        CommunityFoodOrg org = volunteer.getOrgVolunteering();
+        manager.cancelSignup(volunteer);
+        return "{\"volunteer\":" + json(volunteer.getId()) + ",\"canceled\":" + (org != null)
+                + ",\"org\":" + (org != null ? json(org.getId()) : "null") + "}";
+    }
+
+    private String capacity(Map<String, String> params) {
+        CommunityFoodOrg org = org(params);
+        StringBuilder body = new StringBuilder("{\"id\":").append(json(org.getId()))
+            .append(",\"name\":").append(json(org.getName()))
+            .append(",\"type\":").append(json(org instanceof FoodBank ? "Food Bank" : "Food Pantry"))
+            .append(",\"unit\":").append(json(org instanceof FoodBank ? "pounds" : "spots"))
+            .append(",\"days\":{");
+        TimeFrame[] hours = org.getDailyOpenHours();
+        for (int day = 0; day < 7; day++) {
+            if (day > 0) body.append(',');
+            body.append(json(WeeklySchedule.dayName(day))).append(':').append(hours[day] == null ? "null" : String.valueOf(need(org, day)));
+        }
+        return body.append("}}").toString();
+    }
+
+    // Request plumbing
+
+    private void route(String path, String method, Endpoint endpoint) {
+        server.createContext(path, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int status = 200;
+                String body;
+                try {
+                    if (!method.equals(exchange.getRequestMethod())) throw new RequestException(405, "Use " + method);
+                    body = endpoint.handle(params(exchange));
+                } catch (RequestException e) {
+                    status = e.status;
+                    body = "{\"error\":" + json(e.getMessage()) + "}";
+                } catch (RuntimeException e) {
+                    status = 500;
+                    body = "{\"error\":" + json(String.valueOf(e)) + "}";
+                }
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(status, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+        });
+    }
+
+    // Query string and form-encoded body, the body winning on repeated names
+    private static Map<String, String> params(HttpExchange exchange) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        decode(exchange.getRequestURI().getRawQuery(), params);
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[4096];
+            for (int n; (n = in.read(buffer)) > 0; ) body.write(buffer, 0, n);
+        }
+        decode(new String(body.toByteArray(), StandardCharsets.UTF_8), params);
+        return params;
+    }
+
+    private static void decode(String encoded, Map<String, String> params) throws UnsupportedEncodingException {
+        if (encoded == null || encoded.isEmpty()) return;
+        for (String pair : encoded.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), "UTF-8");
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), "UTF-8");
+            params.put(name, value);
+        }
+    }
+
+    private Volunteer volunteer(Map<String, String> params) {
+        String id = required(params, "volunteer");
+        Volunteer volunteer = volunteersById.get(id);
+        if (volunteer == null) throw new RequestException(404, "Unknown volunteer " + id);
+        return volunteer;
+    }
+
+    private CommunityFoodOrg org(Map<String, String> params) {
+        String id = required(params, "org");
+        CommunityFoodOrg org = manager.findOrg(id);
+        if (org == null) throw new RequestException(404, "Unknown organization " + id);
+        return org;
+    }
+
+    private static String required(Map<String, String> params, String name) {
+        String value = params.get(name);
+        if (value == null || value.trim().isEmpty()) throw new RequestException(400, "Missing parameter " + name);
+        return value.trim();
+    }
+
+    private static double number(Map<String, String> params, String name) {
+        String value = required(params, name);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, name + " is not a number: " + value);
+        }
+    }
+
+    private static int integer(String value, String name) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, name + " is not a whole number: " + value);
+        }
+    }
+
+    private static double need(CommunityFoodOrg org, int dayIndex) {
+        return org instanceof FoodBank ? ((FoodBank) org).getDailyDonationsNeeded(dayIndex) : org.dailyVolunteerSpotsLeft(dayIndex);
+    }
+
+    private static String json(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') quoted.append('\\').append(c);
+            else if (c < 0x20) quoted.append(String.format("\\u%04x", (int) c));
+            else quoted.append(c);
+        }
+        return quoted.append('"').toString();
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() when the running JVM has it, null otherwise
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Method main
+     * @param args [port] [orgsFile] [volunteersFile], by default 8080 and the files in src/data
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String orgsFile = args.length > 1 ? args[1] : "src/data/community_food_organizations.txt";
+        String volunteersFile = args.length > 2 ? args[2] : "src/data/volunteers.txt";
+
+        FoodConnectServer server = new FoodConnectServer(new VolunteeringManager(orgsFile, volunteersFile), port);
+        server.start();
+        FoodConnectMetrics.registerMBean();
+        System.out.println("FoodConnect API listening on port " + server.getPort()
+                + (server.usesVirtualThreads() ? " (virtual threads)" : " (thread pool)"));
+    }
+}
@@ -1,12 +1,18 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
 public class FoodPantry extends CommunityFoodOrg {
 
 	/**
 	 * Class FoodPantry
 	 * @author : Chukwudalu Dumebi-Kachikwu
 	 * @created 12/10/2024
+	 *
+	 * Each day's volunteers needed and volunteer signups are packed into one long
+	 * (needed in the high 32 bits, signups in the low 32 bits) of an AtomicLongArray.
+	 * Signups and cancellations are compare-and-set loops on that single value, so
+	 * concurrent callers can never push signups past what is needed, and no lock is taken.
 	 */
-    private int[] dailyVolunteersNeeded;
-    private int[] dailyVolunteerSignups;
+    private final AtomicLongArray dailySlots = new AtomicLongArray(7);
 
     /**
      * Constructor for FoodPantry
@@ -21,8 +27,11 @@ public class FoodPantry extends CommunityFoodOrg {
     public FoodPantry(String id, String name, Location loc, TimeFrame[] dailyOH,
                       int[] dailyVN, int[] dailyVS, boolean offersT) {
         super(id, name, loc, dailyOH, null, null, offersT);
-        this.dailyVolunteersNeeded = (isValidDailyArray(dailyVN)) ? dailyVN : new int[7];
-        this.dailyVolunteerSignups = (isValidDailyArray(dailyVS)) ? dailyVS : new int[7];
+        int[] needed = (isValidDailyArray(dailyVN)) ? dailyVN : new int[7];
+        int[] signups = (isValidDailyArray(dailyVS)) ? dailyVS : new int[7];
+        for (int i = 0; i < 7; i++) {
+            dailySlots.set(i, pack(needed[i], signups[i]));
+        }
     }
 
     /**
@@ -33,14 +42,28 @@ public class FoodPantry extends CommunityFoodOrg {
      */
     @Override
     public boolean signUpVolunteer(Volunteer volunteer, String dayName) {
-        System.out.println("Checking the necessary information for signing up " + volunteer.getFullName()
-                + " for helping " + getName() + " on " + dayName);
+        EventLog.log(EventLog.Event.SIGNUP_CHECK, volunteer.getFullName(), getName(), dayName);
         int dayIndex = getDayIndex(dayName);
-        if (dayIndex != -1 && dailyVolunteerSignups[dayIndex] < dailyVolunteersNeeded[dayIndex]) {
-            dailyVolunteerSignups[dayIndex]++;
-            return true;
+        return dayIndex != -1 && reserveSpot(dayIndex);
+    }
+
+    /**
+     * Method reserveSpot
+     * @param dayIndex the day (0 = Monday ... 6 = Sunday)
+     * @return true if a spot was taken, false if the day is already full
+     *
+     * Lock-free: the signup count is only incremented by a compare-and-set that also
+     * re-checks it against the current number of volunteers needed.
+     */
+    public boolean reserveSpot(int dayIndex) {
+        while (true) {
+            long slots = dailySlots.get(dayIndex);
+            if (signups(slots) >= needed(slots)) return false;
+            if (dailySlots.compareAndSet(dayIndex, slots, slots + 1)) {
+                fireCapacityChanged(dayIndex);
+                return true;
+            }
         }
-        return false;
     }
 
     /**
@@ -49,10 +72,26 @@ public class FoodPantry extends CommunityFoodOrg {
      */
     @Override
     public void cancelVolunteerSignup(String dayName) {
-        System.out.println("Canceling volunteer signup for " + getName() + " on " + dayName);
+        EventLog.log(EventLog.Event.SIGNUP_CANCELED, getName(), dayName);
         int dayIndex = getDayIndex(dayName);
-        if (dayIndex != -1 && dailyVolunteerSignups[dayIndex] > 0) {
-            dailyVolunteerSignups[dayIndex]--;
+        if (dayIndex != -1) {
+            releaseSpot(dayIndex);
+        }
+    }
+
+    /**
+     * Method releaseSpot
+     * @param dayIndex the day (0 = Monday ... 6 = Sunday)
+     * @return true if a signup was removed, false if there were none
+     */
+    public boolean releaseSpot(int dayIndex) {
+        while (true) {
+            long slots = dailySlots.get(dayIndex);
+            if (signups(slots) <= 0) return false;
+            if (dailySlots.compareAndSet(dayIndex, slots, slots - 1)) {
+                fireCapacityChanged(dayIndex);
+                return true;
+            }
         }
     }
 
@@ -64,11 +103,23 @@ public class FoodPantry extends CommunityFoodOrg {
     public int dailyVolunteerSpotsLeft(String dayName) {
         int dayIndex = getDayIndex(dayName);
         if (dayIndex != -1) {
-            return dailyVolunteersNeeded[dayIndex] - dailyVolunteerSignups[dayIndex];
+            return dailyVolunteerSpotsLeft(dayIndex);
         }
         return 0;
     }
 
+    /**
+     * Method to get the number of available volunteer spots for a specific day
+     * @param dayIndex the day (0 = Monday ... 6 = Sunday)
+     * @return the number of volunteer spots still available, read atomically (0 for an invalid index)
+     */
+    @Override
+    public int dailyVolunteerSpotsLeft(int dayIndex) {
+        if (dayIndex < 0 || dayIndex >= 7) return 0;
+        long slots = dailySlots.get(dayIndex);
+        return needed(slots) - signups(slots);
+    }
+
     /**
      * Method to set the number of volunteers needed for a specific day
      * @param volunteers an integer representing the number of volunteers needed
@@ -77,7 +128,11 @@ public class FoodPantry extends CommunityFoodOrg {
     public void setDailyVolunteersNeeded(int volunteers, String dayName) {
         int dayIndex = getDayIndex(dayName);
         if (dayIndex != -1 && volunteers >= 0) {
-            dailyVolunteersNeeded[dayIndex] = volunteers;
+            long slots;
+            do {
+                slots = dailySlots.get(dayIndex);
+            } while (!dailySlots.compareAndSet(dayIndex, slots, pack(volunteers, signups(slots))));
+            fireCapacityChanged(dayIndex);
         }
     }
 
@@ -89,7 +144,11 @@ public class FoodPantry extends CommunityFoodOrg {
     public void setDailyVolunteerSignups(int signups, String dayName) {
         int dayIndex = getDayIndex(dayName);
         if (dayIndex != -1 && signups >= 0) {
-            dailyVolunteerSignups[dayIndex] = signups;
+            long slots;
+            do {
+                slots = dailySlots.get(dayIndex);
+            } while (!dailySlots.compareAndSet(dayIndex, slots, pack(needed(slots), signups)));
+            fireCapacityChanged(dayIndex);
         }
     }
 
@@ -106,12 +165,32 @@ public class FoodPantry extends CommunityFoodOrg {
         return true;
     }
 
-    // Getters for dailyVolunteersNeeded and dailyVolunteerSignups
+    private static long pack(int needed, int signups) {
+        return ((long) needed << 32) | (signups & 0xffffffffL);
+    }
+
+    private static int needed(long slots) {
+        return (int) (slots >>> 32);
+    }
+
+    private static int signups(long slots) {
+        return (int) slots;
+    }
+
+    // Getters for dailyVolunteersNeeded and dailyVolunteerSignups (snapshots of the current counts)
     public int[] getDailyVolunteersNeeded() {
-        return dailyVolunteersNeeded;
+        int[] needed = new int[7];
+        for (int i = 0; i < 7; i++) {
+            needed[i] = needed(dailySlots.get(i));
+        }
+        return needed;
     }
 
     public int[] getDailyVolunteerSignups() {
-        return dailyVolunteerSignups;
+        int[] signups = new int[7];
+        for (int i = 0; i < 7; i++) {
+            signups[i] = signups(dailySlots.get(i));
+        }
+        return signups;
     }
 }
@@ -0,0 +1,118 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class HeapFootprintReport
+ *
+ * Reports the heap taken by a large volunteers file once loaded, with and without the
+ * StringPool / TimeFrame.of deduplication, for DataManager and StreamingDataReader. Every load
+ * runs in a fresh JVM (deduplication is switched off there with -Dfoodconnect.dedupe=false), which
+ * measures the heap after a full collection with the volunteers still referenced and counts the
+ * distinct String and TimeFrame instances the records point to.
+ *
+ * Usage: java HeapFootprintReport [volunteers] [childHeap]
+ */
+public class HeapFootprintReport {
+
+    private static final String[] LOADERS = {"DataManager", "StreamingDataReader"};
+    private static volatile List<Volunteer> loaded; // kept reachable while the heap is measured
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--measure")) {
+            measure(args[1], args[2]);
+            return;
+        }
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        String childHeap = args.length > 1 ? args[1] : "3g";
+
+        File volunteersFile = File.createTempFile("volunteers", ".txt");
+        volunteersFile.deleteOnExit();
+        SyntheticDataGenerator.writeVolunteers(volunteersFile, rows, SyntheticDataGenerator.DEFAULT_SEED);
+        System.out.printf("%,d volunteers, %,d MB file, child heap %s%n", rows, volunteersFile.length() >> 20, childHeap);
+        System.out.printf("%-20s %-7s %12s %14s %16s %18s%n", "loader", "dedupe", "heap MB", "bytes/record", "distinct Strings", "distinct TimeFrames");
+
+        for (String loader : LOADERS) {
+            long before = 0;
+            for (boolean dedupe : new boolean[] {false, true}) {
+                String[] result = child(loader, volunteersFile, dedupe, childHeap).split(" ");
+                long heap = Long.parseLong(result[0]);
+                System.out.printf("%-20s %-7s %,12.1f %,14.1f %,16d %,18d%s%n", loader, dedupe ? "on" : "off",
+                        heap / 1048576.0, (double) heap / rows, Long.parseLong(result[1]), Long.parseLong(result[2]),
+                        dedupe ? String.format("   (%.1f%% less heap)", 100.0 * (before - heap) / before) : "");
+                before = heap;
+            }
+        }
+    }
+
+    // Run one load in a fresh JVM and return its "heapBytes distinctStrings distinctTimeFrames" line
+    private static String child(String loader, File volunteersFile, boolean dedupe, String heap) throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        ProcessBuilder builder = new ProcessBuilder(java, "-Xmx" + heap, "-Xms" + heap, "-Dfoodconnect.dedupe=" + dedupe,
+                "-cp", System.getProperty("java.class.path"), HeapFootprintReport.class.getName(),
+                "--measure", loader, volunteersFile.getPath());
+        builder.redirectErrorStream(true);
+        Process process = builder.start();
+        String last = null, line;
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            while ((line = out.readLine()) != null) last = line;
+        }
+        if (process.waitFor() != 0 || last == null) throw new IOException(loader + " load failed: " + last);
+        return last;
+    }
+
+    private static void measure(String loader, String volunteersFile) throws InterruptedException {
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) { }
+        }));
+        long baseline = usedHeap();
+        ArrayList<Volunteer> volunteers;
+        if (loader.equals("DataManager")) {
+            volunteers = DataManager.readVolunteers(volunteersFile);
+        } else {
+            ArrayList<Volunteer> streamed = new ArrayList<>();
+            StreamingDataReader.streamVolunteers(volunteersFile, streamed::add);
+            volunteers = streamed;
+        }
+        volunteers.trimToSize();
+        loaded = volunteers;
+        long heap = usedHeap() - baseline;
+
+        Set<Object> strings = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Object> windows = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Volunteer volunteer : loaded) {
+            Location location = volunteer.getLocation();
+            strings.add(location.getCity());
+            strings.add(location.getState());
+            strings.add(location.getZipCode());
+            strings.add(volunteer.getDayAvailable());
+            windows.add(volunteer.getTimeAvailable());
+        }
+        EventLog.flush();
+        System.setOut(console);
+        System.out.println(heap + " " + strings.size() + " " + windows.size());
+    }
+
+    // Heap in use after collecting everything collectable
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(50);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,125 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class LatencyHistogram
+ *
+ * Concurrent histogram of durations in nanoseconds. Each power of two is split into four
+ * buckets, so a percentile is reported to within about 19%, and every bucket is a LongAdder:
+ * recording from many threads at once touches striped cells instead of one contended counter.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Class Summary
+     * A point-in-time reading of a histogram, in microseconds.
+     */
+    public static final class Summary {
+        private final long count;
+        private final double meanMicros, p50Micros, p90Micros, p99Micros, maxMicros;
+
+        Summary(long count, double meanMicros, double p50Micros, double p90Micros, double p99Micros, double maxMicros) {
+            this.count = count;
+            this.meanMicros = meanMicros;
+            this.p50Micros = p50Micros;
+            this.p90Micros = p90Micros;
+            this.p99Micros = p99Micros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getCount() { return count; }
+        public double getMeanMicros() { return meanMicros; }
+        public double getP50Micros() { return p50Micros; }
+        public double getP90Micros() { return p90Micros; }
+        public double getP99Micros() { return p99Micros; }
+        public double getMaxMicros() { return maxMicros; }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.1fus p50=%.1fus p90=%.1fus p99=%.1fus max=%.1fus",
+                    count, meanMicros, p50Micros, p90Micros, p99Micros, maxMicros);
+        }
+    }
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) buckets[i] = new LongAdder();
+    }
+
+    /**
+     * Method record
+     * @param nanos a duration in nanoseconds (negative durations are counted as 0)
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets[bucketOf(nanos)].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Method summary
+     * @return the count, mean, 50th/90th/99th percentiles and maximum recorded so far. Taken
+     *         while other threads record, the figures can be a few samples apart from each other.
+     */
+    public Summary summary() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) return new Summary(0, 0, 0, 0, 0, 0);
+        double max = maxNanos.get() / 1000.0; // bucket bounds can overshoot the largest sample
+        return new Summary(total, totalNanos.sum() / 1000.0 / total,
+                Math.min(max, percentile(counts, total, 0.50)), Math.min(max, percentile(counts, total, 0.90)),
+                Math.min(max, percentile(counts, total, 0.99)), max);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    // Not atomic with respect to concurrent record calls
+    public void reset() {
+        for (LongAdder bucket : buckets) bucket.reset();
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    // Upper bound (in microseconds) of the bucket holding the given fraction of samples
+    private static double percentile(long[] counts, long total, double fraction) {
+        long rank = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return upperBound(i) / 1000.0;
+        }
+        return upperBound(BUCKETS - 1) / 1000.0;
+    }
+
+    // Values below SUB_BUCKETS get a bucket each; above that, the top bit picks the power of two
+    // and the next SUB_BUCKET_BITS bits pick the quarter within it
+    private static int bucketOf(long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) nanos;
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static double upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        return Math.scalb((double) (SUB_BUCKETS + sub + 1), exponent - SUB_BUCKET_BITS);
+    }
+}
@@ -6,6 +6,7 @@
 
 public class Location {
     public static final double EARTH_RADIUS = 3958.8; // in miles
+    private static final double MARGIN = 1e-9; // relative slack for rounding in both formulas
     private double latitude, longitude;
     private String address, city, state, zipCode;
 
@@ -29,4 +30,55 @@ public class Location {
         double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
         return EARTH_RADIUS * c;
     }
+
+    /**
+     * Method withinMiles
+     * @param loc the other location
+     * @param miles the radius (NaN is never within)
+     * @return the same result as distance(loc) <= miles, without the full Haversine formula unless
+     *         the two are close to exactly that far apart
+     *
+     * With angles in radians, dLat and dLon the differences (dLon wrapped to at most pi), mLat the
+     * mean latitude and t the central angle, the checks run cheapest first:
+     * 1. Latitude band: t >= |dLat|, so |dLat| beyond the radius is out.
+     * 2. Equirectangular estimate e^2 = dLat^2 + (cos(mLat) dLon)^2 (one cosine). Writing the
+     *    Haversine formula with cos(lat1) cos(lat2) = cos^2(mLat) - sin^2(dLat / 2) and bounding
+     *    x^2/4 (1 - x^2/12) <= sin^2(x/2) <= x^2/4 gives
+     *        e^2 - (dLat^4/12 + dLon^4/12 + dLat^2 dLon^2/4) <= t^2    and    hav(t) <= e^2/4,
+     *    so e^2 < r^2 (1 - r^2/12) is inside radius r and e^2 minus the error term above r^2 is
+     *    outside. Near the radius the error term is smaller than e^2 by a factor of r^2 (about
+     *    1e-5 for 25 miles).
+     * 3. Only pairs left undecided, within the error bound or the rounding margin of the
+     *    radius, compute the exact distance.
+     */
+    public boolean withinMiles(Location loc, double miles) {
+        if (!(miles >= 0)) return false;
+        double radius = miles / EARTH_RADIUS; // central angle
+        if (radius >= Math.PI * (1 + MARGIN)) return true; // nothing is farther than half way around
+
+        double latDistance = Math.toRadians(loc.latitude - this.latitude);
+        if (Math.abs(latDistance) > radius * (1 + MARGIN)) return false;
+
+        double lonDegrees = Math.abs(loc.longitude - this.longitude);
+        double lonDistance = Math.toRadians(lonDegrees > 180 ? 360 - lonDegrees : lonDegrees);
+        double cosMeanLat = Math.cos(Math.toRadians((this.latitude + loc.latitude) / 2));
+        double x = cosMeanLat * lonDistance;
+        double estimate = latDistance * latDistance + x * x;
+        double radius2 = radius * radius;
+        if (estimate < radius2 * (1 - radius2 / 12) * (1 - MARGIN)) return true;
+
+        double lat2 = latDistance * latDistance, lon2 = lonDistance * lonDistance;
+        double error = lat2 * lat2 / 12 + lon2 * lon2 / 12 + lat2 * lon2 / 4;
+        if (estimate - error > radius2 * (1 + MARGIN)) return false;
+
+        return distance(loc) <= miles;
+    }
+
+    // Getters
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public String getAddress() { return address; }
+    public String getCity() { return city; }
+    public String getState() { return state; }
+    public String getZipCode() { return zipCode; }
 }
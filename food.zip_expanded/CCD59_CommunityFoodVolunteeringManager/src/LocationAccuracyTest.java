@@ -0,0 +1,116 @@
+import java.util.Random;
+
+/**
+ * Class LocationAccuracyTest
+ *
+ * Checks that Location.withinMiles gives exactly the answer of distance(loc) <= miles, on pairs
+ * chosen to stress its shortcuts:
+ * - points spread over the whole globe, with radii from a few miles to half way around
+ * - pairs placed a hair inside or outside the radius (relative offsets down to 1e-12)
+ * - pairs near the poles and across the 180th meridian, where longitude spans are widest
+ * - identical points and zero or NaN radii
+ * Prints every disagreement (up to 20) and PASS or FAIL, and how much faster withinMiles is
+ * than the full formula on the same pairs.
+ *
+ * Usage: java LocationAccuracyTest [pairs per case] [seed]
+ */
+public class LocationAccuracyTest {
+
+    private static final double[] RADII = {0, 0.5, 1, 5, 10, 25, 50, 100, 500, 2500, 6000, 12436, 12500};
+
+    private static long checked, failures;
+
+    public static void main(String[] args) {
+        int pairs = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        Random random = new Random(seed);
+
+        for (int i = 0; i < pairs; i++) {
+            Location a = randomLocation(random, 90), b = randomLocation(random, 90);
+            check(a, b, RADII[random.nextInt(RADII.length)]);
+        }
+        for (double offset : new double[]{1e-3, 1e-6, 1e-9, 1e-12}) {
+            for (int i = 0; i < pairs; i++) {
+                Location a = randomLocation(random, 90);
+                Location b = nearby(random, a, 3);
+                double exact = a.distance(b);
+                check(a, b, exact * (1 + offset));
+                check(a, b, exact * (1 - offset));
+                check(a, b, exact);
+            }
+        }
+        for (int i = 0; i < pairs; i++) {
+            Location a = at(90 - random.nextDouble() * 2, random.nextDouble() * 360 - 180);
+            Location b = nearby(random, a, 4);
+            check(a, b, a.distance(b) * (1 + (random.nextDouble() - 0.5) * 1e-6));
+            check(a, b, RADII[random.nextInt(RADII.length)]);
+            Location c = at(random.nextDouble() * 120 - 60, 180 - random.nextDouble() * 0.5);
+            Location d = at(c.getLatitude() + random.nextDouble() - 0.5, -180 + random.nextDouble() * 0.5);
+            check(c, d, c.distance(d) * (1 + (random.nextDouble() - 0.5) * 1e-6));
+            check(c, d, RADII[random.nextInt(RADII.length)]);
+        }
+        Location same = at(40.7128, -74.0060);
+        check(same, at(40.7128, -74.0060), 0);
+        check(same, at(40.7128, -74.0060), Double.NaN);
+        check(same, at(-40.7128, 105.9940), Location.EARTH_RADIUS * Math.PI);
+
+        System.out.printf("%,d checks, %,d disagreements: %s%n", checked, failures, failures == 0 ? "PASS" : "FAIL");
+        timeAgainstDistance(random);
+        if (failures > 0) System.exit(1);
+    }
+
+    private static void check(Location a, Location b, double miles) {
+        checked++;
+        boolean expected = a.distance(b) <= miles;
+        if (a.withinMiles(b, miles) != expected) {
+            if (++failures <= 20) {
+                System.out.printf("  (%.9f, %.9f) to (%.9f, %.9f) within %.12f: expected %b (distance %.12f)%n",
+                        a.getLatitude(), a.getLongitude(), b.getLatitude(), b.getLongitude(), miles, expected, a.distance(b));
+            }
+        }
+    }
+
+    private static Location at(double latitude, double longitude) {
+        return new Location(latitude, longitude, "", "", "", "");
+    }
+
+    private static Location randomLocation(Random random, double maxLatitude) {
+        return at((random.nextDouble() * 2 - 1) * maxLatitude, random.nextDouble() * 360 - 180);
+    }
+
+    // A point up to the given number of degrees away, wrapped back onto the globe
+    private static Location nearby(Random random, Location from, double degrees) {
+        double latitude = from.getLatitude() + (random.nextDouble() * 2 - 1) * degrees;
+        double longitude = from.getLongitude() + (random.nextDouble() * 2 - 1) * degrees;
+        latitude = Math.max(-90, Math.min(90, latitude));
+        if (longitude > 180) longitude -= 360;
+        if (longitude < -180) longitude += 360;
+        return at(latitude, longitude);
+    }
+
+    // Volunteer-like radii around one region, where most pairs are far apart
+    private static void timeAgainstDistance(Random random) {
+        int size = 1 << 16;
+        Location[] from = new Location[size], to = new Location[size];
+        double[] miles = new double[size];
+        for (int i = 0; i < size; i++) {
+            from[i] = at(30 + random.nextDouble() * 15, -120 + random.nextDouble() * 45);
+            to[i] = at(30 + random.nextDouble() * 15, -120 + random.nextDouble() * 45);
+            miles[i] = 5 + random.nextInt(50);
+        }
+        long sink = 0, distanceNanos = 0, withinNanos = 0;
+        for (int round = 0; round < 12; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < 4_000_000; i++) if (from[i & (size - 1)].distance(to[i & (size - 1)]) <= miles[i & (size - 1)]) sink++;
+            long middle = System.nanoTime();
+            for (int i = 0; i < 4_000_000; i++) if (from[i & (size - 1)].withinMiles(to[i & (size - 1)], miles[i & (size - 1)])) sink--;
+            long end = System.nanoTime();
+            if (round >= 2) { // the first rounds warm up the JIT
+                distanceNanos += middle - start;
+                withinNanos += end - middle;
+            }
+        }
+        System.out.printf("distance <= miles: %.1f ns/pair, withinMiles: %.1f ns/pair (%s)%n",
+                distanceNanos / 40e6, withinNanos / 40e6, sink == 0 ? "same answers" : "answers differ");
+    }
+}
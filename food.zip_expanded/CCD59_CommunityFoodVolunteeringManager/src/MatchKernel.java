@@ -0,0 +1,354 @@
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Class MatchKernel
+ *
+ * Allocation-free version of Volunteer.orgMatch for evaluating many (volunteer, organization)
+ * pairs. Organizations are stored as parallel primitive arrays (type, transportation, open
+ * minute-of-day intervals per day, coordinates and the cosine of their latitude), and a
+ * volunteer is compiled once into a Query holding the same fields in primitive form, so a
+ * check is a few array reads and integer comparisons.
+ *
+ * The distance test computes the haversine term exactly as Location.distance does (from the
+ * precomputed cosines) and compares it against sin^2 of the volunteer's limit with a relative
+ * margin of 1e-9; only pairs inside that margin finish the full formula, so every result is the
+ * same as orgMatch without paying for atan2 and sqrt on the rest. Unlike orgMatch the kernel does
+ * not record a reason for a rejection; call orgMatch when the reason is needed. It does count
+ * checks and rejections by reason in the Query, for FoodConnectMetrics.recordMatches.
+ *
+ * Open hours and transportation are kept current through a CapacityListener on every
+ * organization (close() removes it). Split-shift days and volunteers with additional windows
+ * check the span of the day first and only then ask the organization's WeeklySchedule, so
+ * single-shift pairs stay on plain array reads.
+ */
+public class MatchKernel {
+    private static final byte ANY = -1, OTHER = 0, FOOD_PANTRY = 1, FOOD_BANK = 2;
+    private static final double MARGIN = 1e-9;
+    private static final int TYPE_MISMATCH = FoodConnectMetrics.Rejection.TYPE_MISMATCH.ordinal(),
+            CLOSED = FoodConnectMetrics.Rejection.CLOSED.ordinal(),
+            TRANSPORT = FoodConnectMetrics.Rejection.TRANSPORT.ordinal(),
+            TIME = FoodConnectMetrics.Rejection.TIME.ordinal(),
+            DISTANCE = FoodConnectMetrics.Rejection.DISTANCE.ordinal();
+
+    private final byte[] type;
+    private final boolean[] offersTransportation;
+    private final double[] latitude, longitude, cosLatitude;
+    private final short[] openStart, openEnd; // [org * 7 + day] minute of day, -1 when closed
+    private final WeeklySchedule[] splitShifts; // per org, null unless some day has several shifts
+    private final IdentityHashMap<CommunityFoodOrg, Integer> positions = new IdentityHashMap<>();
+    private final CapacityListener hoursTracker = (org, dayIndex) -> refreshHours(org);
+
+    /**
+     * Class Query
+     * A volunteer's matching fields in primitive form. Reusable: call set() for the next volunteer.
+     */
+    public static final class Query {
+        private byte wantedType;
+        private int dayIndex;
+        private int start, end;
+        private boolean needsTransportation;
+        private double latitude, longitude, cosLatitude;
+        private double distanceAvailable, insideLimit, outsideLimit;
+        private WeeklySchedule additionalWindows; // null unless the volunteer has more than one window
+
+        // Checks made with this query and why they failed, by FoodConnectMetrics.Rejection ordinal;
+        // FoodConnectMetrics.recordMatches moves them into the shared counters
+        long evaluations;
+        final long[] rejections = new long[FoodConnectMetrics.Rejection.values().length];
+
+        public Query() { }
+
+        public Query(Volunteer volunteer) {
+            set(volunteer);
+        }
+
+        /**
+         * Method set
+         * @param volunteer the volunteer to match organizations against
+         * @return this query
+         */
+        public Query set(Volunteer volunteer) {
+            TimeFrame time = volunteer.getTimeAvailable();
+            Location location = volunteer.getLocation();
+            return set(volunteer.getDonation(), WeeklySchedule.dayIndex(volunteer.getDayAvailable()), time.getStartMinuteOfDay(),
+                    time.getEndMinuteOfDay(), volunteer.needsTransportation(), volunteer.getAdditionalAvailability(),
+                    location.getLatitude(), location.getLongitude(), volunteer.getDistanceAvailable());
+        }
+
+        /**
+         * Method set
+         * @param store a columnar volunteer store
+         * @param row the row of the volunteer to match organizations against
+         * @return this query, read straight from the store's columns
+         */
+        public Query set(VolunteerStore store, int row) {
+            return set(store.getDonation(row), store.getDayIndex(row), store.getStartMinute(row), store.getEndMinute(row),
+                    store.needsTransportation(row), store.getAdditionalAvailability(row),
+                    store.getLatitude(row), store.getLongitude(row), store.getDistanceAvailable(row));
+        }
+
+        private Query set(double donation, int dayIndex, int start, int end, boolean needsTransportation,
+                          WeeklySchedule additionalWindows, double latitude, double longitude, double distanceAvailable) {
+            this.wantedType = donation > 0 ? FOOD_BANK : donation == 0 ? FOOD_PANTRY : ANY; // orgMatch accepts any type for NaN
+            this.dayIndex = dayIndex;
+            this.start = start;
+            this.end = end;
+            this.needsTransportation = needsTransportation;
+            this.additionalWindows = additionalWindows;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cosLatitude = Math.cos(Math.toRadians(latitude));
+            this.distanceAvailable = distanceAvailable;
+
+            // distance = 2R atan2(sqrt(a), sqrt(1 - a)) grows with the haversine term a, so comparing
+            // a against sin^2(d / 2R) decides every pair that is not right at the limit
+            double halfAngle = distanceAvailable / Location.EARTH_RADIUS / 2;
+            if (Double.isNaN(distanceAvailable)) {
+                insideLimit = Double.POSITIVE_INFINITY; // "distance > NaN" never rejects
+                outsideLimit = Double.POSITIVE_INFINITY;
+            } else if (distanceAvailable < 0) {
+                insideLimit = -1;
+                outsideLimit = -1;
+            } else if (halfAngle >= Math.PI / 2) {
+                // no point on Earth is farther than half way around
+                insideLimit = distanceAvailable > Math.PI * Location.EARTH_RADIUS * (1 + MARGIN) ? Double.POSITIVE_INFINITY : -1;
+                outsideLimit = Double.POSITIVE_INFINITY;
+            } else {
+                double sinHalf = Math.sin(halfAngle);
+                double a = sinHalf * sinHalf;
+                insideLimit = a * (1 - MARGIN);
+                outsideLimit = a * (1 + MARGIN) + MARGIN * MARGIN;
+            }
+            return this;
+        }
+
+        /**
+         * Method primaryWindowOnly
+         * @return this query, ignoring the volunteer's additional availability windows (for
+         *         callers that plan capacity on dayAvailable alone)
+         */
+        public Query primaryWindowOnly() {
+            additionalWindows = null;
+            return this;
+        }
+    }
+
+    /**
+     * Constructor MatchKernel
+     * @param orgs the organizations to match against; positions in this list are the kernel's indices
+     */
+    public MatchKernel(List<? extends CommunityFoodOrg> orgs) {
+        int n = orgs.size();
+        type = new byte[n];
+        offersTransportation = new boolean[n];
+        latitude = new double[n];
+        longitude = new double[n];
+        cosLatitude = new double[n];
+        openStart = new short[n * 7];
+        openEnd = new short[n * 7];
+        splitShifts = new WeeklySchedule[n];
+        for (int i = 0; i < n; i++) {
+            CommunityFoodOrg org = orgs.get(i);
+            positions.put(org, i);
+            type[i] = org instanceof FoodBank ? FOOD_BANK : org instanceof FoodPantry ? FOOD_PANTRY : OTHER;
+            latitude[i] = org.getLocation().getLatitude();
+            longitude[i] = org.getLocation().getLongitude();
+            cosLatitude[i] = Math.cos(Math.toRadians(latitude[i]));
+            loadHours(i, org);
+            org.addCapacityListener(hoursTracker);
+        }
+    }
+
+    /**
+     * Method matches
+     * @param query a compiled volunteer
+     * @param orgIndex the organization's position
+     * @return the same result as volunteer.orgMatch(org)
+     */
+    public boolean matches(Query query, int orgIndex) {
+        query.evaluations++;
+        if (query.wantedType != ANY && type[orgIndex] != query.wantedType) return reject(query, TYPE_MISMATCH);
+        if (query.additionalWindows != null) return matchesAnyWindow(query, orgIndex);
+        if (query.dayIndex < 0) return reject(query, CLOSED);
+        int slot = orgIndex * 7 + query.dayIndex;
+        int open = openStart[slot];
+        if (open < 0) return reject(query, CLOSED);
+        if (query.needsTransportation && !offersTransportation[orgIndex]) return reject(query, TRANSPORT);
+        if (query.start < open || query.end > openEnd[slot]) return reject(query, TIME);
+        WeeklySchedule shifts = splitShifts[orgIndex];
+        if (shifts != null && !shifts.containsWindow(query.dayIndex, query.start, query.end)) return reject(query, TIME);
+        return withinReach(query, orgIndex) || reject(query, DISTANCE);
+    }
+
+    // matches for a volunteer with several windows: open on any window's day, then fits any shift
+    private boolean matchesAnyWindow(Query query, int orgIndex) {
+        if (!openOnAnyWindowDay(query, orgIndex)) return reject(query, CLOSED);
+        if (query.needsTransportation && !offersTransportation[orgIndex]) return reject(query, TRANSPORT);
+        if (!anyWindowFits(query, orgIndex)) return reject(query, TIME);
+        return withinReach(query, orgIndex) || reject(query, DISTANCE);
+    }
+
+    private boolean openOnAnyWindowDay(Query query, int orgIndex) {
+        if (query.dayIndex >= 0 && openStart[orgIndex * 7 + query.dayIndex] >= 0) return true;
+        for (int day = 0; day < 7; day++) {
+            if (openStart[orgIndex * 7 + day] >= 0 && query.additionalWindows.count(day) > 0) return true;
+        }
+        return false;
+    }
+
+    private boolean anyWindowFits(Query query, int orgIndex) {
+        if (fitsShift(orgIndex, query.dayIndex, query.start, query.end)) return true;
+        WeeklySchedule windows = query.additionalWindows;
+        for (int day = 0; day < 7; day++) {
+            for (int i = 0, n = windows.count(day); i < n; i++) {
+                TimeFrame window = windows.getWindow(day, i);
+                if (fitsShift(orgIndex, day, window.getStartMinuteOfDay(), window.getEndMinuteOfDay())) return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean fitsShift(int orgIndex, int dayIndex, int start, int end) {
+        if (dayIndex < 0) return false;
+        int slot = orgIndex * 7 + dayIndex;
+        int open = openStart[slot];
+        if (open < 0 || start < open || end > openEnd[slot]) return false;
+        WeeklySchedule shifts = splitShifts[orgIndex];
+        return shifts == null || shifts.containsWindow(dayIndex, start, end);
+    }
+
+    private static boolean reject(Query query, int reason) {
+        query.rejections[reason]++;
+        return false;
+    }
+
+    /**
+     * Method filter
+     * @param query a compiled volunteer
+     * @param candidates organization positions to test
+     * @param count how many entries of candidates to test
+     * @param out receives the matching positions, in candidate order (may be the candidates array)
+     * @return the number of matches written to out
+     */
+    public int filter(Query query, int[] candidates, int count, int[] out) {
+        int matched = 0;
+        for (int i = 0; i < count; i++) {
+            int orgIndex = candidates[i];
+            if (matches(query, orgIndex)) out[matched++] = orgIndex;
+        }
+        return matched;
+    }
+
+    /**
+     * Method matchAll
+     * @param query a compiled volunteer
+     * @param out receives the matching positions in ascending order (at least size() long)
+     * @return the number of matches written to out
+     */
+    public int matchAll(Query query, int[] out) {
+        int matched = 0;
+        int n = type.length;
+        for (int i = 0; i < n; i++) {
+            if (matches(query, i)) out[matched++] = i;
+        }
+        return matched;
+    }
+
+    /**
+     * Method mismatchMask
+     * @param query a compiled volunteer
+     * @param orgIndex the organization's position
+     * @return the same bits as volunteer.mismatchMask(org): every check the pair fails, 0 for a match
+     */
+    public int mismatchMask(Query query, int orgIndex) {
+        int mask = 0;
+        if (query.wantedType != ANY && type[orgIndex] != query.wantedType) mask |= Volunteer.MISMATCH_TYPE;
+        if (query.additionalWindows != null) {
+            if (!openOnAnyWindowDay(query, orgIndex)) {
+                mask |= Volunteer.MISMATCH_CLOSED;
+            } else if (!anyWindowFits(query, orgIndex)) {
+                mask |= Volunteer.MISMATCH_TIME;
+            }
+        } else {
+            int open = query.dayIndex < 0 ? -1 : openStart[orgIndex * 7 + query.dayIndex];
+            if (open < 0) {
+                mask |= Volunteer.MISMATCH_CLOSED;
+            } else if (!fitsShift(orgIndex, query.dayIndex, query.start, query.end)) {
+                mask |= Volunteer.MISMATCH_TIME;
+            }
+        }
+        if (query.needsTransportation && !offersTransportation[orgIndex]) mask |= Volunteer.MISMATCH_TRANSPORT;
+        if (!withinReach(query, orgIndex)) mask |= Volunteer.MISMATCH_DISTANCE;
+        return mask;
+    }
+
+    /**
+     * Method mismatchMasks
+     * @param query a compiled volunteer
+     * @param out receives mismatchMask for every organization, by position (at least size() long)
+     * @return how many organizations match (mask 0)
+     */
+    public int mismatchMasks(Query query, int[] out) {
+        int matched = 0;
+        for (int i = 0, n = type.length; i < n; i++) {
+            out[i] = mismatchMask(query, i);
+            if (out[i] == 0) matched++;
+        }
+        return matched;
+    }
+
+    public int size() {
+        return type.length;
+    }
+
+    // Stops following the organizations' open hours
+    public void close() {
+        for (CommunityFoodOrg org : positions.keySet()) org.removeCapacityListener(hoursTracker);
+    }
+
+    private boolean withinReach(Query query, int orgIndex) {
+        double latDistance = Math.toRadians(latitude[orgIndex] - query.latitude);
+        double lonDistance = Math.toRadians(longitude[orgIndex] - query.longitude);
+        double sinLat = Math.sin(latDistance / 2);
+        double sinLon = Math.sin(lonDistance / 2);
+        double a = sinLat * sinLat + query.cosLatitude * cosLatitude[orgIndex] * sinLon * sinLon;
+        if (a < query.insideLimit) return true;
+        if (a > query.outsideLimit && a < 1) return false; // a >= 1 can make the exact distance NaN
+
+        // Too close to the limit to decide from a; use exactly what orgMatch computes
+        return !(exactDistance(query, orgIndex) > query.distanceAvailable);
+    }
+
+    // Same operations in the same order as Location.distance, so the result is bit-identical
+    private double exactDistance(Query query, int orgIndex) {
+        double latDistance = Math.toRadians(latitude[orgIndex] - query.latitude);
+        double lonDistance = Math.toRadians(longitude[orgIndex] - query.longitude);
+        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2) +
+                   Math.cos(Math.toRadians(query.latitude)) * Math.cos(Math.toRadians(latitude[orgIndex])) *
+                   Math.sin(lonDistance / 2) * Math.sin(lonDistance / 2);
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return Location.EARTH_RADIUS * c;
+    }
+
+    private void refreshHours(CommunityFoodOrg org) {
+        Integer position = positions.get(org);
+        if (position != null) {
+            synchronized (this) {
+                loadHours(position, org);
+            }
+        }
+    }
+
+    private void loadHours(int orgIndex, CommunityFoodOrg org) {
+        offersTransportation[orgIndex] = org.isOffersTransportation();
+        splitShifts[orgIndex] = org.getSplitShifts();
+        TimeFrame[] hours = org.getDailyOpenHours();
+        for (int day = 0; day < 7; day++) {
+            TimeFrame open = hours[day];
+            // end is written first so a concurrent reader never sees a new start with an old end as open
+            openEnd[orgIndex * 7 + day] = (short) (open != null ? open.getEndMinuteOfDay() : -1);
+            openStart[orgIndex * 7 + day] = (short) (open != null ? open.getStartMinuteOfDay() : -1);
+        }
+    }
+}
@@ -0,0 +1,344 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Class OrgFileWatcher
+ *
+ * Reloads a community food organizations file into organizations that are already loaded,
+ * without losing their signups or donation progress. The watcher remembers a hash of the line
+ * each organization was loaded from, keyed by id; a reload reads the file, and only lines whose
+ * hash changed are parsed. For an id that is still in the file, the changes are applied to the
+ * loaded organization in place:
+ * - open hours and shifts (setShifts)
+ * - volunteers needed per day for pantries (signups are kept, so a day can end up over-full)
+ * - capacity for food banks (donations already reserved stay reserved, see FoodBank.resizeCapacity)
+ * - transportation, name and location
+ * Each organization is updated while holding it, and every change goes through the
+ * organization's own thread-safe setters, so readers see each day's hours and need either
+ * before or after the change, and CapacityListeners (need queues, match kernel, registry,
+ * candidate ranking) follow as for any other change.
+ *
+ * New ids are parsed into new organizations, appended after the loaded ones. Ids missing from
+ * the file (or whose line no longer parses, or whose type changed) are removed: they are closed
+ * on every day so nothing matches them any more. Added, removed, renamed or moved organizations
+ * make a reload structural: the list positions, spatial index and name index must be rebuilt
+ * from getOrgs(), which VolunteeringManager.applyOrgChanges does.
+ *
+ * Like OrgRegistry, the first line with an id wins; later lines repeating it are ignored.
+ * A file whose length and modification time did not change is not read at all.
+ *
+ * start() watches the file's directory on a daemon thread and hands each non-empty reload to
+ * the listeners; poll() reloads on the caller's thread.
+ */
+public class OrgFileWatcher implements AutoCloseable {
+    private static final long SETTLE_MILLIS = 50; // editors write a file in several steps
+
+    private final File file;
+    private final HashMap<String, Long> lineHashes = new HashMap<>(); // id -> hash of its current line
+    private final HashMap<String, CommunityFoodOrg> byId = new HashMap<>();
+    private ArrayList<CommunityFoodOrg> orgs;
+    private long length = -1, modified = -1;
+    private final CopyOnWriteArrayList<Consumer<Changes>> listeners = new CopyOnWriteArrayList<>();
+    private WatchService watchService;
+    private Thread thread;
+
+    /**
+     * Class Changes
+     * What one reload changed. The in-place updates were already applied when a Changes is seen.
+     */
+    public static final class Changes {
+        private final List<CommunityFoodOrg> orgs, updated, added, removed;
+        private final boolean structural;
+        private final int linesRead, linesParsed;
+        private final long nanos;
+
+        private Changes(List<CommunityFoodOrg> orgs, List<CommunityFoodOrg> updated, List<CommunityFoodOrg> added,
+                        List<CommunityFoodOrg> removed, boolean structural, int linesRead, int linesParsed, long nanos) {
+            this.orgs = Collections.unmodifiableList(orgs);
+            this.updated = Collections.unmodifiableList(updated);
+            this.added = Collections.unmodifiableList(added);
+            this.removed = Collections.unmodifiableList(removed);
+            this.structural = structural;
+            this.linesRead = linesRead;
+            this.linesParsed = linesParsed;
+            this.nanos = nanos;
+        }
+
+        // Every organization after the reload: the loaded ones still in the file, in their old order, then the added ones
+        public List<CommunityFoodOrg> getOrgs() { return orgs; }
+        // Loaded organizations whose line changed, updated in place
+        public List<CommunityFoodOrg> getUpdated() { return updated; }
+        public List<CommunityFoodOrg> getAdded() { return added; }
+        public List<CommunityFoodOrg> getRemoved() { return removed; }
+        // True when positions, locations or names changed, so indexes over getOrgs() must be rebuilt
+        public boolean isStructural() { return structural; }
+        public boolean isEmpty() { return updated.isEmpty() && added.isEmpty() && removed.isEmpty(); }
+        public int getLinesRead() { return linesRead; }
+        public int getLinesParsed() { return linesParsed; }
+        public long getNanos() { return nanos; }
+
+        @Override
+        public String toString() {
+            return String.format("%d updated, %d added, %d removed (%d of %d lines parsed) in %.2f ms",
+                    updated.size(), added.size(), removed.size(), linesParsed, linesRead, nanos / 1e6);
+        }
+    }
+
+    /**
+     * Constructor OrgFileWatcher
+     * @param orgsFile the organizations file the organizations were loaded from
+     * @param loaded the loaded organizations, matched to the file's lines by id
+     * @throws IOException if the file cannot be read
+     */
+    public OrgFileWatcher(String orgsFile, List<? extends CommunityFoodOrg> loaded) throws IOException {
+        this.file = new File(orgsFile);
+        this.orgs = new ArrayList<>();
+        for (CommunityFoodOrg org : loaded) {
+            if (byId.putIfAbsent(org.getId(), org) == null) orgs.add(org);
+        }
+        long fileLength = file.length(), fileModified = file.lastModified();
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String id = idOf(line);
+                if (id != null && byId.containsKey(id)) lineHashes.putIfAbsent(id, hash(line));
+            }
+        }
+        this.length = fileLength;
+        this.modified = fileModified;
+    }
+
+    /**
+     * Method poll
+     * @return what changed since the last reload (empty if the file is unchanged)
+     * @throws IOException if the file cannot be read
+     */
+    public synchronized Changes poll() throws IOException {
+        long start = System.nanoTime();
+        long fileLength = file.length(), fileModified = file.lastModified();
+        if (fileLength == length && fileModified == modified) {
+            return new Changes(orgs, Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), false, 0, 0, 0);
+        }
+
+        StringPool pool = StringPool.shared();
+        HashMap<String, Long> hashes = new HashMap<>(); // id -> line hash, for every id in the file
+        HashSet<String> kept = new HashSet<>();        // loaded ids that stay, updated or not
+        List<CommunityFoodOrg> updated = new ArrayList<>(), added = new ArrayList<>(), removed = new ArrayList<>();
+        boolean structural = false;
+        int linesRead = 0, linesParsed = 0;
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                linesRead++;
+                String id = idOf(line);
+                if (id == null || hashes.containsKey(id)) continue; // not an organization line, or a repeated id
+                long lineHash = hash(line);
+                hashes.put(id, lineHash);
+                Long previous = lineHashes.get(id);
+                if (previous != null && previous == lineHash) {
+                    kept.add(id); // unchanged: not even parsed
+                    continue;
+                }
+
+                linesParsed++;
+                CommunityFoodOrg parsed;
+                try {
+                    parsed = DataManager.parseCommunityFoodOrg(line, pool);
+                } catch (RuntimeException e) {
+                    System.err.println("Skipping unreadable organization " + id + " in " + file + ": " + e);
+                    parsed = null;
+                }
+                CommunityFoodOrg existing = byId.get(id);
+                if (parsed == null) {
+                    hashes.remove(id); // removed below if it was loaded; a later line with the id may still count
+                } else if (existing == null || existing.getClass() != parsed.getClass()) {
+                    added.add(parsed); // a food bank cannot turn into a pantry in place: the old one is removed below
+                } else {
+                    structural |= update(existing, parsed);
+                    updated.add(existing);
+                    kept.add(id);
+                }
+            }
+        }
+
+        ArrayList<CommunityFoodOrg> next = new ArrayList<>(orgs.size() + added.size());
+        for (CommunityFoodOrg org : orgs) {
+            if (kept.contains(org.getId())) {
+                next.add(org);
+            } else {
+                removed.add(org);
+                byId.remove(org.getId());
+                close(org);
+            }
+        }
+        for (CommunityFoodOrg org : added) {
+            byId.put(org.getId(), org);
+            next.add(org);
+        }
+        structural |= !added.isEmpty() || !removed.isEmpty();
+
+        lineHashes.clear();
+        for (String id : byId.keySet()) lineHashes.put(id, hashes.get(id));
+        this.orgs = next;
+        this.length = fileLength;
+        this.modified = fileModified;
+        return new Changes(next, updated, added, removed, structural, linesRead, linesParsed, System.nanoTime() - start);
+    }
+
+    /**
+     * Method update
+     * @param target a loaded organization
+     * @param parsed the same organization as its changed line now describes
+     * @return true if the name or location changed
+     */
+    static boolean update(CommunityFoodOrg target, CommunityFoodOrg parsed) {
+        synchronized (target) {
+            if (!sameHours(target, parsed)) target.setShifts(parsed.getShifts());
+            if (target instanceof FoodBank) {
+                ((FoodBank) target).resizeCapacity(((FoodBank) parsed).getMaxCapacity());
+            } else {
+                int[] needed = parsed.getDailyVolunteersNeeded(), current = target.getDailyVolunteersNeeded();
+                for (int day = 0; day < 7; day++) {
+                    if (needed[day] != current[day]) target.setDailyVolunteersNeeded(needed[day], WeeklySchedule.dayName(day));
+                }
+            }
+            target.setOffersTransportation(parsed.isOffersTransportation());
+            Location from = target.getLocation(), to = parsed.getLocation();
+            boolean moved = from.getLatitude() != to.getLatitude() || from.getLongitude() != to.getLongitude()
+                    || !same(from.getAddress(), to.getAddress()) || !same(from.getCity(), to.getCity())
+                    || !same(from.getState(), to.getState()) || !same(from.getZipCode(), to.getZipCode());
+            boolean renamed = !same(target.getName(), parsed.getName());
+            if (moved || renamed) target.setDetails(parsed.getName(), moved ? to : from);
+            return moved || renamed;
+        }
+    }
+
+    // Closed on every day, with nothing left to sign up for
+    private static void close(CommunityFoodOrg org) {
+        synchronized (org) {
+            org.setShifts(new WeeklySchedule());
+        }
+    }
+
+    private static boolean sameHours(CommunityFoodOrg a, CommunityFoodOrg b) {
+        WeeklySchedule x = a.getShifts(), y = b.getShifts();
+        for (int day = 0; day < 7; day++) {
+            int n = x.count(day);
+            if (n != y.count(day)) return false;
+            for (int i = 0; i < n; i++) {
+                TimeFrame p = x.getWindow(day, i), q = y.getWindow(day, i);
+                if (p.getStartMinuteOfDay() != q.getStartMinuteOfDay() || p.getEndMinuteOfDay() != q.getEndMinuteOfDay()) return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean same(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    // The id field of an organization line (the second field), or null for a line DataManager skips
+    private static String idOf(String line) {
+        int first = line.indexOf(';');
+        int second = first < 0 ? -1 : line.indexOf(';', first + 1);
+        int separators = second < 0 ? 0 : 2;
+        for (int i = second; separators > 0 && separators < 8; separators++) {
+            i = line.indexOf(';', i + 1);
+            if (i < 0) return null;
+        }
+        return separators < 8 ? null : line.substring(first + 1, second);
+    }
+
+    // 64-bit FNV-1a of the line, enough to tell a changed line from an unchanged one
+    private static long hash(String line) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < line.length(); i++) {
+            hash ^= line.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Organizations as of the last reload
+    public synchronized List<CommunityFoodOrg> getOrgs() {
+        return Collections.unmodifiableList(orgs);
+    }
+
+    /**
+     * Method addListener
+     * @param listener called on the watcher thread with every reload that changed something
+     */
+    public void addListener(Consumer<Changes> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Method start
+     * @throws IOException if the file's directory cannot be watched
+     *
+     * Watches the file's directory and reloads once the file has settled after a change.
+     */
+    public synchronized void start() throws IOException {
+        if (thread != null) return;
+        Path path = file.getAbsoluteFile().toPath();
+        Path name = path.getFileName();
+        watchService = FileSystems.getDefault().newWatchService();
+        path.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        final WatchService service = watchService;
+        thread = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = service.take();
+                    boolean ours = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        ours |= name.equals(event.context()) || event.kind() == StandardWatchEventKinds.OVERFLOW;
+                    }
+                    key.reset();
+                    if (!ours) continue;
+                    Thread.sleep(SETTLE_MILLIS);
+                    reload();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // closed
+            }
+        }, "org-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void reload() {
+        try {
+            Changes changes = poll();
+            if (changes.isEmpty()) return;
+            EventLog.log(EventLog.Event.ORGS_RELOADED, file.getName(), changes.toString());
+            for (Consumer<Changes> listener : listeners) listener.accept(changes);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error reloading community food organizations: " + e);
+        }
+    }
+
+    // Stops watching; poll() still works
+    @Override
+    public synchronized void close() throws IOException {
+        if (thread == null) return;
+        thread.interrupt();
+        watchService.close();
+        thread = null;
+    }
+}
@@ -0,0 +1,302 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Class OrgFileWatcherTest
+ *
+ * Edits a generated organizations file under a VolunteeringManager with signups and checks the
+ * reload:
+ * - only the changed lines are parsed
+ * - new hours, transportation, volunteers needed, food bank capacity and names are applied in
+ *   place, keeping every signup and the donations already reserved
+ * - a removed organization's volunteers are released, and an added one can be signed up with
+ * - a food bank that shrinks and then opens a closed day needs no more than its new capacity
+ * - a food bank day closed with pledges and opened again still counts them
+ * - the need queues agree with the organizations afterwards
+ * Then times a one-line reload of a large file against parsing it, and checks that start()
+ * picks up an edit on its own.
+ *
+ * Usage: java OrgFileWatcherTest [orgs] [largeOrgs]
+ */
+public class OrgFileWatcherTest {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int largeRows = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        File dir = File.createTempFile("org-file-watcher", "");
+        if (!dir.delete() || !dir.mkdir()) throw new IOException("Cannot create " + dir);
+        File orgsFile = new File(dir, "orgs.txt"), volunteersFile = new File(dir, "volunteers.txt");
+        SyntheticDataGenerator.writeOrgs(orgsFile, rows, 17);
+        SyntheticDataGenerator.writeVolunteers(volunteersFile, rows * 10, 17);
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) { }
+        }));
+        List<String> failures = new ArrayList<>();
+        try {
+            VolunteeringManager manager = new VolunteeringManager(orgsFile.getPath(), volunteersFile.getPath());
+            for (Volunteer volunteer : manager.getVolunteers()) manager.signUpVolunteerToPriorityOrg(volunteer);
+            List<CommunityFoodOrg> orgs = new ArrayList<>(manager.getOrgs());
+            OrgFileWatcher watcher = new OrgFileWatcher(orgsFile.getPath(), orgs);
+
+            // Pick organizations with signups to change: hours and transportation, volunteers needed,
+            // capacity, name, and one to remove
+            int hoursOrg = find(orgs, FoodPantry.class), neededOrg = find(orgs, FoodPantry.class, hoursOrg);
+            int capacityOrg = find(orgs, FoodBank.class), renamedOrg = find(orgs, FoodBank.class, capacityOrg);
+            int removedOrg = find(orgs, FoodPantry.class, hoursOrg, neededOrg);
+            int[][] signups = new int[orgs.size()][];
+            double[][] donationsNeeded = new double[orgs.size()][];
+            for (int i = 0; i < orgs.size(); i++) {
+                CommunityFoodOrg org = orgs.get(i);
+                if (org instanceof FoodBank) donationsNeeded[i] = ((FoodBank) org).getDailyDonationsNeeded();
+                else signups[i] = org.getDailyVolunteerSignups();
+            }
+            CommunityFoodOrg removed = orgs.get(removedOrg);
+            int removedVolunteers = 0;
+            for (Volunteer volunteer : manager.getVolunteers()) {
+                if (volunteer.getOrgVolunteering() == removed) removedVolunteers++;
+            }
+
+            List<String> lines = Files.readAllLines(orgsFile.toPath(), StandardCharsets.UTF_8);
+            String[] parts = lines.get(hoursOrg).split(";");
+            boolean transportation = !parts[9].equals("yes");
+            parts[9] = transportation ? "yes" : "no";
+            for (int i = 10; i < parts.length; i++) {
+                String[] day = parts[i].split("@");
+                parts[i] = day[0] + "@06:00@22:00@" + day[3];
+            }
+            lines.set(hoursOrg, String.join(";", parts));
+            parts = lines.get(neededOrg).split(";");
+            for (int i = 10; i < parts.length; i++) {
+                String[] day = parts[i].split("@");
+                parts[i] = day[0] + "@" + day[1] + "@" + day[2] + "@" + (Integer.parseInt(day[3]) + 3);
+            }
+            lines.set(neededOrg, String.join(";", parts));
+            parts = lines.get(capacityOrg).split(";");
+            double oldCapacity = Double.parseDouble(parts[10]);
+            parts[10] = String.valueOf((int) oldCapacity + 100);
+            lines.set(capacityOrg, String.join(";", parts));
+            parts = lines.get(renamedOrg).split(";");
+            parts[2] = "Renamed Bank";
+            lines.set(renamedOrg, String.join(";", parts));
+            String removedLine = lines.get(removedOrg);
+            lines.set(removedOrg, "");
+            // far outside the generated area, so nothing else is within reach of it
+            lines.add("Food Pantry;new-1;New Pantry;42.500000;-78.000000;1 Main St;Buffalo;NY;14201;no;"
+                    + "Monday@08:00@20:00@5;Tuesday@08:00@20:00@5");
+            Files.write(orgsFile.toPath(), lines, StandardCharsets.UTF_8);
+
+            OrgFileWatcher.Changes changes = watcher.poll();
+            manager.applyOrgChanges(changes);
+            console.println("reload: " + changes);
+            if (changes.getLinesParsed() != 5) failures.add(changes.getLinesParsed() + " lines parsed, expected 5");
+            if (changes.getUpdated().size() != 4 || changes.getAdded().size() != 1 || changes.getRemoved().size() != 1
+                    || changes.getRemoved().get(0) != removed || !changes.isStructural()) {
+                failures.add("changes: " + changes);
+            }
+
+            // In-place updates kept the signups
+            CommunityFoodOrg hours = orgs.get(hoursOrg);
+            for (int day = 0; day < 7; day++) {
+                TimeFrame open = hours.getDailyOpenHours()[day];
+                if (open != null && (open.getStartMinuteOfDay() != 6 * 60 || open.getEndMinuteOfDay() != 22 * 60)) failures.add("new hours");
+            }
+            if (hours.isOffersTransportation() != transportation) failures.add("transportation");
+            int[] needed = orgs.get(neededOrg).getDailyVolunteersNeeded();
+            for (int day = 0; day < 7; day++) {
+                if (orgs.get(neededOrg).getDailyOpenHours()[day] != null && needed[day] < 4) failures.add("volunteers needed on day " + day);
+            }
+            FoodBank bank = (FoodBank) orgs.get(capacityOrg);
+            for (int day = 0; day < 7; day++) {
+                double expected = bank.getDailyOpenHours()[day] == null ? donationsNeeded[capacityOrg][day]
+                                                                        : Math.min(oldCapacity + 100, donationsNeeded[capacityOrg][day] + 100);
+                if (bank.getDailyDonationsNeeded(day) != expected) failures.add("capacity of " + bank.getId() + " on day " + day);
+            }
+            if (!manager.getRegistry().byName("renamed bank").contains(orgs.get(renamedOrg))) failures.add("rename");
+            for (int i = 0; i < orgs.size(); i++) {
+                if (i == removedOrg) continue;
+                CommunityFoodOrg org = orgs.get(i);
+                if (org instanceof FoodBank && i != capacityOrg && !Arrays.equals(donationsNeeded[i], ((FoodBank) org).getDailyDonationsNeeded())) {
+                    failures.add("donation progress of " + org.getId());
+                } else if (org instanceof FoodPantry && !Arrays.equals(signups[i], org.getDailyVolunteerSignups())) {
+                    failures.add("signups of " + org.getId());
+                }
+            }
+
+            // Removed and added organizations
+            int stillSignedUp = 0;
+            for (Volunteer volunteer : manager.getVolunteers()) {
+                if (volunteer.getOrgVolunteering() == removed) stillSignedUp++;
+            }
+            if (stillSignedUp != 0 || manager.findOrg(removed.getId()) != null || manager.getOrgs().contains(removed)) {
+                failures.add("removed organization still in use");
+            }
+            CommunityFoodOrg added = manager.findOrg("new-1");
+            Volunteer nearby = new Volunteer("new-v", "New Volunteer", 30, new Location(42.5, -78.0, "", "", "", ""),
+                    "Monday", new TimeFrame(9, 0, 11, 0), 5, false, 0);
+            if (added == null || !manager.signUpVolunteerToPriorityOrg(nearby) || nearby.getOrgVolunteering() != added) {
+                failures.add("signup with the added organization");
+            }
+            checkQueues(manager, failures);
+            console.printf("%d volunteers of the removed organization released; signups kept everywhere else%n", removedVolunteers);
+
+            // The removed line back, as a new organization, and one more need change
+            lines.set(removedOrg, removedLine);
+            lines.set(neededOrg, lines.get(neededOrg).replaceAll("@\\d+$", "@9"));
+            Files.write(orgsFile.toPath(), lines, StandardCharsets.UTF_8);
+            changes = watcher.poll();
+            manager.applyOrgChanges(changes);
+            if (changes.getLinesParsed() != 2 || changes.getAdded().size() != 1) failures.add("second reload: " + changes);
+            checkQueues(manager, failures);
+
+            // A food bank shrinks, then opens a day it was closed: that day needs the new capacity, no more
+            int shrunkOrg = -1, closedDay = -1;
+            for (int i = 0; i < orgs.size() && shrunkOrg == -1; i++) {
+                if (!(orgs.get(i) instanceof FoodBank) || i == renamedOrg) continue;
+                for (int day = 0; day < 7 && shrunkOrg == -1; day++) {
+                    if (orgs.get(i).getDailyOpenHours()[day] == null) {
+                        shrunkOrg = i;
+                        closedDay = day;
+                    }
+                }
+            }
+            FoodBank shrunk = (FoodBank) orgs.get(shrunkOrg);
+            double shrunkCapacity = Math.max(10, shrunk.getMaxCapacity() / 2);
+            parts = lines.get(shrunkOrg).split(";");
+            parts[10] = String.valueOf(shrunkCapacity);
+            lines.set(shrunkOrg, String.join(";", parts));
+            Files.write(orgsFile.toPath(), lines, StandardCharsets.UTF_8);
+            manager.applyOrgChanges(watcher.poll());
+            lines.set(shrunkOrg, lines.get(shrunkOrg) + ";" + WeeklySchedule.dayName(closedDay) + "@09:00@17:00");
+            Files.write(orgsFile.toPath(), lines, StandardCharsets.UTF_8);
+            changes = watcher.poll();
+            manager.applyOrgChanges(changes);
+            if (changes.getLinesParsed() != 1 || shrunk.getDailyOpenHours()[closedDay] == null) failures.add("opened day: " + changes);
+            if (shrunk.getDailyDonationsNeeded(closedDay) != shrunkCapacity) {
+                failures.add("opened day needs " + shrunk.getDailyDonationsNeeded(closedDay) + ", capacity " + shrunkCapacity);
+            }
+            for (int day = 0; day < 7; day++) {
+                if (shrunk.getDailyDonationsNeeded(day) > shrunkCapacity) failures.add("need above capacity on day " + day);
+            }
+            if (shrunk.reserveDonation(closedDay, shrunkCapacity + 1)) failures.add("donation above capacity accepted");
+            checkQueues(manager, failures);
+
+            // A food bank closes a day with pledges, then opens it again: the pledges still count
+            int pledgedOrg = -1, pledgedDay = -1;
+            for (int i = 0; i < orgs.size() && pledgedOrg == -1; i++) {
+                if (!(orgs.get(i) instanceof FoodBank) || i == renamedOrg || i == shrunkOrg) continue;
+                FoodBank candidate = (FoodBank) orgs.get(i);
+                for (int day = 0; day < 7 && pledgedOrg == -1; day++) {
+                    if (candidate.getDailyOpenHours()[day] != null && candidate.getDailyDonationsNeeded(day) < candidate.getMaxCapacity()) {
+                        pledgedOrg = i;
+                        pledgedDay = day;
+                    }
+                }
+            }
+            FoodBank reopened = (FoodBank) orgs.get(pledgedOrg);
+            String pledgedDayName = WeeklySchedule.dayName(pledgedDay);
+            double pledged = 0;
+            for (Volunteer volunteer : manager.getVolunteers()) {
+                if (volunteer.getOrgVolunteering() == reopened && pledgedDayName.equals(volunteer.getSignedUpDay())) {
+                    pledged += volunteer.getDonation();
+                }
+            }
+            String openLine = lines.get(pledgedOrg);
+            List<String> closedParts = new ArrayList<>();
+            for (String part : openLine.split(";")) {
+                if (!part.startsWith(pledgedDayName + "@")) closedParts.add(part);
+            }
+            lines.set(pledgedOrg, String.join(";", closedParts));
+            Files.write(orgsFile.toPath(), lines, StandardCharsets.UTF_8);
+            manager.applyOrgChanges(watcher.poll());
+            boolean wasClosed = reopened.getDailyOpenHours()[pledgedDay] == null;
+            lines.set(pledgedOrg, openLine);
+            Files.write(orgsFile.toPath(), lines, StandardCharsets.UTF_8);
+            changes = watcher.poll();
+            manager.applyOrgChanges(changes);
+            if (!wasClosed || reopened.getDailyOpenHours()[pledgedDay] == null) failures.add("closed and reopened day: " + changes);
+            double left = reopened.getMaxCapacity() - pledged;
+            if (reopened.getDailyDonationsNeeded(pledgedDay) != left) {
+                failures.add("reopened day needs " + reopened.getDailyDonationsNeeded(pledgedDay) + ", capacity less "
+                        + pledged + " pledged is " + left);
+            }
+            if (reopened.reserveDonation(pledgedDay, left + 1)) failures.add("donation above the reopened day's need accepted");
+            checkQueues(manager, failures);
+            console.printf("food bank day closed and reopened with %.0f pounds pledged: needs %.0f of %.0f%n",
+                    pledged, reopened.getDailyDonationsNeeded(pledgedDay), reopened.getMaxCapacity());
+
+            // One changed line in a large file against parsing all of it
+            File largeFile = new File(dir, "large.txt");
+            SyntheticDataGenerator.writeOrgs(largeFile, largeRows, 17);
+            long start = System.nanoTime();
+            ArrayList<CommunityFoodOrg> large = DataManager.readCommunityFoodOrgs(largeFile.getPath());
+            long parseNanos = System.nanoTime() - start;
+            OrgFileWatcher largeWatcher = new OrgFileWatcher(largeFile.getPath(), large);
+            List<String> largeLines = Files.readAllLines(largeFile.toPath(), StandardCharsets.UTF_8);
+            largeLines.set(largeRows / 2, largeLines.get(largeRows / 2).replace(";Org ", ";Changed Org "));
+            Files.write(largeFile.toPath(), largeLines, StandardCharsets.UTF_8);
+            OrgFileWatcher.Changes one = largeWatcher.poll();
+            console.printf("%,d organizations: one-line reload %.1f ms (%d parsed), full parse %.1f ms%n",
+                    largeRows, one.getNanos() / 1e6, one.getLinesParsed(), parseNanos / 1e6);
+            if (one.getLinesParsed() != 1 || one.getUpdated().size() != 1) failures.add("large reload: " + one);
+
+            // The watch thread applies an edit by itself
+            OrgFileWatcher watching = manager.watchOrgs(orgsFile.getPath());
+            lines.add("Food Bank;new-2;Watched Bank;41.000000;-79.000000;2 Main St;Erie;PA;16501;no;800;Friday@09:00@17:00");
+            Files.write(orgsFile.toPath(), lines, StandardCharsets.UTF_8);
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (manager.findOrg("new-2") == null && System.currentTimeMillis() < deadline) Thread.sleep(20);
+            watching.close();
+            if (manager.findOrg("new-2") == null) failures.add("watch thread did not reload");
+            else console.println("watch thread applied an edit");
+        } finally {
+            EventLog.flush();
+            System.setOut(console);
+            for (File file : dir.listFiles()) file.delete();
+            dir.delete();
+        }
+        for (int i = 0; i < Math.min(10, failures.size()); i++) console.println("  " + failures.get(i));
+        console.println(failures.isEmpty() ? "PASS" : "FAIL (" + failures.size() + " failures)");
+        if (!failures.isEmpty()) System.exit(1);
+    }
+
+    // First organization of the type with a signup or a reserved donation, other than the skipped ones
+    private static int find(List<CommunityFoodOrg> orgs, Class<?> type, int... skip) {
+        for (int i = 0; i < orgs.size(); i++) {
+            CommunityFoodOrg org = orgs.get(i);
+            if (org.getClass() != type || Arrays.binarySearch(skip, i) >= 0) continue;
+            for (int day = 0; day < 7; day++) {
+                if (org.getDailyOpenHours()[day] == null) continue;
+                boolean used = org instanceof FoodBank ? ((FoodBank) org).getDailyDonationsNeeded(day) < ((FoodBank) org).getMaxCapacity()
+                                                       : org.getDailyVolunteerSignups()[day] > 0;
+                if (used) return i;
+            }
+        }
+        throw new IllegalStateException("No " + type.getName() + " with signups");
+    }
+
+    // The need queues hold each organization's need on every open day, and nothing on closed days
+    private static void checkQueues(VolunteeringManager manager, List<String> failures) {
+        for (CommunityFoodOrg org : manager.getOrgs()) {
+            for (int day = 0; day < 7; day++) {
+                double queued = manager.getQueuedNeed(org, day);
+                double need = org instanceof FoodBank ? ((FoodBank) org).getDailyDonationsNeeded(day) : org.dailyVolunteerSpotsLeft(day);
+                boolean open = org.getDailyOpenHours()[day] != null;
+                if (open ? queued != need : !Double.isNaN(queued)) {
+                    failures.add("queued need of " + org.getId() + " on day " + day + ": " + queued + ", need " + need);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Class OrgPriorityQueue
+ *
+ * Indexed binary max-heap of organization positions keyed on remaining need (pounds for a
+ * FoodBank, open spots for a FoodPantry). Every organization position has at most one entry
+ * and its heap slot is tracked, so changing or removing a key costs O(log n).
+ *
+ * Entries with equal keys are ordered by position, so walking the heap from the top visits
+ * organizations in the same order a linear scan keeping the first highest priority would.
+ * All methods are synchronized on the queue.
+ */
+public class OrgPriorityQueue {
+    public static final int NOT_FOUND = -1;
+    public static final int GAVE_UP = -2;
+
+    private int[] heap;      // heap slot -> org position
+    private double[] keys;   // org position -> key
+    private int[] slotOf;    // org position -> heap slot, -1 if absent
+    private int size;
+    private int[] walk = new int[16];
+
+    /**
+     * Constructor OrgPriorityQueue
+     * @param capacity the number of organization positions the queue can hold (it grows if needed)
+     */
+    public OrgPriorityQueue(int capacity) {
+        capacity = Math.max(1, capacity);
+        heap = new int[capacity];
+        keys = new double[capacity];
+        slotOf = new int[capacity];
+        Arrays.fill(slotOf, -1);
+    }
+
+    /**
+     * Method update
+     * @param orgIndex the organization position
+     * @param key the new remaining need; inserted if the organization is not in the queue yet
+     */
+    public synchronized void update(int orgIndex, double key) {
+        ensureCapacity(orgIndex + 1);
+        int slot = slotOf[orgIndex];
+        keys[orgIndex] = key;
+        if (slot == -1) {
+            slot = size++;
+            heap[slot] = orgIndex;
+            slotOf[orgIndex] = slot;
+        }
+        siftDown(siftUp(slot));
+    }
+
+    /**
+     * Method remove
+     * @param orgIndex the organization position to take out of the queue (ignored if absent)
+     */
+    public synchronized void remove(int orgIndex) {
+        if (orgIndex >= slotOf.length || slotOf[orgIndex] == -1) return;
+        int slot = slotOf[orgIndex];
+        slotOf[orgIndex] = -1;
+        size--;
+        if (slot != size) {
+            heap[slot] = heap[size];
+            slotOf[heap[slot]] = slot;
+            siftDown(siftUp(slot));
+        }
+    }
+
+    /**
+     * Method findFirst
+     * @param accept tested on organization positions in descending key order
+     * @param minKey only entries with a key strictly greater than minKey are visited
+     * @param maxVisits the largest number of entries to test before giving up
+     * @return the first accepted position, NOT_FOUND if no entry above minKey is accepted,
+     *         or GAVE_UP if maxVisits entries were rejected first
+     *
+     * The walk keeps a small frontier of heap slots ordered like the heap itself, so visiting
+     * the k best entries costs O(k log k) and never touches the rest of the heap.
+     */
+    public synchronized int findFirst(IntPredicate accept, double minKey, int maxVisits) {
+        int frontier = 0;
+        if (size > 0) walk[frontier++] = 0;
+        int visits = 0;
+        while (frontier > 0) {
+            int slot = walk[0];
+            walk[0] = walk[--frontier];
+            frontierSiftDown(frontier);
+            int orgIndex = heap[slot];
+            if (!(keys[orgIndex] > minKey)) return NOT_FOUND; // everything below is no better
+            if (accept.test(orgIndex)) return orgIndex;
+            if (++visits >= maxVisits) return GAVE_UP;
+            for (int child = 2 * slot + 1; child <= 2 * slot + 2 && child < size; child++) {
+                if (frontier == walk.length) walk = Arrays.copyOf(walk, frontier * 2);
+                walk[frontier] = child;
+                frontierSiftUp(frontier++);
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    // Getters
+    public synchronized int size() { return size; }
+    public synchronized boolean contains(int orgIndex) { return orgIndex < slotOf.length && slotOf[orgIndex] != -1; }
+    public synchronized double getKey(int orgIndex) { return keys[orgIndex]; }
+
+    // True if the entry for org position a ranks above the entry for org position b
+    private boolean above(int a, int b) {
+        return keys[a] > keys[b] || (keys[a] == keys[b] && a < b);
+    }
+
+    private int siftUp(int slot) {
+        int orgIndex = heap[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) / 2;
+            if (!above(orgIndex, heap[parent])) break;
+            heap[slot] = heap[parent];
+            slotOf[heap[slot]] = slot;
+            slot = parent;
+        }
+        heap[slot] = orgIndex;
+        slotOf[orgIndex] = slot;
+        return slot;
+    }
+
+    private void siftDown(int slot) {
+        int orgIndex = heap[slot];
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= size) break;
+            if (child + 1 < size && above(heap[child + 1], heap[child])) child++;
+            if (!above(heap[child], orgIndex)) break;
+            heap[slot] = heap[child];
+            slotOf[heap[slot]] = slot;
+            slot = child;
+        }
+        heap[slot] = orgIndex;
+        slotOf[orgIndex] = slot;
+    }
+
+    // The walk frontier is itself a max-heap of heap slots
+    private void frontierSiftUp(int i) {
+        int slot = walk[i];
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!above(heap[slot], heap[walk[parent]])) break;
+            walk[i] = walk[parent];
+            i = parent;
+        }
+        walk[i] = slot;
+    }
+
+    private void frontierSiftDown(int frontier) {
+        if (frontier == 0) return;
+        int i = 0;
+        int slot = walk[0];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= frontier) break;
+            if (child + 1 < frontier && above(heap[walk[child + 1]], heap[walk[child]])) child++;
+            if (!above(heap[walk[child]], heap[slot])) break;
+            walk[i] = walk[child];
+            i = child;
+        }
+        walk[i] = slot;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= slotOf.length) return;
+        int capacity = Math.max(needed, slotOf.length * 2);
+        heap = Arrays.copyOf(heap, capacity);
+        keys = Arrays.copyOf(keys, capacity);
+        int oldLength = slotOf.length;
+        slotOf = Arrays.copyOf(slotOf, capacity);
+        Arrays.fill(slotOf, oldLength, capacity, -1);
+    }
+}
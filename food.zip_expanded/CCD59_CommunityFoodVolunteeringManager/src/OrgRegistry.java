@@ -0,0 +1,187 @@
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Class OrgRegistry
+ *
+ * Indexes a list of organizations so they are found in constant time instead of by scanning:
+ * - by id (the first organization registered with an id keeps it; later ones are still
+ *   registered everywhere else, and their ids are reported by getDuplicateIds)
+ * - by name, normalized (case, surrounding and repeated whitespace ignored); several
+ *   organizations may share a name
+ * - by type (food banks, food pantries) and by the days they are open
+ * - by position in the registered list, the position the spatial index, the match kernel and
+ *   the priority queues use
+ *
+ * The open-day index follows changes to open hours through a CapacityListener on every
+ * organization; close() removes it. Lookups never block; adding organizations and reading the
+ * open-day index synchronize on the registry.
+ */
+public class OrgRegistry implements CapacityListener, AutoCloseable {
+    private final ArrayList<CommunityFoodOrg> orgs = new ArrayList<>();
+    private final ConcurrentHashMap<CommunityFoodOrg, Integer> positions = new ConcurrentHashMap<>(); // organizations compare by identity
+    private final ConcurrentHashMap<String, CommunityFoodOrg> byId = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, List<CommunityFoodOrg>> byName = new ConcurrentHashMap<>();
+    private final CopyOnWriteArrayList<CommunityFoodOrg> foodBanks = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<CommunityFoodOrg> foodPantries = new CopyOnWriteArrayList<>();
+    private final BitSet[] openOn = new BitSet[7]; // positions open on each day
+    private volatile int[] hoursVersions = new int[16]; // per position, getHoursVersion when openOn was last updated
+    private final ArrayList<String> duplicateIds = new ArrayList<>();
+
+    public OrgRegistry() {
+        for (int day = 0; day < 7; day++) openOn[day] = new BitSet();
+    }
+
+    /**
+     * Constructor OrgRegistry
+     * @param orgs the organizations to register, in order; positions are list positions
+     */
+    public OrgRegistry(List<? extends CommunityFoodOrg> orgs) {
+        this();
+        for (CommunityFoodOrg org : orgs) add(org);
+    }
+
+    /**
+     * Method add
+     * @param org the organization to register
+     * @return its position (the one it already had if it is registered)
+     */
+    public synchronized int add(CommunityFoodOrg org) {
+        Integer known = positions.get(org);
+        if (known != null) return known;
+        if (byId.putIfAbsent(org.getId(), org) != null) duplicateIds.add(org.getId());
+        int position = orgs.size();
+        orgs.add(org);
+        positions.put(org, position);
+        byName.computeIfAbsent(normalize(org.getName()), name -> new CopyOnWriteArrayList<>()).add(org);
+        if (org instanceof FoodBank) foodBanks.add(org);
+        else if (org instanceof FoodPantry) foodPantries.add(org);
+        if (position == hoursVersions.length) {
+            int[] grown = new int[position * 2];
+            System.arraycopy(hoursVersions, 0, grown, 0, position);
+            hoursVersions = grown;
+        }
+        indexOpenDays(org, position);
+        org.addCapacityListener(this);
+        return position;
+    }
+
+    // CapacityListener: re-index the open days of an organization whose hours changed
+    // (signups only cost a lookup and a version check, without the lock)
+    @Override
+    public void capacityChanged(CommunityFoodOrg org, int dayIndex) {
+        Integer position = positions.get(org);
+        if (position == null || hoursVersions[position] == org.getHoursVersion()) return;
+        synchronized (this) {
+            if (hoursVersions[position] != org.getHoursVersion()) indexOpenDays(org, position);
+        }
+    }
+
+    private void indexOpenDays(CommunityFoodOrg org, int position) {
+        hoursVersions[position] = org.getHoursVersion();
+        TimeFrame[] hours = org.getDailyOpenHours();
+        for (int day = 0; day < 7; day++) openOn[day].set(position, hours[day] != null);
+    }
+
+    /**
+     * Method byId
+     * @param id an organization id
+     * @return the (first registered) organization with that id, or null if there is none
+     */
+    public CommunityFoodOrg byId(String id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    /**
+     * Method byName
+     * @param name an organization name, in any case and spacing
+     * @return every organization with that name, in registration order (empty if none)
+     */
+    public List<CommunityFoodOrg> byName(String name) {
+        if (name == null) return Collections.emptyList();
+        List<CommunityFoodOrg> found = byName.get(normalize(name));
+        return found == null ? Collections.emptyList() : Collections.unmodifiableList(found);
+    }
+
+    /**
+     * Method uniqueByName
+     * @param name an organization name, in any case and spacing
+     * @return the organization with that name, or null if there is none or the name is shared
+     */
+    public CommunityFoodOrg uniqueByName(String name) {
+        List<CommunityFoodOrg> found = byName(name);
+        return found.size() == 1 ? found.get(0) : null;
+    }
+
+    // Organizations of each type, in registration order
+    public List<CommunityFoodOrg> getFoodBanks() {
+        return Collections.unmodifiableList(foodBanks);
+    }
+
+    public List<CommunityFoodOrg> getFoodPantries() {
+        return Collections.unmodifiableList(foodPantries);
+    }
+
+    /**
+     * Method openOn
+     * @param dayIndex the day (0 = Monday)
+     * @return the organizations open that day, in registration order
+     */
+    public synchronized List<CommunityFoodOrg> openOn(int dayIndex) {
+        BitSet open = openOn[dayIndex];
+        List<CommunityFoodOrg> found = new ArrayList<>(open.cardinality());
+        for (int position = open.nextSetBit(0); position >= 0; position = open.nextSetBit(position + 1)) {
+            found.add(orgs.get(position));
+        }
+        return found;
+    }
+
+    // Number of organizations open on a day
+    public synchronized int countOpenOn(int dayIndex) {
+        return openOn[dayIndex].cardinality();
+    }
+
+    /**
+     * Method indexOf
+     * @param org an organization
+     * @return its position in the registry, or -1 if it is not registered
+     */
+    public int indexOf(CommunityFoodOrg org) {
+        Integer position = positions.get(org);
+        return position == null ? -1 : position;
+    }
+
+    // The registered organizations, in position order
+    public synchronized ArrayList<CommunityFoodOrg> getOrgs() {
+        return new ArrayList<>(orgs);
+    }
+
+    public synchronized CommunityFoodOrg get(int position) {
+        return orgs.get(position);
+    }
+
+    public synchronized int size() {
+        return orgs.size();
+    }
+
+    // Ids of organizations registered after another with the same id (byId finds the first)
+    public synchronized List<String> getDuplicateIds() {
+        return new ArrayList<>(duplicateIds);
+    }
+
+    // Stops following the organizations' open hours
+    @Override
+    public synchronized void close() {
+        for (CommunityFoodOrg org : orgs) org.removeCapacityListener(this);
+    }
+
+    // Lower case, trimmed, runs of whitespace as one space
+    static String normalize(String name) {
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,143 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class OrgRegistryTest
+ *
+ * Checks every OrgRegistry index against a scan of the organization list on generated data:
+ * lookups by id and by name (in other case and spacing, and names shared by two organizations),
+ * the type lists, and the open-day index before and after open hours change. Also loads a file
+ * with a repeated id through DataManager.readOrgRegistry and times byId against the linear scan
+ * it replaces.
+ *
+ * Usage: java OrgRegistryTest [orgs]
+ */
+public class OrgRegistryTest {
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+
+        File dir = File.createTempFile("org-registry", "");
+        if (!dir.delete() || !dir.mkdir()) throw new IOException("Cannot create " + dir);
+        File orgsFile = new File(dir, "orgs.txt");
+        SyntheticDataGenerator.writeOrgs(orgsFile, rows, 13);
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) { }
+        }));
+        List<String> failures = new ArrayList<>();
+        try {
+            ArrayList<CommunityFoodOrg> orgs = DataManager.readCommunityFoodOrgs(orgsFile.getPath());
+            // two organizations sharing a name (ids stay unique)
+            Location location = orgs.get(0).getLocation();
+            orgs.add(new FoodPantry("twin-1", "Hope  Kitchen", location, new TimeFrame[7], new int[7], new int[7], true));
+            orgs.add(new FoodPantry("twin-2", "hope kitchen ", location, new TimeFrame[7], new int[7], new int[7], false));
+            OrgRegistry registry = new OrgRegistry(orgs);
+
+            for (int i = 0; i < orgs.size(); i++) {
+                CommunityFoodOrg org = orgs.get(i);
+                if (registry.byId(org.getId()) != org) failures.add("byId " + org.getId());
+                if (registry.indexOf(org) != i || registry.get(i) != org) failures.add("position of " + org.getId());
+                if (!registry.byName(org.getName().toUpperCase()).contains(org)) failures.add("byName " + org.getName());
+            }
+            if (registry.byId("no-such-id") != null) failures.add("byId of an unknown id");
+            List<CommunityFoodOrg> twins = registry.byName("  HOPE KITCHEN");
+            if (twins.size() != 2 || twins.get(0).getId().equals(twins.get(1).getId())) failures.add("shared name: " + twins.size() + " found");
+            if (registry.uniqueByName("Hope Kitchen") != null) failures.add("uniqueByName of a shared name");
+            if (registry.uniqueByName(orgs.get(0).getName()) != orgs.get(0)) failures.add("uniqueByName");
+
+            int banks = 0, pantries = 0;
+            for (CommunityFoodOrg org : orgs) {
+                if (org instanceof FoodBank) banks++;
+                else if (org instanceof FoodPantry) pantries++;
+            }
+            if (registry.getFoodBanks().size() != banks || registry.getFoodPantries().size() != pantries) failures.add("type lists");
+
+            checkOpenDays(registry, orgs, failures, "open days");
+            Random random = new Random(13);
+            for (int i = 0; i < 500; i++) {
+                CommunityFoodOrg org = orgs.get(random.nextInt(orgs.size()));
+                String day = WeeklySchedule.dayName(random.nextInt(7));
+                if (i % 3 == 0) org.setDailyOpenHours(null, day);
+                else if (i % 3 == 1) org.setDailyOpenHours(new TimeFrame(8, 0, 16, 0), day);
+                else org.addShift(new TimeFrame(18, 0, 20, 0), day);
+            }
+            checkOpenDays(registry, orgs, failures, "open days after hours changes");
+            registry.close();
+
+            // A repeated id keeps its position; byId finds the first
+            File repeated = new File(dir, "repeated.txt");
+            try (FileWriter out = new FileWriter(repeated)) {
+                out.write("Food Pantry;7;First Seven;40.1;-79.9;1 Main St;Pittsburgh;PA;15001;yes;Monday@09:00@12:00@3\n");
+                out.write("Food Pantry;7;Second Seven;40.2;-79.8;2 Main St;Pittsburgh;PA;15002;no;Tuesday@09:00@12:00@2\n");
+            }
+            PrintStream errors = System.err;
+            System.setErr(new PrintStream(new OutputStream() {
+                @Override
+                public void write(int b) { }
+            }));
+            OrgRegistry loaded;
+            try {
+                loaded = DataManager.readOrgRegistry(repeated.getPath());
+            } finally {
+                System.setErr(errors);
+            }
+            if (loaded.size() != 2 || !loaded.byId("7").getName().equals("First Seven")
+                    || !loaded.getDuplicateIds().contains("7") || loaded.indexOf(loaded.get(1)) != 1) {
+                failures.add("repeated id in a data file");
+            }
+            loaded.close();
+
+            // byId against the scan it replaces
+            OrgRegistry timed = new OrgRegistry(orgs);
+            int lookups = 2_000, found = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                String id = orgs.get(random.nextInt(orgs.size())).getId();
+                for (CommunityFoodOrg org : orgs) {
+                    if (org.getId().equals(id)) {
+                        found++;
+                        break;
+                    }
+                }
+            }
+            long scanNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < lookups; i++) {
+                if (timed.byId(orgs.get(random.nextInt(orgs.size())).getId()) != null) found++;
+            }
+            long indexNanos = System.nanoTime() - start;
+            timed.close();
+            console.printf("%,d organizations: lookup by id %.0f ns (scan %,.0f ns), %d found%n",
+                    orgs.size(), (double) indexNanos / lookups, (double) scanNanos / lookups, found);
+        } finally {
+            EventLog.flush();
+            System.setOut(console);
+            for (File file : dir.listFiles()) file.delete();
+            dir.delete();
+        }
+        for (int i = 0; i < Math.min(10, failures.size()); i++) console.println("  " + failures.get(i));
+        console.println(failures.isEmpty() ? "PASS" : "FAIL (" + failures.size() + " failures)");
+        if (!failures.isEmpty()) System.exit(1);
+    }
+
+    private static void checkOpenDays(OrgRegistry registry, List<CommunityFoodOrg> orgs, List<String> failures, String name) {
+        for (int day = 0; day < 7; day++) {
+            List<CommunityFoodOrg> expected = new ArrayList<>();
+            for (CommunityFoodOrg org : orgs) {
+                if (org.getDailyOpenHours()[day] != null) expected.add(org);
+            }
+            if (!expected.equals(registry.openOn(day)) || registry.countOpenOn(day) != expected.size()) {
+                failures.add(name + " on " + WeeklySchedule.dayName(day));
+            }
+        }
+    }
+}
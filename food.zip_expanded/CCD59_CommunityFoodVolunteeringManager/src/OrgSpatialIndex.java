@@ -0,0 +1,171 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Class OrgSpatialIndex
+ *
+ * Uniform latitude/longitude grid over organization locations. Each cell holds the positions
+ * (in the list the index was built from) of the organizations inside it. A radius query only
+ * visits the cells overlapping the bounding box of the search circle and runs the Haversine
+ * check on the organizations found there, so the cost depends on how many sites are nearby
+ * rather than on the total number of sites.
+ *
+ * Results are returned in list order so callers that break ties by list position behave the
+ * same as a full scan.
+ */
+public class OrgSpatialIndex {
+    public static final double DEFAULT_CELL_DEGREES = 0.25; // roughly 17 miles of latitude
+    private static final double MILES_PER_DEGREE = Location.EARTH_RADIUS * Math.PI / 180;
+    private static final double EDGE_MARGIN_DEGREES = 1e-6;
+
+    private final ArrayList<CommunityFoodOrg> orgs;
+    private final double cellDegrees, lonCellDegrees;
+    private final int lonCells;
+    private final HashMap<Long, Cell> cells = new HashMap<>();
+
+    // Growable list of organization positions in one grid cell
+    private static class Cell {
+        int[] orgIndices = new int[4];
+        int size;
+    }
+
+    /**
+     * Constructor OrgSpatialIndex
+     * @param orgs the organizations to index; query results refer to positions in this list
+     */
+    public OrgSpatialIndex(List<? extends CommunityFoodOrg> orgs) {
+        this(orgs, DEFAULT_CELL_DEGREES);
+    }
+
+    /**
+     * Constructor OrgSpatialIndex
+     * @param orgs the organizations to index; query results refer to positions in this list
+     * @param cellDegrees the width and height of a grid cell in degrees (must be positive)
+     */
+    public OrgSpatialIndex(List<? extends CommunityFoodOrg> orgs, double cellDegrees) {
+        if (!(cellDegrees > 0)) {
+            throw new IllegalArgumentException("Cell size must be positive: " + cellDegrees);
+        }
+        this.orgs = new ArrayList<>(orgs);
+        this.cellDegrees = cellDegrees;
+        // Longitude cells must tile the full circle exactly so that wrapped indices line up
+        this.lonCells = Math.max(1, (int) Math.round(360 / cellDegrees));
+        this.lonCellDegrees = 360.0 / lonCells;
+        for (int i = 0; i < this.orgs.size(); i++) {
+            insert(i);
+        }
+    }
+
+    // Add the organization at the given list position to its cell
+    private void insert(int orgIndex) {
+        Location loc = orgs.get(orgIndex).getLocation();
+        if (loc == null) return;
+        long key = cellKey(latCell(loc.getLatitude()), lonCell(loc.getLongitude()));
+        Cell cell = cells.get(key);
+        if (cell == null) {
+            cell = new Cell();
+            cells.put(key, cell);
+        } else if (cell.size == cell.orgIndices.length) {
+            cell.orgIndices = Arrays.copyOf(cell.orgIndices, cell.size * 2);
+        }
+        cell.orgIndices[cell.size++] = orgIndex;
+    }
+
+    /**
+     * Method queryIndices
+     * @param center the point to search around
+     * @param miles the search radius in miles
+     * @return the list positions of all organizations whose Haversine distance from center is at
+     *         most miles, in ascending order; every position for a NaN radius, which
+     *         Volunteer.orgMatch and MatchKernel treat as no distance limit
+     */
+    public int[] queryIndices(Location center, double miles) {
+        if (Double.isNaN(miles)) {
+            int[] all = new int[orgs.size()];
+            for (int i = 0; i < all.length; i++) all[i] = i;
+            return all;
+        }
+        if (center == null || !(miles >= 0)) return new int[0];
+        double lat = center.getLatitude();
+        double lon = center.getLongitude();
+        double latSpan = miles / MILES_PER_DEGREE + EDGE_MARGIN_DEGREES;
+
+        int latLo = latCell(Math.max(-90, lat - latSpan));
+        int latHi = latCell(Math.min(90, lat + latSpan));
+        int lonLo = 0, lonHi = lonCells - 1;
+        double lonSpan = longitudeSpan(lat, miles);
+        if (lonSpan < 180) {
+            lonLo = lonCellUnwrapped(lon - lonSpan - EDGE_MARGIN_DEGREES);
+            lonHi = lonCellUnwrapped(lon + lonSpan + EDGE_MARGIN_DEGREES);
+            if (lonHi - lonLo + 1 >= lonCells) {
+                lonLo = 0;
+                lonHi = lonCells - 1;
+            }
+        }
+
+        int[] result = new int[8];
+        int count = 0;
+        for (int latCell = latLo; latCell <= latHi; latCell++) {
+            for (int lonCell = lonLo; lonCell <= lonHi; lonCell++) {
+                Cell cell = cells.get(cellKey(latCell, Math.floorMod(lonCell, lonCells)));
+                if (cell == null) continue;
+                for (int i = 0; i < cell.size; i++) {
+                    int orgIndex = cell.orgIndices[i];
+                    if (center.withinMiles(orgs.get(orgIndex).getLocation(), miles)) {
+                        if (count == result.length) result = Arrays.copyOf(result, count * 2);
+                        result[count++] = orgIndex;
+                    }
+                }
+            }
+        }
+        result = Arrays.copyOf(result, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Method query
+     * @param center the point to search around
+     * @param miles the search radius in miles
+     * @return the organizations within miles of center, in the order of the indexed list
+     */
+    public ArrayList<CommunityFoodOrg> query(Location center, double miles) {
+        int[] indices = queryIndices(center, miles);
+        ArrayList<CommunityFoodOrg> result = new ArrayList<>(indices.length);
+        for (int orgIndex : indices) {
+            result.add(orgs.get(orgIndex));
+        }
+        return result;
+    }
+
+    // Half-width in degrees of longitude of a spherical cap, or 180 when it reaches a pole
+    private static double longitudeSpan(double lat, double miles) {
+        double angularRadius = miles / Location.EARTH_RADIUS;
+        if (angularRadius >= Math.PI / 2) return 180;
+        double ratio = Math.sin(angularRadius) / Math.cos(Math.toRadians(lat));
+        if (!(ratio < 1)) return 180;
+        return Math.toDegrees(Math.asin(ratio));
+    }
+
+    private int latCell(double lat) {
+        return (int) Math.floor((lat + 90) / cellDegrees);
+    }
+
+    private int lonCell(double lon) {
+        return Math.floorMod(lonCellUnwrapped(lon), lonCells);
+    }
+
+    private int lonCellUnwrapped(double lon) {
+        return (int) Math.floor((lon + 180) / lonCellDegrees);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+
+    // Getters
+    public int size() { return orgs.size(); }
+    public CommunityFoodOrg getOrg(int orgIndex) { return orgs.get(orgIndex); }
+}
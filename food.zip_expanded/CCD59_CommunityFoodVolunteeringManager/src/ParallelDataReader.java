@@ -0,0 +1,283 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Class ParallelDataReader
+ *
+ * Parallel counterpart of DataManager and StreamingDataReader. The file is cut into chunks at
+ * line boundaries; every chunk is memory-mapped and parsed on its own thread with its own
+ * StreamingDataReader and StringPool (so threads never wait on each other), and the chunks'
+ * records are joined in file order, so the result lists the same records in the same order as
+ * a single-threaded read.
+ *
+ * Unlike DataManager, a bad line never aborts the load and is never dropped silently: a line
+ * with too few fields, an unknown organization type or a malformed number is left out and
+ * reported as a LineError with its line number, the reason and the line itself. Blank lines are
+ * not records and are skipped. An I/O error still fails the whole read with an IOException.
+ */
+public class ParallelDataReader {
+    private static final long CHUNK_SIZE = 8L << 20; // bytes per chunk (cut at the next line end)
+    private static final int MAX_CHUNK_SIZE = Integer.MAX_VALUE - 8; // largest mappable chunk
+    private static final int MAX_REPORTED_ERRORS = 10_000; // later errors are counted, not kept
+    private static final int POOL_ENTRIES = 1 << 14; // per-chunk StringPool
+
+    private interface LineParser<T> {
+        T parse(StreamingDataReader reader, ByteBuffer buf, int start, int end);
+    }
+
+    /**
+     * Class LineError
+     * A line that could not be read into a record.
+     */
+    public static final class LineError {
+        private final long lineNumber;
+        private final String reason;
+        private final String line;
+
+        LineError(long lineNumber, String reason, String line) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+            this.line = line;
+        }
+
+        public long getLineNumber() { return lineNumber; }
+        public String getReason() { return reason; }
+        public String getLine() { return line; }
+
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": " + reason;
+        }
+    }
+
+    /**
+     * Class Result
+     * The records of a file in file order, and the report of the lines that were left out.
+     */
+    public static final class Result<T> {
+        private final ArrayList<T> records;
+        private final List<LineError> errors;
+        private final long errorCount, lines, bytes, nanos;
+        private final int chunks, threads;
+
+        Result(ArrayList<T> records, List<LineError> errors, long errorCount, long lines, long bytes, long nanos,
+               int chunks, int threads) {
+            this.records = records;
+            this.errors = errors;
+            this.errorCount = errorCount;
+            this.lines = lines;
+            this.bytes = bytes;
+            this.nanos = nanos;
+            this.chunks = chunks;
+            this.threads = threads;
+        }
+
+        public ArrayList<T> getRecords() { return records; }
+        // The first MAX_REPORTED_ERRORS bad lines, in line order
+        public List<LineError> getErrors() { return errors; }
+        public long getErrorCount() { return errorCount; }
+        public boolean hasErrors() { return errorCount > 0; }
+        public long getLines() { return lines; }
+        public long getBytes() { return bytes; }
+        public long getNanos() { return nanos; }
+        public int getChunks() { return chunks; }
+        public int getThreads() { return threads; }
+
+        @Override
+        public String toString() {
+            return String.format("%,d records, %,d bad lines of %,d (%,d MB in %d chunks on %d threads, %.1f MB/s)",
+                    records.size(), errorCount, lines, bytes >> 20, chunks, threads, bytes / 1e6 / (nanos / 1e9));
+        }
+    }
+
+    // What one chunk read: line numbers in errors count from the chunk's first line
+    private static final class Chunk<T> {
+        final ArrayList<T> records = new ArrayList<>();
+        final ArrayList<LineError> errors = new ArrayList<>();
+        long errorCount, lines;
+    }
+
+    /**
+     * Method readCommunityFoodOrgs
+     * @param filename a String representing the file path to the community food organizations data
+     * @param threads the number of threads to parse with
+     * @return the FoodBanks and FoodPantries in file order, and the lines that could not be read
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static Result<CommunityFoodOrg> readCommunityFoodOrgs(String filename, int threads) throws IOException {
+        return readCommunityFoodOrgs(filename, threads, CHUNK_SIZE);
+    }
+
+    /**
+     * Method readVolunteers
+     * @param filename a String representing the file path to the volunteers data
+     * @param threads the number of threads to parse with
+     * @return the volunteers in file order, and the lines that could not be read
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static Result<Volunteer> readVolunteers(String filename, int threads) throws IOException {
+        return readVolunteers(filename, threads, CHUNK_SIZE);
+    }
+
+    // One thread per available processor
+    public static Result<CommunityFoodOrg> readCommunityFoodOrgs(String filename) throws IOException {
+        return readCommunityFoodOrgs(filename, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static Result<Volunteer> readVolunteers(String filename) throws IOException {
+        return readVolunteers(filename, Runtime.getRuntime().availableProcessors());
+    }
+
+    // With a chosen chunk size, so small files can be split too
+    static Result<CommunityFoodOrg> readCommunityFoodOrgs(String filename, int threads, long chunkSize) throws IOException {
+        return read(filename, threads, chunkSize, StreamingDataReader::parseCommunityFoodOrg);
+    }
+
+    static Result<Volunteer> readVolunteers(String filename, int threads, long chunkSize) throws IOException {
+        return read(filename, threads, chunkSize, StreamingDataReader::parseVolunteer);
+    }
+
+    private static <T> Result<T> read(String filename, int threads, long chunkSize, LineParser<T> parser) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long[] bounds = chunkBounds(channel, size, chunkSize);
+            int chunkCount = bounds.length - 1;
+            threads = Math.max(1, Math.min(threads, chunkCount));
+
+            List<Chunk<T>> chunks = new ArrayList<>(chunkCount);
+            if (threads == 1) {
+                for (int i = 0; i < chunkCount; i++) chunks.add(readChunk(channel, bounds[i], bounds[i + 1], parser));
+            } else {
+                ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+                    Thread thread = new Thread(runnable, "parallel-data-reader");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                try {
+                    List<Future<Chunk<T>>> futures = new ArrayList<>(chunkCount);
+                    for (int i = 0; i < chunkCount; i++) {
+                        final long from = bounds[i], to = bounds[i + 1];
+                        futures.add(executor.submit(() -> readChunk(channel, from, to, parser)));
+                    }
+                    for (Future<Chunk<T>> future : futures) chunks.add(future.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted reading " + filename, e);
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+                    throw new IllegalStateException("Error reading " + filename, e.getCause());
+                } finally {
+                    executor.shutdownNow();
+                }
+            }
+
+            // Join in file order, turning chunk line numbers into file line numbers
+            int total = 0;
+            for (Chunk<T> chunk : chunks) total += chunk.records.size();
+            ArrayList<T> records = new ArrayList<>(total);
+            ArrayList<LineError> errors = new ArrayList<>();
+            long firstLine = 0, errorCount = 0;
+            for (Chunk<T> chunk : chunks) {
+                records.addAll(chunk.records);
+                for (LineError error : chunk.errors) {
+                    if (errors.size() == MAX_REPORTED_ERRORS) break;
+                    errors.add(new LineError(firstLine + error.lineNumber, error.reason, error.line));
+                }
+                errorCount += chunk.errorCount;
+                firstLine += chunk.lines;
+            }
+            long nanos = System.nanoTime() - start;
+            FoodConnectMetrics.recordParse(filename, records.size(), nanos);
+            return new Result<>(records, Collections.unmodifiableList(errors), errorCount, firstLine, size, nanos,
+                    chunkCount, threads);
+        }
+    }
+
+    // Chunk boundaries near every chunkSize bytes, each moved just past the end of its line
+    static long[] chunkBounds(FileChannel channel, long size, long chunkSize) throws IOException {
+        ArrayList<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long last = 0;
+        while (size - last > chunkSize) {
+            long position = last + chunkSize;
+            long bound = -1;
+            while (bound == -1 && position < size) {
+                probe.clear();
+                int read = channel.read(probe, position);
+                if (read <= 0) break;
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        bound = position + i + 1;
+                        break;
+                    }
+                }
+                position += read;
+            }
+            if (bound == -1 || bound >= size) break; // the rest is one line
+            if (bound - last > MAX_CHUNK_SIZE) throw new IOException("Line too long to map at byte " + last);
+            bounds.add(bound);
+            last = bound;
+        }
+        if (size - last > MAX_CHUNK_SIZE) throw new IOException("Line too long to map at byte " + last);
+        bounds.add(size);
+        long[] result = new long[bounds.size()];
+        for (int i = 0; i < result.length; i++) result[i] = bounds.get(i);
+        return result;
+    }
+
+    private static <T> Chunk<T> readChunk(FileChannel channel, long from, long to, LineParser<T> parser) throws IOException {
+        Chunk<T> chunk = new Chunk<>();
+        int length = (int) (to - from);
+        if (length == 0) return chunk;
+        MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, from, length);
+        StreamingDataReader reader = new StreamingDataReader(new StringPool(POOL_ENTRIES));
+        int lineStart = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i < length && buf.get(i) != '\n') continue;
+            if (i == length && lineStart == length) break; // the chunk ended with its last line's '\n'
+            chunk.lines++;
+            int end = i > lineStart && buf.get(i - 1) == '\r' ? i - 1 : i;
+            if (StreamingDataReader.trimStart(buf, lineStart, end) < end) { // blank lines are not records
+                T record;
+                String reason;
+                try {
+                    record = parser.parse(reader, buf, lineStart, end);
+                    reason = record == null ? reader.getSkipReason() : null;
+                } catch (RuntimeException e) {
+                    record = null;
+                    reason = e.getClass().getSimpleName() + (e.getMessage() == null ? "" : ": " + e.getMessage());
+                }
+                if (record != null) {
+                    chunk.records.add(record);
+                } else {
+                    if (chunk.errors.size() < MAX_REPORTED_ERRORS) {
+                        chunk.errors.add(new LineError(chunk.lines, reason, text(buf, lineStart, end)));
+                    }
+                    chunk.errorCount++;
+                }
+            }
+            lineStart = i + 1;
+        }
+        return chunk;
+    }
+
+    private static String text(ByteBuffer buf, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = buf.get(from + i);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,167 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class ParallelDataReaderTest
+ *
+ * Checks ParallelDataReader against DataManager on generated files:
+ * - on clean files, every thread count and chunk size must return the records DataManager
+ *   reads, field for field and in the same order, with no errors
+ * - with bad lines mixed in (too few fields, unknown type, malformed numbers and times, blank
+ *   and CRLF lines), the good records must be unchanged and every bad line reported once, with
+ *   its line number
+ * Then times DataManager and ParallelDataReader on a large volunteers file.
+ *
+ * Usage: java ParallelDataReaderTest [volunteers] [largeVolunteers]
+ */
+public class ParallelDataReaderTest {
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int largeRows = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        File dir = File.createTempFile("parallel-data-reader", "");
+        if (!dir.delete() || !dir.mkdir()) throw new IOException("Cannot create " + dir);
+        List<String> failures = new ArrayList<>();
+        try {
+            File orgsFile = new File(dir, "orgs.txt"), volunteersFile = new File(dir, "volunteers.txt");
+            SyntheticDataGenerator.writeOrgs(orgsFile, Math.max(100, rows / 10), 11);
+            SyntheticDataGenerator.writeVolunteers(volunteersFile, rows, 11);
+            List<String> expectedOrgs = describeOrgs(DataManager.readCommunityFoodOrgs(orgsFile.getPath()));
+            List<String> expectedVolunteers = describeVolunteers(DataManager.readVolunteers(volunteersFile.getPath()));
+
+            // Clean files: same records in the same order, however the file is cut
+            long[] chunkSizes = {64 << 10, 1 << 20, 8L << 20};
+            for (int threads : new int[] {1, 2, 4, 8}) {
+                for (long chunkSize : chunkSizes) {
+                    String run = threads + " threads, " + (chunkSize >> 10) + " KB chunks";
+                    ParallelDataReader.Result<CommunityFoodOrg> orgs =
+                            ParallelDataReader.readCommunityFoodOrgs(orgsFile.getPath(), threads, chunkSize);
+                    ParallelDataReader.Result<Volunteer> volunteers =
+                            ParallelDataReader.readVolunteers(volunteersFile.getPath(), threads, chunkSize);
+                    if (!describeOrgs(orgs.getRecords()).equals(expectedOrgs)) failures.add(run + ": organizations differ");
+                    if (!describeVolunteers(volunteers.getRecords()).equals(expectedVolunteers)) failures.add(run + ": volunteers differ");
+                    if (orgs.hasErrors() || volunteers.hasErrors()) failures.add(run + ": errors on a clean file");
+                }
+            }
+            System.out.printf("clean files: %,d organizations and %,d volunteers match DataManager%n",
+                    expectedOrgs.size(), expectedVolunteers.size());
+
+            // Bad lines are reported by line number, good ones still read
+            List<String> lines = Files.readAllLines(volunteersFile.toPath(), StandardCharsets.UTF_8);
+            List<Long> badLines = new ArrayList<>();
+            String[] bad = {
+                "v-short;First;Last;30",                                                    // too few fields
+                "v-age;First;Last;thirty;40.4;-79.9;1 Main St;PA;15222;Monday;09:00;11:00;10;no;0", // bad age
+                "v-lat;First;Last;30;north;-79.9;1 Main St;PA;15222;Monday;09:00;11:00;10;no;0",   // bad latitude
+                "v-time;First;Last;30;40.4;-79.9;1 Main St;PA;15222;Monday;9h00;11:00;10;no;0",   // bad time
+            };
+            List<String> dirty = new ArrayList<>();
+            for (int i = 0; i < lines.size(); i++) {
+                if (i % (lines.size() / 7 + 1) == 3) {
+                    dirty.add(bad[badLines.size() % bad.length]);
+                    badLines.add((long) dirty.size());
+                    dirty.add(""); // blank: skipped, not an error
+                }
+                dirty.add(i % 1000 == 5 ? lines.get(i) + "\r" : lines.get(i));
+            }
+            File dirtyFile = new File(dir, "dirty.txt");
+            Files.write(dirtyFile.toPath(), dirty, StandardCharsets.UTF_8);
+            for (int threads : new int[] {1, 4}) {
+                ParallelDataReader.Result<Volunteer> result = ParallelDataReader.readVolunteers(dirtyFile.getPath(), threads, 256 << 10);
+                if (!describeVolunteers(result.getRecords()).equals(expectedVolunteers)) failures.add("dirty volunteers differ");
+                List<Long> reported = new ArrayList<>();
+                for (ParallelDataReader.LineError error : result.getErrors()) {
+                    reported.add(error.getLineNumber());
+                    if (error.getReason() == null || !dirty.get((int) error.getLineNumber() - 1).equals(error.getLine())) {
+                        failures.add("bad report: " + error);
+                    }
+                }
+                if (!reported.equals(badLines) || result.getErrorCount() != badLines.size() || result.getLines() != dirty.size()) {
+                    failures.add(threads + " threads: reported lines " + reported + ", expected " + badLines);
+                }
+                if (threads == 1) {
+                    for (ParallelDataReader.LineError error : result.getErrors()) System.out.println("  " + error);
+                }
+            }
+            List<String> orgLines = Files.readAllLines(orgsFile.toPath(), StandardCharsets.UTF_8);
+            orgLines.add(2, "Food Truck;t-1;Truck;40.4;-79.9;1 Main St;Pittsburgh;PA;15222;no;Monday@09:00@17:00@2");
+            orgLines.add(5, "Food Bank;b-1;Bank;40.4;-79.9;1 Main St;Pittsburgh;PA;15222;no;lots;Monday@09:00@17:00");
+            File dirtyOrgs = new File(dir, "dirty-orgs.txt");
+            Files.write(dirtyOrgs.toPath(), orgLines, StandardCharsets.UTF_8);
+            ParallelDataReader.Result<CommunityFoodOrg> orgResult = ParallelDataReader.readCommunityFoodOrgs(dirtyOrgs.getPath(), 2);
+            if (!describeOrgs(orgResult.getRecords()).equals(expectedOrgs) || orgResult.getErrors().size() != 2
+                    || orgResult.getErrors().get(0).getLineNumber() != 3 || orgResult.getErrors().get(1).getLineNumber() != 6) {
+                failures.add("dirty organizations: " + orgResult.getErrors());
+            }
+            for (ParallelDataReader.LineError error : orgResult.getErrors()) System.out.println("  " + error);
+
+            // Throughput on a large file
+            File largeFile = new File(dir, "large.txt");
+            SyntheticDataGenerator.writeVolunteers(largeFile, largeRows, 11);
+            DataManager.readVolunteers(largeFile.getPath()); // warm-up, and the page cache
+            ParallelDataReader.readVolunteers(largeFile.getPath(), 1);
+            long start = System.nanoTime();
+            int dataManager = DataManager.readVolunteers(largeFile.getPath()).size();
+            long dataManagerNanos = System.nanoTime() - start;
+            System.out.printf("%,d volunteers (%,d MB): DataManager %,d ms (%.1f MB/s)%n", dataManager, largeFile.length() >> 20,
+                    dataManagerNanos / 1_000_000, largeFile.length() / 1e6 / (dataManagerNanos / 1e9));
+            for (int threads = 1; threads <= Math.max(1, processors); threads *= 2) {
+                ParallelDataReader.Result<Volunteer> result = ParallelDataReader.readVolunteers(largeFile.getPath(), threads);
+                System.out.println("  ParallelDataReader: " + result);
+                if (result.getRecords().size() != dataManager) failures.add("large file: " + result);
+            }
+        } finally {
+            for (File file : dir.listFiles()) file.delete();
+            dir.delete();
+        }
+        for (int i = 0; i < Math.min(10, failures.size()); i++) System.out.println("  " + failures.get(i));
+        System.out.println(failures.isEmpty() ? "PASS" : "FAIL (" + failures.size() + " failures)");
+        if (!failures.isEmpty()) System.exit(1);
+    }
+
+    // Every field the readers set, one string per organization
+    private static List<String> describeOrgs(List<CommunityFoodOrg> orgs) {
+        List<String> described = new ArrayList<>(orgs.size());
+        for (CommunityFoodOrg org : orgs) {
+            StringBuilder text = new StringBuilder(org.getClass().getSimpleName()).append('|').append(org.getId())
+                    .append('|').append(org.getName()).append('|').append(org.isOffersTransportation());
+            describe(text, org.getLocation());
+            for (int day = 0; day < 7; day++) {
+                TimeFrame hours = org.getDailyOpenHours()[day];
+                text.append('|').append(hours == null ? "-" : hours.getStartMinuteOfDay() + "-" + hours.getEndMinuteOfDay());
+                text.append('/').append(org instanceof FoodBank ? ((FoodBank) org).getDailyDonationsNeeded(day)
+                                                                : org.getDailyVolunteersNeeded()[day]);
+            }
+            text.append('|').append(org.getSplitShifts());
+            described.add(text.toString());
+        }
+        return described;
+    }
+
+    private static List<String> describeVolunteers(List<Volunteer> volunteers) {
+        List<String> described = new ArrayList<>(volunteers.size());
+        for (Volunteer volunteer : volunteers) {
+            StringBuilder text = new StringBuilder(volunteer.getId()).append('|').append(volunteer.getFullName())
+                    .append('|').append(volunteer.getAge()).append('|').append(volunteer.getDayAvailable())
+                    .append('|').append(volunteer.getTimeAvailable().getStartMinuteOfDay())
+                    .append('-').append(volunteer.getTimeAvailable().getEndMinuteOfDay())
+                    .append('|').append(volunteer.getDistanceAvailable()).append('|').append(volunteer.needsTransportation())
+                    .append('|').append(volunteer.getDonation()).append('|').append(volunteer.getAdditionalAvailability());
+            describe(text, volunteer.getLocation());
+            described.add(text.toString());
+        }
+        return described;
+    }
+
+    private static void describe(StringBuilder text, Location location) {
+        text.append('|').append(location.getLatitude()).append(',').append(location.getLongitude())
+                .append('|').append(location.getAddress()).append('|').append(location.getCity())
+                .append('|').append(location.getState()).append('|').append(location.getZipCode());
+    }
+}
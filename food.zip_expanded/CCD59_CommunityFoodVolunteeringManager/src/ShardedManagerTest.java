@@ -0,0 +1,156 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class ShardedManagerTest
+ *
+ * Checks ShardedVolunteeringManager against the unsharded VolunteeringManager on the same
+ * generated data:
+ * - signUpAll, with 4 and with maxShards shards, must sign every volunteer up with the
+ *   organization and day the unsharded manager picks when it signs them up one at a time in the
+ *   order the shard locks let them through
+ * - findCandidates must return the same ranking afterwards
+ * - the batch assignment must not overbook any organization
+ * Then reports, for 1, 2, 4, ... shards, the share of cross-shard volunteers and the best of
+ * three signUpAll times with its speedup over 1 shard.
+ *
+ * Usage: java ShardedManagerTest [volunteers] [maxShards]
+ */
+public class ShardedManagerTest {
+
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 40_000;
+        int maxShards = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+        File dir = File.createTempFile("sharded-manager", "");
+        if (!dir.delete() || !dir.mkdir()) throw new IOException("Cannot create " + dir);
+        File orgsFile = new File(dir, "orgs.txt"), volunteersFile = new File(dir, "volunteers.txt");
+        SyntheticDataGenerator.writeOrgs(orgsFile, Math.max(100, rows / 10), 3);
+        SyntheticDataGenerator.writeVolunteers(volunteersFile, rows, 3);
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) { }
+        }));
+        boolean pass = true;
+        try {
+            // Same choices as the unsharded manager
+            for (int shards : new int[] {4, maxShards}) {
+                pass &= sameAsUnsharded(orgsFile, volunteersFile, shards, console);
+            }
+
+            // Batch assignment stays within every organization's capacity
+            ShardedVolunteeringManager batch = new ShardedVolunteeringManager(orgsFile.getPath(), volunteersFile.getPath(), 4);
+            int batchPlaced = batch.assignVolunteersInBatch();
+            int overbooked = overbooked(batch.getOrgs());
+            console.printf("batch assignment placed %,d, %s%n", batchPlaced, overbooked == 0 ? "no overbooking" : overbooked + " overbooked");
+            pass &= overbooked == 0;
+
+            // Scaling with the number of shards
+            console.printf("%d processors%n", Runtime.getRuntime().availableProcessors());
+            new ShardedVolunteeringManager(orgsFile.getPath(), volunteersFile.getPath(), 1)
+                    .signUpAll(DataManager.readVolunteers(volunteersFile.getPath())); // warm up
+            long baseline = 0;
+            for (int shards = 1; shards <= maxShards; shards *= 2) {
+                long best = Long.MAX_VALUE;
+                int placed = 0, cross = 0, made = 0;
+                for (int run = 0; run < 3; run++) {
+                    ShardedVolunteeringManager manager = new ShardedVolunteeringManager(orgsFile.getPath(), volunteersFile.getPath(), shards);
+                    if (run == 0) {
+                        for (Volunteer volunteer : manager.getVolunteers()) {
+                            if (manager.isCrossShard(volunteer)) cross++;
+                        }
+                        made = manager.getShardCount();
+                    }
+                    long start = System.nanoTime();
+                    placed = manager.signUpAll(manager.getVolunteers());
+                    best = Math.min(best, System.nanoTime() - start);
+                }
+                if (shards == 1) baseline = best;
+                console.printf("%2d shards: %5.1f%% cross-shard, signUpAll %,d in %d ms (%,.0f signups/s), %.2fx speedup%n",
+                        made, 100.0 * cross / rows, placed, best / 1_000_000, placed / (best / 1e9), (double) baseline / best);
+            }
+        } finally {
+            EventLog.flush();
+            System.setOut(console);
+            for (File file : dir.listFiles()) file.delete();
+            dir.delete();
+        }
+        console.println(pass ? "PASS" : "FAIL");
+        if (!pass) System.exit(1);
+    }
+
+    // Signs every volunteer up in parallel, then replays the signups one at a time unsharded
+    private static boolean sameAsUnsharded(File orgsFile, File volunteersFile, int shards, PrintStream console) {
+        ShardedVolunteeringManager sharded = new ShardedVolunteeringManager(orgsFile.getPath(), volunteersFile.getPath(), shards);
+        VolunteeringManager single = new VolunteeringManager(orgsFile.getPath(), volunteersFile.getPath());
+        List<Volunteer> shardedVolunteers = sharded.getVolunteers(), singleVolunteers = single.getVolunteers();
+        int crossing = 0;
+        for (Volunteer volunteer : shardedVolunteers) {
+            if (sharded.isCrossShard(volunteer)) crossing++;
+        }
+        int[] order = new int[shardedVolunteers.size()];
+        int shardedPlaced = sharded.signUpAll(shardedVolunteers, order);
+        Volunteer[] replay = new Volunteer[order.length];
+        for (int i = 0; i < order.length; i++) replay[order[i]] = singleVolunteers.get(i);
+        int singlePlaced = 0;
+        for (Volunteer volunteer : replay) {
+            if (single.signUpVolunteerToPriorityOrg(volunteer)) singlePlaced++;
+        }
+        int differences = 0;
+        for (int i = 0; i < shardedVolunteers.size(); i++) {
+            if (!sameSignup(shardedVolunteers.get(i), singleVolunteers.get(i))) {
+                if (differences++ < 5) console.printf("  volunteer %d: sharded %s, unsharded %s%n", i,
+                        describe(shardedVolunteers.get(i)), describe(singleVolunteers.get(i)));
+            }
+        }
+        for (int i = 0; i < shardedVolunteers.size(); i += 7) {
+            if (!sameOrgs(sharded.findCandidates(shardedVolunteers.get(i), 20), single.findCandidates(singleVolunteers.get(i), 20))) {
+                if (differences++ < 5) console.printf("  findCandidates differs for volunteer %d%n", i);
+            }
+        }
+        console.printf("%d shards, %,d of %,d volunteers cross-shard: placed %,d (unsharded %,d), %s%n",
+                sharded.getShardCount(), crossing, shardedVolunteers.size(), shardedPlaced, singlePlaced,
+                differences == 0 ? "same signups and rankings" : differences + " differences");
+        return differences == 0 && shardedPlaced == singlePlaced;
+    }
+
+    private static boolean sameSignup(Volunteer a, Volunteer b) {
+        CommunityFoodOrg orgA = a.getOrgVolunteering(), orgB = b.getOrgVolunteering();
+        if (orgA == null || orgB == null) return orgA == orgB;
+        return orgA.getId().equals(orgB.getId()) && a.getSignedUpDay().equals(b.getSignedUpDay());
+    }
+
+    private static boolean sameOrgs(List<CommunityFoodOrg> a, List<CommunityFoodOrg> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).getId().equals(b.get(i).getId())) return false;
+        }
+        return true;
+    }
+
+    private static String describe(Volunteer volunteer) {
+        CommunityFoodOrg org = volunteer.getOrgVolunteering();
+        return org == null ? "none" : org.getId() + " on " + volunteer.getSignedUpDay();
+    }
+
+    // Organizations with more volunteers or pounds signed up than they need on some day
+    private static int overbooked(List<CommunityFoodOrg> orgs) {
+        int count = 0;
+        for (CommunityFoodOrg org : orgs) {
+            for (int day = 0; day < 7; day++) {
+                double left = org instanceof FoodBank ? ((FoodBank) org).getDailyDonationsNeeded(day) : org.dailyVolunteerSpotsLeft(day);
+                if (left < 0) {
+                    count++;
+                    break;
+                }
+            }
+        }
+        return count;
+    }
+}
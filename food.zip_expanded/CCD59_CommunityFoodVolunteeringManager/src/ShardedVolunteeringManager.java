@@ -0,0 +1,514 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.IntStream;
+
+/**
+ * Class ShardedVolunteeringManager
+ *
+ * A VolunteeringManager split by region so independent regions are served on separate cores.
+ *
+ * The map is cut into square geo cells about as wide as a typical volunteer's distance circle
+ * (twice the median distanceAvailable), and the cells are grouped into shards of about the same
+ * number of organizations by cutting the organizations' bounding box in two across its longer
+ * side, again and again, along cell edges. So every shard is a compact block of cells, and a
+ * typical circle reaches at most the four cells around a cell corner. A shard is a
+ * VolunteeringManager of its own, with its own organization and volunteer lists, spatial index,
+ * match kernel and priority queues. A volunteer belongs to the shard they live in.
+ *
+ * When every organization a volunteer can reach is in one shard, that shard decides alone.
+ * Otherwise the volunteer is cross-shard: their best organization is taken from each shard
+ * holding a reachable organization and the best of those wins. Every signup holds the locks of
+ * the shards it touches, taken in ascending order, so signups touching different shards run in
+ * parallel and the result is always that of the same signups made one at a time.
+ *
+ * Shards keep the organizations in the order of the full list, and equal priority goes to the
+ * organization earliest in the full list, so a signup picks the same organization the unsharded
+ * VolunteeringManager would pick given the same signups so far.
+ */
+public class ShardedVolunteeringManager {
+    private static final double DEFAULT_REACH_MILES = 20; // typical distanceAvailable when no volunteer gives one
+    private static final double MILES_PER_DEGREE = Location.EARTH_RADIUS * Math.PI / 180;
+    private static final int MAX_CELLS = 1 << 16;
+
+    private final ArrayList<CommunityFoodOrg> orgs;
+    private final ArrayList<Volunteer> volunteers; // guarded by itself, as in VolunteeringManager
+    private final OrgRegistry registry;  // positions and ids across every shard
+    private final IdentityHashMap<CommunityFoodOrg, Integer> orgShards = new IdentityHashMap<>();
+    private final int[] orgShardsByIndex; // shard of the organization at each position of orgs
+    private final GeoCells cells;
+    private final VolunteeringManager[] shards;
+    private final ReentrantLock[] locks;  // one per shard, held by every signup touching it
+    private final OrgSpatialIndex orgIndex; // over every organization, to find the shards a volunteer reaches
+    private MatchKernel matchKernel;      // over every organization, built when a cross-shard batch first needs it
+
+    /**
+     * Constructor ShardedVolunteeringManager
+     * @param orgsFile the community food organizations data file
+     * @param volunteersFile the volunteers data file
+     * @param shardCount the number of regions to split the organizations into
+     */
+    public ShardedVolunteeringManager(String orgsFile, String volunteersFile, int shardCount) {
+        this(DataManager.readCommunityFoodOrgs(orgsFile), DataManager.readVolunteers(volunteersFile), shardCount);
+    }
+
+    /**
+     * Constructor ShardedVolunteeringManager
+     * @param orgs the community food organizations to manage
+     * @param volunteers the volunteers to manage (their distances size the geo cells)
+     * @param shardCount the number of regions to split the organizations into (at least 1; fewer
+     *        shards are made when the organizations fill too few cells)
+     */
+    public ShardedVolunteeringManager(ArrayList<CommunityFoodOrg> orgs, ArrayList<Volunteer> volunteers, int shardCount) {
+        if (shardCount < 1) throw new IllegalArgumentException("shardCount must be at least 1: " + shardCount);
+        this.orgs = orgs;
+        this.volunteers = volunteers;
+        this.registry = new OrgRegistry(orgs);
+        this.cells = new GeoCells(orgs, 2 * typicalReach(volunteers), shardCount);
+        this.orgIndex = new OrgSpatialIndex(orgs);
+
+        int count = cells.shardCount;
+        ArrayList<ArrayList<CommunityFoodOrg>> shardOrgs = new ArrayList<>();
+        ArrayList<ArrayList<Volunteer>> shardVolunteers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            shardOrgs.add(new ArrayList<>());
+            shardVolunteers.add(new ArrayList<>());
+        }
+        this.orgShardsByIndex = new int[orgs.size()];
+        for (int i = 0; i < orgs.size(); i++) {
+            CommunityFoodOrg org = orgs.get(i);
+            int shard = cells.shardOf(org.getLocation());
+            orgShardsByIndex[i] = shard;
+            orgShards.put(org, shard);
+            shardOrgs.get(shard).add(org);
+        }
+        for (Volunteer volunteer : volunteers) {
+            shardVolunteers.get(cells.shardOf(volunteer.getLocation())).add(volunteer);
+        }
+        this.shards = new VolunteeringManager[count];
+        this.locks = new ReentrantLock[count];
+        IntStream.range(0, count).parallel().forEach(i -> {
+            shards[i] = new VolunteeringManager(shardOrgs.get(i), shardVolunteers.get(i));
+            locks[i] = new ReentrantLock();
+        });
+        FoodConnectMetrics.trackOrgs(orgs); // every shard registered only its own
+    }
+
+    // Median of the volunteers' finite, positive distances
+    private static double typicalReach(List<Volunteer> volunteers) {
+        double[] reach = new double[volunteers.size()];
+        int n = 0;
+        for (Volunteer volunteer : volunteers) {
+            double miles = volunteer.getDistanceAvailable();
+            if (miles > 0 && miles < Double.POSITIVE_INFINITY) reach[n++] = miles;
+        }
+        if (n == 0) return DEFAULT_REACH_MILES;
+        Arrays.sort(reach, 0, n);
+        return reach[n / 2];
+    }
+
+    /**
+     * Class GeoCells
+     * Square cells over the organizations' bounding box, each given to a shard. Locations outside
+     * the box belong to the nearest cell, and a missing location to shard 0.
+     */
+    private static final class GeoCells {
+        final double south, west, latDegrees, lonDegrees;
+        final int rows, cols;
+        final int[] cellShards; // shard of the cell at row * cols + col
+        final int shardCount;
+
+        GeoCells(List<CommunityFoodOrg> orgs, double cellMiles, int shardCount) {
+            double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+            double minLon = Double.POSITIVE_INFINITY, maxLon = Double.NEGATIVE_INFINITY;
+            for (CommunityFoodOrg org : orgs) {
+                Location location = org.getLocation();
+                if (location == null) continue;
+                minLat = Math.min(minLat, location.getLatitude());
+                maxLat = Math.max(maxLat, location.getLatitude());
+                minLon = Math.min(minLon, location.getLongitude());
+                maxLon = Math.max(maxLon, location.getLongitude());
+            }
+            if (minLat > maxLat) minLat = maxLat = minLon = maxLon = 0; // no organization has a location
+
+            double lat = cellMiles / MILES_PER_DEGREE;
+            double lon = lat / Math.max(0.01, Math.cos(Math.toRadians((minLat + maxLat) / 2)));
+            while ((long) cellsAcross(maxLat - minLat, lat) * cellsAcross(maxLon - minLon, lon) > MAX_CELLS) {
+                lat *= 2;
+                lon *= 2;
+            }
+            this.south = minLat;
+            this.west = minLon;
+            this.latDegrees = lat;
+            this.lonDegrees = lon;
+            this.rows = cellsAcross(maxLat - minLat, lat);
+            this.cols = cellsAcross(maxLon - minLon, lon);
+            this.cellShards = new int[rows * cols];
+
+            int[] counts = new int[rows * cols];
+            for (CommunityFoodOrg org : orgs) {
+                if (org.getLocation() != null) counts[cellOf(org.getLocation())]++;
+            }
+            this.shardCount = split(counts, 0, rows, 0, cols, shardCount, 0);
+        }
+
+        private static int cellsAcross(double span, double cellDegrees) {
+            return Math.max(1, (int) Math.min(MAX_CELLS, Math.floor(span / cellDegrees) + 1));
+        }
+
+        private int cellOf(Location location) {
+            int row = (int) Math.floor((location.getLatitude() - south) / latDegrees);
+            int col = (int) Math.floor((location.getLongitude() - west) / lonDegrees);
+            return Math.min(rows - 1, Math.max(0, row)) * cols + Math.min(cols - 1, Math.max(0, col));
+        }
+
+        int shardOf(Location location) {
+            return location == null ? 0 : cellShards[cellOf(location)];
+        }
+
+        // Gives the cells in rows [r0, r1) and columns [c0, c1) to shards first, first + 1, ...,
+        // cutting the block across its longer side where the organization counts on either side
+        // best match how the shards divide. Returns the next unused shard.
+        private int split(int[] counts, int r0, int r1, int c0, int c1, int shards, int first) {
+            int total = count(counts, r0, r1, c0, c1);
+            if (shards > 1 && total > 1) {
+                int lowShards = shards / 2;
+                double target = (double) total * lowShards / shards;
+                boolean rowsFirst = r1 - r0 >= c1 - c0;
+                for (int attempt = 0; attempt < 2; attempt++) {
+                    boolean byRow = rowsFirst == (attempt == 0);
+                    int lo = byRow ? r0 : c0, hi = byRow ? r1 : c1;
+                    int best = -1, below = 0;
+                    double bestGap = Double.POSITIVE_INFINITY;
+                    for (int cut = lo + 1; cut < hi; cut++) {
+                        below += byRow ? count(counts, cut - 1, cut, c0, c1) : count(counts, r0, r1, cut - 1, cut);
+                        if (below == 0 || below == total) continue; // a shard with no organization
+                        double gap = Math.abs(below - target);
+                        if (gap < bestGap) {
+                            bestGap = gap;
+                            best = cut;
+                        }
+                    }
+                    if (best < 0) continue;
+                    if (byRow) {
+                        int next = split(counts, r0, best, c0, c1, lowShards, first);
+                        return split(counts, best, r1, c0, c1, shards - lowShards, next);
+                    }
+                    int next = split(counts, r0, r1, c0, best, lowShards, first);
+                    return split(counts, r0, r1, best, c1, shards - lowShards, next);
+                }
+            }
+            for (int row = r0; row < r1; row++) {
+                for (int col = c0; col < c1; col++) cellShards[row * cols + col] = first;
+            }
+            return first + 1;
+        }
+
+        private int count(int[] counts, int r0, int r1, int c0, int c1) {
+            int total = 0;
+            for (int row = r0; row < r1; row++) {
+                for (int col = c0; col < c1; col++) total += counts[row * cols + col];
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Method isCrossShard
+     * @param volunteer a volunteer
+     * @return true if organizations in more than one shard are within the volunteer's distance
+     */
+    public boolean isCrossShard(Volunteer volunteer) {
+        return touchedShards(volunteer).length > 1;
+    }
+
+    // Shards holding an organization within the volunteer's distance, ascending (their own if none)
+    private int[] touchedShards(Volunteer volunteer) {
+        if (shards.length == 1) return new int[] {0};
+        int[] reachable = orgIndex.queryIndices(volunteer.getLocation(), volunteer.getDistanceAvailable());
+        boolean[] reached = new boolean[shards.length];
+        int count = 0;
+        for (int orgIndex : reachable) {
+            int shard = orgShardsByIndex[orgIndex];
+            if (!reached[shard]) {
+                reached[shard] = true;
+                count++;
+            }
+        }
+        if (count == 0) return new int[] {shardOf(volunteer)};
+        int[] touched = new int[count];
+        count = 0;
+        for (int shard = 0; shard < reached.length; shard++) {
+            if (reached[shard]) touched[count++] = shard;
+        }
+        return touched;
+    }
+
+    // In ascending order, so two signups never wait on each other
+    private void lock(int[] touched) {
+        for (int shard : touched) locks[shard].lock();
+    }
+
+    private void unlock(int[] touched) {
+        for (int i = touched.length - 1; i >= 0; i--) locks[touched[i]].unlock();
+    }
+
+    /**
+     * Method signUpVolunteerToPriorityOrg
+     * @param volunteer the volunteer to sign up
+     * @return true if the volunteer was signed up with the highest-priority organization that matches them
+     *
+     * Same choice as VolunteeringManager.signUpVolunteerToPriorityOrg. A volunteer who reaches a
+     * single shard only involves that shard; a cross-shard volunteer asks every shard they reach
+     * for its best organization. Either way the touched shards are locked for the whole signup.
+     */
+    public boolean signUpVolunteerToPriorityOrg(Volunteer volunteer) {
+        int[] touched = touchedShards(volunteer);
+        lock(touched);
+        try {
+            return signUp(volunteer, touched);
+        } finally {
+            unlock(touched);
+        }
+    }
+
+    // Signs the volunteer up among the touched shards, which the caller has locked
+    private boolean signUp(Volunteer volunteer, int[] touched) {
+        if (touched.length == 1) return shards[touched[0]].signUpVolunteerToPriorityOrg(volunteer);
+
+        long start = System.nanoTime();
+        MatchKernel.Query query = new MatchKernel.Query(volunteer);
+        CommunityFoodOrg bestOrg = null;
+        double highestPriority = 0;
+        for (int shard : touched) {
+            CommunityFoodOrg org = shards[shard].findPriorityOrg(volunteer, query);
+            if (org == null) continue;
+            double priority = priority(volunteer, org);
+            if (bestOrg == null || priority > highestPriority
+                    || (priority == highestPriority && registry.indexOf(org) < registry.indexOf(bestOrg))) {
+                bestOrg = org;
+                highestPriority = priority;
+            }
+        }
+        boolean signedUp = bestOrg != null && shards[orgShards.get(bestOrg)].signUp(volunteer, bestOrg);
+        FoodConnectMetrics.recordMatches(query);
+        FoodConnectMetrics.recordSignup(System.nanoTime() - start);
+        return signedUp;
+    }
+
+    // Priority the shards rank an organization by, on the day the signup would be for
+    private static double priority(Volunteer volunteer, CommunityFoodOrg org) {
+        int day = volunteer.hasAdditionalAvailability() ? volunteer.matchingDayIndex(org)
+                                                        : WeeklySchedule.dayIndex(volunteer.getDayAvailable());
+        if (day < 0) return 0;
+        return org instanceof FoodBank ? ((FoodBank) org).getDailyDonationsNeeded(day) : org.dailyVolunteerSpotsLeft(day);
+    }
+
+    /**
+     * Method signUpAll
+     * @param pending the volunteers to sign up, each with signUpVolunteerToPriorityOrg
+     * @return the number of volunteers that were signed up
+     *
+     * Every shard signs up the volunteers who live in it, in list order, in parallel with the
+     * other shards, cross-shard volunteers included: each signup waits only for the shards it
+     * touches. The result is the one the unsharded manager gives for the order the shard locks
+     * let the signups through.
+     */
+    public int signUpAll(List<Volunteer> pending) {
+        return signUpAll(pending, null);
+    }
+
+    // signUpAll that also sets order[i] to the position of pending.get(i) in that order
+    int signUpAll(List<Volunteer> pending, int[] order) {
+        int[] home = new int[pending.size()], sizes = new int[shards.length];
+        for (int i = 0; i < home.length; i++) sizes[home[i] = shardOf(pending.get(i))]++;
+        int[][] queues = new int[shards.length][];
+        for (int shard = 0; shard < shards.length; shard++) queues[shard] = new int[sizes[shard]];
+        Arrays.fill(sizes, 0);
+        for (int i = 0; i < home.length; i++) queues[home[i]][sizes[home[i]]++] = i;
+
+        AtomicInteger next = new AtomicInteger();
+        int[] placed = new int[shards.length];
+        IntStream.range(0, shards.length).parallel().forEach(shard -> {
+            for (int i : queues[shard]) {
+                Volunteer volunteer = pending.get(i);
+                int[] touched = touchedShards(volunteer);
+                lock(touched);
+                try {
+                    if (signUp(volunteer, touched)) placed[shard]++;
+                    if (order != null) order[i] = next.getAndIncrement();
+                } finally {
+                    unlock(touched);
+                }
+            }
+        });
+        int total = 0;
+        for (int count : placed) total += count;
+        return total;
+    }
+
+    /**
+     * Method assignVolunteersInBatch
+     * @return the number of volunteers that were signed up
+     *
+     * Like VolunteeringManager.assignVolunteersInBatch: each shard assigns the unassigned
+     * volunteers who reach only that shard with a BatchAssignmentEngine of its own, all shards in
+     * parallel, and the cross-shard volunteers are then assigned together over every
+     * organization's remaining need, with every shard locked.
+     */
+    public int assignVolunteersInBatch() {
+        ArrayList<ArrayList<Volunteer>> local = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) local.add(new ArrayList<>());
+        ArrayList<Volunteer> crossing = new ArrayList<>();
+        for (Volunteer volunteer : volunteerList()) {
+            if (volunteer.getOrgVolunteering() != null) continue;
+            int[] touched = touchedShards(volunteer);
+            if (touched.length == 1) local.get(touched[0]).add(volunteer);
+            else crossing.add(volunteer);
+        }
+
+        int[] placed = new int[shards.length];
+        IntStream.range(0, shards.length).parallel().forEach(shard -> {
+            locks[shard].lock();
+            try {
+                placed[shard] = shards[shard].assignInBatch(local.get(shard));
+            } finally {
+                locks[shard].unlock();
+            }
+        });
+        int total = 0;
+        for (int count : placed) total += count;
+        if (!crossing.isEmpty()) {
+            int[] all = IntStream.range(0, shards.length).toArray();
+            lock(all);
+            try {
+                if (matchKernel == null) matchKernel = new MatchKernel(orgs);
+                total += new BatchAssignmentEngine(orgs, orgIndex, matchKernel).assign(crossing);
+                for (Volunteer volunteer : crossing) {
+                    CommunityFoodOrg org = volunteer.getOrgVolunteering();
+                    if (org != null) shards[orgShards.get(org)].recordSignup(volunteer, org);
+                }
+            } finally {
+                unlock(all);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Method cancelSignup
+     * @param volunteer the volunteer whose signup to cancel (ignored if they are not signed up)
+     */
+    public void cancelSignup(Volunteer volunteer) {
+        CommunityFoodOrg org = volunteer.getOrgVolunteering();
+        Integer found = org == null ? null : orgShards.get(org);
+        int shard = found != null ? found : shardOf(volunteer);
+        locks[shard].lock();
+        try {
+            shards[shard].cancelSignup(volunteer);
+        } finally {
+            locks[shard].unlock();
+        }
+    }
+
+    /**
+     * Method findCandidates
+     * @param volunteer the volunteer to match
+     * @param limit the most organizations to return
+     * @return the same ranking as VolunteeringManager.findCandidates, merged from every shard
+     *         holding an organization within the volunteer's distance
+     */
+    public ArrayList<CommunityFoodOrg> findCandidates(Volunteer volunteer, int limit) {
+        int[] touched = touchedShards(volunteer);
+        if (touched.length == 1) return shards[touched[0]].findCandidates(volunteer, limit);
+        ArrayList<CommunityFoodOrg> merged = new ArrayList<>();
+        for (int shard : touched) merged.addAll(shards[shard].findCandidates(volunteer, limit));
+        double[] need = new double[merged.size()];
+        Integer[] order = new Integer[merged.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            need[i] = priority(volunteer, merged.get(i));
+        }
+        Arrays.sort(order, (a, b) -> need[a] != need[b] ? Double.compare(need[b], need[a])
+                : Integer.compare(registry.indexOf(merged.get(a)), registry.indexOf(merged.get(b))));
+        ArrayList<CommunityFoodOrg> ranked = new ArrayList<>();
+        for (int i = 0; i < order.length && i < limit; i++) ranked.add(merged.get(order[i]));
+        return ranked;
+    }
+
+    /**
+     * Method attachJournal
+     * @param journal the signup journal to replay and then record into
+     * @return the number of volunteers signed up again from the journal
+     *
+     * Replays once over every organization and volunteer; every shard then records into the same
+     * journal, which orders concurrent writers itself.
+     */
+    public int attachJournal(SignupJournal journal) {
+        int restored = journal.replay(registry, volunteerList());
+        for (VolunteeringManager shard : shards) shard.useJournal(journal);
+        return restored;
+    }
+
+    /**
+     * Method addVolunteer
+     * @param volunteer a volunteer registered after loading
+     *
+     * Adds the volunteer to getVolunteers() and to the volunteers of the shard they live in, like
+     * VolunteeringManager.addVolunteer. Safe to call while signups run on other threads.
+     */
+    public void addVolunteer(Volunteer volunteer) {
+        synchronized (volunteers) {
+            volunteers.add(volunteer);
+        }
+        shards[shardOf(volunteer)].addVolunteer(volunteer);
+    }
+
+    // Copy of the volunteers, as in VolunteeringManager
+    private ArrayList<Volunteer> volunteerList() {
+        synchronized (volunteers) {
+            return new ArrayList<>(volunteers);
+        }
+    }
+
+    // Getters
+    public ArrayList<CommunityFoodOrg> getOrgs() {
+        return orgs;
+    }
+
+    // The live list; hold it while walking it if addVolunteer may run meanwhile
+    public ArrayList<Volunteer> getVolunteers() {
+        return volunteers;
+    }
+
+    public OrgRegistry getRegistry() {
+        return registry;
+    }
+
+    // Organization with an id, whichever shard holds it (null if none)
+    public CommunityFoodOrg findOrg(String id) {
+        return registry.byId(id);
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public VolunteeringManager getShard(int shard) {
+        return shards[shard];
+    }
+
+    // Shard an organization belongs to
+    public int shardOf(CommunityFoodOrg org) {
+        Integer shard = orgShards.get(org);
+        return shard == null ? -1 : shard;
+    }
+
+    // Shard a volunteer belongs to (the cell they live in), whose queue signUpAll puts them on
+    public int shardOf(Volunteer volunteer) {
+        return cells.shardOf(volunteer.getLocation());
+    }
+}
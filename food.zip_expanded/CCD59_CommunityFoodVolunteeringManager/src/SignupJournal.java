@@ -0,0 +1,467 @@
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Class SignupJournal
+ *
+ * Append-only write-ahead log of signups and cancellations, so assignments survive a restart.
+ *
+ * - Group commit: record() only copies the event into an in-memory batch. A background thread
+ *   writes the whole batch and calls fsync once for all of it. In synchronous mode record()
+ *   waits for that fsync, so concurrent callers share one; in asynchronous mode it returns at
+ *   once and an event is durable within flushIntervalMillis.
+ * - Records: length, payload (type, sequence, day, volunteer id, organization id), CRC32.
+ *   On open the journal is read back and a torn or corrupt tail (from a crash mid-write) is
+ *   cut off.
+ * - Compaction: the journal keeps the live signups (volunteer id to organization id). Once the
+ *   file holds many more records than live signups it is rewritten as one signup record per
+ *   live signup and swapped in atomically.
+ * - Recovery: replay() signs the loaded volunteers up again with the organizations the journal
+ *   last recorded for them, through the normal capacity checks.
+ */
+public class SignupJournal implements Closeable {
+    public static final int MAGIC = 0x46434a4c; // "FCJL"
+    public static final int VERSION = 1;
+
+    private static final byte SIGNUP = 1, CANCEL = 2;
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final int COMPACT_MIN_RECORDS = 10_000;
+
+    private final File file;
+    private final long flushIntervalMillis;
+    private final boolean waitForSync;
+    private FileChannel channel;
+
+    // Guarded by this
+    private RecordBuffer pending = new RecordBuffer();
+    private RecordBuffer spare = new RecordBuffer();
+    private final HashMap<String, LiveSignup> live = new HashMap<>();
+    private long nextSequence = 1;
+    private long durableSequence = 0;
+    private long recordsInFile = 0;
+    private long syncCount = 0;
+    private int syncWaiters = 0;
+    private boolean compactRequested = false;
+    private boolean closed = false;
+    private IOException failure;
+
+    private final Thread flusher;
+
+    // Byte buffer whose contents can be written without copying
+    private static final class RecordBuffer extends ByteArrayOutputStream {
+        RecordBuffer() {
+            super(1 << 16);
+        }
+
+        ByteBuffer view() {
+            return ByteBuffer.wrap(buf, 0, count);
+        }
+    }
+
+    private static final class LiveSignup {
+        final String orgId;
+        final int dayIndex;
+
+        LiveSignup(String orgId, int dayIndex) {
+            this.orgId = orgId;
+            this.dayIndex = dayIndex;
+        }
+    }
+
+    /**
+     * Constructor SignupJournal
+     * @param file the journal file; it is created if missing and recovered if it exists
+     * @param flushIntervalMillis the longest an event waits in memory before it is written and synced
+     * @param waitForSync true to make record() return only once the event is on disk
+     * @throws IOException if the file cannot be opened or is not a journal
+     */
+    public SignupJournal(File file, long flushIntervalMillis, boolean waitForSync) throws IOException {
+        this.file = file;
+        this.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+        this.waitForSync = waitForSync;
+        long validBytes = recover();
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (validBytes < HEADER_BYTES) {
+            channel.truncate(0);
+            writeFully(channel, header());
+            channel.force(false);
+            validBytes = HEADER_BYTES;
+        } else if (channel.size() > validBytes) {
+            System.err.println("Discarding " + (channel.size() - validBytes) + " bytes of torn journal tail in " + file);
+            channel.truncate(validBytes);
+            channel.force(false);
+        }
+        channel.position(validBytes);
+        durableSequence = nextSequence - 1;
+
+        flusher = new Thread(this::flushLoop, "signup-journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Method recordSignup
+     * @param volunteer the volunteer that was just signed up
+     * @param org the organization they were signed up with
+     */
+    public void recordSignup(Volunteer volunteer, CommunityFoodOrg org) throws IOException {
+        record(SIGNUP, volunteer.getId(), org.getId(), WeeklySchedule.dayIndex(volunteer.getSignedUpDay()));
+    }
+
+    /**
+     * Method recordCancel
+     * @param volunteer the volunteer whose signup was just cancelled
+     * @param org the organization they were signed up with
+     * @param day the day the cancelled signup was for (Volunteer.getSignedUpDay before cancelling)
+     */
+    public void recordCancel(Volunteer volunteer, CommunityFoodOrg org, String day) throws IOException {
+        record(CANCEL, volunteer.getId(), org.getId(), WeeklySchedule.dayIndex(day));
+    }
+
+    private void record(byte type, String volunteerId, String orgId, int dayIndex) throws IOException {
+        long sequence;
+        synchronized (this) {
+            checkOpen();
+            sequence = nextSequence++;
+            boolean firstInBatch = pending.size() == 0;
+            encode(pending, type, sequence, dayIndex, volunteerId, orgId);
+            apply(live, type, volunteerId, orgId, dayIndex);
+            if (waitForSync) syncWaiters++;
+            if (waitForSync || firstInBatch) notifyAll(); // wake the flusher
+        }
+        if (waitForSync) awaitDurable(sequence);
+    }
+
+    /**
+     * Method sync
+     * Blocks until every event recorded so far is on disk.
+     */
+    public void sync() throws IOException {
+        long sequence;
+        synchronized (this) {
+            checkOpen();
+            sequence = nextSequence - 1;
+            syncWaiters++;
+            notifyAll();
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Method compact
+     * Asks the flusher thread to rewrite the journal as just the live signups.
+     */
+    public synchronized void compact() {
+        compactRequested = true;
+        notifyAll();
+    }
+
+    private void awaitDurable(long sequence) throws IOException {
+        synchronized (this) {
+            try {
+                while (durableSequence < sequence && failure == null) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for journal sync");
+            } finally {
+                syncWaiters--;
+            }
+            if (failure != null) throw failure;
+        }
+    }
+
+    /**
+     * Method replay
+     * @param orgs the organizations loaded at startup
+     * @param volunteers the volunteers loaded at startup
+     * @return the number of volunteers signed up again
+     *
+     * Volunteers already signed up with the recorded organization are left alone, so replaying
+     * onto a snapshot that already holds the signups is harmless. Signups that no longer fit
+     * (unknown ids, another day, or no capacity left) are reported and skipped.
+     */
+    public int replay(List<CommunityFoodOrg> orgs, List<Volunteer> volunteers) {
+        try (OrgRegistry registry = new OrgRegistry(orgs)) {
+            return replay(registry, volunteers);
+        }
+    }
+
+    /**
+     * Method replay
+     * @param orgs the organizations loaded at startup, looked up by id
+     * @param volunteers the volunteers loaded at startup
+     * @return the number of volunteers signed up again
+     */
+    public int replay(OrgRegistry orgs, List<Volunteer> volunteers) {
+        HashMap<String, LiveSignup> signups;
+        synchronized (this) {
+            signups = new HashMap<>(live);
+        }
+
+        int restored = 0, skipped = 0;
+        for (Volunteer volunteer : volunteers) {
+            LiveSignup signup = signups.get(volunteer.getId());
+            if (signup == null) continue;
+            CommunityFoodOrg org = orgs.byId(signup.orgId);
+            if (org == null || !isAvailableOn(volunteer, signup.dayIndex)) {
+                skipped++;
+                continue;
+            }
+            if (volunteer.getOrgVolunteering() == org && WeeklySchedule.dayIndex(volunteer.getSignedUpDay()) == signup.dayIndex) continue;
+            if (volunteer.getOrgVolunteering() != null) volunteer.cancelSignup();
+            volunteer.signUp(org, signup.dayIndex == WeeklySchedule.dayIndex(volunteer.getDayAvailable())
+                    ? volunteer.getDayAvailable() : WeeklySchedule.dayName(signup.dayIndex));
+            if (volunteer.getOrgVolunteering() == org) restored++;
+            else skipped++;
+        }
+        if (skipped > 0) {
+            System.err.println("Journal replay skipped " + skipped + " signups that no longer match the loaded data");
+        }
+        return restored;
+    }
+
+    // Getters
+    public synchronized int getLiveSignupCount() {
+        return live.size();
+    }
+
+    public synchronized long getRecordsInFile() {
+        return recordsInFile;
+    }
+
+    public synchronized long getSyncCount() {
+        return syncCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+        synchronized (this) {
+            if (failure != null) throw failure;
+        }
+    }
+
+    // Background thread: write and fsync one batch at a time, compacting when the file has grown
+    private void flushLoop() {
+        while (true) {
+            RecordBuffer batch;
+            long lastSequence;
+            boolean compactNow, stopping;
+            synchronized (this) {
+                long deadline = System.currentTimeMillis() + flushIntervalMillis;
+                try {
+                    while (!closed && !compactRequested && (syncWaiters == 0 || durableSequence == nextSequence - 1)) {
+                        if (pending.size() == 0) {
+                            wait();
+                            deadline = System.currentTimeMillis() + flushIntervalMillis;
+                            continue;
+                        }
+                        long remaining = deadline - System.currentTimeMillis();
+                        if (remaining <= 0) break;
+                        wait(remaining);
+                    }
+                } catch (InterruptedException e) {
+                    closed = true;
+                }
+                batch = pending;
+                pending = spare;
+                spare = batch;
+                lastSequence = nextSequence - 1;
+                stopping = closed;
+                compactNow = compactRequested || recordsInFile > Math.max(COMPACT_MIN_RECORDS, 4L * live.size());
+                compactRequested = false;
+            }
+
+            try {
+                if (batch.size() > 0) {
+                    writeFully(channel, batch.view());
+                    channel.force(false);
+                }
+                synchronized (this) {
+                    if (batch.size() > 0) syncCount++;
+                    recordsInFile += lastSequence - durableSequence;
+                    durableSequence = lastSequence;
+                    notifyAll();
+                }
+                batch.reset();
+                if (compactNow && !stopping) rewriteLiveSignups();
+            } catch (IOException e) {
+                synchronized (this) {
+                    failure = e;
+                    closed = true;
+                    notifyAll();
+                }
+                return;
+            }
+            if (stopping) return;
+        }
+    }
+
+    // Replace the journal with one signup record per live signup
+    private void rewriteLiveSignups() throws IOException {
+        ArrayList<Map.Entry<String, LiveSignup>> entries;
+        long sequence;
+        synchronized (this) {
+            entries = new ArrayList<>(live.entrySet());
+            sequence = nextSequence - 1;
+        }
+
+        File temp = new File(file.getPath() + ".compact");
+        try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            RecordBuffer buffer = new RecordBuffer();
+            writeFully(out, header());
+            for (Map.Entry<String, LiveSignup> entry : entries) {
+                LiveSignup signup = entry.getValue();
+                encode(buffer, SIGNUP, sequence, signup.dayIndex, entry.getKey(), signup.orgId);
+                if (buffer.size() >= 1 << 16) {
+                    writeFully(out, buffer.view());
+                    buffer.reset();
+                }
+            }
+            writeFully(out, buffer.view());
+            out.force(false);
+        }
+
+        // Events recorded after the copy are still pending and go to the new file. Some of them
+        // may already be reflected in the copy, which is harmless: replaying any suffix of the
+        // event history on top of the state it produced leaves that state unchanged.
+        synchronized (this) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            channel.close();
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            recordsInFile = entries.size();
+        }
+    }
+
+    // Read the existing journal into the live map; returns the number of valid bytes
+    private long recover() throws IOException {
+        if (!file.isFile() || file.length() < HEADER_BYTES) return 0;
+        long validBytes = 0;
+        try (InputStream stream = new BufferedInputStream(new FileInputStream(file), 1 << 16);
+             DataInputStream in = new DataInputStream(stream)) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a signup journal: " + file);
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Journal version " + version + " is not " + VERSION + ": " + file);
+            validBytes = HEADER_BYTES;
+            CRC32 crc = new CRC32();
+            byte[] payload = new byte[256];
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length <= 0 || length > MAX_RECORD_BYTES) break;
+                if (payload.length < length) payload = new byte[length];
+                int checksum;
+                try {
+                    in.readFully(payload, 0, length);
+                    checksum = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(payload, 0, length);
+                if ((int) crc.getValue() != checksum) break;
+
+                DataInputStream fields = new DataInputStream(new ByteArrayInputStream(payload, 0, length));
+                byte type = fields.readByte();
+                long sequence = fields.readLong();
+                int dayIndex = fields.readByte();
+                String volunteerId = fields.readUTF();
+                String orgId = fields.readUTF();
+                apply(live, type, volunteerId, orgId, dayIndex);
+                nextSequence = Math.max(nextSequence, sequence + 1);
+                recordsInFile++;
+                validBytes += 4 + length + 4;
+            }
+        }
+        return validBytes;
+    }
+
+    private static void apply(HashMap<String, LiveSignup> live, byte type, String volunteerId, String orgId, int dayIndex) {
+        if (type == SIGNUP) {
+            live.put(volunteerId, new LiveSignup(orgId, dayIndex));
+        } else if (type == CANCEL) {
+            LiveSignup current = live.get(volunteerId);
+            if (current != null && current.orgId.equals(orgId)) live.remove(volunteerId);
+        }
+    }
+
+    // Appends [length][payload][crc] to out (callers hold the lock for pending, or own out)
+    private static void encode(ByteArrayOutputStream out, byte type, long sequence, int dayIndex,
+                        String volunteerId, String orgId) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(64);
+        DataOutputStream fields = new DataOutputStream(payload);
+        fields.writeByte(type);
+        fields.writeLong(sequence);
+        fields.writeByte(dayIndex);
+        fields.writeUTF(volunteerId);
+        fields.writeUTF(orgId);
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length);
+        DataOutputStream framed = new DataOutputStream(out);
+        framed.writeInt(bytes.length);
+        framed.write(bytes);
+        framed.writeInt((int) crc.getValue());
+    }
+
+    private static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        return header;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) channel.write(bytes);
+    }
+
+    private void checkOpen() throws IOException {
+        if (failure != null) throw failure;
+        if (closed) throw new IOException("Signup journal is closed: " + file);
+    }
+
+    // True if the day is dayAvailable or the day of one of the volunteer's additional windows
+    private static boolean isAvailableOn(Volunteer volunteer, int dayIndex) {
+        if (WeeklySchedule.dayIndex(volunteer.getDayAvailable()) == dayIndex) return true;
+        WeeklySchedule windows = volunteer.getAdditionalAvailability();
+        return windows != null && dayIndex >= 0 && windows.count(dayIndex) > 0;
+    }
+}
@@ -0,0 +1,116 @@
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class SignupJournalTest
+ *
+ * Signs generated volunteers up (and cancels some) from several threads through a journaled
+ * VolunteeringManager, then simulates a restart: the files are loaded again, a torn record is
+ * appended to the journal, and the journal is replayed. The recovered assignments must equal the
+ * ones before the restart, both before and after compaction. Also reports how many events
+ * shared each fsync.
+ *
+ * Usage: java SignupJournalTest [volunteers] [threads]
+ */
+public class SignupJournalTest {
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+
+        File dir = File.createTempFile("signup-journal", "");
+        if (!dir.delete() || !dir.mkdir()) throw new IOException("Cannot create " + dir);
+        File orgsFile = new File(dir, "orgs.txt"), volunteersFile = new File(dir, "volunteers.txt");
+        File journalFile = new File(dir, "signups.journal");
+        SyntheticDataGenerator.writeOrgs(orgsFile, Math.max(100, rows / 10), 11);
+        SyntheticDataGenerator.writeVolunteers(volunteersFile, rows, 11);
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) { }
+        }));
+        boolean pass = true;
+        try {
+            VolunteeringManager manager = new VolunteeringManager(orgsFile.getPath(), volunteersFile.getPath());
+            SignupJournal journal = new SignupJournal(journalFile, 2, true);
+            manager.attachJournal(journal);
+
+            List<Volunteer> volunteers = manager.getVolunteers();
+            ArrayList<Thread> workers = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                final int first = t;
+                Thread worker = new Thread(() -> {
+                    Random random = new Random(first);
+                    for (int i = first; i < volunteers.size(); i += threads) {
+                        Volunteer volunteer = volunteers.get(i);
+                        manager.signUpVolunteerToPriorityOrg(volunteer);
+                        if (random.nextInt(4) == 0) manager.cancelSignup(volunteer);
+                    }
+                });
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) worker.join();
+            long nanos = System.nanoTime() - start;
+            long events = journal.getRecordsInFile();
+            long syncs = journal.getSyncCount();
+            HashMap<String, String> before = assignments(volunteers);
+            journal.close();
+
+            console.printf("%,d journaled events from %d threads in %d ms (%,.0f events/s), %,d fsyncs (%.1f events per fsync)%n",
+                    events, threads, nanos / 1_000_000, events / (nanos / 1e9), syncs, (double) events / Math.max(1, syncs));
+            console.printf("%,d live signups, journal %,d KB%n", before.size(), journalFile.length() >> 10);
+
+            // Crash in the middle of writing a record
+            try (FileOutputStream out = new FileOutputStream(journalFile, true)) {
+                out.write(new byte[] {0, 0, 0, 40, 1, 0, 0});
+            }
+            pass &= check("replay after torn write", before, orgsFile, volunteersFile, journalFile, false, console);
+            pass &= check("replay after compaction", before, orgsFile, volunteersFile, journalFile, true, console);
+            pass &= check("replay of compacted journal", before, orgsFile, volunteersFile, journalFile, false, console);
+        } finally {
+            EventLog.flush();
+            System.setOut(console);
+            for (File file : dir.listFiles()) file.delete();
+            dir.delete();
+        }
+        console.println(pass ? "PASS: recovered assignments match" : "FAIL");
+    }
+
+    private static boolean check(String name, HashMap<String, String> expected, File orgsFile, File volunteersFile,
+                                 File journalFile, boolean compact, PrintStream console) throws IOException {
+        VolunteeringManager manager = new VolunteeringManager(orgsFile.getPath(), volunteersFile.getPath());
+        long bytes = journalFile.length();
+        SignupJournal journal = new SignupJournal(journalFile, 2, true);
+        int restored = manager.attachJournal(journal);
+        if (compact) {
+            journal.compact();
+            journal.sync();
+        }
+        journal.close();
+        HashMap<String, String> recovered = assignments(manager.getVolunteers());
+        boolean same = recovered.equals(expected);
+        console.printf("%-28s %,d restored, journal %,d KB -> %,d KB: %s%n", name, restored,
+                bytes >> 10, journalFile.length() >> 10, same ? "match" : "MISMATCH");
+        return same;
+    }
+
+    private static HashMap<String, String> assignments(List<Volunteer> volunteers) {
+        HashMap<String, String> assignments = new HashMap<>();
+        for (Volunteer volunteer : volunteers) {
+            if (volunteer.getOrgVolunteering() != null) {
+                assignments.put(volunteer.getId(), volunteer.getOrgVolunteering().getId());
+            }
+        }
+        return assignments;
+    }
+}
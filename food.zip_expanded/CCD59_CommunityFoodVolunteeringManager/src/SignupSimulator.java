@@ -0,0 +1,569 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Class SignupSimulator
+ *
+ * Replays a week of volunteer activity against freshly loaded organizations, as a mixed workload:
+ * - registration: a new volunteer arrives and is shown their best matches (findCandidates)
+ * - signup: a registered volunteer is placed, by the chosen Strategy
+ * - cancellation: a volunteer who asked to sign up cancels (Volunteer.cancelSignup; nothing
+ *   happens if the signup had failed), and may sign up again later
+ * - capacity edit: a coordinator changes a pantry's volunteers needed on one day, or a food
+ *   bank's capacity, by a small amount up or down
+ *
+ * The events and every volunteer's details are generated from the seed before the run, so a
+ * seed names one workload whatever the strategy, mode or thread count. Events run at a target
+ * rate (or as fast as possible) on a number of threads; each volunteer's events, and each
+ * organization's edits, always go to the same thread in stream order. With one thread the
+ * outcome is fully reproducible (see Report.getFingerprint); with several it depends on the
+ * interleaving, like production.
+ *
+ * The Report has the throughput, service and response latency per event type (response counts
+ * from the time the event was due, so a backlog shows up), the fill rate of every organization
+ * on every day, and the overbooking checks: after every signup the pantry's day must not be
+ * over-full, unless a capacity edit cut it below its signups; at the end every pantry's signups
+ * must equal the volunteers actually signed up with it, and the pounds pledged to every food
+ * bank's day must neither exceed its capacity nor differ from the capacity less the pounds it
+ * still needs, unless a capacity edit cut the day below its pledges.
+ *
+ * Usage: java SignupSimulator [events] [threads] [rate/s, 0 = unthrottled] [seed] [priority|candidates]
+ *        [shards, 0 = one VolunteeringManager] [orgs] [fill rates CSV]
+ */
+public class SignupSimulator {
+
+    /**
+     * Enum Strategy
+     * How a signup event picks the organization.
+     */
+    public enum Strategy {
+        PRIORITY,   // VolunteeringManager.signUpVolunteerToPriorityOrg and cancelSignup: highest remaining need
+        CANDIDATES  // the first of findCandidates' ranked matches that takes Volunteer.signUp; Volunteer.cancelSignup
+    }
+
+    static final byte REGISTER = 0, SIGNUP = 1, CANCEL = 2, CAPACITY = 3;
+    private static final String[] EVENT_NAMES = {"registration", "signup", "cancellation", "capacity edit"};
+    private static final int CANDIDATE_LIMIT = 10;
+    private static final double POUNDS_TOLERANCE = 0.01; // FoodBank keeps pounds to the thousandth
+
+    private final String orgsFile;
+    private long seed = SyntheticDataGenerator.DEFAULT_SEED;
+    private int events = 200_000;
+    private int threads = 1;
+    private double rate; // events per second, 0 for as fast as possible
+    private int[] mix = {35, 40, 15, 10}; // percent of registrations, signups, cancellations, capacity edits
+    private Strategy strategy = Strategy.PRIORITY;
+    private int shards; // 0 for a single VolunteeringManager
+
+    /**
+     * Constructor SignupSimulator
+     * @param orgsFile the community food organizations file; every run loads it afresh
+     */
+    public SignupSimulator(String orgsFile) {
+        this.orgsFile = orgsFile;
+    }
+
+    public SignupSimulator seed(long seed) { this.seed = seed; return this; }
+    public SignupSimulator events(int events) { this.events = events; return this; }
+    public SignupSimulator threads(int threads) { this.threads = Math.max(1, threads); return this; }
+    public SignupSimulator rate(double eventsPerSecond) { this.rate = Math.max(0, eventsPerSecond); return this; }
+    public SignupSimulator strategy(Strategy strategy) { this.strategy = strategy; return this; }
+    public SignupSimulator shards(int shards) { this.shards = Math.max(0, shards); return this; }
+
+    /**
+     * Method mix
+     * @return this simulator, generating the event types in the given proportions
+     */
+    public SignupSimulator mix(int registrations, int signups, int cancellations, int capacityEdits) {
+        if (registrations <= 0 || signups < 0 || cancellations < 0 || capacityEdits < 0) {
+            throw new IllegalArgumentException("The mix needs registrations and no negative shares");
+        }
+        this.mix = new int[] {registrations, signups, cancellations, capacityEdits};
+        return this;
+    }
+
+    /**
+     * Class Workload
+     * The seeded event stream and the volunteers it registers, in compact arrays.
+     */
+    static final class Workload {
+        final byte[] type;
+        final int[] subject; // volunteer for registrations, signups and cancellations; organization for edits
+        final int[] argument; // capacity edits: day (0-6, or -1 for a food bank) * 1_000_000 + change + 500_000
+        final double[] latitude, longitude, distance, donation;
+        final byte[] day;
+        final short[] start, end;
+        final boolean[] needsTransportation;
+        int volunteers;
+
+        Workload(int events) {
+            type = new byte[events];
+            subject = new int[events];
+            argument = new int[events];
+            latitude = new double[events];
+            longitude = new double[events];
+            distance = new double[events];
+            donation = new double[events];
+            day = new byte[events];
+            start = new short[events];
+            end = new short[events];
+            needsTransportation = new boolean[events];
+        }
+
+        Volunteer volunteer(int v) {
+            Location location = new Location(latitude[v], longitude[v], "", "", "", "");
+            return new Volunteer("sim-" + v, "Volunteer " + v, 30, location, WeeklySchedule.dayName(day[v]),
+                    TimeFrame.of(start[v] / 60, start[v] % 60, end[v] / 60, end[v] % 60), distance[v],
+                    needsTransportation[v], donation[v]);
+        }
+    }
+
+    // The event stream a seed names: the same for every strategy, mode and thread count
+    Workload generate(List<CommunityFoodOrg> orgs) {
+        Random random = new Random(seed);
+        Workload workload = new Workload(events);
+        int total = mix[0] + mix[1] + mix[2] + mix[3];
+        IntList pending = new IntList(), asked = new IntList(); // registered and not signing up; asked to sign up
+        for (int i = 0; i < events; i++) {
+            int pick = random.nextInt(total);
+            byte type = pick < mix[0] ? REGISTER : pick < mix[0] + mix[1] ? SIGNUP : pick < total - mix[3] ? CANCEL : CAPACITY;
+            if (type == SIGNUP && pending.size == 0 || type == CANCEL && asked.size == 0 || type == CAPACITY && orgs.isEmpty()) {
+                type = REGISTER;
+            }
+            workload.type[i] = type;
+            if (type == REGISTER) {
+                int v = workload.volunteers++;
+                workload.latitude[v] = 39.5 + random.nextDouble() * 2;
+                workload.longitude[v] = -80.5 + random.nextDouble() * 5;
+                workload.distance[v] = 5 + random.nextInt(31);
+                workload.donation[v] = random.nextInt(4) == 0 ? 5 + random.nextInt(41) : 0;
+                workload.day[v] = (byte) random.nextInt(7);
+                workload.start[v] = (short) ((8 + random.nextInt(9)) * 60 + 15 * random.nextInt(4));
+                workload.end[v] = (short) Math.min(23 * 60 + 45, workload.start[v] + 60 * (2 + random.nextInt(3)));
+                workload.needsTransportation[v] = random.nextInt(5) == 0;
+                workload.subject[i] = v;
+                pending.add(v);
+            } else if (type == SIGNUP) {
+                int v = pending.removeAt(random.nextInt(pending.size));
+                workload.subject[i] = v;
+                asked.add(v);
+            } else if (type == CANCEL) {
+                int v = asked.removeAt(random.nextInt(asked.size));
+                workload.subject[i] = v;
+                if (random.nextBoolean()) pending.add(v); // may try again later
+            } else {
+                int org = random.nextInt(orgs.size());
+                boolean bank = orgs.get(org) instanceof FoodBank;
+                int change = bank ? (random.nextBoolean() ? 1 : -1) * (50 + random.nextInt(451))
+                                  : (random.nextBoolean() ? 1 : -1) * (1 + random.nextInt(3));
+                workload.subject[i] = org;
+                workload.argument[i] = (bank ? -1 : random.nextInt(7)) * 1_000_000 + change + 500_000;
+            }
+        }
+        return workload;
+    }
+
+    /**
+     * Class Report
+     * What one run did and how the organizations ended up.
+     */
+    public static final class Report {
+        final LongAdder[] counts = new LongAdder[4], succeeded = new LongAdder[4];
+        final LatencyHistogram[] service = new LatencyHistogram[4], response = new LatencyHistogram[4];
+        long nanos;
+        double rate;
+        int threads;
+        String description;
+        List<CommunityFoodOrg> orgs;
+        double[][] fill; // [org][day] share of capacity taken, NaN when closed
+        long overbookings, cutBelowSignups, auditMismatches;
+        final List<String> violations = new ArrayList<>();
+        long fingerprint;
+
+        Report() {
+            for (int i = 0; i < 4; i++) {
+                counts[i] = new LongAdder();
+                succeeded[i] = new LongAdder();
+                service[i] = new LatencyHistogram();
+                response[i] = new LatencyHistogram();
+            }
+        }
+
+        public long getEvents() { return getCount(REGISTER) + getCount(SIGNUP) + getCount(CANCEL) + getCount(CAPACITY); }
+        public long getCount(int eventType) { return counts[eventType].sum(); }
+        // Signups placed, cancellations that released a signup, capacity edits applied, registrations with a match
+        public long getSucceeded(int eventType) { return succeeded[eventType].sum(); }
+        public double getEventsPerSecond() { return getEvents() / (nanos / 1e9); }
+        public LatencyHistogram.Summary getServiceLatency(int eventType) { return service[eventType].summary(); }
+        public LatencyHistogram.Summary getResponseLatency(int eventType) { return response[eventType].summary(); }
+        public double[][] getFillRates() { return fill; }
+        // Signups that left an organization's day over-full without a capacity cut to explain it
+        public long getOverbookings() { return overbookings; }
+        // Days a capacity edit cut below the signups already taken (over-full by the coordinator's choice)
+        public long getCutBelowSignups() { return cutBelowSignups; }
+        // Pantry days whose signup count differs from the volunteers signed up there, and food bank
+        // days whose pledges differ from the pounds taken off their need
+        public long getAuditMismatches() { return auditMismatches; }
+        public List<String> getViolations() { return violations; }
+        // Hash of every organization's final signups and remaining need: equal for equal outcomes
+        public long getFingerprint() { return fingerprint; }
+        public boolean isConsistent() { return overbookings == 0 && auditMismatches == 0; }
+
+        // Mean fill rate over the open days of the given kind of organization on a day (NaN if none is open)
+        public double meanFill(Class<? extends CommunityFoodOrg> kind, int day) {
+            double sum = 0;
+            int open = 0;
+            for (int i = 0; i < orgs.size(); i++) {
+                if (!kind.isInstance(orgs.get(i)) || Double.isNaN(fill[i][day])) continue;
+                sum += fill[i][day];
+                open++;
+            }
+            return open == 0 ? Double.NaN : sum / open;
+        }
+
+        /**
+         * Method writeFillRates
+         * @param file a CSV file to write: one row per organization, with its fill rate on each day
+         *        (empty when closed)
+         */
+        public void writeFillRates(File file) throws IOException {
+            try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+                out.println("id,type,monday,tuesday,wednesday,thursday,friday,saturday,sunday");
+                for (int i = 0; i < orgs.size(); i++) {
+                    CommunityFoodOrg org = orgs.get(i);
+                    StringBuilder row = new StringBuilder(org.getId()).append(',')
+                            .append(org instanceof FoodBank ? "bank" : "pantry");
+                    for (int day = 0; day < 7; day++) {
+                        row.append(',');
+                        if (!Double.isNaN(fill[i][day])) row.append(String.format("%.4f", fill[i][day]));
+                    }
+                    out.println(row);
+                }
+            }
+        }
+
+        /**
+         * Method print
+         * @param out where to write the report
+         */
+        public void print(PrintStream out) {
+            out.printf("%s%n", description);
+            out.printf("%,d events in %,d ms on %d threads: %,.0f events/s (target %s)%n", getEvents(), nanos / 1_000_000,
+                    threads, getEventsPerSecond(), rate > 0 ? String.format("%,.0f/s", rate) : "unthrottled");
+            for (int i = 0; i < 4; i++) {
+                if (getCount(i) == 0) continue;
+                LatencyHistogram.Summary s = service[i].summary(), r = response[i].summary();
+                out.printf("  %-14s %,9d (%,d succeeded)  service p50 %,8.1f us p99 %,9.1f us max %,9.1f us"
+                        + "  response p99 %,9.1f us%n", EVENT_NAMES[i], getCount(i), getSucceeded(i),
+                        s.getP50Micros(), s.getP99Micros(), s.getMaxMicros(), r.getP99Micros());
+            }
+            out.print("  fill     ");
+            for (int day = 0; day < 7; day++) out.printf("%10s", WeeklySchedule.dayName(day).substring(0, 3));
+            out.println();
+            printFill(out, "pantries", FoodPantry.class);
+            printFill(out, "banks", FoodBank.class);
+            out.printf("  overbookings %d, days cut below signups %d, audit mismatches %d, fingerprint %016x%n",
+                    overbookings, cutBelowSignups, auditMismatches, fingerprint);
+            for (int i = 0; i < Math.min(5, violations.size()); i++) out.println("    " + violations.get(i));
+        }
+
+        private void printFill(PrintStream out, String label, Class<? extends CommunityFoodOrg> kind) {
+            out.printf("  %-9s", label);
+            for (int day = 0; day < 7; day++) out.printf("%9.1f%%", 100 * meanFill(kind, day));
+            out.println();
+        }
+    }
+
+    // The manager calls a run goes through: one VolunteeringManager or a ShardedVolunteeringManager
+    private interface Target {
+        boolean signUpToPriorityOrg(Volunteer volunteer);
+        List<CommunityFoodOrg> findCandidates(Volunteer volunteer, int limit);
+        void cancelSignup(Volunteer volunteer);
+    }
+
+    /**
+     * Method run
+     * @return the report of one run over freshly loaded organizations
+     */
+    public Report run() throws InterruptedException {
+        return new Run(DataManager.readCommunityFoodOrgs(orgsFile)).execute();
+    }
+
+    // The state of one run: organizations, registered volunteers and the manager they go through
+    private final class Run {
+        final ArrayList<CommunityFoodOrg> orgs;
+        final IdentityHashMap<CommunityFoodOrg, Integer> positions = new IdentityHashMap<>();
+        final Workload workload;
+        final Volunteer[] volunteers;
+        final boolean[] cut; // [org * 7 + day] over-full by a capacity edit; read and written holding the org
+        final Target target;
+        final Report report = new Report();
+
+        Run(ArrayList<CommunityFoodOrg> orgs) {
+            this.orgs = orgs;
+            for (int i = 0; i < orgs.size(); i++) positions.put(orgs.get(i), i);
+            this.workload = generate(orgs);
+            this.volunteers = new Volunteer[workload.volunteers];
+            this.cut = new boolean[orgs.size() * 7];
+            if (shards > 0) {
+                ShardedVolunteeringManager manager = new ShardedVolunteeringManager(orgs, new ArrayList<>(), shards);
+                target = new Target() {
+                    public boolean signUpToPriorityOrg(Volunteer volunteer) { return manager.signUpVolunteerToPriorityOrg(volunteer); }
+                    public List<CommunityFoodOrg> findCandidates(Volunteer volunteer, int limit) { return manager.findCandidates(volunteer, limit); }
+                    public void cancelSignup(Volunteer volunteer) { manager.cancelSignup(volunteer); }
+                };
+            } else {
+                VolunteeringManager manager = new VolunteeringManager(orgs, new ArrayList<>());
+                target = new Target() {
+                    public boolean signUpToPriorityOrg(Volunteer volunteer) { return manager.signUpVolunteerToPriorityOrg(volunteer); }
+                    public List<CommunityFoodOrg> findCandidates(Volunteer volunteer, int limit) { return manager.findCandidates(volunteer, limit); }
+                    public void cancelSignup(Volunteer volunteer) { manager.cancelSignup(volunteer); }
+                };
+            }
+            report.orgs = orgs;
+            report.rate = rate;
+            report.threads = threads;
+            report.description = String.format("SignupSimulator: seed %d, %,d organizations, %,d volunteers, %s strategy, %s",
+                    seed, orgs.size(), workload.volunteers, strategy.name().toLowerCase(),
+                    shards > 0 ? shards + " shards" : "one VolunteeringManager");
+        }
+
+        Report execute() throws InterruptedException {
+            // Every volunteer's and organization's events on one thread, in stream order
+            IntList[] queues = new IntList[threads];
+            for (int t = 0; t < threads; t++) queues[t] = new IntList();
+            for (int i = 0; i < events; i++) queues[workload.subject[i] % threads].add(i);
+
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            CountDownLatch ready = new CountDownLatch(threads), go = new CountDownLatch(1), done = new CountDownLatch(threads);
+            long[] startNanos = new long[1];
+            for (int t = 0; t < threads; t++) {
+                IntList queue = queues[t];
+                Thread worker = new Thread(() -> {
+                    try {
+                        ready.countDown();
+                        go.await();
+                        for (int k = 0; k < queue.size; k++) {
+                            int i = queue.values[k];
+                            long due = rate > 0 ? startNanos[0] + (long) (i * 1e9 / rate) : System.nanoTime();
+                            for (long wait; (wait = due - System.nanoTime()) > 0; ) LockSupport.parkNanos(wait);
+                            long begin = System.nanoTime();
+                            boolean succeeded = run(i);
+                            long finish = System.nanoTime();
+                            byte type = workload.type[i];
+                            report.service[type].record(finish - begin);
+                            report.response[type].record(finish - due);
+                            report.counts[type].increment();
+                            if (succeeded) report.succeeded[type].increment();
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        done.countDown();
+                    }
+                }, "signup-simulator-" + t);
+                worker.start();
+            }
+            ready.await();
+            startNanos[0] = System.nanoTime(); // written before go opens, so every worker sees it
+            go.countDown();
+            done.await();
+            report.nanos = System.nanoTime() - startNanos[0];
+            if (failure.get() != null) throw new IllegalStateException("Simulation failed", failure.get());
+            audit();
+            return report;
+        }
+
+        // Runs one event; true if it succeeded (see Report.getSucceeded)
+        boolean run(int i) {
+            int subject = workload.subject[i];
+            switch (workload.type[i]) {
+                case REGISTER: {
+                    Volunteer volunteer = workload.volunteer(subject);
+                    volunteers[subject] = volunteer;
+                    return !target.findCandidates(volunteer, CANDIDATE_LIMIT).isEmpty();
+                }
+                case SIGNUP: {
+                    Volunteer volunteer = volunteers[subject];
+                    boolean placed = false;
+                    if (strategy == Strategy.PRIORITY) {
+                        placed = target.signUpToPriorityOrg(volunteer);
+                    } else {
+                        for (CommunityFoodOrg org : target.findCandidates(volunteer, CANDIDATE_LIMIT)) {
+                            volunteer.signUp(org);
+                            if (volunteer.getOrgVolunteering() == org) {
+                                placed = true;
+                                break;
+                            }
+                        }
+                    }
+                    if (placed) checkNotOverbooked(volunteer);
+                    return placed;
+                }
+                case CANCEL: {
+                    Volunteer volunteer = volunteers[subject];
+                    boolean signedUp = volunteer.getOrgVolunteering() != null;
+                    if (strategy == Strategy.PRIORITY) target.cancelSignup(volunteer);
+                    else volunteer.cancelSignup();
+                    return signedUp;
+                }
+                default:
+                    return editCapacity(subject, workload.argument[i]);
+            }
+        }
+
+        // A coordinator's change; holding the org, so a signup's check sees the change and its cut flags together
+        boolean editCapacity(int position, int argument) {
+            CommunityFoodOrg org = orgs.get(position);
+            int day = Math.floorDiv(argument, 1_000_000);
+            int change = Math.floorMod(argument, 1_000_000) - 500_000;
+            synchronized (org) {
+                if (org instanceof FoodBank) {
+                    FoodBank bank = (FoodBank) org;
+                    double capacity = Math.max(0, bank.getMaxCapacity() + change);
+                    for (int d = 0; d < 7; d++) {
+                        double pledged = bank.getMaxCapacity() - bank.getDailyDonationsNeeded(d);
+                        if (org.getDailyOpenHours()[d] != null && pledged > capacity) cut[position * 7 + d] = true;
+                    }
+                    bank.resizeCapacity(capacity);
+                    return true;
+                }
+                if (org.getDailyOpenHours()[day] == null) return false; // closed that day: nothing to edit
+                org.setDailyVolunteersNeeded(Math.max(0, org.getDailyVolunteersNeeded()[day] + change), WeeklySchedule.dayName(day));
+                if (org.dailyVolunteerSpotsLeft(day) < 0) cut[position * 7 + day] = true;
+                return true;
+            }
+        }
+
+        // A pantry signup may never leave a day over-full; only a capacity cut can. A food bank's need
+        // cannot go below 0, so banks are checked against their pledges in audit() instead.
+        void checkNotOverbooked(Volunteer volunteer) {
+            CommunityFoodOrg org = volunteer.getOrgVolunteering();
+            String dayName = volunteer.getSignedUpDay();
+            Integer position = org == null ? null : positions.get(org);
+            if (position == null || dayName == null || org instanceof FoodBank) return;
+            int day = WeeklySchedule.dayIndex(dayName);
+            synchronized (org) {
+                if (org.dailyVolunteerSpotsLeft(day) >= 0 || cut[position * 7 + day]) return;
+            }
+            overbooked(org.getId() + " on " + dayName);
+        }
+
+        void overbooked(String orgDay) {
+            synchronized (report) {
+                report.overbookings++;
+                if (report.violations.size() < 100) report.violations.add("overbooked " + orgDay);
+            }
+        }
+
+        // Fill rates, the signup audit and the fingerprint, once every thread is done
+        void audit() {
+            int[] assigned = new int[orgs.size() * 7];
+            double[] pledged = new double[orgs.size() * 7];
+            for (Volunteer volunteer : volunteers) {
+                if (volunteer == null || volunteer.getOrgVolunteering() == null) continue;
+                Integer position = positions.get(volunteer.getOrgVolunteering());
+                int day = WeeklySchedule.dayIndex(volunteer.getSignedUpDay());
+                if (position == null || day == -1) continue;
+                assigned[position * 7 + day]++;
+                pledged[position * 7 + day] += volunteer.getDonation();
+            }
+
+            report.fill = new double[orgs.size()][7];
+            long fingerprint = 1125899906842597L;
+            for (int i = 0; i < orgs.size(); i++) {
+                CommunityFoodOrg org = orgs.get(i);
+                for (int day = 0; day < 7; day++) {
+                    if (cut[i * 7 + day]) report.cutBelowSignups++;
+                    double fill = Double.NaN;
+                    if (org.getDailyOpenHours()[day] != null) {
+                        if (org instanceof FoodBank) {
+                            FoodBank bank = (FoodBank) org;
+                            double capacity = bank.getMaxCapacity();
+                            fill = capacity > 0 ? (capacity - bank.getDailyDonationsNeeded(day)) / capacity : 1;
+                            fingerprint = 31 * fingerprint + Double.hashCode(bank.getDailyDonationsNeeded(day));
+                            double pounds = pledged[i * 7 + day], taken = capacity - bank.getDailyDonationsNeeded(day);
+                            if (cut[i * 7 + day]) {
+                                // a capacity cut clamped the need, so pledges no longer add up to it
+                            } else if (pounds > capacity + POUNDS_TOLERANCE) {
+                                overbooked(org.getId() + " on " + WeeklySchedule.dayName(day) + ": " + pounds
+                                        + " pounds pledged, capacity " + capacity);
+                            } else if (Math.abs(pounds - taken) > POUNDS_TOLERANCE) {
+                                report.auditMismatches++;
+                                if (report.violations.size() < 100) {
+                                    report.violations.add(org.getId() + " on " + WeeklySchedule.dayName(day) + ": " + pounds
+                                            + " pounds pledged, " + taken + " taken off the need");
+                                }
+                            }
+                        } else {
+                            int signups = org.getDailyVolunteerSignups()[day], needed = org.getDailyVolunteersNeeded()[day];
+                            fill = needed > 0 ? (double) signups / needed : 1;
+                            fingerprint = 31 * fingerprint + signups;
+                            if (signups != assigned[i * 7 + day]) {
+                                report.auditMismatches++;
+                                if (report.violations.size() < 100) {
+                                    report.violations.add(org.getId() + " on " + WeeklySchedule.dayName(day) + ": " + signups
+                                            + " signups, " + assigned[i * 7 + day] + " volunteers");
+                                }
+                            }
+                        }
+                    }
+                    report.fill[i][day] = fill;
+                }
+            }
+            report.fingerprint = fingerprint;
+        }
+    }
+
+    // A growable int array, so a million-event stream does not box every index
+    static final class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        // Removes the value at index by moving the last value into its place
+        int removeAt(int index) {
+            int value = values[index];
+            values[index] = values[--size];
+            return value;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        double rate = args.length > 2 ? Double.parseDouble(args[2]) : 0;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : SyntheticDataGenerator.DEFAULT_SEED;
+        Strategy strategy = args.length > 4 ? Strategy.valueOf(args[4].toUpperCase()) : Strategy.PRIORITY;
+        int shards = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+        int orgCount = args.length > 6 ? Integer.parseInt(args[6]) : 2_000;
+        String csv = args.length > 7 ? args[7] : null;
+
+        File orgsFile = File.createTempFile("signup-simulator", ".txt");
+        try {
+            SyntheticDataGenerator.writeOrgs(orgsFile, orgCount, seed);
+            EventLog.setLevel(EventLog.Level.OFF); // one console line per signup would measure the terminal
+            Report report = new SignupSimulator(orgsFile.getPath()).seed(seed).events(events).threads(threads)
+                    .rate(rate).strategy(strategy).shards(shards).run();
+            report.print(System.out);
+            if (csv != null) report.writeFillRates(new File(csv));
+        } finally {
+            orgsFile.delete();
+        }
+    }
+}
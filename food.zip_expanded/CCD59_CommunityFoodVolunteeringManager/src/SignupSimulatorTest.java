@@ -0,0 +1,95 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class SignupSimulatorTest
+ *
+ * Runs SignupSimulator on generated organizations and checks that:
+ * - one thread with the same seed gives the same outcome twice (equal fingerprints), for each
+ *   strategy, and a different seed a different one; both strategies rank by remaining need, so on
+ *   one thread they end up the same;
+ * - on several threads, with each strategy, over one VolunteeringManager and over a
+ *   ShardedVolunteeringManager, no signup overbooks a day and every pantry's signups equal the
+ *   volunteers signed up with it;
+ * - a run at a target rate keeps close to that rate.
+ *
+ * Usage: java SignupSimulatorTest [events] [threads]
+ */
+public class SignupSimulatorTest {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(4, Runtime.getRuntime().availableProcessors());
+
+        File orgsFile = File.createTempFile("signup-simulator-test", ".txt");
+        List<String> failures = new ArrayList<>();
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) { }
+        }));
+        try {
+            SyntheticDataGenerator.writeOrgs(orgsFile, 1_000, 5);
+            SignupSimulator simulator = new SignupSimulator(orgsFile.getPath()).seed(5).events(events);
+
+            // Reproducible on one thread
+            List<Long> fingerprints = new ArrayList<>();
+            for (SignupSimulator.Strategy strategy : SignupSimulator.Strategy.values()) {
+                simulator.strategy(strategy).threads(1).shards(0);
+                SignupSimulator.Report first = simulator.run(), second = simulator.run();
+                check(failures, first, strategy + ", 1 thread");
+                if (first.getFingerprint() != second.getFingerprint()) failures.add(strategy + ": same seed, different outcomes");
+                if (first.getEvents() != events) failures.add(strategy + ": ran " + first.getEvents() + " events");
+                fingerprints.add(first.getFingerprint());
+                report(console, first);
+            }
+            if (!fingerprints.get(0).equals(fingerprints.get(1))) failures.add("the strategies placed volunteers differently");
+            if (simulator.seed(6).run().getFingerprint() == simulator.seed(5).run().getFingerprint()) {
+                failures.add("different seeds, same outcome");
+            }
+
+            // Consistent on several threads, in every mode
+            for (SignupSimulator.Strategy strategy : SignupSimulator.Strategy.values()) {
+                for (int shards : new int[] {0, 4}) {
+                    SignupSimulator.Report report = simulator.strategy(strategy).threads(threads).shards(shards).run();
+                    check(failures, report, strategy + ", " + threads + " threads, " + shards + " shards");
+                    report(console, report);
+                }
+            }
+
+            // Paced at the target rate
+            double rate = 5_000;
+            SignupSimulator.Report paced = simulator.strategy(SignupSimulator.Strategy.PRIORITY).threads(2).shards(0)
+                    .events(10_000).rate(rate).run();
+            check(failures, paced, "paced");
+            if (Math.abs(paced.getEventsPerSecond() - rate) > rate * 0.1) {
+                failures.add(String.format("paced at %.0f/s, target %.0f/s", paced.getEventsPerSecond(), rate));
+            }
+            report(console, paced);
+        } finally {
+            EventLog.flush();
+            System.setOut(console);
+            orgsFile.delete();
+        }
+        for (int i = 0; i < Math.min(10, failures.size()); i++) System.out.println("  " + failures.get(i));
+        System.out.println(failures.isEmpty() ? "PASS" : "FAIL (" + failures.size() + " failures)");
+        if (!failures.isEmpty()) System.exit(1);
+    }
+
+    private static void check(List<String> failures, SignupSimulator.Report report, String run) {
+        if (!report.isConsistent()) {
+            failures.add(run + ": " + report.getOverbookings() + " overbookings, "
+                    + report.getAuditMismatches() + " audit mismatches " + report.getViolations());
+        }
+        if (report.getSucceeded(SignupSimulator.SIGNUP) == 0) failures.add(run + ": no signup placed");
+    }
+
+    private static void report(PrintStream console, SignupSimulator.Report report) {
+        report.print(console);
+        console.println();
+    }
+}
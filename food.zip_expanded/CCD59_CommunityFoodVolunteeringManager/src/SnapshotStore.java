@@ -0,0 +1,507 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Class SnapshotStore
+ *
+ * Binary snapshot of organizations, volunteers and the current signup state, so a launch
+ * can skip re-parsing the text files. The file is read through a memory mapping, one column
+ * at a time:
+ *
+ *   header   magic, version, length and last-modified time of both source text files, counts
+ *   orgs     type, transportation, latitude, longitude, max capacity (one column each),
+ *            open start / open end minute, volunteers needed, signups, donations needed
+ *            (7 values per organization, -1 minutes for closed days),
+ *            then id, name, address, city, state, zip as string columns
+ *   volunteers latitude, longitude, distance, donation, age, start / end minute,
+ *            transportation, position of the organization signed up with (-1 if none),
+ *            day index of that signup, then id, full name, day, address, city, state, zip as
+ *            string columns
+ *   windows  every shift of the organizations with split shifts, then every additional
+ *            availability window of the volunteers: a count, then owner position, day index,
+ *            start minute and end minute columns (open hours above hold each day's span)
+ *
+ * A string column is every value's UTF-8 length followed by all of the bytes. Numbers are
+ * big-endian. A snapshot is stale once either source file's length or modification time
+ * differs from the header, or the version differs from VERSION; load() then falls back to
+ * DataManager and rewrites the snapshot.
+ *
+ * Usage: java SnapshotStore orgsFile volunteersFile snapshotFile
+ *        (converts the text files and reports how long loading each way takes)
+ */
+public class SnapshotStore {
+    public static final int MAGIC = 0x46435350; // "FCSP"
+    public static final int VERSION = 2;
+
+    private static final int HEADER_BYTES = 4 + 4 + 4 * 8 + 4 + 4;
+    private static final byte TYPE_ORG = 0, TYPE_PANTRY = 1, TYPE_BANK = 2;
+
+    private final ArrayList<CommunityFoodOrg> orgs;
+    private final ArrayList<Volunteer> volunteers;
+    private final boolean fromSnapshot;
+
+    private SnapshotStore(ArrayList<CommunityFoodOrg> orgs, ArrayList<Volunteer> volunteers, boolean fromSnapshot) {
+        this.orgs = orgs;
+        this.volunteers = volunteers;
+        this.fromSnapshot = fromSnapshot;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.out.println("Usage: java SnapshotStore orgsFile volunteersFile snapshotFile");
+            return;
+        }
+        long start = System.nanoTime();
+        ArrayList<CommunityFoodOrg> orgs = DataManager.readCommunityFoodOrgs(args[0]);
+        ArrayList<Volunteer> volunteers = DataManager.readVolunteers(args[1]);
+        long parseNanos = System.nanoTime() - start;
+
+        write(new File(args[2]), orgs, volunteers, args[0], args[1]);
+
+        start = System.nanoTime();
+        SnapshotStore snapshot = read(new File(args[2]));
+        long readNanos = System.nanoTime() - start;
+        System.out.printf("%,d orgs and %,d volunteers: text %d ms, snapshot %d ms (%d KB)%n",
+                snapshot.getOrgs().size(), snapshot.getVolunteers().size(),
+                parseNanos / 1_000_000, readNanos / 1_000_000, new File(args[2]).length() >> 10);
+    }
+
+    /**
+     * Method load
+     * @param snapshotFile the snapshot to read, and to (re)write if it is missing or stale
+     * @param orgsFile the organizations text file the snapshot was made from
+     * @param volunteersFile the volunteers text file the snapshot was made from, or null if there is none
+     * @return the organizations and volunteers, from the snapshot if it is current, otherwise from the text files
+     */
+    public static SnapshotStore load(String snapshotFile, String orgsFile, String volunteersFile) {
+        File snapshot = new File(snapshotFile);
+        long[] stamp = sourceStamp(orgsFile, volunteersFile);
+        if (isFresh(snapshot, stamp)) {
+            try {
+                return read(snapshot);
+            } catch (IOException e) {
+                System.err.println("Ignoring unreadable snapshot " + snapshotFile + ": " + e.getMessage());
+            }
+        }
+
+        ArrayList<CommunityFoodOrg> orgs = DataManager.readCommunityFoodOrgs(orgsFile);
+        ArrayList<Volunteer> volunteers = volunteersFile != null ? DataManager.readVolunteers(volunteersFile) : new ArrayList<>();
+        try {
+            write(snapshot, orgs, volunteers, stamp);
+        } catch (IOException e) {
+            System.err.println("Error writing snapshot " + snapshotFile + ": " + e.getMessage());
+        }
+        return new SnapshotStore(orgs, volunteers, false);
+    }
+
+    /**
+     * Method isFresh
+     * @return true if the snapshot exists, has the current version and matches both source files
+     */
+    public static boolean isFresh(String snapshotFile, String orgsFile, String volunteersFile) {
+        return isFresh(new File(snapshotFile), sourceStamp(orgsFile, volunteersFile));
+    }
+
+    /**
+     * Method write
+     * @param snapshot the file to write; it is replaced atomically, so readers never see half a snapshot
+     * @param orgs the organizations, including their current signups and donations needed
+     * @param volunteers the volunteers, including which organization each one is signed up with
+     * @param orgsFile the organizations text file the data came from
+     * @param volunteersFile the volunteers text file the data came from, or null
+     */
+    public static void write(File snapshot, List<CommunityFoodOrg> orgs, List<Volunteer> volunteers,
+                             String orgsFile, String volunteersFile) throws IOException {
+        write(snapshot, orgs, volunteers, sourceStamp(orgsFile, volunteersFile));
+    }
+
+    private static void write(File snapshot, List<CommunityFoodOrg> orgs, List<Volunteer> volunteers, long[] stamp)
+            throws IOException {
+        File directory = snapshot.getAbsoluteFile().getParentFile();
+        File temp = File.createTempFile(snapshot.getName(), ".tmp", directory);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                for (long value : stamp) out.writeLong(value);
+                out.writeInt(orgs.size());
+                out.writeInt(volunteers.size());
+                writeOrgs(out, orgs);
+                writeVolunteers(out, volunteers, orgs);
+                writeWindows(out, orgs.size(), i -> orgs.get(i).getSplitShifts());
+                writeWindows(out, volunteers.size(), i -> volunteers.get(i).getAdditionalAvailability());
+            }
+            Files.move(temp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    private static void writeOrgs(DataOutputStream out, List<CommunityFoodOrg> orgs) throws IOException {
+        for (CommunityFoodOrg org : orgs) {
+            out.writeByte(org instanceof FoodBank ? TYPE_BANK : org instanceof FoodPantry ? TYPE_PANTRY : TYPE_ORG);
+        }
+        for (CommunityFoodOrg org : orgs) out.writeByte(org.isOffersTransportation() ? 1 : 0);
+        for (CommunityFoodOrg org : orgs) out.writeDouble(org.getLocation().getLatitude());
+        for (CommunityFoodOrg org : orgs) out.writeDouble(org.getLocation().getLongitude());
+        for (CommunityFoodOrg org : orgs) out.writeDouble(org instanceof FoodBank ? ((FoodBank) org).getMaxCapacity() : 0);
+        for (CommunityFoodOrg org : orgs) {
+            for (TimeFrame hours : org.getDailyOpenHours()) out.writeShort(hours != null ? hours.getStartMinuteOfDay() : -1);
+        }
+        for (CommunityFoodOrg org : orgs) {
+            for (TimeFrame hours : org.getDailyOpenHours()) out.writeShort(hours != null ? hours.getEndMinuteOfDay() : -1);
+        }
+        for (CommunityFoodOrg org : orgs) {
+            for (int needed : org.getDailyVolunteersNeeded()) out.writeInt(needed);
+        }
+        for (CommunityFoodOrg org : orgs) {
+            for (int signups : org.getDailyVolunteerSignups()) out.writeInt(signups);
+        }
+        for (CommunityFoodOrg org : orgs) {
+            for (int day = 0; day < 7; day++) {
+                out.writeDouble(org instanceof FoodBank ? ((FoodBank) org).getDailyDonationsNeeded(day) : 0);
+            }
+        }
+        ArrayList<String> column = new ArrayList<>(orgs.size());
+        for (CommunityFoodOrg org : orgs) column.add(org.getId());
+        writeStrings(out, column);
+        column.clear();
+        for (CommunityFoodOrg org : orgs) column.add(org.getName());
+        writeStrings(out, column);
+        writeLocationStrings(out, column, orgs.size(), i -> orgs.get(i).getLocation());
+    }
+
+    private static void writeVolunteers(DataOutputStream out, List<Volunteer> volunteers, List<CommunityFoodOrg> orgs)
+            throws IOException {
+        IdentityHashMap<CommunityFoodOrg, Integer> positions = new IdentityHashMap<>();
+        for (int i = 0; i < orgs.size(); i++) positions.put(orgs.get(i), i);
+
+        for (Volunteer volunteer : volunteers) out.writeDouble(volunteer.getLocation().getLatitude());
+        for (Volunteer volunteer : volunteers) out.writeDouble(volunteer.getLocation().getLongitude());
+        for (Volunteer volunteer : volunteers) out.writeDouble(volunteer.getDistanceAvailable());
+        for (Volunteer volunteer : volunteers) out.writeDouble(volunteer.getDonation());
+        for (Volunteer volunteer : volunteers) out.writeInt(volunteer.getAge());
+        for (Volunteer volunteer : volunteers) out.writeShort(volunteer.getTimeAvailable().getStartMinuteOfDay());
+        for (Volunteer volunteer : volunteers) out.writeShort(volunteer.getTimeAvailable().getEndMinuteOfDay());
+        for (Volunteer volunteer : volunteers) out.writeByte(volunteer.needsTransportation() ? 1 : 0);
+        for (Volunteer volunteer : volunteers) {
+            Integer position = volunteer.getOrgVolunteering() != null ? positions.get(volunteer.getOrgVolunteering()) : null;
+            out.writeInt(position != null ? position : -1);
+        }
+        for (Volunteer volunteer : volunteers) {
+            String day = volunteer.getSignedUpDay();
+            out.writeByte(day != null ? WeeklySchedule.dayIndex(day) : -1);
+        }
+        ArrayList<String> column = new ArrayList<>(volunteers.size());
+        for (Volunteer volunteer : volunteers) column.add(volunteer.getId());
+        writeStrings(out, column);
+        column.clear();
+        for (Volunteer volunteer : volunteers) column.add(volunteer.getFullName());
+        writeStrings(out, column);
+        column.clear();
+        for (Volunteer volunteer : volunteers) column.add(volunteer.getDayAvailable());
+        writeStrings(out, column);
+        writeLocationStrings(out, column, volunteers.size(), i -> volunteers.get(i).getLocation());
+    }
+
+    private interface LocationColumn {
+        Location get(int i);
+    }
+
+    private interface ScheduleColumn {
+        WeeklySchedule get(int i);
+    }
+
+    private static void writeWindows(DataOutputStream out, int count, ScheduleColumn schedules) throws IOException {
+        ArrayList<Integer> owners = new ArrayList<>();
+        ArrayList<Integer> days = new ArrayList<>();
+        ArrayList<TimeFrame> windows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            WeeklySchedule schedule = schedules.get(i);
+            if (schedule == null) continue;
+            for (int day = 0; day < 7; day++) {
+                for (TimeFrame window : schedule.getWindows(day)) {
+                    owners.add(i);
+                    days.add(day);
+                    windows.add(window);
+                }
+            }
+        }
+        out.writeInt(windows.size());
+        for (int owner : owners) out.writeInt(owner);
+        for (int day : days) out.writeByte(day);
+        for (TimeFrame window : windows) out.writeShort(window.getStartMinuteOfDay());
+        for (TimeFrame window : windows) out.writeShort(window.getEndMinuteOfDay());
+    }
+
+    private static void writeLocationStrings(DataOutputStream out, ArrayList<String> column, int count,
+                                             LocationColumn locations) throws IOException {
+        column.clear();
+        for (int i = 0; i < count; i++) column.add(locations.get(i).getAddress());
+        writeStrings(out, column);
+        column.clear();
+        for (int i = 0; i < count; i++) column.add(locations.get(i).getCity());
+        writeStrings(out, column);
+        column.clear();
+        for (int i = 0; i < count; i++) column.add(locations.get(i).getState());
+        writeStrings(out, column);
+        column.clear();
+        for (int i = 0; i < count; i++) column.add(locations.get(i).getZipCode());
+        writeStrings(out, column);
+    }
+
+    // Lengths first (-1 for null), then the bytes of every value
+    private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+        byte[][] encoded = new byte[values.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            String value = values.get(i);
+            encoded[i] = value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+            out.writeInt(encoded[i] != null ? encoded[i].length : -1);
+        }
+        for (byte[] bytes : encoded) {
+            if (bytes != null) out.write(bytes);
+        }
+    }
+
+    /**
+     * Method read
+     * @param snapshot the snapshot file
+     * @return the organizations and volunteers it holds, with their signups restored
+     * @throws IOException if the file cannot be read, is not a snapshot, has another version or is truncated
+     */
+    public static SnapshotStore read(File snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot larger than 2 GB: " + snapshot);
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            checkHeader(buffer, snapshot);
+            buffer.position(HEADER_BYTES - 8);
+            int orgCount = buffer.getInt();
+            int volunteerCount = buffer.getInt();
+            ArrayList<CommunityFoodOrg> orgs = readOrgs(buffer, orgCount);
+            ArrayList<Volunteer> volunteers = readVolunteers(buffer, volunteerCount, orgs);
+            WeeklySchedule[] shifts = readWindows(buffer, orgCount);
+            for (int i = 0; i < orgCount; i++) {
+                if (shifts[i] != null) orgs.get(i).setShifts(shifts[i]);
+            }
+            WeeklySchedule[] windows = readWindows(buffer, volunteerCount);
+            for (int i = 0; i < volunteerCount; i++) {
+                if (windows[i] == null) continue;
+                for (int day = 0; day < 7; day++) {
+                    for (TimeFrame window : windows[i].getWindows(day)) {
+                        volunteers.get(i).addAvailability(WeeklySchedule.dayName(day), window);
+                    }
+                }
+            }
+            return new SnapshotStore(orgs, volunteers, true);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e) {
+            throw new IOException("Corrupt snapshot " + snapshot + ": " + e, e);
+        }
+    }
+
+    private static ArrayList<CommunityFoodOrg> readOrgs(ByteBuffer buffer, int count) {
+        byte[] types = readBytes(buffer, count);
+        byte[] transportation = readBytes(buffer, count);
+        double[] latitudes = readDoubles(buffer, count);
+        double[] longitudes = readDoubles(buffer, count);
+        double[] maxCapacities = readDoubles(buffer, count);
+        short[] openStarts = readShorts(buffer, count * 7);
+        short[] openEnds = readShorts(buffer, count * 7);
+        int[] needed = readInts(buffer, count * 7);
+        int[] signups = readInts(buffer, count * 7);
+        double[] donationsNeeded = readDoubles(buffer, count * 7);
+        StringPool pool = StringPool.shared(); // cities, states and ZIP codes repeat across records
+        String[] ids = readStrings(buffer, count);
+        String[] names = readStrings(buffer, count);
+        String[] addresses = readStrings(buffer, count);
+        String[] cities = readStrings(buffer, count, pool);
+        String[] states = readStrings(buffer, count, pool);
+        String[] zips = readStrings(buffer, count, pool);
+
+        ArrayList<CommunityFoodOrg> orgs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Location location = new Location(latitudes[i], longitudes[i], addresses[i], cities[i], states[i], zips[i]);
+            TimeFrame[] hours = new TimeFrame[7];
+            for (int day = 0; day < 7; day++) {
+                int start = openStarts[i * 7 + day], end = openEnds[i * 7 + day];
+                if (start >= 0) hours[day] = TimeFrame.of(start / 60, start % 60, end / 60, end % 60);
+            }
+            int[] dayNeeded = new int[7], daySignups = new int[7];
+            System.arraycopy(needed, i * 7, dayNeeded, 0, 7);
+            System.arraycopy(signups, i * 7, daySignups, 0, 7);
+
+            if (types[i] == TYPE_BANK) {
+                FoodBank bank = new FoodBank(ids[i], names[i], location, hours, maxCapacities[i], null);
+                for (int day = 0; day < 7; day++) {
+                    bank.setDailyDonationsNeeded(donationsNeeded[i * 7 + day], WeeklySchedule.dayName(day));
+                }
+                orgs.add(bank);
+            } else if (types[i] == TYPE_PANTRY) {
+                orgs.add(new FoodPantry(ids[i], names[i], location, hours, dayNeeded, daySignups, transportation[i] != 0));
+            } else {
+                orgs.add(new CommunityFoodOrg(ids[i], names[i], location, hours, dayNeeded, daySignups, transportation[i] != 0));
+            }
+        }
+        return orgs;
+    }
+
+    private static ArrayList<Volunteer> readVolunteers(ByteBuffer buffer, int count, ArrayList<CommunityFoodOrg> orgs) {
+        double[] latitudes = readDoubles(buffer, count);
+        double[] longitudes = readDoubles(buffer, count);
+        double[] distances = readDoubles(buffer, count);
+        double[] donations = readDoubles(buffer, count);
+        int[] ages = readInts(buffer, count);
+        short[] starts = readShorts(buffer, count);
+        short[] ends = readShorts(buffer, count);
+        byte[] transportation = readBytes(buffer, count);
+        int[] signedUpWith = readInts(buffer, count);
+        byte[] signupDays = readBytes(buffer, count);
+        StringPool pool = StringPool.shared(); // days, states and ZIP codes repeat across records
+        String[] ids = readStrings(buffer, count);
+        String[] names = readStrings(buffer, count);
+        String[] days = readStrings(buffer, count, pool);
+        String[] addresses = readStrings(buffer, count);
+        String[] cities = readStrings(buffer, count, pool);
+        String[] states = readStrings(buffer, count, pool);
+        String[] zips = readStrings(buffer, count, pool);
+
+        ArrayList<Volunteer> volunteers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Location location = new Location(latitudes[i], longitudes[i], addresses[i], cities[i], states[i], zips[i]);
+            TimeFrame time = TimeFrame.of(starts[i] / 60, starts[i] % 60, ends[i] / 60, ends[i] % 60);
+            Volunteer volunteer = new Volunteer(ids[i], names[i], ages[i], location, days[i], time,
+                    distances[i], transportation[i] != 0, donations[i]);
+            if (signedUpWith[i] >= 0) {
+                volunteer.restoreSignup(orgs.get(signedUpWith[i]), signupDays[i] >= 0 ? WeeklySchedule.dayName(signupDays[i]) : null);
+            }
+            volunteers.add(volunteer);
+        }
+        return volunteers;
+    }
+
+    // Schedules by owner position, null for owners without windows
+    private static WeeklySchedule[] readWindows(ByteBuffer buffer, int ownerCount) {
+        int count = buffer.getInt();
+        int[] owners = readInts(buffer, count);
+        byte[] days = readBytes(buffer, count);
+        short[] starts = readShorts(buffer, count);
+        short[] ends = readShorts(buffer, count);
+        WeeklySchedule[] schedules = new WeeklySchedule[ownerCount];
+        for (int i = 0; i < count; i++) {
+            if (schedules[owners[i]] == null) schedules[owners[i]] = new WeeklySchedule();
+            schedules[owners[i]].add(days[i], TimeFrame.of(starts[i] / 60, starts[i] % 60, ends[i] / 60, ends[i] % 60));
+        }
+        return schedules;
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer, int count) {
+        byte[] values = new byte[count];
+        buffer.get(values);
+        return values;
+    }
+
+    private static short[] readShorts(ByteBuffer buffer, int count) {
+        short[] values = new short[count];
+        buffer.asShortBuffer().get(values);
+        buffer.position(buffer.position() + count * 2);
+        return values;
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * 4);
+        return values;
+    }
+
+    private static double[] readDoubles(ByteBuffer buffer, int count) {
+        double[] values = new double[count];
+        buffer.asDoubleBuffer().get(values);
+        buffer.position(buffer.position() + count * 8);
+        return values;
+    }
+
+    private static String[] readStrings(ByteBuffer buffer, int count) {
+        return readStrings(buffer, count, null);
+    }
+
+    // A string column, its values shared through pool when one is given
+    private static String[] readStrings(ByteBuffer buffer, int count, StringPool pool) {
+        int[] lengths = readInts(buffer, count);
+        long total = 0;
+        for (int length : lengths) total += Math.max(0, length);
+        if (total > buffer.remaining()) throw new BufferUnderflowException();
+        byte[] bytes = new byte[(int) total];
+        buffer.get(bytes);
+        String[] values = new String[count];
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            if (lengths[i] < 0) continue;
+            values[i] = pool != null ? pool.intern(bytes, offset, lengths[i]) : new String(bytes, offset, lengths[i], StandardCharsets.UTF_8);
+            offset += lengths[i];
+        }
+        return values;
+    }
+
+    private static void checkHeader(ByteBuffer buffer, File snapshot) throws IOException {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a snapshot: " + snapshot);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Snapshot version " + buffer.getInt(4) + " is not " + VERSION + ": " + snapshot);
+        }
+    }
+
+    private static boolean isFresh(File snapshot, long[] stamp) {
+        if (!snapshot.isFile()) return false;
+        try (FileChannel channel = FileChannel.open(snapshot.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) { }
+            header.flip();
+            checkHeader(header, snapshot);
+            for (int i = 0; i < stamp.length; i++) {
+                if (header.getLong(8 + i * 8) != stamp[i]) return false;
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Length and last-modified time of both source files (-1 for a source that is not used)
+    private static long[] sourceStamp(String orgsFile, String volunteersFile) {
+        File orgs = orgsFile != null ? new File(orgsFile) : null;
+        File volunteers = volunteersFile != null ? new File(volunteersFile) : null;
+        return new long[] {
+                orgs != null ? orgs.length() : -1, orgs != null ? orgs.lastModified() : -1,
+                volunteers != null ? volunteers.length() : -1, volunteers != null ? volunteers.lastModified() : -1
+        };
+    }
+
+    // Getters
+    public ArrayList<CommunityFoodOrg> getOrgs() {
+        return orgs;
+    }
+
+    public ArrayList<Volunteer> getVolunteers() {
+        return volunteers;
+    }
+
+    public boolean isFromSnapshot() {
+        return fromSnapshot;
+    }
+}
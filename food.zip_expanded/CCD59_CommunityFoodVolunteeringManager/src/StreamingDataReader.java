@@ -0,0 +1,449 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Class StreamingDataReader
+ *
+ * Streaming counterpart of DataManager. Files are memory-mapped window by window and every
+ * line is tokenized in place on the mapped bytes: numbers, day names and yes/no flags are
+ * decoded straight from the buffer, and a String is only created for the text fields the
+ * model objects actually keep (ids, names, addresses). Fields that repeat across records
+ * (cities, states, ZIP codes, day names) are looked up in the StringPool from the bytes, so a
+ * value seen before allocates nothing. Records are handed to a callback as soon as their line
+ * is parsed instead of being collected into an ArrayList first.
+ *
+ * The static stream methods follow DataManager's behaviour: lines with too few fields are
+ * skipped, a malformed number throws NumberFormatException, and I/O errors are reported on
+ * System.err. An instance holds reusable scratch space and is not thread-safe; after a parse
+ * method returns null, getSkipReason says why (ParallelDataReader reports it per line).
+ */
+public class StreamingDataReader {
+
+    /**
+     * Interface LineHandler
+     * Receives every line of a file as a byte range of the mapped buffer (line terminator excluded).
+     */
+    public interface LineHandler {
+        void handleLine(ByteBuffer buf, int start, int end, long lineNumber);
+    }
+
+    private static final long WINDOW_SIZE = 64L << 20; // 64 MB mapped at a time
+    private static final byte FIELD_SEPARATOR = ';';
+    private static final byte DAY_SEPARATOR = '@';
+    private static final byte TIME_SEPARATOR = ':';
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private int[] fieldStart = new int[32];
+    private int[] fieldEnd = new int[32];
+    private final int[] partStart = new int[8];
+    private final int[] partEnd = new int[8];
+    private byte[] scratch = new byte[128];
+    private WeeklySchedule shifts; // split shifts of the organization being parsed, null if none
+    private String skipReason; // why the last parse returned null
+    private final StringPool pool;
+
+    public StreamingDataReader() {
+        this(StringPool.shared());
+    }
+
+    // A reader sharing repeated fields through the given pool instead of the shared one
+    StreamingDataReader(StringPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Method streamCommunityFoodOrgs
+     * @param filename a String representing the file path to the community food organizations data
+     * @param sink a Consumer receiving each FoodBank or FoodPantry as soon as its line is parsed
+     * @return the number of organizations emitted
+     */
+    public static long streamCommunityFoodOrgs(String filename, Consumer<? super CommunityFoodOrg> sink) {
+        long startNanos = System.nanoTime();
+        final StreamingDataReader reader = new StreamingDataReader();
+        final long[] count = new long[1];
+        try {
+            forEachLine(filename, (buf, start, end, lineNumber) -> {
+                CommunityFoodOrg org = reader.parseCommunityFoodOrg(buf, start, end);
+                if (org != null) {
+                    count[0]++;
+                    sink.accept(org);
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Error reading community food organizations: " + e.getMessage());
+        }
+        FoodConnectMetrics.recordParse(filename, count[0], System.nanoTime() - startNanos);
+        return count[0];
+    }
+
+    /**
+     * Method streamVolunteers
+     * @param filename a String representing the file path to the volunteers data
+     * @param sink a Consumer receiving each Volunteer as soon as its line is parsed
+     * @return the number of volunteers emitted
+     */
+    public static long streamVolunteers(String filename, Consumer<? super Volunteer> sink) {
+        long startNanos = System.nanoTime();
+        final StreamingDataReader reader = new StreamingDataReader();
+        final long[] count = new long[1];
+        try {
+            forEachLine(filename, (buf, start, end, lineNumber) -> {
+                Volunteer volunteer = reader.parseVolunteer(buf, start, end);
+                if (volunteer != null) {
+                    count[0]++;
+                    sink.accept(volunteer);
+                }
+            });
+        } catch (IOException e) {
+            System.err.println("Error reading volunteers: " + e.getMessage());
+        }
+        FoodConnectMetrics.recordParse(filename, count[0], System.nanoTime() - startNanos);
+        return count[0];
+    }
+
+    /**
+     * Method forEachLine
+     * @param filename a String representing the file to scan
+     * @param handler a LineHandler called once per line, in file order
+     * @throws IOException if the file cannot be opened or mapped
+     *
+     * The file is mapped in windows of WINDOW_SIZE bytes. A line that straddles the end of a
+     * window is re-read at the start of the next one, so handlers always see complete lines.
+     */
+    public static void forEachLine(String filename, LineHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            long lineNumber = 1;
+            long window = WINDOW_SIZE;
+            while (position < size) {
+                int length = (int) Math.min(window, size - position);
+                boolean lastWindow = position + length == size;
+                MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int lineStart = 0;
+                for (int i = 0; i < length; i++) {
+                    if (buf.get(i) == '\n') {
+                        handler.handleLine(buf, lineStart, trimCarriageReturn(buf, lineStart, i), lineNumber++);
+                        lineStart = i + 1;
+                    }
+                }
+                if (lastWindow) {
+                    if (lineStart < length) {
+                        handler.handleLine(buf, lineStart, trimCarriageReturn(buf, lineStart, length), lineNumber);
+                    }
+                    return;
+                }
+                if (lineStart == 0) {
+                    window *= 2; // a single line is longer than the window
+                } else {
+                    position += lineStart;
+                }
+            }
+        }
+    }
+
+    /**
+     * Method parseCommunityFoodOrg
+     * @param buf the buffer holding the line
+     * @param start the index of the first byte of the line
+     * @param end the index just past the last byte of the line
+     * @return a FoodBank or FoodPantry, or null if the line is skipped (too few fields or unknown type)
+     */
+    public CommunityFoodOrg parseCommunityFoodOrg(ByteBuffer buf, int start, int end) {
+        int count = splitFields(buf, start, end);
+        if (count < 10) return skip("expected at least 10 fields, found " + count); // Skip invalid lines
+
+        boolean foodBank = equalsIgnoreCase(buf, fieldStart[0], fieldEnd[0], "Food Bank");
+        if (!foodBank && !equalsIgnoreCase(buf, fieldStart[0], fieldEnd[0], "Food Pantry")) {
+            return skip("unknown organization type '" + string(buf, 0) + "'");
+        }
+
+        String id = string(buf, 1);
+        String name = string(buf, 2);
+        double latitude = parseDouble(buf, fieldStart[3], fieldEnd[3]);
+        double longitude = parseDouble(buf, fieldStart[4], fieldEnd[4]);
+        Location location = new Location(latitude, longitude, string(buf, 5), pooled(buf, 6), pooled(buf, 7), pooled(buf, 8));
+        boolean offersTransportation = equalsIgnoreCase(buf, fieldStart[9], fieldEnd[9], "yes");
+        TimeFrame[] dailyOpenHours = new TimeFrame[7];
+        shifts = null;
+
+        if (foodBank) {
+            if (count < 11) return skip("food bank without a max capacity"); // Missing max capacity
+            double maxCapacity = parseDouble(buf, fieldStart[10], fieldEnd[10]);
+            double[] dailyDonationsNeeded = new double[7];
+            for (int i = 11; i < count; i++) {
+                int dayIndex = parseDaySchedule(buf, fieldStart[i], fieldEnd[i], 3, dailyOpenHours);
+                if (dayIndex != -1) {
+                    dailyDonationsNeeded[dayIndex] = maxCapacity;
+                }
+            }
+            FoodBank bank = new FoodBank(id, name, location, dailyOpenHours, maxCapacity, dailyDonationsNeeded);
+            if (shifts != null) bank.setShifts(shifts);
+            return bank;
+        }
+
+        int[] dailyVolunteersNeeded = new int[7];
+        for (int i = 10; i < count; i++) {
+            int dayIndex = parseDaySchedule(buf, fieldStart[i], fieldEnd[i], 4, dailyOpenHours);
+            if (dayIndex != -1) {
+                dailyVolunteersNeeded[dayIndex] += parseInt(buf, partStart[3], partEnd[3]); // summed over a day's shifts
+            }
+        }
+        FoodPantry pantry = new FoodPantry(id, name, location, dailyOpenHours, dailyVolunteersNeeded, new int[7], offersTransportation);
+        if (shifts != null) pantry.setShifts(shifts);
+        return pantry;
+    }
+
+    /**
+     * Method parseVolunteer
+     * @param buf the buffer holding the line
+     * @param start the index of the first byte of the line
+     * @param end the index just past the last byte of the line
+     * @return a Volunteer, or null if the line has too few fields
+     */
+    public Volunteer parseVolunteer(ByteBuffer buf, int start, int end) {
+        int count = splitFields(buf, start, end);
+        if (count < 15) return skip("expected at least 15 fields, found " + count); // Skip invalid lines
+
+        String id = string(buf, 0);
+        String fullName = string(buf, 1) + " " + string(buf, 2);
+        int age = parseInt(buf, fieldStart[3], fieldEnd[3]);
+        double latitude = parseDouble(buf, fieldStart[4], fieldEnd[4]);
+        double longitude = parseDouble(buf, fieldStart[5], fieldEnd[5]);
+        String address = string(buf, 6);
+        String city = ""; // the volunteers file has no city column; field 7 is the state
+        String state = pooled(buf, 7);
+        String zip = pooled(buf, 8);
+        String dayAvailable = pooled(buf, 9);
+        TimeFrame timeAvailable = parseTimeFrame(buf, fieldStart[10], fieldEnd[10], fieldStart[11], fieldEnd[11]);
+        double distanceAvailable = parseDouble(buf, fieldStart[12], fieldEnd[12]);
+        boolean needsTransportation = equalsIgnoreCase(buf, trimStart(buf, fieldStart[13], fieldEnd[13]),
+                trimEnd(buf, fieldStart[13], fieldEnd[13]), "yes");
+        double donation = parseDouble(buf, fieldStart[14], fieldEnd[14]);
+
+        Location location = new Location(latitude, longitude, address, city, state, zip);
+        Volunteer volunteer = new Volunteer(id, fullName, age, location, dayAvailable, timeAvailable, distanceAvailable, needsTransportation, donation);
+
+        // Optional additional windows after the donation, as Day@HH:MM@HH:MM
+        for (int i = 15; i < count; i++) {
+            if (split(buf, fieldStart[i], fieldEnd[i], DAY_SEPARATOR, partStart, partEnd) != 3) continue;
+            int dayIndex = dayIndex(buf, partStart[0], partEnd[0]);
+            if (dayIndex != -1) {
+                volunteer.addAvailability(WeeklySchedule.dayName(dayIndex),
+                        parseTimeFrame(buf, partStart[1], partEnd[1], partStart[2], partEnd[2]));
+            }
+        }
+        return volunteer;
+    }
+
+    /**
+     * Method getSkipReason
+     * @return why the last parseCommunityFoodOrg or parseVolunteer call returned null
+     */
+    public String getSkipReason() {
+        return skipReason;
+    }
+
+    private <T> T skip(String reason) {
+        skipReason = reason;
+        return null;
+    }
+
+    // Parse "Day@HH:MM@HH:MM[@n]" into dailyOpenHours (a day listed again becomes another shift in
+    // shifts), returning the day index or -1 if the entry is ignored
+    private int parseDaySchedule(ByteBuffer buf, int from, int to, int expectedParts, TimeFrame[] dailyOpenHours) {
+        if (split(buf, from, to, DAY_SEPARATOR, partStart, partEnd) != expectedParts) return -1;
+        int dayIndex = dayIndex(buf, partStart[0], partEnd[0]);
+        if (dayIndex != -1) {
+            shifts = DataManager.addHours(dailyOpenHours, shifts, dayIndex,
+                    parseTimeFrame(buf, partStart[1], partEnd[1], partStart[2], partEnd[2]));
+        }
+        return dayIndex;
+    }
+
+    private static TimeFrame parseTimeFrame(ByteBuffer buf, int startFrom, int startTo, int endFrom, int endTo) {
+        int startColon = indexOf(buf, startFrom, startTo, TIME_SEPARATOR);
+        int endColon = indexOf(buf, endFrom, endTo, TIME_SEPARATOR);
+        if (startColon == -1 || endColon == -1) {
+            throw new NumberFormatException("Expected HH:MM time");
+        }
+        int startHour = parseInt(buf, startFrom, startColon);
+        int startMinute = parseInt(buf, startColon + 1, nextOrEnd(buf, startColon + 1, startTo, TIME_SEPARATOR));
+        int endHour = parseInt(buf, endFrom, endColon);
+        int endMinute = parseInt(buf, endColon + 1, nextOrEnd(buf, endColon + 1, endTo, TIME_SEPARATOR));
+        return TimeFrame.of(startHour, startMinute, endHour, endMinute);
+    }
+
+    // Split the line on ';' into fieldStart/fieldEnd, dropping trailing empty fields like String.split
+    private int splitFields(ByteBuffer buf, int from, int to) {
+        int count = 0;
+        int fieldFrom = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to || buf.get(i) == FIELD_SEPARATOR) {
+                if (count == fieldStart.length) {
+                    fieldStart = Arrays.copyOf(fieldStart, count * 2);
+                    fieldEnd = Arrays.copyOf(fieldEnd, count * 2);
+                }
+                fieldStart[count] = fieldFrom;
+                fieldEnd[count] = i;
+                count++;
+                fieldFrom = i + 1;
+            }
+        }
+        while (count > 0 && fieldStart[count - 1] == fieldEnd[count - 1]) count--;
+        return count;
+    }
+
+    // Split a field on sep into the given arrays; returns the number of parts, or -1 if there are more than fit
+    private static int split(ByteBuffer buf, int from, int to, byte sep, int[] starts, int[] ends) {
+        int count = 0;
+        int partFrom = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to || buf.get(i) == sep) {
+                if (count == starts.length) return -1;
+                starts[count] = partFrom;
+                ends[count] = i;
+                count++;
+                partFrom = i + 1;
+            }
+        }
+        while (count > 0 && starts[count - 1] == ends[count - 1]) count--;
+        return count;
+    }
+
+    // A field whose values repeat across records (city, state, ZIP, day), shared through the StringPool
+    private String pooled(ByteBuffer buf, int field) {
+        return pool.intern(buf, fieldStart[field], fieldEnd[field]);
+    }
+
+    private String string(ByteBuffer buf, int field) {
+        int from = fieldStart[field];
+        int length = fieldEnd[field] - from;
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[i] = buf.get(from + i);
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method parseDouble
+     * Decodes a decimal number in place. Plain decimals with up to 15 significant digits are
+     * converted exactly (both the digits and the power of ten are exact doubles, so a single
+     * division is correctly rounded); anything else falls back to Double.parseDouble.
+     */
+    static double parseDouble(ByteBuffer buf, int from, int to) {
+        from = trimStart(buf, from, to);
+        to = trimEnd(buf, from, to);
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0, fractionDigits = 0;
+        boolean seenDigit = false, seenPoint = false;
+        for (; i < to; i++) {
+            byte b = buf.get(i);
+            if (b >= '0' && b <= '9') {
+                seenDigit = true;
+                if (mantissa != 0 || b != '0') digits++;
+                mantissa = mantissa * 10 + (b - '0');
+                if (seenPoint) fractionDigits++;
+                if (digits > 15 || fractionDigits >= POWERS_OF_TEN.length) return slowParseDouble(buf, from, to);
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                return slowParseDouble(buf, from, to);
+            }
+        }
+        if (!seenDigit) return slowParseDouble(buf, from, to);
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private static double slowParseDouble(ByteBuffer buf, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) bytes[i] = buf.get(from + i);
+        return Double.parseDouble(new String(bytes, StandardCharsets.US_ASCII));
+    }
+
+    // Same accepted syntax as Integer.parseInt, decoded in place
+    static int parseInt(ByteBuffer buf, int from, int to) {
+        int i = from;
+        boolean negative = false;
+        if (i < to && (buf.get(i) == '-' || buf.get(i) == '+')) {
+            negative = buf.get(i) == '-';
+            i++;
+        }
+        if (i == to) throw new NumberFormatException("Expected a number");
+        long value = 0;
+        for (; i < to; i++) {
+            byte b = buf.get(i);
+            if (b < '0' || b > '9') throw new NumberFormatException("Unexpected character '" + (char) b + "' in number");
+            value = value * 10 + (b - '0');
+            if (value > (long) Integer.MAX_VALUE + 1) throw new NumberFormatException("Number out of int range");
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) throw new NumberFormatException("Number out of int range");
+        return (int) value;
+    }
+
+    // Map a day name to its index without creating a String
+    static int dayIndex(ByteBuffer buf, int from, int to) {
+        for (int day = 0; day < 7; day++) {
+            if (equalsIgnoreCase(buf, from, to, WeeklySchedule.dayName(day))) return day;
+        }
+        return -1;
+    }
+
+    // ASCII case-insensitive comparison of a byte range against a constant
+    static boolean equalsIgnoreCase(ByteBuffer buf, int from, int to, String ascii) {
+        if (to - from != ascii.length()) return false;
+        for (int i = 0; i < ascii.length(); i++) {
+            int b = buf.get(from + i);
+            int c = ascii.charAt(i);
+            if (b != c && Character.toLowerCase(b) != Character.toLowerCase(c)) return false;
+        }
+        return true;
+    }
+
+    private static int indexOf(ByteBuffer buf, int from, int to, byte b) {
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) == b) return i;
+        }
+        return -1;
+    }
+
+    private static int nextOrEnd(ByteBuffer buf, int from, int to, byte b) {
+        int i = indexOf(buf, from, to, b);
+        return i == -1 ? to : i;
+    }
+
+    static int trimStart(ByteBuffer buf, int from, int to) {
+        while (from < to && buf.get(from) <= ' ') from++;
+        return from;
+    }
+
+    static int trimEnd(ByteBuffer buf, int from, int to) {
+        while (to > from && buf.get(to - 1) <= ' ') to--;
+        return to;
+    }
+
+    private static int trimCarriageReturn(ByteBuffer buf, int start, int end) {
+        return (end > start && buf.get(end - 1) == '\r') ? end - 1 : end;
+    }
+}
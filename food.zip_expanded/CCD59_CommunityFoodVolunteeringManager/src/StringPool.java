@@ -0,0 +1,172 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Class StringPool
+ *
+ * Deduplicates the strings that repeat across millions of records (cities, states, ZIP codes,
+ * day names), so every record shares one String per distinct value instead of holding its own
+ * copy. Unlike String.intern the pool is bounded and private to the application.
+ *
+ * Values can be looked up straight from UTF-8 bytes (a file buffer or a snapshot column): the
+ * bytes are hashed and compared in place, and a String is only decoded the first time a value
+ * is seen. The table is open-addressed; once it holds maxEntries values, new values are returned
+ * unpooled. All methods are synchronized.
+ *
+ * Pooling (and the TimeFrame.of cache) can be switched off with -Dfoodconnect.dedupe=false, to
+ * measure the footprint without it.
+ */
+public class StringPool {
+    static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("foodconnect.dedupe"));
+    private static final StringPool SHARED = new StringPool(1 << 18);
+
+    private final int maxEntries;
+    private byte[][] keys = new byte[1024][]; // UTF-8 bytes of each value, null for an empty slot
+    private String[] values = new String[1024];
+    private int[] hashes = new int[1024];
+    private int size;
+    private long hits, misses;
+
+    /**
+     * Constructor StringPool
+     * @param maxEntries the most distinct values to keep
+     */
+    public StringPool(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    // Pool used by DataManager, StreamingDataReader and SnapshotStore for repeated location fields
+    public static StringPool shared() {
+        return SHARED;
+    }
+
+    /**
+     * Method intern
+     * @param value a string (null is returned as is)
+     * @return the pooled string equal to value
+     */
+    public String intern(String value) {
+        if (value == null || !ENABLED) return value;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return intern(bytes, 0, bytes.length, value);
+    }
+
+    /**
+     * Method intern
+     * @param bytes UTF-8 text
+     * @param offset the first byte of the value
+     * @param length the number of bytes of the value
+     * @return the pooled string for those bytes
+     */
+    public String intern(byte[] bytes, int offset, int length) {
+        if (!ENABLED) return new String(bytes, offset, length, StandardCharsets.UTF_8);
+        return intern(bytes, offset, length, null);
+    }
+
+    /**
+     * Method intern
+     * @param buf a buffer of UTF-8 text, read with absolute gets (its position is not changed)
+     * @param from the first byte of the value
+     * @param to the index just past the last byte of the value
+     * @return the pooled string for those bytes
+     */
+    public synchronized String intern(ByteBuffer buf, int from, int to) {
+        if (!ENABLED) return decode(buf, from, to);
+        int hash = 1;
+        for (int i = from; i < to; i++) hash = 31 * hash + buf.get(i);
+        int mask = keys.length - 1;
+        for (int slot = mix(hash) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && sameBytes(keys[slot], buf, from, to)) {
+                hits++;
+                return values[slot];
+            }
+        }
+        misses++;
+        byte[] copy = new byte[to - from];
+        for (int i = 0; i < copy.length; i++) copy[i] = buf.get(from + i);
+        String value = new String(copy, StandardCharsets.UTF_8);
+        add(copy, hash, value);
+        return value;
+    }
+
+    private static String decode(ByteBuffer buf, int from, int to) {
+        byte[] copy = new byte[to - from];
+        for (int i = 0; i < copy.length; i++) copy[i] = buf.get(from + i);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+
+    private synchronized String intern(byte[] bytes, int offset, int length, String known) {
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++) hash = 31 * hash + bytes[i];
+        int mask = keys.length - 1;
+        for (int slot = mix(hash) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && sameBytes(keys[slot], bytes, offset, length)) {
+                hits++;
+                return values[slot];
+            }
+        }
+        misses++;
+        byte[] copy = new byte[length];
+        System.arraycopy(bytes, offset, copy, 0, length);
+        String value = known != null ? known : new String(copy, StandardCharsets.UTF_8);
+        add(copy, hash, value);
+        return value;
+    }
+
+    private void add(byte[] key, int hash, String value) {
+        if (size >= maxEntries) return; // full: the value is still returned, just not shared
+        if ((size + 1) * 2 > keys.length) grow();
+        int mask = keys.length - 1;
+        int slot = mix(hash) & mask;
+        while (keys[slot] != null) slot = (slot + 1) & mask;
+        keys[slot] = key;
+        values[slot] = value;
+        hashes[slot] = hash;
+        size++;
+    }
+
+    // Double the table, keeping it at most half full
+    private void grow() {
+        byte[][] oldKeys = keys;
+        String[] oldValues = values;
+        int[] oldHashes = hashes;
+        keys = new byte[oldKeys.length * 2][];
+        values = new String[keys.length];
+        hashes = new int[keys.length];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) continue;
+            int slot = mix(oldHashes[i]) & mask;
+            while (keys[slot] != null) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+            hashes[slot] = oldHashes[i];
+        }
+    }
+
+    // Spread the bits of a polynomial hash before masking
+    private static int mix(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x45d9f3b;
+    }
+
+    private static boolean sameBytes(byte[] key, byte[] bytes, int offset, int length) {
+        if (key.length != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (key[i] != bytes[offset + i]) return false;
+        }
+        return true;
+    }
+
+    private static boolean sameBytes(byte[] key, ByteBuffer buf, int from, int to) {
+        if (key.length != to - from) return false;
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != buf.get(from + i)) return false;
+        }
+        return true;
+    }
+
+    // Statistics: distinct values held, and lookups that found / added a value
+    public synchronized int size() { return size; }
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+}
@@ -0,0 +1,150 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Class SyntheticDataGenerator
+ *
+ * Writes organization and volunteer files in the same ';' / '@' format DataManager reads.
+ * Output depends only on the row count and the seed, so the same files can be regenerated
+ * anywhere to compare benchmark runs. Locations are spread over western Pennsylvania
+ * (lat 39.5 to 41.5, lon -80.5 to -75.5).
+ *
+ * Usage: java SyntheticDataGenerator [outputDir] [seed] [rows...]
+ *        (defaults: current directory, seed 2024, rows 1000 100000 10000000)
+ *
+ * For every row count two files are written: community_food_organizations_<rows>.txt
+ * and volunteers_<rows>.txt.
+ */
+public class SyntheticDataGenerator {
+
+    public static final long DEFAULT_SEED = 2024;
+    public static final int[] DEFAULT_ROWS = {1_000, 100_000, 10_000_000};
+
+    private static final String[] CITIES = {"Pittsburgh", "Altoona", "Johnstown", "State College", "Greensburg", "Washington"};
+
+    public static void main(String[] args) throws IOException {
+        File outputDir = new File(args.length > 0 ? args[0] : ".");
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+        int[] rows = DEFAULT_ROWS;
+        if (args.length > 2) {
+            rows = new int[args.length - 2];
+            for (int i = 2; i < args.length; i++) rows[i - 2] = Integer.parseInt(args[i]);
+        }
+        if (!outputDir.isDirectory() && !outputDir.mkdirs()) {
+            throw new IOException("Cannot create " + outputDir);
+        }
+
+        for (int count : rows) {
+            File orgsFile = new File(outputDir, "community_food_organizations_" + count + ".txt");
+            File volunteersFile = new File(outputDir, "volunteers_" + count + ".txt");
+            long start = System.nanoTime();
+            writeOrgs(orgsFile, count, seed);
+            writeVolunteers(volunteersFile, count, seed);
+            System.out.printf("%,d rows: %s (%d MB), %s (%d MB) in %d ms%n", count,
+                    orgsFile.getName(), orgsFile.length() >> 20, volunteersFile.getName(), volunteersFile.length() >> 20,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Method writeOrgs
+     * @param file the file to (over)write
+     * @param rows the number of organizations
+     * @param seed the random seed; the same rows and seed always give the same file
+     *
+     * About half the organizations are food banks. Each is open on a random subset of days,
+     * with pantries needing 1 to 8 volunteers on every open day.
+     */
+    public static void writeOrgs(File file, int rows, long seed) throws IOException {
+        Random random = new Random(seed);
+        StringBuilder line = new StringBuilder(256);
+        try (Writer out = open(file)) {
+            for (int i = 0; i < rows; i++) {
+                boolean bank = random.nextBoolean();
+                line.setLength(0);
+                line.append(bank ? "Food Bank;" : "Food Pantry;").append(i).append(";Org ").append(i).append(';');
+                appendCoordinate(line, 39.5 + random.nextDouble() * 2).append(';');
+                appendCoordinate(line, -80.5 + random.nextDouble() * 5).append(';');
+                line.append(random.nextInt(2000)).append(" Market St;").append(CITIES[random.nextInt(CITIES.length)])
+                    .append(";PA;").append(15000 + random.nextInt(4000)).append(';')
+                    .append(random.nextBoolean() ? "yes" : "no");
+                if (bank) {
+                    line.append(';').append(500 + random.nextInt(5000));
+                }
+                for (int day = 0; day < 7; day++) {
+                    if (random.nextInt(3) == 0) continue; // closed
+                    int open = 7 + random.nextInt(4);
+                    line.append(';').append(WeeklySchedule.dayName(day)).append('@');
+                    appendTime(line, open, 0).append('@');
+                    appendTime(line, open + 6 + random.nextInt(5), random.nextBoolean() ? 0 : 30);
+                    if (!bank) {
+                        line.append('@').append(1 + random.nextInt(8));
+                    }
+                }
+                line.append('\n');
+                out.append(line);
+            }
+        }
+    }
+
+    /**
+     * Method writeVolunteers
+     * @param file the file to (over)write
+     * @param rows the number of volunteers
+     * @param seed the random seed; the same rows and seed always give the same file
+     *
+     * About a fifth of the volunteers are donors (5 to 44 pounds); everyone else offers time.
+     */
+    public static void writeVolunteers(File file, int rows, long seed) throws IOException {
+        Random random = new Random(~seed);
+        StringBuilder line = new StringBuilder(160);
+        try (Writer out = open(file)) {
+            for (int i = 0; i < rows; i++) {
+                int startHour = 8 + random.nextInt(8);
+                int donation = random.nextInt(5) == 0 ? 5 + random.nextInt(40) : 0;
+                line.setLength(0);
+                line.append(i).append(";Last").append(i).append(";First").append(i).append(';')
+                    .append(18 + random.nextInt(70)).append(';');
+                appendCoordinate(line, 39.5 + random.nextDouble() * 2).append(';');
+                appendCoordinate(line, -80.5 + random.nextDouble() * 5).append(';');
+                line.append(random.nextInt(2000)).append(" Main St;PA;").append(15000 + random.nextInt(4000)).append(';')
+                    .append(WeeklySchedule.dayName(random.nextInt(7))).append(';');
+                appendTime(line, startHour, 0).append(';');
+                appendTime(line, startHour + 2, 30).append(';');
+                line.append(5 + random.nextInt(30)).append(';').append(random.nextBoolean() ? "yes" : "no")
+                    .append(';').append(donation).append('\n');
+                out.append(line);
+            }
+        }
+    }
+
+    private static Writer open(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    // Six decimal places without String.format, which is slow at millions of rows and locale dependent
+    private static StringBuilder appendCoordinate(StringBuilder line, double degrees) {
+        long micro = Math.round(degrees * 1_000_000);
+        if (micro < 0) {
+            line.append('-');
+            micro = -micro;
+        }
+        line.append(micro / 1_000_000).append('.');
+        String fraction = Long.toString(micro % 1_000_000);
+        for (int pad = fraction.length(); pad < 6; pad++) line.append('0');
+        return line.append(fraction);
+    }
+
+    private static StringBuilder appendTime(StringBuilder line, int hour, int minute) {
+        if (hour < 10) line.append('0');
+        line.append(hour).append(':');
+        if (minute < 10) line.append('0');
+        return line.append(minute);
+    }
+}
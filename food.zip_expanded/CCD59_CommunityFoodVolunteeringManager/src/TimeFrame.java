@@ -5,7 +5,11 @@
 	    */
 
 public class TimeFrame {
-    private int hourStart, minuteStart, hourEnd, minuteEnd;
+    // Canonical instances of every window starting and ending on a quarter hour, filled on first use
+    private static final int QUARTERS = 24 * 4;
+    private static final TimeFrame[] CANONICAL = new TimeFrame[QUARTERS * QUARTERS];
+
+    private final int hourStart, minuteStart, hourEnd, minuteEnd; // never change, so instances can be shared
 
     // Constructor with full time (hour and minute)
     public TimeFrame(int hs, int ms, int he, int me) {
@@ -20,6 +24,37 @@ public class TimeFrame {
         this(hs, 0, he, 0);
     }
 
+    /**
+     * Method of
+     * @return a TimeFrame equal to new TimeFrame(hs, ms, he, me); windows on quarter hours (the
+     *         usual shifts, such as 09:00-17:00) are one shared instance, so loading millions of
+     *         records does not allocate one per record
+     */
+    public static TimeFrame of(int hs, int ms, int he, int me) {
+        // same defaults as the constructor
+        hs = (hs >= 0 && hs <= 23) ? hs : 8;
+        ms = (ms >= 0 && ms <= 59) ? ms : 0;
+        he = (he >= 0 && he <= 23) ? he : 8;
+        me = (me >= 0 && me <= 59) ? me : 0;
+        if (!StringPool.ENABLED || ms % 15 != 0 || me % 15 != 0) return new TimeFrame(hs, ms, he, me);
+        int slot = (hs * 4 + ms / 15) * QUARTERS + he * 4 + me / 15;
+        TimeFrame canonical = CANONICAL[slot];
+        if (canonical == null) {
+            // a race only makes an extra copy; the final fields make sharing it safe
+            CANONICAL[slot] = canonical = new TimeFrame(hs, ms, he, me);
+        }
+        return canonical;
+    }
+
+    // Start and end as minutes since midnight
+    public int getStartMinuteOfDay() {
+        return hourStart * 60 + minuteStart;
+    }
+
+    public int getEndMinuteOfDay() {
+        return hourEnd * 60 + minuteEnd;
+    }
+
     //check if TimeFrame is fully contained
     public boolean timeFrameMatch(TimeFrame orgTime) {
         // Check if the volunteer's start time is after or equal to the organization's start time
@@ -1,3 +1,5 @@
+import java.util.List;
+
 /**
  * Class Volunteer
  * @author Chukwudalu Dumebi-Kachikwu
@@ -10,9 +12,22 @@ public class Volunteer {
     private TimeFrame timeAvailable;
     private double distanceAvailable;
     private boolean needsTransportation;
-    private CommunityFoodOrg orgVolunteering;
+    private volatile CommunityFoodOrg orgVolunteering;
+    private volatile String signedUpDay; // day the current signup counts against
+    private volatile WeeklySchedule additionalAvailability; // windows besides dayAvailable/timeAvailable, null if none
     private double donation; // Added attribute to represent donation in pounds
 
+    // Bits of mismatchMask, one per orgMatch check (bit n is FoodConnectMetrics.Rejection ordinal n)
+    public static final int MISMATCH_TYPE = 1, MISMATCH_CLOSED = 1 << 1, MISMATCH_TRANSPORT = 1 << 2,
+            MISMATCH_TIME = 1 << 3, MISMATCH_DISTANCE = 1 << 4;
+    private static final String[] MISMATCH_REASONS = {
+        "Organization type does not match the volunteer's interest.",
+        "Organization is closed on the volunteer's available day.",
+        "Organization does not offer transport, but the volunteer needs transport.",
+        "Time availability does not match.",
+        "Location is not within reachable distance."
+    };
+
     // Constructor
     public Volunteer(String id, String name, int age, Location loc, String dayAv, TimeFrame timeAv,
                      double distAv, boolean needTrans, double donation) {
@@ -86,14 +101,76 @@ public class Volunteer {
         return this.donation;
     }
 
-    // Method to sign up for a community food organization
-    public void signUp(CommunityFoodOrg org) {
+    /**
+     * Method addAvailability
+     * @param day the day of another window the volunteer is available
+     * @param time the window on that day
+     *
+     * Additional windows count for matching and signup just like dayAvailable/timeAvailable.
+     */
+    public synchronized void addAvailability(String day, TimeFrame time) {
+        WeeklySchedule windows = this.additionalAvailability != null ? this.additionalAvailability : new WeeklySchedule();
+        if (windows.add(day, time)) this.additionalAvailability = windows;
+    }
+
+    // Windows besides dayAvailable/timeAvailable, or null if there are none
+    public WeeklySchedule getAdditionalAvailability() {
+        return this.additionalAvailability;
+    }
+
+    public boolean hasAdditionalAvailability() {
+        return this.additionalAvailability != null;
+    }
+
+    /**
+     * Method matchingDayIndex
+     * @param org the organization to check
+     * @return the day a signup with org is made for: the first of the volunteer's windows
+     *         (dayAvailable first, then the additional windows Monday to Sunday) that fits one of the
+     *         organization's shifts on a day it still needs help, else the first that fits at all;
+     *         -1 if none fits
+     */
+    public int matchingDayIndex(CommunityFoodOrg org) {
+        int primary = WeeklySchedule.dayIndex(this.dayAvailable);
+        int firstFit = -1;
+        if (org.shiftsContain(primary, this.timeAvailable)) {
+            if (hasRoom(org, primary)) return primary;
+            firstFit = primary;
+        }
+        WeeklySchedule windows = this.additionalAvailability;
+        if (windows == null) return firstFit;
+        for (int day = 0; day < 7; day++) {
+            for (int i = 0, n = windows.count(day); i < n; i++) {
+                if (!org.shiftsContain(day, windows.getWindow(day, i))) continue;
+                if (hasRoom(org, day)) return day;
+                if (firstFit == -1) firstFit = day;
+                break;
+            }
+        }
+        return firstFit;
+    }
+
+    private static boolean hasRoom(CommunityFoodOrg org, int dayIndex) {
+        return org instanceof FoodBank ? ((FoodBank) org).getDailyDonationsNeeded(dayIndex) > 0
+                                       : org.dailyVolunteerSpotsLeft(dayIndex) > 0;
+    }
+
+    // Method to sign up for a community food organization (synchronized so a volunteer's own signup and cancel cannot interleave)
+    public synchronized void signUp(CommunityFoodOrg org) {
+        int dayIndex = this.additionalAvailability != null ? matchingDayIndex(org) : -1;
+        signUp(org, dayIndex == -1 || dayIndex == WeeklySchedule.dayIndex(this.dayAvailable) ? this.dayAvailable : WeeklySchedule.dayName(dayIndex));
+    }
+
+    // Sign up for the given day (one of the volunteer's days)
+    synchronized void signUp(CommunityFoodOrg org, String day) {
         if (org instanceof FoodBank && this.donation > 0) {
-            if (((FoodBank) org).signUpVolunteer(this, this.dayAvailable)) {
+            if (((FoodBank) org).signUpVolunteer(this, day)) {
+                this.signedUpDay = day;
                 this.orgVolunteering = org;
             }
         } else if (org instanceof FoodPantry && this.donation == 0) {
-            if (org.signUpVolunteer(this, this.dayAvailable)) {
+            if (org.signUpVolunteer(this, day)) {
+                this.signedUpDay = day;
                 this.orgVolunteering = org;
             }
         } else {
@@ -102,55 +179,175 @@ public class Volunteer {
     }
 
     // Method to cancel the current sign-up
-    public void cancelSignup() {
+    public synchronized void cancelSignup() {
         if (this.orgVolunteering != null) {
+            String day = getSignedUpDay();
             if (this.orgVolunteering instanceof FoodBank && this.donation > 0) {
-                ((FoodBank) this.orgVolunteering).cancelVolunteerSignup(this.dayAvailable, this.donation);
+                ((FoodBank) this.orgVolunteering).cancelVolunteerSignup(day, this.donation);
             } else {
-                this.orgVolunteering.cancelVolunteerSignup(this.dayAvailable);
+                this.orgVolunteering.cancelVolunteerSignup(day);
             }
             this.orgVolunteering = null;
+            this.signedUpDay = null;
         }
     }
 
     // Check if volunteer matches an organization
     public boolean orgMatch(CommunityFoodOrg org) {
+        FoodConnectMetrics.countOrgMatch();
         if (this.donation > 0 && !(org instanceof FoodBank)) {
             setReasonForFailedConnect("Volunteer wants to donate, but organization is not a Food Bank.");
+            FoodConnectMetrics.countRejection(FoodConnectMetrics.Rejection.TYPE_MISMATCH);
             return false;
         }
 
         if (this.donation == 0 && !(org instanceof FoodPantry)) {
             setReasonForFailedConnect("Volunteer wants to help with packing/distribution, but organization is not a Food Pantry.");
+            FoodConnectMetrics.countRejection(FoodConnectMetrics.Rejection.TYPE_MISMATCH);
             return false;
         }
 
         TimeFrame orgTime = org.getOpenHoursForDay(this.dayAvailable);
 
-        if (orgTime == null) {
+        if (orgTime == null && !openOnAdditionalDay(org)) {
             setReasonForFailedConnect("Organization is closed on the volunteer's available day.");
+            FoodConnectMetrics.countRejection(FoodConnectMetrics.Rejection.CLOSED);
             return false;
         }
 
         if (this.needsTransportation && !org.isOffersTransportation()) {
             setReasonForFailedConnect("Organization does not offer transport, but the volunteer needs transport.");
+            FoodConnectMetrics.countRejection(FoodConnectMetrics.Rejection.TRANSPORT);
             return false;
         }
 
-        if (!this.timeAvailable.timeFrameMatch(orgTime)) {
+        if (!fitsShift(org, orgTime)) {
             setReasonForFailedConnect("Time availability does not match.");
+            FoodConnectMetrics.countRejection(FoodConnectMetrics.Rejection.TIME);
             return false;
         }
 
-        if (this.location.distance(org.getLocation()) > this.distanceAvailable) {
+        // (a NaN distance available never rejects, as with distance > distanceAvailable)
+        if (!Double.isNaN(this.distanceAvailable) && !this.location.withinMiles(org.getLocation(), this.distanceAvailable)) {
             setReasonForFailedConnect("Location is not within reachable distance.");
+            FoodConnectMetrics.countRejection(FoodConnectMetrics.Rejection.DISTANCE);
             return false;
         }
 
         return true;
     }
 
+    /**
+     * Method mismatchMask
+     * @param org the organization to check
+     * @return every orgMatch check the pair fails, as MISMATCH_* bits; 0 exactly when orgMatch is true
+     *
+     * Unlike orgMatch this runs every check instead of stopping at the first failure, does not
+     * set reasonForFailedConnect and allocates nothing, so many threads can call it for the same
+     * volunteer. The opening hours are only compared when the organization is open that day.
+     */
+    public int mismatchMask(CommunityFoodOrg org) {
+        return mismatchMask(org, WeeklySchedule.dayIndex(this.dayAvailable));
+    }
+
+    /**
+     * Method mismatchMasks
+     * @param orgs the organizations to check
+     * @param out receives mismatchMask for each organization, at the same position (at least orgs.size() long)
+     * @return how many organizations match (mask 0)
+     */
+    public int mismatchMasks(List<? extends CommunityFoodOrg> orgs, int[] out) {
+        int dayIndex = WeeklySchedule.dayIndex(this.dayAvailable);
+        int matched = 0;
+        for (int i = 0, n = orgs.size(); i < n; i++) {
+            out[i] = mismatchMask(orgs.get(i), dayIndex);
+            if (out[i] == 0) matched++;
+        }
+        return matched;
+    }
+
+    /**
+     * Method describeMismatch
+     * @param mask a mismatchMask result
+     * @return the reason for every set bit, one sentence each, or an empty string for a match
+     */
+    public static String describeMismatch(int mask) {
+        StringBuilder reasons = new StringBuilder();
+        for (int bit = 0; bit < MISMATCH_REASONS.length; bit++) {
+            if ((mask & (1 << bit)) == 0) continue;
+            if (reasons.length() > 0) reasons.append(' ');
+            reasons.append(MISMATCH_REASONS[bit]);
+        }
+        return reasons.toString();
+    }
+
+    private int mismatchMask(CommunityFoodOrg org, int dayIndex) {
+        int mask = 0;
+        double donation = this.donation;
+        if ((donation > 0 && !(org instanceof FoodBank)) || (donation == 0 && !(org instanceof FoodPantry))) {
+            mask |= MISMATCH_TYPE;
+        }
+        TimeFrame orgTime = dayIndex != -1 ? org.getDailyOpenHours()[dayIndex] : null;
+        if (orgTime == null && !openOnAdditionalDay(org)) {
+            mask |= MISMATCH_CLOSED;
+        } else if (!fitsShift(org, orgTime)) {
+            mask |= MISMATCH_TIME;
+        }
+        if (this.needsTransportation && !org.isOffersTransportation()) {
+            mask |= MISMATCH_TRANSPORT;
+        }
+        if (!Double.isNaN(this.distanceAvailable) && !this.location.withinMiles(org.getLocation(), this.distanceAvailable)) {
+            mask |= MISMATCH_DISTANCE;
+        }
+        return mask;
+    }
+
+    // True if the organization is open on the day of one of the additional windows
+    private boolean openOnAdditionalDay(CommunityFoodOrg org) {
+        WeeklySchedule windows = this.additionalAvailability;
+        if (windows == null) return false;
+        TimeFrame[] hours = org.getDailyOpenHours();
+        for (int day = 0; day < 7; day++) {
+            if (hours[day] != null && windows.count(day) > 0) return true;
+        }
+        return false;
+    }
+
+    // True if one of the volunteer's windows fits inside one of the organization's shifts;
+    // orgTime is the open hours on dayAvailable (null when closed)
+    private boolean fitsShift(CommunityFoodOrg org, TimeFrame orgTime) {
+        if (orgTime != null) {
+            if (!org.hasSplitShifts()) {
+                if (this.timeAvailable.timeFrameMatch(orgTime)) return true;
+            } else if (org.shiftsContain(WeeklySchedule.dayIndex(this.dayAvailable), this.timeAvailable)) {
+                return true;
+            }
+        }
+        WeeklySchedule windows = this.additionalAvailability;
+        if (windows == null) return false;
+        for (int day = 0; day < 7; day++) {
+            for (int i = 0, n = windows.count(day); i < n; i++) {
+                if (org.shiftsContain(day, windows.getWindow(day, i))) return true;
+            }
+        }
+        return false;
+    }
+
+    // Restore a signup the organization's counts already include (used when loading a snapshot)
+    synchronized void restoreSignup(CommunityFoodOrg org, String day) {
+        this.signedUpDay = day;
+        this.orgVolunteering = org;
+    }
+
     // Getters
+    public String getId() {
+        return this.id;
+    }
+
+    public int getAge() {
+        return this.age;
+    }
+
     public String getFullName() {
         return this.fullName;
     }
@@ -163,6 +360,12 @@ public class Volunteer {
         return this.orgVolunteering;
     }
 
+    // Day the current signup counts against (dayAvailable unless an additional window was used), null if not signed up
+    public String getSignedUpDay() {
+        String day = this.signedUpDay;
+        return day != null || this.orgVolunteering == null ? day : this.dayAvailable;
+    }
+
     public String getReasonForFailedConnect() {
         return reasonForFailedConnect; 
     }
@@ -0,0 +1,349 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Class VolunteerStore
+ *
+ * Volunteers kept as primitive columns in direct (off-heap) buffers instead of one Volunteer,
+ * Location, TimeFrame and several Strings each, so tens of millions of volunteers cost the
+ * garbage collector almost nothing. Only the fields matching and signup use are kept:
+ *
+ *   latitude, longitude, distance available, donation       8 bytes each
+ *   position of the organization signed up with (-1 if none) 4 bytes
+ *   start / end minute of day                               2 bytes each
+ *   day available, day signed up for (-1 if none), transportation  1 byte each
+ *
+ * 43 bytes a row. Rows are stored in chunks of CHUNK_ROWS, each one direct buffer holding every
+ * column of its rows, so the store grows without copying and is not limited to 2 GB. Ids, names,
+ * ages and addresses are not kept: a row is identified by its position (its line in the file).
+ * The rare volunteer with additional availability windows keeps them in an on-heap map.
+ *
+ * View is a flyweight with the Volunteer getters, moved from row to row without allocating;
+ * toVolunteer builds a real Volunteer when one is needed. VolunteeringManager signs rows up
+ * directly (signUpToPriorityOrg, signUpAll); organization positions are those of the manager's
+ * list. Appending is synchronized. A row's signup may be changed by one thread at a time, while
+ * any number of threads read.
+ *
+ * The buffers are freed when the store is garbage collected; large stores need
+ * -XX:MaxDirectMemorySize above 43 bytes times the row count.
+ */
+public class VolunteerStore {
+    public static final int CHUNK_ROWS = 1 << 16;
+    public static final int ROW_BYTES = 43;
+
+    private static final int CHUNK_SHIFT = 16, ROW_MASK = CHUNK_ROWS - 1;
+    // byte offset of each column inside a chunk
+    private static final int LATITUDE = 0, LONGITUDE = 8 * CHUNK_ROWS, DISTANCE = 16 * CHUNK_ROWS,
+            DONATION = 24 * CHUNK_ROWS, ORG = 32 * CHUNK_ROWS, START = 36 * CHUNK_ROWS, END = 38 * CHUNK_ROWS,
+            DAY = 40 * CHUNK_ROWS, SIGNED_DAY = 41 * CHUNK_ROWS, TRANSPORT = 42 * CHUNK_ROWS;
+
+    private volatile ByteBuffer[] chunks = new ByteBuffer[16];
+    private volatile int size;
+    private final HashMap<Integer, WeeklySchedule> additionalAvailability = new HashMap<>();
+
+    /**
+     * Method load
+     * @param volunteersFile a volunteers file in the format DataManager reads
+     * @return a store with one row per volunteer, in file order
+     *
+     * The file is streamed with StreamingDataReader, so each Volunteer lives only until its row
+     * is appended.
+     */
+    public static VolunteerStore load(String volunteersFile) {
+        VolunteerStore store = new VolunteerStore();
+        StreamingDataReader.streamVolunteers(volunteersFile, store::append);
+        return store;
+    }
+
+    /**
+     * Method of
+     * @param volunteers volunteers to copy, signups included
+     * @param orgs the organization list signup positions refer to
+     * @return a store with one row per volunteer, in list order
+     */
+    public static VolunteerStore of(List<Volunteer> volunteers, List<? extends CommunityFoodOrg> orgs) {
+        IdentityHashMap<CommunityFoodOrg, Integer> positions = new IdentityHashMap<>();
+        for (int i = 0; i < orgs.size(); i++) positions.put(orgs.get(i), i);
+        VolunteerStore store = new VolunteerStore();
+        for (Volunteer volunteer : volunteers) {
+            int row = store.append(volunteer);
+            Integer position = positions.get(volunteer.getOrgVolunteering());
+            if (position != null) store.setSignup(row, position, WeeklySchedule.dayIndex(volunteer.getSignedUpDay()));
+        }
+        return store;
+    }
+
+    /**
+     * Method append
+     * @param volunteer the volunteer whose matching fields to store (a signup is not copied)
+     * @return the new row
+     */
+    public int append(Volunteer volunteer) {
+        Location location = volunteer.getLocation();
+        TimeFrame time = volunteer.getTimeAvailable();
+        int row = append(location.getLatitude(), location.getLongitude(), WeeklySchedule.dayIndex(volunteer.getDayAvailable()),
+                time.getStartMinuteOfDay(), time.getEndMinuteOfDay(), volunteer.getDistanceAvailable(),
+                volunteer.needsTransportation(), volunteer.getDonation());
+        WeeklySchedule windows = volunteer.getAdditionalAvailability();
+        if (windows != null) {
+            synchronized (additionalAvailability) {
+                additionalAvailability.put(row, windows);
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Method append
+     * @param latitude the volunteer's latitude
+     * @param longitude the volunteer's longitude
+     * @param dayIndex the day available (0 = Monday), -1 for a day name that is not a weekday
+     * @param startMinute the start of the time available, in minutes since midnight
+     * @param endMinute the end of the time available, in minutes since midnight
+     * @param distanceAvailable how far the volunteer will travel, in miles
+     * @param needsTransportation whether the volunteer needs transportation
+     * @param donation pounds donated (negative values are stored as 0, as Volunteer does)
+     * @return the new row
+     */
+    public synchronized int append(double latitude, double longitude, int dayIndex, int startMinute, int endMinute,
+                                   double distanceAvailable, boolean needsTransportation, double donation) {
+        if (dayIndex < -1 || dayIndex > 6) throw new IllegalArgumentException("Invalid day index: " + dayIndex);
+        if (startMinute < 0 || startMinute >= 24 * 60 || endMinute < 0 || endMinute >= 24 * 60) {
+            throw new IllegalArgumentException("Invalid time: " + startMinute + "-" + endMinute);
+        }
+        int row = size;
+        if (row == Integer.MAX_VALUE) throw new IllegalStateException("Volunteer store is full");
+        ByteBuffer chunk = chunkForAppend(row >>> CHUNK_SHIFT);
+        int i = row & ROW_MASK;
+        chunk.putDouble(LATITUDE + 8 * i, latitude >= -90 && latitude <= 90 ? latitude : 0); // as Location does
+        chunk.putDouble(LONGITUDE + 8 * i, longitude >= -180 && longitude <= 180 ? longitude : 0);
+        chunk.putDouble(DISTANCE + 8 * i, distanceAvailable);
+        chunk.putDouble(DONATION + 8 * i, Math.max(0, donation));
+        chunk.putInt(ORG + 4 * i, -1);
+        chunk.putShort(START + 2 * i, (short) startMinute);
+        chunk.putShort(END + 2 * i, (short) endMinute);
+        chunk.put(DAY + i, (byte) dayIndex);
+        chunk.put(SIGNED_DAY + i, (byte) -1);
+        chunk.put(TRANSPORT + i, (byte) (needsTransportation ? 1 : 0));
+        size = row + 1; // publishes the row
+        return row;
+    }
+
+    private ByteBuffer chunkForAppend(int index) {
+        ByteBuffer[] current = chunks;
+        if (index == current.length) current = chunks = Arrays.copyOf(current, index * 2);
+        if (current[index] == null) {
+            current[index] = ByteBuffer.allocateDirect(ROW_BYTES * CHUNK_ROWS).order(ByteOrder.nativeOrder());
+        }
+        return current[index];
+    }
+
+    private ByteBuffer chunk(int row) {
+        if (row < 0 || row >= size) throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+        return chunks[row >>> CHUNK_SHIFT];
+    }
+
+    // Number of rows
+    public int size() {
+        return size;
+    }
+
+    // Off-heap bytes allocated for the rows (whole chunks)
+    public long getOffHeapBytes() {
+        return (long) ROW_BYTES * CHUNK_ROWS * ((size + CHUNK_ROWS - 1) >>> CHUNK_SHIFT);
+    }
+
+    // Column getters
+    public double getLatitude(int row) {
+        return chunk(row).getDouble(LATITUDE + 8 * (row & ROW_MASK));
+    }
+
+    public double getLongitude(int row) {
+        return chunk(row).getDouble(LONGITUDE + 8 * (row & ROW_MASK));
+    }
+
+    public double getDistanceAvailable(int row) {
+        return chunk(row).getDouble(DISTANCE + 8 * (row & ROW_MASK));
+    }
+
+    public double getDonation(int row) {
+        return chunk(row).getDouble(DONATION + 8 * (row & ROW_MASK));
+    }
+
+    public int getStartMinute(int row) {
+        return chunk(row).getShort(START + 2 * (row & ROW_MASK));
+    }
+
+    public int getEndMinute(int row) {
+        return chunk(row).getShort(END + 2 * (row & ROW_MASK));
+    }
+
+    // Day available, 0 = Monday (-1 if the volunteer's day was not a weekday)
+    public int getDayIndex(int row) {
+        return chunk(row).get(DAY + (row & ROW_MASK));
+    }
+
+    public boolean needsTransportation(int row) {
+        return chunk(row).get(TRANSPORT + (row & ROW_MASK)) != 0;
+    }
+
+    // Position of the organization the row is signed up with, -1 if none
+    public int getOrgPosition(int row) {
+        return chunk(row).getInt(ORG + 4 * (row & ROW_MASK));
+    }
+
+    // Day the signup counts against, -1 if none
+    public int getSignedUpDayIndex(int row) {
+        return chunk(row).get(SIGNED_DAY + (row & ROW_MASK));
+    }
+
+    /**
+     * Method getAdditionalAvailability
+     * @param row a row
+     * @return the row's windows besides its day and time available, or null if there are none
+     */
+    public WeeklySchedule getAdditionalAvailability(int row) {
+        synchronized (additionalAvailability) {
+            return additionalAvailability.isEmpty() ? null : additionalAvailability.get(row);
+        }
+    }
+
+    public boolean hasAdditionalAvailability(int row) {
+        return getAdditionalAvailability(row) != null;
+    }
+
+    // Location of the row, without address fields
+    public Location getLocation(int row) {
+        return new Location(getLatitude(row), getLongitude(row), null, null, null, null);
+    }
+
+    /**
+     * Method setSignup
+     * @param row a row
+     * @param orgPosition the position of the organization signed up with, -1 to clear the signup
+     * @param dayIndex the day the signup counts against (ignored when clearing)
+     *
+     * Only records the signup; VolunteeringManager reserves the organization's capacity.
+     */
+    public void setSignup(int row, int orgPosition, int dayIndex) {
+        ByteBuffer chunk = chunk(row);
+        int i = row & ROW_MASK;
+        chunk.put(SIGNED_DAY + i, (byte) (orgPosition == -1 ? -1 : dayIndex));
+        chunk.putInt(ORG + 4 * i, orgPosition);
+    }
+
+    /**
+     * Method toVolunteer
+     * @param row a row
+     * @param orgs the organization list signup positions refer to (null to leave the signup out)
+     * @return a new Volunteer with the row's fields, its row number as id and name, age 18
+     */
+    public Volunteer toVolunteer(int row, List<? extends CommunityFoodOrg> orgs) {
+        int start = getStartMinute(row), end = getEndMinute(row);
+        int day = getDayIndex(row);
+        Volunteer volunteer = new Volunteer(String.valueOf(row), String.valueOf(row), 18, getLocation(row),
+                day == -1 ? "" : WeeklySchedule.dayName(day), TimeFrame.of(start / 60, start % 60, end / 60, end % 60),
+                getDistanceAvailable(row), needsTransportation(row), getDonation(row));
+        WeeklySchedule windows = getAdditionalAvailability(row);
+        if (windows != null) {
+            for (int d = 0; d < 7; d++) {
+                for (int i = 0; i < windows.count(d); i++) volunteer.addAvailability(WeeklySchedule.dayName(d), windows.getWindow(d, i));
+            }
+        }
+        int position = getOrgPosition(row);
+        if (orgs != null && position != -1) volunteer.restoreSignup(orgs.get(position), WeeklySchedule.dayName(getSignedUpDayIndex(row)));
+        return volunteer;
+    }
+
+    /**
+     * Method view
+     * @param orgs the organization list signup positions refer to (null if getOrgVolunteering is not needed)
+     * @return a flyweight positioned on row 0; move it with at()
+     */
+    public View view(List<? extends CommunityFoodOrg> orgs) {
+        return new View(orgs);
+    }
+
+    /**
+     * Class View
+     * One row of the store behind the Volunteer getters. A view is moved with at() rather than
+     * created per row, and is meant for one thread.
+     */
+    public final class View {
+        private final List<? extends CommunityFoodOrg> orgs;
+        private int row;
+
+        private View(List<? extends CommunityFoodOrg> orgs) {
+            this.orgs = orgs;
+        }
+
+        /**
+         * Method at
+         * @param row the row to show
+         * @return this view
+         */
+        public View at(int row) {
+            chunk(row); // checks the row
+            this.row = row;
+            return this;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        // Same getters as Volunteer; getLocation allocates, the others do not
+        public Location getLocation() {
+            return VolunteerStore.this.getLocation(row);
+        }
+
+        public String getDayAvailable() {
+            int day = getDayIndex(row);
+            return day == -1 ? "" : WeeklySchedule.dayName(day);
+        }
+
+        // Shared TimeFrame.of instance for quarter-hour windows
+        public TimeFrame getTimeAvailable() {
+            int start = getStartMinute(row), end = getEndMinute(row);
+            return TimeFrame.of(start / 60, start % 60, end / 60, end % 60);
+        }
+
+        public double getDistanceAvailable() {
+            return VolunteerStore.this.getDistanceAvailable(row);
+        }
+
+        public boolean needsTransportation() {
+            return VolunteerStore.this.needsTransportation(row);
+        }
+
+        public double getDonation() {
+            return VolunteerStore.this.getDonation(row);
+        }
+
+        public WeeklySchedule getAdditionalAvailability() {
+            return VolunteerStore.this.getAdditionalAvailability(row);
+        }
+
+        public boolean hasAdditionalAvailability() {
+            return VolunteerStore.this.hasAdditionalAvailability(row);
+        }
+
+        public CommunityFoodOrg getOrgVolunteering() {
+            int position = getOrgPosition(row);
+            return position == -1 || orgs == null ? null : orgs.get(position);
+        }
+
+        public String getSignedUpDay() {
+            int day = getSignedUpDayIndex(row);
+            return day == -1 ? null : WeeklySchedule.dayName(day);
+        }
+
+        public Volunteer toVolunteer() {
+            return VolunteerStore.this.toVolunteer(row, orgs);
+        }
+    }
+}
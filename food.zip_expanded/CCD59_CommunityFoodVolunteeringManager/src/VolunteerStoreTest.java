@@ -0,0 +1,150 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class VolunteerStoreTest
+ *
+ * Checks VolunteerStore against the Volunteer objects it replaces, on generated data:
+ * - VolunteerStore.load must hold the fields DataManager reads, and a View must return them
+ *   through the Volunteer getters
+ * - VolunteeringManager.signUpAll over the store must sign every row up with the organization
+ *   and day signUpVolunteerToPriorityOrg picks for the same volunteer (some with additional
+ *   windows), leaving the same need everywhere; cancelling the same rows must also match
+ * Then appends scaleRows generated rows and reports the heap and off-heap bytes per row and the
+ * signUpAll rate. Large runs need -XX:MaxDirectMemorySize (43 bytes a row).
+ *
+ * Usage: java VolunteerStoreTest [volunteers] [scaleRows]
+ */
+public class VolunteerStoreTest {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int scaleRows = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        File dir = File.createTempFile("volunteer-store", "");
+        if (!dir.delete() || !dir.mkdir()) throw new IOException("Cannot create " + dir);
+        File orgsFile = new File(dir, "orgs.txt"), volunteersFile = new File(dir, "volunteers.txt");
+        SyntheticDataGenerator.writeOrgs(orgsFile, Math.max(100, rows / 20), 5);
+        SyntheticDataGenerator.writeVolunteers(volunteersFile, rows, 5);
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) { }
+        }));
+        List<String> failures = new ArrayList<>();
+        try {
+            // Loaded fields and the flyweight view
+            ArrayList<Volunteer> volunteers = DataManager.readVolunteers(volunteersFile.getPath());
+            VolunteerStore loaded = VolunteerStore.load(volunteersFile.getPath());
+            if (loaded.size() != volunteers.size()) failures.add("load: " + loaded.size() + " rows for " + volunteers.size() + " volunteers");
+            VolunteerStore.View view = loaded.view(null);
+            for (int row = 0; row < Math.min(loaded.size(), volunteers.size()); row++) {
+                if (!sameFields(volunteers.get(row), view.at(row))) failures.add("fields of row " + row);
+            }
+
+            // Same signups as the Volunteer objects, including volunteers with additional windows
+            VolunteeringManager objects = new VolunteeringManager(orgsFile.getPath(), volunteersFile.getPath());
+            VolunteeringManager columns = new VolunteeringManager(orgsFile.getPath(), volunteersFile.getPath());
+            Random random = new Random(5);
+            for (int i = 0; i < objects.getVolunteers().size(); i += 10) {
+                String day = WeeklySchedule.dayName(random.nextInt(7));
+                objects.getVolunteers().get(i).addAvailability(day, objects.getVolunteers().get(i).getTimeAvailable());
+                columns.getVolunteers().get(i).addAvailability(day, columns.getVolunteers().get(i).getTimeAvailable());
+            }
+            VolunteerStore store = VolunteerStore.of(columns.getVolunteers(), columns.getOrgs());
+            int objectPlaced = 0;
+            for (Volunteer volunteer : objects.getVolunteers()) {
+                if (objects.signUpVolunteerToPriorityOrg(volunteer)) objectPlaced++;
+            }
+            int storePlaced = columns.signUpAll(store);
+            compare(objects, columns, store, failures, "signUpAll");
+            if (objectPlaced != storePlaced) failures.add("placed " + storePlaced + ", Volunteer objects " + objectPlaced);
+
+            for (int row = 0; row < store.size(); row += 3) {
+                objects.cancelSignup(objects.getVolunteers().get(row));
+                columns.cancelSignup(store, row);
+            }
+            compare(objects, columns, store, failures, "after cancellations");
+            console.printf("%,d volunteers: %,d placed from the store (%,d from Volunteer objects)%n", store.size(), storePlaced, objectPlaced);
+
+            // Footprint and signup rate at scale
+            VolunteeringManager scaled = new VolunteeringManager(orgsFile.getPath(), volunteersFile.getPath());
+            long heapBefore = usedHeap();
+            VolunteerStore large = new VolunteerStore();
+            for (int row = 0; row < scaleRows; row++) {
+                int startMinute = (8 + random.nextInt(8)) * 60;
+                large.append(39.5 + random.nextDouble() * 2, -80.5 + random.nextDouble() * 5, random.nextInt(7),
+                        startMinute, startMinute + 150, 5 + random.nextInt(30), random.nextBoolean(),
+                        random.nextInt(5) == 0 ? 5 + random.nextInt(40) : 0);
+            }
+            long heap = usedHeap() - heapBefore;
+            long start = System.nanoTime();
+            int placed = scaled.signUpAll(large);
+            long nanos = System.nanoTime() - start;
+            console.printf("%,d rows: %.1f heap bytes/row, %.1f off-heap bytes/row (%,d MB); signUpAll %,d in %,d ms (%,.0f rows/s)%n",
+                    large.size(), (double) heap / large.size(), (double) large.getOffHeapBytes() / large.size(),
+                    large.getOffHeapBytes() >> 20, placed, nanos / 1_000_000, large.size() / (nanos / 1e9));
+        } finally {
+            EventLog.flush();
+            System.setOut(console);
+            for (File file : dir.listFiles()) file.delete();
+            dir.delete();
+        }
+        for (int i = 0; i < Math.min(10, failures.size()); i++) console.println("  " + failures.get(i));
+        console.println(failures.isEmpty() ? "PASS" : "FAIL (" + failures.size() + " failures)");
+        if (!failures.isEmpty()) System.exit(1);
+    }
+
+    private static boolean sameFields(Volunteer volunteer, VolunteerStore.View view) {
+        Location location = volunteer.getLocation();
+        return location.getLatitude() == view.getLocation().getLatitude()
+                && location.getLongitude() == view.getLocation().getLongitude()
+                && volunteer.getDayAvailable().equalsIgnoreCase(view.getDayAvailable())
+                && volunteer.getTimeAvailable().getStartMinuteOfDay() == view.getTimeAvailable().getStartMinuteOfDay()
+                && volunteer.getTimeAvailable().getEndMinuteOfDay() == view.getTimeAvailable().getEndMinuteOfDay()
+                && Double.compare(volunteer.getDistanceAvailable(), view.getDistanceAvailable()) == 0
+                && volunteer.needsTransportation() == view.needsTransportation()
+                && Double.compare(volunteer.getDonation(), view.getDonation()) == 0
+                && view.getOrgVolunteering() == null && view.getSignedUpDay() == null;
+    }
+
+    // Every row signed up like its Volunteer, and every organization left with the same need
+    private static void compare(VolunteeringManager objects, VolunteeringManager columns, VolunteerStore store,
+                                List<String> failures, String stage) {
+        VolunteerStore.View view = store.view(columns.getOrgs());
+        for (int row = 0; row < store.size(); row++) {
+            Volunteer volunteer = objects.getVolunteers().get(row);
+            CommunityFoodOrg expected = volunteer.getOrgVolunteering(), actual = view.at(row).getOrgVolunteering();
+            boolean same = expected == null ? actual == null
+                    : actual != null && expected.getId().equals(actual.getId()) && volunteer.getSignedUpDay().equalsIgnoreCase(view.getSignedUpDay());
+            if (!same) failures.add(stage + ": row " + row + " signed up with " + (actual == null ? "none" : actual.getId())
+                    + ", Volunteer with " + (expected == null ? "none" : expected.getId()));
+        }
+        for (int i = 0; i < objects.getOrgs().size(); i++) {
+            CommunityFoodOrg a = objects.getOrgs().get(i), b = columns.getOrgs().get(i);
+            for (int day = 0; day < 7; day++) {
+                double needA = a instanceof FoodBank ? ((FoodBank) a).getDailyDonationsNeeded(day) : a.dailyVolunteerSpotsLeft(day);
+                double needB = b instanceof FoodBank ? ((FoodBank) b).getDailyDonationsNeeded(day) : b.dailyVolunteerSpotsLeft(day);
+                if (needA != needB) failures.add(stage + ": need of " + a.getId() + " on " + WeeklySchedule.dayName(day));
+            }
+        }
+    }
+
+    // Heap in use after collecting everything collectable
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(50);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
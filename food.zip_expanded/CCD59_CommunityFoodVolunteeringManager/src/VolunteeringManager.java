@@ -1,4 +1,13 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.PriorityQueue;
 
 /**
  * Class VolunteeringManager
@@ -6,8 +15,12 @@ import java.util.ArrayList;
  * @created 11/21/2024
  */
 public class VolunteeringManager {
-    private ArrayList<CommunityFoodOrg> orgs;
-    private ArrayList<Volunteer> volunteers;
+    private volatile Catalog catalog; // replaced whole when organizations are added or removed
+    private final ArrayList<Volunteer> volunteers; // guarded by itself, so addVolunteer can run alongside signups
+    private SignupJournal journal; // null when signups are not journaled
+
+    private static final int FOOD_BANKS = 0, FOOD_PANTRIES = 1;
+    private static final int HEAP_WALK_SLACK = 32; // extra heap entries to try before scanning nearby orgs
 
     /**
      * Constructor VolunteeringManager
@@ -17,11 +30,111 @@ public class VolunteeringManager {
      *        (the file contains details about volunteers, including their availability, distance, and preferences).
      * 
      * This constructor initializes the VolunteeringManager by reading data from the specified files.
-     * It populates the list of organizations and the list of volunteers  
+     * It populates the list of organizations and the list of volunteers, builds the spatial
+     * index used to find organizations within a volunteer's travel distance, the match kernel,
+     * and the per-day priority queues of remaining need.
      */
     public VolunteeringManager(String orgsFile, String volunteersFile) {
-        this.orgs = DataManager.readCommunityFoodOrgs(orgsFile);
+        OrgRegistry registry = DataManager.readOrgRegistry(orgsFile);
         this.volunteers = DataManager.readVolunteers(volunteersFile);
+        this.catalog = new Catalog(registry.getOrgs(), registry);
+        FoodConnectMetrics.trackOrgs(catalog.orgs);
+    }
+
+    /**
+     * Constructor VolunteeringManager
+     * @param orgs the community food organizations to manage
+     * @param volunteers the volunteers to manage
+     *
+     * This constructor initializes the VolunteeringManager from organizations and volunteers that
+     * were already loaded or generated elsewhere.
+     */
+    public VolunteeringManager(ArrayList<CommunityFoodOrg> orgs, ArrayList<Volunteer> volunteers) {
+        this.volunteers = volunteers;
+        this.catalog = new Catalog(orgs, new OrgRegistry(orgs));
+        FoodConnectMetrics.trackOrgs(orgs);
+    }
+
+    /**
+     * Method fromSnapshot
+     * @param snapshotFile a binary snapshot written by SnapshotStore (or saveSnapshot)
+     * @param orgsFile the organizations text file, parsed instead if the snapshot is missing or stale
+     * @param volunteersFile the volunteers text file, parsed instead if the snapshot is missing or stale
+     * @return a VolunteeringManager with the organizations, volunteers and signups of the snapshot
+     */
+    public static VolunteeringManager fromSnapshot(String snapshotFile, String orgsFile, String volunteersFile) {
+        SnapshotStore snapshot = SnapshotStore.load(snapshotFile, orgsFile, volunteersFile);
+        return new VolunteeringManager(snapshot.getOrgs(), snapshot.getVolunteers());
+    }
+
+    /**
+     * Method saveSnapshot
+     * @param snapshotFile the binary snapshot to write, including the current signups
+     * @param orgsFile the organizations text file this manager was loaded from
+     * @param volunteersFile the volunteers text file this manager was loaded from
+     */
+    public void saveSnapshot(String snapshotFile, String orgsFile, String volunteersFile) throws IOException {
+        SnapshotStore.write(new File(snapshotFile), catalog.orgs, volunteerList(), orgsFile, volunteersFile);
+    }
+
+    /**
+     * Class Catalog
+     * The organizations and everything built over their list positions: the registry, spatial
+     * index, match kernel and need queues. Adding or removing organizations builds a new Catalog
+     * and swaps it in whole, so a signup running meanwhile works on the old organizations or the
+     * new ones, never a mix of positions.
+     */
+    private static final class Catalog {
+        final ArrayList<CommunityFoodOrg> orgs;
+        final OrgRegistry registry; // positions, ids and names of the organizations
+        final OrgSpatialIndex orgIndex;
+        final MatchKernel matchKernel;
+        final OrgPriorityQueue[][] needQueues = new OrgPriorityQueue[2][7]; // [FOOD_BANKS or FOOD_PANTRIES][dayIndex]
+        final CapacityListener needTracker = this::refreshNeed;
+
+        // One max-heap per org type and day, kept current by listening to every organization
+        Catalog(ArrayList<CommunityFoodOrg> orgs, OrgRegistry registry) {
+            this.orgs = orgs;
+            this.registry = registry;
+            this.orgIndex = new OrgSpatialIndex(orgs);
+            this.matchKernel = new MatchKernel(orgs);
+            for (int day = 0; day < 7; day++) {
+                needQueues[FOOD_BANKS][day] = new OrgPriorityQueue(orgs.size());
+                needQueues[FOOD_PANTRIES][day] = new OrgPriorityQueue(orgs.size());
+            }
+            for (CommunityFoodOrg org : orgs) {
+                refreshNeed(org, -1);
+                org.addCapacityListener(needTracker);
+            }
+        }
+
+        // Re-key an organization in the queue of the given day (or of every day for -1)
+        void refreshNeed(CommunityFoodOrg org, int dayIndex) {
+            int position = registry.indexOf(org);
+            int type = org instanceof FoodBank ? FOOD_BANKS : org instanceof FoodPantry ? FOOD_PANTRIES : -1;
+            if (position == -1 || type == -1) return;
+            for (int day = 0; day < 7; day++) {
+                if (dayIndex != -1 && day != dayIndex) continue;
+                OrgPriorityQueue queue = needQueues[type][day];
+                // read the need while holding the queue so concurrent updates cannot apply a stale value last
+                synchronized (queue) {
+                    if (org.getDailyOpenHours()[day] == null) {
+                        queue.remove(position);
+                    } else if (type == FOOD_BANKS) {
+                        queue.update(position, ((FoodBank) org).getDailyDonationsNeeded(day));
+                    } else {
+                        queue.update(position, org.dailyVolunteerSpotsLeft(day));
+                    }
+                }
+            }
+        }
+
+        // Stop listening to the organizations once a newer Catalog replaced this one
+        void close() {
+            for (CommunityFoodOrg org : orgs) org.removeCapacityListener(needTracker);
+            matchKernel.close();
+            registry.close();
+        }
     }
 
     /**
@@ -35,43 +148,378 @@ public class VolunteeringManager {
      * - For FoodBank: priority is based on dailyDonationsNeeded for the given day.
      * - For FoodPantry: priority is based on the number of unfilled volunteer spots for the given day.
      * 
-     * It considers the volunteer's availability and preferences to find a match.
+     * It considers the volunteer's availability and preferences to find a match. Candidates are
+     * taken from the top of the day's priority queue for the volunteer's org type (food banks for
+     * donors, food pantries otherwise) and the first one that is within reach and matches wins, so
+     * lower-priority organizations are never examined. If the highest-need organizations are all
+     * out of reach, the method falls back to scanning the organizations the spatial index reports
+     * within the volunteer's distance. Both paths pick the same organization.
+     *
+     * A volunteer with additional availability windows can match organizations on several days,
+     * so no single day's queue orders their candidates; they always take the scan, with each
+     * organization's priority taken on the day the signup would be for (Volunteer.matchingDayIndex).
      */
     public boolean signUpVolunteerToPriorityOrg(Volunteer volunteer) {
+        long start = System.nanoTime();
+        MatchKernel.Query query = new MatchKernel.Query(volunteer);
+        CommunityFoodOrg bestOrg = findPriorityOrg(volunteer, query);
+
+        // If a suitable organization is found, sign up the volunteer
+        // (another thread can take the last spot between the search and the signup)
+        boolean signedUp = false;
+        if (bestOrg != null) {
+            signedUp = signUp(volunteer, bestOrg);
+        }
+
+        FoodConnectMetrics.recordMatches(query);
+        FoodConnectMetrics.recordSignup(System.nanoTime() - start);
+        return signedUp; // false when no suitable organization was found
+    }
+
+    /**
+     * Method findPriorityOrg
+     * @param volunteer the volunteer to place
+     * @param query the volunteer's MatchKernel query (its counters are left for the caller to record)
+     * @return the organization signUpVolunteerToPriorityOrg would sign them up with, or null if none matches
+     */
+    CommunityFoodOrg findPriorityOrg(Volunteer volunteer, MatchKernel.Query query) {
+        Catalog catalog = this.catalog;
         int dayIndex = getDayIndex(volunteer.getDayAvailable());
-        CommunityFoodOrg bestOrg = null;
+        int[] nearby = catalog.orgIndex.queryIndices(volunteer.getLocation(), volunteer.getDistanceAvailable());
+        int best = findPriorityPosition(catalog, query, dayIndex, volunteer.getDonation() > 0, nearby,
+                volunteer.hasAdditionalAvailability() ? volunteer : null);
+        return best == -1 ? null : catalog.orgs.get(best);
+    }
+
+    // Position of the highest-priority matching organization among nearby, -1 if none matches;
+    // windowed is the volunteer when they have additional windows (their signups take the scan)
+    private int findPriorityPosition(Catalog catalog, MatchKernel.Query query, int dayIndex, boolean donor, int[] nearby,
+                                     Volunteer windowed) {
+        OrgPriorityQueue queue = catalog.needQueues[donor ? FOOD_BANKS : FOOD_PANTRIES][dayIndex];
+        int best = windowed != null ? OrgPriorityQueue.GAVE_UP : queue.findFirst(
+                position -> Arrays.binarySearch(nearby, position) >= 0 && catalog.matchKernel.matches(query, position),
+                0, nearby.length + HEAP_WALK_SLACK);
+        if (best == OrgPriorityQueue.GAVE_UP) {
+            return findPriorityPositionByScan(catalog, windowed, query, dayIndex, nearby);
+        }
+        return best == OrgPriorityQueue.NOT_FOUND ? -1 : best;
+    }
+
+    // Highest-priority matching organization among the given list positions, first one wins ties
+    private int findPriorityPositionByScan(Catalog catalog, Volunteer windowed, MatchKernel.Query query, int dayIndex,
+                                           int[] positions) {
+        MatchKernel matchKernel = catalog.matchKernel;
+        int bestPosition = -1;
         double highestPriority = 0; // Track highest priority (max dailyDonationsNeeded or unfilled spots)
 
-        for (CommunityFoodOrg org : orgs) {
+        for (int position : positions) {
+            CommunityFoodOrg org = catalog.orgs.get(position);
+            int day = dayIndex;
+            boolean matched = false;
+            if (windowed != null) {
+                // priority on the day the signup would be for, which needs a match to be known
+                if (!matchKernel.matches(query, position)) continue;
+                matched = true;
+                day = windowed.matchingDayIndex(org);
+            }
             // Skip if the organization is closed on the volunteer's available day
-            if (org.getDailyOpenHours()[dayIndex] == null) continue;
+            if (org.getDailyOpenHours()[day] == null) continue;
 
             double priority = 0;
 
             // Determine priority based on organization type
             if (org instanceof FoodBank) {
                 FoodBank foodBank = (FoodBank) org;
-                priority = foodBank.getDailyDonationsNeeded(volunteer.getDayAvailable());
+                priority = foodBank.getDailyDonationsNeeded(day);
             } else if (org instanceof FoodPantry) {
                 FoodPantry foodPantry = (FoodPantry) org;
-                int unfilledSpots = foodPantry.dailyVolunteerSpotsLeft(volunteer.getDayAvailable());
+                int unfilledSpots = foodPantry.dailyVolunteerSpotsLeft(day);
                 priority = unfilledSpots;
             }
 
             // Check if this organization has a higher priority and matches the volunteer
-            if (priority > highestPriority && volunteer.orgMatch(org)) {
-                bestOrg = org;
+            if (priority > highestPriority && (matched || matchKernel.matches(query, position))) {
+                bestPosition = position;
                 highestPriority = priority;
             }
         }
+        return bestPosition;
+    }
 
-        // If a suitable organization is found, sign up the volunteer
-        if (bestOrg != null) {
-            volunteer.signUp(bestOrg);
-            return true;
+    /**
+     * Method signUpToPriorityOrg
+     * @param store a columnar volunteer store; its signup positions are positions in this manager's list
+     * @param row the volunteer to sign up
+     * @return true if the volunteer was signed up (false if no suitable organization was found or
+     *         the row was already signed up)
+     *
+     * Picks the same organization and day signUpVolunteerToPriorityOrg picks for the same volunteer,
+     * reading the row's columns instead of a Volunteer, then reserves the spot or donation and
+     * records the signup in the store. Store signups are not journaled and not written to the
+     * EventLog. Only a row with additional windows is briefly turned into a Volunteer.
+     */
+    public boolean signUpToPriorityOrg(VolunteerStore store, int row) {
+        return signUpToPriorityOrg(store, row, new MatchKernel.Query());
+    }
+
+    private boolean signUpToPriorityOrg(VolunteerStore store, int row, MatchKernel.Query query) {
+        int dayIndex = store.getDayIndex(row);
+        if (store.getOrgPosition(row) != -1 || dayIndex == -1) return false;
+        long start = System.nanoTime();
+        query.set(store, row);
+        Catalog catalog = this.catalog;
+        Volunteer windowed = store.hasAdditionalAvailability(row) ? store.toVolunteer(row, null) : null;
+        double donation = store.getDonation(row);
+        int[] nearby = catalog.orgIndex.queryIndices(store.getLocation(row), store.getDistanceAvailable(row));
+        int best = findPriorityPosition(catalog, query, dayIndex, donation > 0, nearby, windowed);
+
+        boolean signedUp = false;
+        if (best != -1) {
+            CommunityFoodOrg org = catalog.orgs.get(best);
+            int day = windowed != null ? windowed.matchingDayIndex(org) : -1;
+            if (day == -1) day = dayIndex; // as Volunteer.signUp
+            if (org instanceof FoodBank && donation > 0) {
+                signedUp = ((FoodBank) org).reserveDonation(day, donation);
+            } else if (org instanceof FoodPantry && donation == 0) {
+                signedUp = ((FoodPantry) org).reserveSpot(day);
+            }
+            if (signedUp) store.setSignup(row, best, day);
+        }
+
+        FoodConnectMetrics.recordMatches(query);
+        FoodConnectMetrics.recordSignup(System.nanoTime() - start);
+        return signedUp;
+    }
+
+    /**
+     * Method signUpAll
+     * @param store a columnar volunteer store
+     * @return the number of rows signed up
+     *
+     * Signs up every row that is not signed up yet with signUpToPriorityOrg, in row order.
+     */
+    public int signUpAll(VolunteerStore store) {
+        MatchKernel.Query query = new MatchKernel.Query();
+        int placed = 0;
+        for (int row = 0, n = store.size(); row < n; row++) {
+            if (signUpToPriorityOrg(store, row, query)) placed++;
+        }
+        return placed;
+    }
+
+    /**
+     * Method cancelSignup
+     * @param store a columnar volunteer store
+     * @param row the row whose signup to cancel (ignored if it is not signed up)
+     */
+    public void cancelSignup(VolunteerStore store, int row) {
+        int position = store.getOrgPosition(row);
+        if (position == -1) return;
+        long start = System.nanoTime();
+        CommunityFoodOrg org = catalog.orgs.get(position);
+        int day = store.getSignedUpDayIndex(row);
+        double donation = store.getDonation(row);
+        if (org instanceof FoodBank && donation > 0) {
+            ((FoodBank) org).releaseDonation(day, donation);
+        } else if (org instanceof FoodPantry) {
+            ((FoodPantry) org).releaseSpot(day);
+        }
+        store.setSignup(row, -1, -1);
+        FoodConnectMetrics.recordCancel(System.nanoTime() - start);
+    }
+
+    /**
+     * Method findCandidates
+     * @param volunteer the volunteer to find organizations for
+     * @param limit the most organizations to return
+     * @return the matching organizations within the volunteer's distance that still need help that
+     *         day, highest remaining need first (list order among equal need)
+     *
+     * Nothing is signed up and the volunteer is not modified, so this can run on any thread.
+     * Ranking keeps the best limit matches in a bounded min-heap.
+     */
+    public ArrayList<CommunityFoodOrg> findCandidates(Volunteer volunteer, int limit) {
+        Catalog catalog = this.catalog;
+        ArrayList<CommunityFoodOrg> orgs = catalog.orgs;
+        int dayIndex = getDayIndex(volunteer.getDayAvailable());
+        int[] candidates = catalog.orgIndex.queryIndices(volunteer.getLocation(), volunteer.getDistanceAvailable());
+        MatchKernel.Query query = new MatchKernel.Query(volunteer);
+        int matched = catalog.matchKernel.filter(query, candidates, candidates.length, candidates);
+        FoodConnectMetrics.recordMatches(query);
+
+        double[] need = new double[matched];
+        for (int i = 0; i < matched; i++) {
+            CommunityFoodOrg org = orgs.get(candidates[i]);
+            int day = volunteer.hasAdditionalAvailability() ? volunteer.matchingDayIndex(org) : dayIndex;
+            need[i] = org instanceof FoodBank ? ((FoodBank) org).getDailyDonationsNeeded(day)
+                                              : org.dailyVolunteerSpotsLeft(day);
+        }
+        // Head of the heap is the weakest kept match: least need, then latest in the list
+        PriorityQueue<Integer> best = new PriorityQueue<>(Math.max(1, limit + 1),
+                (a, b) -> need[a] != need[b] ? Double.compare(need[a], need[b]) : Integer.compare(b, a));
+        for (int i = 0; i < matched; i++) {
+            if (need[i] <= 0) continue;
+            best.add(i);
+            if (best.size() > limit) best.poll();
         }
 
-        return false; // No suitable organization found
+        CommunityFoodOrg[] ranked = new CommunityFoodOrg[best.size()];
+        for (int i = ranked.length - 1; i >= 0; i--) ranked[i] = orgs.get(candidates[best.poll()]);
+        return new ArrayList<>(Arrays.asList(ranked));
+    }
+
+    /**
+     * Method assignVolunteersInBatch
+     * @return the number of volunteers that were signed up
+     *
+     * This method places every volunteer that is not signed up yet in one pass, using the
+     * BatchAssignmentEngine: pantry spots are filled with a maximum flow over volunteers and
+     * (pantry, day) capacities, and food bank donations are packed into the pounds each bank
+     * still needs. Unlike calling signUpVolunteerToPriorityOrg in a loop, the result does not
+     * depend on the order of the volunteers list.
+     */
+    public int assignVolunteersInBatch() {
+        ArrayList<Volunteer> unassigned = new ArrayList<>();
+        for (Volunteer volunteer : volunteerList()) {
+            if (volunteer.getOrgVolunteering() == null) unassigned.add(volunteer);
+        }
+        return assignInBatch(unassigned);
+    }
+
+    // Batch-assign the given unassigned volunteers and journal their signups
+    int assignInBatch(List<Volunteer> unassigned) {
+        Catalog catalog = this.catalog;
+        int placed = new BatchAssignmentEngine(catalog.orgs, catalog.orgIndex, catalog.matchKernel).assign(unassigned);
+        for (Volunteer volunteer : unassigned) {
+            CommunityFoodOrg org = volunteer.getOrgVolunteering();
+            if (org != null) recordSignup(volunteer, org);
+        }
+        return placed;
+    }
+
+    // Journal a signup made outside signUp (no-op without a journal)
+    void recordSignup(Volunteer volunteer, CommunityFoodOrg org) {
+        if (journal != null) record(() -> journal.recordSignup(volunteer, org));
+    }
+
+    /**
+     * Method signUp
+     * @param volunteer the volunteer to sign up
+     * @param org the organization to sign them up with
+     * @return true if the volunteer is now signed up with org
+     *
+     * Signs the volunteer up like Volunteer.signUp and, if a journal is attached, records the
+     * signup in it. Holding the volunteer while recording keeps the journal in the same order
+     * as the volunteer's own signups and cancellations.
+     */
+    public boolean signUp(Volunteer volunteer, CommunityFoodOrg org) {
+        synchronized (volunteer) {
+            volunteer.signUp(org);
+            boolean signedUp = volunteer.getOrgVolunteering() == org;
+            if (signedUp && journal != null) record(() -> journal.recordSignup(volunteer, org));
+            return signedUp;
+        }
+    }
+
+    /**
+     * Method cancelSignup
+     * @param volunteer the volunteer whose signup to cancel (ignored if they are not signed up)
+     *
+     * Cancels like Volunteer.cancelSignup and, if a journal is attached, records the cancellation.
+     */
+    public void cancelSignup(Volunteer volunteer) {
+        long start = System.nanoTime();
+        synchronized (volunteer) {
+            CommunityFoodOrg org = volunteer.getOrgVolunteering();
+            String day = volunteer.getSignedUpDay();
+            volunteer.cancelSignup();
+            if (org != null && journal != null) record(() -> journal.recordCancel(volunteer, org, day));
+        }
+        FoodConnectMetrics.recordCancel(System.nanoTime() - start);
+    }
+
+    /**
+     * Method attachJournal
+     * @param journal the signup journal to replay and then record into
+     * @return the number of volunteers signed up again from the journal
+     *
+     * The journal's recorded signups are replayed onto the loaded organizations and volunteers
+     * first; from then on every signup and cancellation made through this manager is recorded.
+     */
+    public int attachJournal(SignupJournal journal) {
+        int restored = journal.replay(catalog.registry, volunteerList());
+        this.journal = journal;
+        return restored;
+    }
+
+    // Record into a journal that was already replayed elsewhere (a shard of a ShardedVolunteeringManager)
+    void useJournal(SignupJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Method applyOrgChanges
+     * @param changes a reload by an OrgFileWatcher over this manager's organizations
+     * @param stores columnar volunteer stores signed up through this manager; their signups are
+     *        moved to the organizations' new positions (no signups may run on them meanwhile)
+     *
+     * In-place changes were already applied to the organizations and followed by their listeners,
+     * so only a structural reload has work left: the volunteers of removed organizations are
+     * released (journaled like any cancellation), then a new Catalog is built over
+     * changes.getOrgs() and swapped in, and the old one stops listening. Signups keep running
+     * meanwhile; removed organizations were closed on every day, so none can match them.
+     */
+    public synchronized void applyOrgChanges(OrgFileWatcher.Changes changes, VolunteerStore... stores) {
+        if (!changes.isStructural()) return;
+        Catalog old = this.catalog;
+        Set<CommunityFoodOrg> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        removed.addAll(changes.getRemoved());
+        if (!removed.isEmpty()) {
+            for (Volunteer volunteer : volunteerList()) {
+                if (removed.contains(volunteer.getOrgVolunteering())) cancelSignup(volunteer);
+            }
+        }
+
+        ArrayList<CommunityFoodOrg> orgs = new ArrayList<>(changes.getOrgs());
+        Catalog catalog = new Catalog(orgs, new OrgRegistry(orgs));
+        for (VolunteerStore store : stores) {
+            for (int row = 0, n = store.size(); row < n; row++) {
+                int position = store.getOrgPosition(row);
+                if (position == -1) continue;
+                CommunityFoodOrg org = old.orgs.get(position);
+                if (removed.contains(org)) cancelSignup(store, row); // still against the old positions
+                else store.setSignup(row, catalog.registry.indexOf(org), store.getSignedUpDayIndex(row));
+            }
+        }
+        this.catalog = catalog;
+        FoodConnectMetrics.trackOrgs(orgs);
+        old.close();
+    }
+
+    /**
+     * Method watchOrgs
+     * @param orgsFile the organizations file this manager was loaded from
+     * @return the started OrgFileWatcher; every reload is applied with applyOrgChanges until it is closed
+     * @throws IOException if the file cannot be read or watched
+     */
+    public OrgFileWatcher watchOrgs(String orgsFile) throws IOException {
+        OrgFileWatcher watcher = new OrgFileWatcher(orgsFile, getOrgs());
+        watcher.addListener(changes -> applyOrgChanges(changes));
+        watcher.start();
+        return watcher;
+    }
+
+    private interface JournalWrite {
+        void run() throws IOException;
+    }
+
+    // The signup already happened in memory; a journal that cannot be written is reported, not hidden
+    private static void record(JournalWrite write) {
+        try {
+            write.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not record signup in journal", e);
+        }
     }
 
     // Get day index
@@ -88,12 +536,77 @@ public class VolunteeringManager {
         }
     }
 
+    /**
+     * Method addVolunteer
+     * @param volunteer a volunteer registered after loading (for example through FoodConnectServer)
+     *
+     * Adds the volunteer to getVolunteers(), so batch assignment, journal replay, snapshots and
+     * organization reloads see them like the loaded volunteers. Safe to call while signups and
+     * those operations run on other threads.
+     */
+    public void addVolunteer(Volunteer volunteer) {
+        synchronized (volunteers) {
+            volunteers.add(volunteer);
+        }
+    }
+
+    // Copy of the volunteers that addVolunteer cannot change while it is walked
+    private ArrayList<Volunteer> volunteerList() {
+        synchronized (volunteers) {
+            return new ArrayList<>(volunteers);
+        }
+    }
+
     // Getters
     public ArrayList<CommunityFoodOrg> getOrgs() {
-        return orgs;
+        return catalog.orgs;
     }
 
+    // The live list; hold it while walking it if addVolunteer may run meanwhile
     public ArrayList<Volunteer> getVolunteers() {
         return volunteers;
     }
+
+    public OrgRegistry getRegistry() {
+        return catalog.registry;
+    }
+
+    /**
+     * Method findOrg
+     * @param id an organization id
+     * @return the organization with that id, or null if this manager has none
+     */
+    public CommunityFoodOrg findOrg(String id) {
+        return catalog.registry.byId(id);
+    }
+
+    public OrgSpatialIndex getOrgIndex() {
+        return catalog.orgIndex;
+    }
+
+    public MatchKernel getMatchKernel() {
+        return catalog.matchKernel;
+    }
+
+    /**
+     * Method createCandidateRanking
+     * @return a CandidateRanking over this manager's organizations, for callers that keep showing
+     *         the ranked matches of pending volunteers; close it when done so it stops listening
+     */
+    public CandidateRanking createCandidateRanking() {
+        Catalog catalog = this.catalog;
+        return new CandidateRanking(catalog.orgs, catalog.orgIndex, catalog.matchKernel);
+    }
+
+    // Remaining need the priority queue currently holds for an organization (NaN if it is not queued that day)
+    public double getQueuedNeed(CommunityFoodOrg org, int dayIndex) {
+        Catalog catalog = this.catalog;
+        int position = catalog.registry.indexOf(org);
+        int type = org instanceof FoodBank ? FOOD_BANKS : FOOD_PANTRIES;
+        if (position == -1) return Double.NaN;
+        OrgPriorityQueue queue = catalog.needQueues[type][dayIndex];
+        synchronized (queue) {
+            return queue.contains(position) ? queue.getKey(position) : Double.NaN;
+        }
+    }
 }
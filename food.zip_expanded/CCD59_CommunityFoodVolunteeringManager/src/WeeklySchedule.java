@@ -0,0 +1,267 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Class WeeklySchedule
+ *
+ * Any number of time windows per day of the week: the shifts of an organization that runs split
+ * shifts, or the extra availability windows of a volunteer.
+ *
+ * Each day's windows are kept sorted by start minute and indexed by a priority search tree: a
+ * node holds the window with the latest end among its subtree (a max-heap on end) and splits the
+ * rest at the median start. The windows containing [start, end] are those with
+ * windowStart <= start and windowEnd >= end, a three-sided query the tree answers in
+ * O(log n + k) for k results: a subtree is skipped as soon as its latest end is too early, and
+ * the right half as soon as its earliest start is too late.
+ *
+ * Adding a window rebuilds that day's tree (schedules change rarely and are read constantly).
+ * Days are replaced copy-on-write, so readers on other threads never need a lock.
+ */
+public class WeeklySchedule {
+    private static final String[] DAY_NAMES = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday", "Saturday", "Sunday"};
+
+    private volatile Day[] days = new Day[7]; // null for a day without windows
+
+    // One day's windows and their priority search tree, never modified once built
+    private static final class Day {
+        final TimeFrame[] windows;  // sorted by start, then end
+        final int[] nodeStart, nodeEnd, nodeWindow; // per tree node: its window and that window's minutes
+        final int[] left, right;    // child nodes, -1 for none
+        final int[] rightMinStart;  // earliest start in the right subtree
+        final int minStart, maxEnd;
+        private int nodes;
+
+        Day(TimeFrame[] windows) {
+            Arrays.sort(windows, (a, b) -> a.getStartMinuteOfDay() != b.getStartMinuteOfDay()
+                    ? Integer.compare(a.getStartMinuteOfDay(), b.getStartMinuteOfDay())
+                    : Integer.compare(a.getEndMinuteOfDay(), b.getEndMinuteOfDay()));
+            this.windows = windows;
+            int n = windows.length;
+            nodeStart = new int[n];
+            nodeEnd = new int[n];
+            nodeWindow = new int[n];
+            left = new int[n];
+            right = new int[n];
+            rightMinStart = new int[n];
+            int[] items = new int[n];
+            int latest = Integer.MIN_VALUE;
+            for (int i = 0; i < n; i++) {
+                items[i] = i;
+                latest = Math.max(latest, windows[i].getEndMinuteOfDay());
+            }
+            minStart = windows[0].getStartMinuteOfDay();
+            maxEnd = latest;
+            build(items, 0, n);
+        }
+
+        // items[lo, hi) are window positions sorted by start; returns the subtree's root node
+        private int build(int[] items, int lo, int hi) {
+            if (lo >= hi) return -1;
+            int top = lo;
+            for (int i = lo + 1; i < hi; i++) {
+                if (windows[items[i]].getEndMinuteOfDay() > windows[items[top]].getEndMinuteOfDay()) top = i;
+            }
+            int node = nodes++;
+            nodeWindow[node] = items[top];
+            nodeStart[node] = windows[items[top]].getStartMinuteOfDay();
+            nodeEnd[node] = windows[items[top]].getEndMinuteOfDay();
+            System.arraycopy(items, top + 1, items, top, hi - top - 1);
+            hi--;
+            int mid = (lo + hi + 1) >>> 1;
+            rightMinStart[node] = mid < hi ? windows[items[mid]].getStartMinuteOfDay() : Integer.MAX_VALUE;
+            left[node] = build(items, lo, mid);
+            right[node] = build(items, mid, hi);
+            return node;
+        }
+
+        boolean contains(int node, int start, int end) {
+            while (node != -1 && nodeEnd[node] >= end) {
+                if (nodeStart[node] <= start) return true;
+                if (contains(left[node], start, end)) return true;
+                node = rightMinStart[node] <= start ? right[node] : -1;
+            }
+            return false;
+        }
+
+        void collect(int node, int start, int end, List<TimeFrame> out) {
+            if (node == -1 || nodeEnd[node] < end) return;
+            if (nodeStart[node] <= start) out.add(windows[nodeWindow[node]]);
+            collect(left[node], start, end, out);
+            if (rightMinStart[node] <= start) collect(right[node], start, end, out);
+        }
+    }
+
+    public WeeklySchedule() { }
+
+    /**
+     * Method of
+     * @param dailyHours up to one window per day, by day index (null entries are days without windows)
+     * @return a schedule holding those windows
+     */
+    public static WeeklySchedule of(TimeFrame[] dailyHours) {
+        WeeklySchedule schedule = new WeeklySchedule();
+        Day[] built = new Day[7];
+        for (int day = 0; day < 7 && day < dailyHours.length; day++) {
+            if (dailyHours[day] != null) built[day] = new Day(new TimeFrame[]{dailyHours[day]});
+        }
+        schedule.days = built;
+        return schedule;
+    }
+
+    /**
+     * Method add
+     * @param dayIndex the day (0 = Monday)
+     * @param window the window to add to that day
+     */
+    public synchronized void add(int dayIndex, TimeFrame window) {
+        if (window == null) return;
+        Day current = days[dayIndex];
+        TimeFrame[] windows = current == null ? new TimeFrame[1] : Arrays.copyOf(current.windows, current.windows.length + 1);
+        windows[windows.length - 1] = window;
+        replace(dayIndex, new Day(windows));
+    }
+
+    /**
+     * Method add
+     * @param dayName the day, in any case ("Monday" ... "Sunday"); unknown names are ignored
+     * @param window the window to add to that day
+     * @return false if the day name is unknown
+     */
+    public boolean add(String dayName, TimeFrame window) {
+        int dayIndex = dayIndex(dayName);
+        if (dayIndex == -1) return false;
+        add(dayIndex, window);
+        return true;
+    }
+
+    /**
+     * Method setDay
+     * @param dayIndex the day (0 = Monday)
+     * @param window the day's only window from now on, or null to clear the day
+     */
+    public synchronized void setDay(int dayIndex, TimeFrame window) {
+        replace(dayIndex, window != null ? new Day(new TimeFrame[]{window}) : null);
+    }
+
+    private void replace(int dayIndex, Day day) {
+        Day[] copy = days.clone();
+        copy[dayIndex] = day;
+        days = copy;
+    }
+
+    /**
+     * Method containsWindow
+     * @param dayIndex the day (0 = Monday; any other value has no windows)
+     * @param startMinute start of the window to fit, in minutes since midnight
+     * @param endMinute end of the window to fit, in minutes since midnight
+     * @return true if one of the day's windows fully contains [startMinute, endMinute], as
+     *         TimeFrame.timeFrameMatch decides for a single window
+     */
+    public boolean containsWindow(int dayIndex, int startMinute, int endMinute) {
+        if (dayIndex < 0 || dayIndex >= 7) return false;
+        Day day = days[dayIndex];
+        if (day == null || startMinute < day.minStart || endMinute > day.maxEnd) return false;
+        return day.contains(0, startMinute, endMinute);
+    }
+
+    public boolean containsWindow(int dayIndex, TimeFrame window) {
+        return containsWindow(dayIndex, window.getStartMinuteOfDay(), window.getEndMinuteOfDay());
+    }
+
+    /**
+     * Method findContaining
+     * @param dayIndex the day (0 = Monday)
+     * @param window the window to fit
+     * @return every window of that day that fully contains it (in no particular order)
+     */
+    public List<TimeFrame> findContaining(int dayIndex, TimeFrame window) {
+        if (dayIndex < 0 || dayIndex >= 7 || days[dayIndex] == null) return Collections.emptyList();
+        List<TimeFrame> found = new ArrayList<>();
+        days[dayIndex].collect(0, window.getStartMinuteOfDay(), window.getEndMinuteOfDay(), found);
+        return found;
+    }
+
+    /**
+     * Method getWindows
+     * @param dayIndex the day (0 = Monday)
+     * @return the day's windows, earliest start first
+     */
+    public List<TimeFrame> getWindows(int dayIndex) {
+        Day day = days[dayIndex];
+        return day == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(day.windows));
+    }
+
+    // Number of windows on a day, and the window at a position of getWindows (for loops that allocate nothing)
+    public int count(int dayIndex) {
+        Day day = days[dayIndex];
+        return day == null ? 0 : day.windows.length;
+    }
+
+    public TimeFrame getWindow(int dayIndex, int position) {
+        return days[dayIndex].windows[position];
+    }
+
+    /**
+     * Method span
+     * @param dayIndex the day (0 = Monday)
+     * @return a window from the earliest start to the latest end that day (the window itself when
+     *         there is only one), or null for a day without windows
+     */
+    public TimeFrame span(int dayIndex) {
+        Day day = days[dayIndex];
+        if (day == null) return null;
+        if (day.windows.length == 1) return day.windows[0];
+        return new TimeFrame(day.minStart / 60, day.minStart % 60, day.maxEnd / 60, day.maxEnd % 60);
+    }
+
+    /**
+     * Method hasSplitDays
+     * @return true if any day has more than one window
+     */
+    public boolean hasSplitDays() {
+        for (Day day : days) {
+            if (day != null && day.windows.length > 1) return true;
+        }
+        return false;
+    }
+
+    public boolean isEmpty() {
+        for (Day day : days) {
+            if (day != null) return false;
+        }
+        return true;
+    }
+
+    // Day name for an index, and the index of a day name in any case (-1 if unknown)
+    public static String dayName(int dayIndex) {
+        return DAY_NAMES[dayIndex];
+    }
+
+    public static int dayIndex(String dayName) {
+        for (int i = 0; i < DAY_NAMES.length; i++) {
+            if (DAY_NAMES[i].equalsIgnoreCase(dayName)) return i;
+        }
+        return -1;
+    }
+
+    // "Monday@09:00@12:00;Monday@13:00@17:00" form, as in the data files
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int day = 0; day < 7; day++) {
+            for (int i = 0; i < count(day); i++) {
+                TimeFrame window = getWindow(day, i);
+                if (text.length() > 0) text.append(';');
+                text.append(DAY_NAMES[day]).append('@').append(clock(window.getStartMinuteOfDay()))
+                    .append('@').append(clock(window.getEndMinuteOfDay()));
+            }
+        }
+        return text.toString();
+    }
+
+    private static String clock(int minuteOfDay) {
+        return String.format("%02d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+}
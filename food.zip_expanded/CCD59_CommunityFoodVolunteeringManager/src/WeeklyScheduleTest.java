@@ -0,0 +1,279 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class WeeklyScheduleTest
+ *
+ * Checks multi-slot availability and split shifts:
+ * - WeeklySchedule.containsWindow and findContaining against a scan of every window, on random
+ *   overlapping schedules of up to 64 windows a day
+ * - Volunteer.orgMatch, Volunteer.mismatchMask and MatchKernel against a direct reading of the
+ *   rules, for organizations with split shifts and volunteers with several windows
+ * - signup and cancel on an additional window's day, through VolunteeringManager and the journal
+ * - DataManager, StreamingDataReader and SnapshotStore reading the same split shifts and windows
+ * Prints PASS or FAIL for each part.
+ *
+ * Usage: java WeeklyScheduleTest [pairs] [seed]
+ */
+public class WeeklyScheduleTest {
+
+    public static void main(String[] args) throws IOException {
+        int pairs = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 7;
+        Random random = new Random(seed);
+
+        PrintStream console = System.out;
+        System.setOut(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) { }
+        }));
+        boolean pass = true;
+        try {
+            pass &= report(console, "interval index", checkIndex(random, pairs));
+            pass &= report(console, "orgMatch / mismatchMask / MatchKernel", checkMatching(random, pairs));
+            pass &= report(console, "signup on an additional window", checkSignup());
+            pass &= report(console, "text, streaming and snapshot loading", checkLoading());
+        } finally {
+            EventLog.flush();
+            System.setOut(console);
+        }
+        console.println(pass ? "PASS" : "FAIL");
+        if (!pass) System.exit(1);
+    }
+
+    private static boolean report(PrintStream console, String name, List<String> failures) {
+        console.printf("%-40s %s%n", name, failures.isEmpty() ? "ok" : failures.size() + " failures");
+        for (int i = 0; i < Math.min(10, failures.size()); i++) console.println("  " + failures.get(i));
+        return failures.isEmpty();
+    }
+
+    private static List<String> checkIndex(Random random, int queries) {
+        List<String> failures = new ArrayList<>();
+        for (int round = 0; round < 200; round++) {
+            WeeklySchedule schedule = new WeeklySchedule();
+            int count = random.nextInt(65);
+            for (int i = 0; i < count; i++) schedule.add(random.nextInt(7), randomWindow(random));
+            for (int q = 0; q < queries / 200; q++) {
+                int day = random.nextInt(7);
+                TimeFrame window = randomWindow(random);
+                int expected = 0;
+                for (TimeFrame shift : schedule.getWindows(day)) {
+                    if (window.timeFrameMatch(shift)) expected++;
+                }
+                List<TimeFrame> found = schedule.findContaining(day, window);
+                boolean allContain = true;
+                for (TimeFrame shift : found) allContain &= window.timeFrameMatch(shift);
+                if (found.size() != expected || !allContain || schedule.containsWindow(day, window) != (expected > 0)) {
+                    failures.add("day " + day + " window " + minutes(window) + ": expected " + expected
+                            + " containing, found " + found.size() + " in " + schedule);
+                }
+            }
+        }
+        return failures;
+    }
+
+    private static List<String> checkMatching(Random random, int pairs) {
+        ArrayList<CommunityFoodOrg> orgs = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            TimeFrame[] hours = new TimeFrame[7];
+            Location location = new Location(40 + random.nextDouble(), -80 + random.nextDouble(), "", "", "", "");
+            CommunityFoodOrg org = random.nextBoolean()
+                    ? new FoodPantry("p" + i, "Pantry " + i, location, hours, new int[]{3, 3, 3, 3, 3, 3, 3}, new int[7], random.nextBoolean())
+                    : new FoodBank("b" + i, "Bank " + i, location, hours, 500, new double[]{500, 500, 500, 500, 500, 500, 500});
+            int shifts = random.nextInt(8);
+            for (int s = 0; s < shifts; s++) org.addShift(randomWindow(random), WeeklySchedule.dayName(random.nextInt(7)));
+            orgs.add(org);
+        }
+        ArrayList<Volunteer> volunteers = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Location location = new Location(40 + random.nextDouble(), -80 + random.nextDouble(), "", "", "", "");
+            Volunteer volunteer = new Volunteer("v" + i, "Volunteer " + i, 30, location, WeeklySchedule.dayName(random.nextInt(7)),
+                    randomWindow(random), 20 + random.nextInt(60), random.nextBoolean(), random.nextBoolean() ? 0 : 50);
+            int extra = random.nextInt(3) == 0 ? 0 : random.nextInt(5);
+            for (int w = 0; w < extra; w++) volunteer.addAvailability(WeeklySchedule.dayName(random.nextInt(7)), randomWindow(random));
+            volunteers.add(volunteer);
+        }
+
+        MatchKernel kernel = new MatchKernel(orgs);
+        MatchKernel.Query query = new MatchKernel.Query();
+        List<String> failures = new ArrayList<>();
+        for (int p = 0; p < pairs; p++) {
+            Volunteer volunteer = volunteers.get(random.nextInt(volunteers.size()));
+            int orgIndex = random.nextInt(orgs.size());
+            CommunityFoodOrg org = orgs.get(orgIndex);
+            int expected = expectedMask(volunteer, org);
+            boolean orgMatch = volunteer.orgMatch(org);
+            query.set(volunteer);
+            if (orgMatch != (expected == 0) || volunteer.mismatchMask(org) != expected
+                    || kernel.matches(query, orgIndex) != (expected == 0) || kernel.mismatchMask(query, orgIndex) != expected) {
+                failures.add(volunteer.getId() + " / " + org.getId() + ": expected mask " + expected + ", orgMatch " + orgMatch
+                        + ", mismatchMask " + volunteer.mismatchMask(org) + ", kernel " + kernel.mismatchMask(query, orgIndex));
+            }
+            int day = volunteer.matchingDayIndex(org);
+            if ((expected & (Volunteer.MISMATCH_CLOSED | Volunteer.MISMATCH_TIME)) == 0 ? day < 0 : day >= 0) {
+                failures.add(volunteer.getId() + " / " + org.getId() + ": matching day " + day + " with mask " + expected);
+            }
+        }
+        return failures;
+    }
+
+    // The matching rules read directly: some window of the volunteer inside some shift of the org
+    private static int expectedMask(Volunteer volunteer, CommunityFoodOrg org) {
+        int mask = 0;
+        if (volunteer.getDonation() > 0 ? !(org instanceof FoodBank) : !(org instanceof FoodPantry)) mask |= Volunteer.MISMATCH_TYPE;
+        WeeklySchedule windows = new WeeklySchedule();
+        windows.add(volunteer.getDayAvailable(), volunteer.getTimeAvailable());
+        WeeklySchedule additional = volunteer.getAdditionalAvailability();
+        for (int day = 0; day < 7 && additional != null; day++) {
+            for (TimeFrame window : additional.getWindows(day)) windows.add(day, window);
+        }
+        WeeklySchedule shifts = org.getShifts();
+        boolean open = false, fits = false;
+        for (int day = 0; day < 7; day++) {
+            if (windows.count(day) == 0 || shifts.count(day) == 0) continue;
+            open = true;
+            for (TimeFrame window : windows.getWindows(day)) {
+                for (TimeFrame shift : shifts.getWindows(day)) fits |= window.timeFrameMatch(shift);
+            }
+        }
+        if (!open) mask |= Volunteer.MISMATCH_CLOSED;
+        else if (!fits) mask |= Volunteer.MISMATCH_TIME;
+        if (volunteer.needsTransportation() && !org.isOffersTransportation()) mask |= Volunteer.MISMATCH_TRANSPORT;
+        if (volunteer.getLocation().distance(org.getLocation()) > volunteer.getDistanceAvailable()) mask |= Volunteer.MISMATCH_DISTANCE;
+        return mask;
+    }
+
+    private static List<String> checkSignup() throws IOException {
+        List<String> failures = new ArrayList<>();
+        File dir = tempDir("weekly-schedule");
+        File orgsFile = new File(dir, "orgs.txt"), volunteersFile = new File(dir, "volunteers.txt");
+        try (PrintWriter out = new PrintWriter(orgsFile, "UTF-8")) {
+            // open Monday, but only Tuesday afternoon has a shift the volunteer fits
+            out.println("Food Pantry;1;Split Pantry;40.44;-79.99;1 Main St;Pittsburgh;PA;15213;yes;"
+                    + "Monday@08:00@09:00@2;Tuesday@08:00@10:00@1;Tuesday@13:00@17:00@1");
+        }
+        try (PrintWriter out = new PrintWriter(volunteersFile, "UTF-8")) {
+            out.println("1;Ada;Lovelace;30;40.44;-79.99;2 Main St;Pittsburgh;PA;Monday;12:00;14:00;10;no;0;"
+                    + "Tuesday@14:00@16:00");
+        }
+        VolunteeringManager manager = new VolunteeringManager(orgsFile.getPath(), volunteersFile.getPath());
+        File journalFile = new File(dir, "signups.journal");
+        SignupJournal journal = new SignupJournal(journalFile, 2, true);
+        manager.attachJournal(journal);
+        Volunteer volunteer = manager.getVolunteers().get(0);
+        CommunityFoodOrg org = manager.getOrgs().get(0);
+        if (!manager.signUpVolunteerToPriorityOrg(volunteer)) failures.add("volunteer was not signed up");
+        if (!"Tuesday".equals(volunteer.getSignedUpDay())) failures.add("signed up for " + volunteer.getSignedUpDay());
+        if (org.getDailyVolunteerSignups()[1] != 1 || org.getDailyVolunteerSignups()[0] != 0) {
+            failures.add("signups Monday " + org.getDailyVolunteerSignups()[0] + ", Tuesday " + org.getDailyVolunteerSignups()[1]);
+        }
+        journal.close();
+
+        // a restart replays the Tuesday signup
+        VolunteeringManager restarted = new VolunteeringManager(orgsFile.getPath(), volunteersFile.getPath());
+        SignupJournal reopened = new SignupJournal(journalFile, 2, true);
+        restarted.attachJournal(reopened);
+        Volunteer replayed = restarted.getVolunteers().get(0);
+        if (replayed.getOrgVolunteering() == null || !"Tuesday".equals(replayed.getSignedUpDay())) {
+            failures.add("replay restored " + replayed.getOrgVolunteering() + " on " + replayed.getSignedUpDay());
+        }
+        restarted.cancelSignup(replayed);
+        if (restarted.getOrgs().get(0).getDailyVolunteerSignups()[1] != 0) failures.add("cancel left the Tuesday signup");
+        reopened.close();
+        deleteAll(dir);
+        return failures;
+    }
+
+    private static List<String> checkLoading() throws IOException {
+        List<String> failures = new ArrayList<>();
+        File dir = tempDir("weekly-schedule-load");
+        File orgsFile = new File(dir, "orgs.txt"), volunteersFile = new File(dir, "volunteers.txt");
+        try (PrintWriter out = new PrintWriter(orgsFile, "UTF-8")) {
+            out.println("Food Bank;1;Split Bank;40.44;-79.99;1 Main St;Pittsburgh;PA;15213;no;800;"
+                    + "Monday@08:00@11:00;Monday@15:00@19:30;Friday@09:00@12:00");
+            out.println("Food Pantry;2;Split Pantry;40.45;-79.98;3 Main St;Pittsburgh;PA;15213;yes;"
+                    + "Wednesday@07:00@09:00@2;Wednesday@17:00@21:00@3;Saturday@10:00@14:00@4");
+        }
+        try (PrintWriter out = new PrintWriter(volunteersFile, "UTF-8")) {
+            out.println("1;Ada;Lovelace;30;40.44;-79.99;2 Main St;Pittsburgh;PA;Monday;15:30;17:00;10;no;40;"
+                    + "Friday@09:30@11:00;Monday@08:00@09:00");
+            out.println("2;Alan;Turing;41;40.45;-79.98;4 Main St;Pittsburgh;PA;Saturday;10:00;12:00;10;yes;0");
+        }
+
+        ArrayList<CommunityFoodOrg> orgs = DataManager.readCommunityFoodOrgs(orgsFile.getPath());
+        ArrayList<Volunteer> volunteers = DataManager.readVolunteers(volunteersFile.getPath());
+        ArrayList<CommunityFoodOrg> streamedOrgs = new ArrayList<>();
+        ArrayList<Volunteer> streamedVolunteers = new ArrayList<>();
+        StreamingDataReader.streamCommunityFoodOrgs(orgsFile.getPath(), streamedOrgs::add);
+        StreamingDataReader.streamVolunteers(volunteersFile.getPath(), streamedVolunteers::add);
+
+        String bankShifts = "Monday@08:00@11:00;Monday@15:00@19:30;Friday@09:00@12:00";
+        if (!bankShifts.equals(orgs.get(0).getShifts().toString())) failures.add("bank shifts " + orgs.get(0).getShifts());
+        if (orgs.get(1).getDailyVolunteersNeeded()[2] != 5) failures.add("pantry Wednesday needs " + orgs.get(1).getDailyVolunteersNeeded()[2]);
+        TimeFrame span = orgs.get(0).getDailyOpenHours()[0];
+        if (span.getStartMinuteOfDay() != 8 * 60 || span.getEndMinuteOfDay() != 19 * 60 + 30) failures.add("bank Monday span " + minutes(span));
+        if (!"Monday@08:00@09:00;Friday@09:30@11:00".equals(String.valueOf(volunteers.get(0).getAdditionalAvailability()))) {
+            failures.add("volunteer windows " + volunteers.get(0).getAdditionalAvailability());
+        }
+        if (volunteers.get(1).hasAdditionalAvailability()) failures.add("volunteer without windows got some");
+        compare(failures, "streaming", orgs, volunteers, streamedOrgs, streamedVolunteers);
+
+        // a signup on an additional day survives the snapshot
+        volunteers.get(0).signUp(orgs.get(0));
+        File snapshotFile = new File(dir, "snapshot.bin");
+        SnapshotStore.write(snapshotFile, orgs, volunteers, orgsFile.getPath(), volunteersFile.getPath());
+        SnapshotStore snapshot = SnapshotStore.read(snapshotFile);
+        compare(failures, "snapshot", orgs, volunteers, snapshot.getOrgs(), snapshot.getVolunteers());
+        Volunteer restored = snapshot.getVolunteers().get(0);
+        if (!"Monday".equals(volunteers.get(0).getSignedUpDay()) || !"Monday".equals(restored.getSignedUpDay())) {
+            failures.add("signup day " + volunteers.get(0).getSignedUpDay() + ", restored " + restored.getSignedUpDay());
+        }
+        deleteAll(dir);
+        return failures;
+    }
+
+    private static void compare(List<String> failures, String source, List<CommunityFoodOrg> orgs, List<Volunteer> volunteers,
+                                List<CommunityFoodOrg> otherOrgs, List<Volunteer> otherVolunteers) {
+        for (int i = 0; i < orgs.size(); i++) {
+            String expected = orgs.get(i).getShifts().toString(), actual = otherOrgs.get(i).getShifts().toString();
+            if (!expected.equals(actual)) failures.add(source + " org " + i + " shifts " + actual + ", expected " + expected);
+            if (orgs.get(i).hasSplitShifts() != otherOrgs.get(i).hasSplitShifts()) failures.add(source + " org " + i + " split flag");
+        }
+        for (int i = 0; i < volunteers.size(); i++) {
+            String expected = String.valueOf(volunteers.get(i).getAdditionalAvailability());
+            String actual = String.valueOf(otherVolunteers.get(i).getAdditionalAvailability());
+            if (!expected.equals(actual)) failures.add(source + " volunteer " + i + " windows " + actual + ", expected " + expected);
+        }
+    }
+
+    // Mostly short windows so that containment is neither rare nor certain
+    private static TimeFrame randomWindow(Random random) {
+        int start = random.nextInt(22 * 60);
+        int end = Math.min(23 * 60 + 59, start + 15 + random.nextInt(random.nextBoolean() ? 180 : 600));
+        return new TimeFrame(start / 60, start % 60, end / 60, end % 60);
+    }
+
+    private static String minutes(TimeFrame window) {
+        return window.getStartMinuteOfDay() + "-" + window.getEndMinuteOfDay();
+    }
+
+    private static File tempDir(String prefix) throws IOException {
+        File dir = File.createTempFile(prefix, "");
+        if (!dir.delete() || !dir.mkdir()) throw new IOException("Cannot create " + dir);
+        return dir;
+    }
+
+    private static void deleteAll(File dir) {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) file.delete();
+        }
+        dir.delete();
+    }
+}